@@ -15,6 +15,10 @@ dependencies {
     // Use Soot as frontend
     implementation(files("lib/sootclasses-modified.jar"))
     implementation("org.soot-oss:soot:4.3.0-20211223.212205-256")
+    // Use ASM as the alternative frontend
+    implementation("org.ow2.asm:asm:9.2")
+    implementation("org.ow2.asm:asm-tree:9.2")
+    implementation("org.ow2.asm:asm-commons:9.2")
     // Eliminate SLF4J warning
     implementation("org.slf4j:slf4j-nop:1.7.5")
 
@@ -22,6 +22,12 @@
 
 package pascal.taie;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.plugin.reflection.ReflectionLog;
+import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.natives.DefaultNativeModel;
@@ -31,8 +37,10 @@ import pascal.taie.language.type.TypeSystem;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -44,6 +52,12 @@ public abstract class AbstractWorldBuilder implements WorldBuilder {
 
     protected static final String JREs = "java-benchmarks/JREs";
 
+    /**
+     * Path to the file which specifies the basic classes that should be
+     * loaded in advance.
+     */
+    private static final String BASIC_CLASSES = "basic-classes.yml";
+
     protected static final List<String> implicitEntries = List.of(
             "<java.lang.System: void initializeSystemClass()>",
             "<java.lang.Thread: void <init>(java.lang.ThreadGroup,java.lang.Runnable)>",
@@ -64,29 +78,77 @@ public abstract class AbstractWorldBuilder implements WorldBuilder {
         if (options.isPrependJVM()) {
             return options.getClassPath();
         } else { // when prependJVM is not set, we manually specify JRE jars
-            // check existence of JREs
-            File jreDir = new File(JREs);
-            if (!jreDir.exists()) {
-                throw new RuntimeException("""
-                        Failed to locate Java library.
-                        Please clone submodule 'java-benchmarks' by command:
-                        git submodule update --init --recursive
-                        and put it in Tai-e's working directory.""");
-            }
-            String jrePath = String.format("%s/jre1.%d",
-                    JREs, options.getJavaVersion());
-            try (Stream<Path> paths = Files.walk(Path.of(jrePath))) {
-                return Stream.concat(
-                                paths.map(Path::toString).filter(p -> p.endsWith(".jar")),
-                                Stream.of(options.getClassPath()))
-                        .collect(Collectors.joining(File.pathSeparator));
-            } catch (IOException e) {
-                throw new RuntimeException("Analysis on Java " +
-                        options.getJavaVersion() + " library is not supported yet", e);
-            }
+            return Stream.concat(getJREJars(options).stream(),
+                            Stream.of(options.getClassPath()))
+                    .collect(Collectors.joining(File.pathSeparator));
+        }
+    }
+
+    /**
+     * @return the jar files of the Java library whose version is
+     * specified by {@code options}.
+     */
+    protected static List<String> getJREJars(Options options) {
+        // check existence of JREs
+        File jreDir = new File(JREs);
+        if (!jreDir.exists()) {
+            throw new RuntimeException("""
+                    Failed to locate Java library.
+                    Please clone submodule 'java-benchmarks' by command:
+                    git submodule update --init --recursive
+                    and put it in Tai-e's working directory.""");
+        }
+        String jrePath = String.format("%s/jre1.%d",
+                JREs, options.getJavaVersion());
+        try (Stream<Path> paths = Files.walk(Path.of(jrePath))) {
+            return paths.map(Path::toString)
+                    .filter(p -> p.endsWith(".jar"))
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Analysis on Java " +
+                    options.getJavaVersion() + " library is not supported yet", e);
         }
     }
 
+    /**
+     * @return the basic classes specified by file {@link #BASIC_CLASSES}.
+     */
+    protected static List<String> getBasicClasses() {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        JavaType type = mapper.getTypeFactory()
+                .constructCollectionType(List.class, String.class);
+        try {
+            InputStream content = AbstractWorldBuilder.class
+                    .getClassLoader()
+                    .getResourceAsStream(BASIC_CLASSES);
+            return mapper.readValue(content, type);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read basic classes", e);
+        }
+    }
+
+    /**
+     * @return the classes in the reflection log given to pointer analysis
+     * in {@code plan}. The log is parsed once and shared with
+     * the reflection analysis of pointer analysis.
+     * <p>
+     * TODO: this is a tentative solution. We should remove it and use other
+     *  way to load basic classes in the reflection log, so that world builder
+     *  does not depend on analysis plan.
+     */
+    protected static List<String> getReflectionLogClasses(List<AnalysisConfig> plan) {
+        List<String> classes = new ArrayList<>();
+        plan.forEach(config -> {
+            if (config.getId().equals(PointerAnalysis.ID)) {
+                String path = config.getOptions().getString("reflection-log");
+                if (path != null) {
+                    classes.addAll(ReflectionLog.load(path).getTargetClasses());
+                }
+            }
+        });
+        return classes;
+    }
+
     protected static NativeModel getNativeModel(
             TypeSystem typeSystem, ClassHierarchy hierarchy) {
         return World.get().getOptions().enableNativeModel() ?
@@ -32,6 +32,8 @@ import pascal.taie.config.Configs;
 import pascal.taie.config.Options;
 import pascal.taie.config.PlanConfig;
 import pascal.taie.config.Scope;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.util.Timer;
 import pascal.taie.util.collection.Lists;
 
@@ -119,16 +121,17 @@ public class Main {
                 Constructor<? extends WorldBuilder> builderCtor = builderClass.getConstructor();
                 WorldBuilder builder = builderCtor.newInstance();
                 builder.build(options, plan);
-                logger.info("{} classes with {} methods in the world",
-                        World.get()
-                                .getClassHierarchy()
-                                .allClasses()
-                                .count(),
-                        World.get()
-                                .getClassHierarchy()
-                                .allClasses()
-                                .mapToInt(c -> c.getDeclaredMethods().size())
-                                .sum());
+                ClassHierarchy hierarchy = World.get().getClassHierarchy();
+                if (options.isLazyWorld()) {
+                    // counting methods would materialize all classes
+                    logMaterializedClasses(hierarchy);
+                } else {
+                    logger.info("{} classes with {} methods in the world",
+                            hierarchy.allClasses().count(),
+                            hierarchy.allClasses()
+                                    .mapToInt(c -> c.getDeclaredMethods().size())
+                                    .sum());
+                }
             } catch (InstantiationException | IllegalAccessException |
                     NoSuchMethodException | InvocationTargetException e) {
                 System.err.println("Failed to build world due to " + e);
@@ -140,5 +143,17 @@ public class Main {
     private static void executePlan(List<AnalysisConfig> plan) {
         AnalysisManager analysisManager = new AnalysisManager();
         analysisManager.execute(plan);
+        if (World.get().getOptions().isLazyWorld()) {
+            logMaterializedClasses(World.get().getClassHierarchy());
+        }
+    }
+
+    /**
+     * Logs how many classes have been materialized in lazy world mode.
+     */
+    private static void logMaterializedClasses(ClassHierarchy hierarchy) {
+        logger.info("{} classes in the world, {} of them are materialized",
+                hierarchy.allClasses().count(),
+                hierarchy.allClasses().filter(JClass::isMaterialized).count());
     }
 }
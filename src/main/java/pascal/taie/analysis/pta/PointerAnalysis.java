@@ -25,16 +25,22 @@ package pascal.taie.analysis.pta;
 import org.apache.logging.log4j.Level;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
-import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.ConfigurableHeapModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.HeapModelFactory;
 import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.ParallelSolver;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.AnalysisTimer;
 import pascal.taie.analysis.pta.plugin.ClassInitializer;
 import pascal.taie.analysis.pta.plugin.CompositePlugin;
+import pascal.taie.analysis.pta.plugin.IRPrefetcher;
 import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.plugin.ReferenceHandler;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
@@ -45,6 +51,7 @@ import pascal.taie.analysis.pta.plugin.invokedynamic.LambdaAnalysis;
 import pascal.taie.analysis.pta.plugin.natives.NativeModeller;
 import pascal.taie.analysis.pta.plugin.reflection.ReflectionAnalysis;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.snapshot.Snapshots;
 import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
 import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
 import pascal.taie.config.AnalysisConfig;
@@ -52,10 +59,14 @@ import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.Set;
 
 public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
@@ -67,8 +78,37 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
     @Override
     public PointerAnalysisResult analyze() {
+        return analyze(HeapModelFactory.make(getOptions()));
+    }
+
+    /**
+     * Runs pointer analysis with given heap model, so that the objects
+     * in the result are shared with other users of the heap model.
+     */
+    public PointerAnalysisResult analyze(HeapModel heapModel) {
+        PointerAnalysisResult result = analyzeWith(heapModel);
+        // store the heap model, so that the analyses using the result
+        // can obtain the same objects as the ones in the result
+        result.storeResult(HeapModel.class.getName(), heapModel);
+        return result;
+    }
+
+    private PointerAnalysisResult analyzeWith(HeapModel heapModel) {
+        AnalysisOptions options = getOptions();
+        String action = options.getString("action");
+        if ("load".equals(action)) {
+            // reuse the result saved by a previous run
+            return Snapshots.load(options.getString("action-file"), heapModel);
+        }
+        if ("incremental".equals(action)) {
+            return Snapshots.loadOrSolve(options.getString("action-file"),
+                    options, heapModel, () -> solve(heapModel));
+        }
+        return solve(heapModel);
+    }
+
+    private PointerAnalysisResult solve(HeapModel heapModel) {
         AnalysisOptions options = getOptions();
-        HeapModel heapModel = new AllocationSiteBasedModel(options);
         ContextSelector selector = null;
         String advanced = options.getString("advanced");
         String cs = options.getString("cs");
@@ -77,12 +117,18 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             PointerAnalysisResult preResult = runAnalysis(heapModel,
                     ContextSelectorFactory.makeCISelector());
             if (advanced.startsWith("scaler")) {
+                @SuppressWarnings("unchecked")
+                List<String> variants = (List<String>) options.get("scaler-variants");
+                int nThreads = options.getInt("advanced-threads");
                 selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                .makeGuidedSelector(Scaler.run(preResult, advanced)),
+                                .makeGuidedSelector(Scaler.run(
+                                        preResult, advanced, variants, nThreads)),
                         "Scaler", Level.INFO);
             } else if (advanced.startsWith("zipper")) {
+                int nThreads = options.getInt("advanced-threads");
                 selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                .makeSelectiveSelector(cs, Zipper.run(preResult, advanced)),
+                                .makeSelectiveSelector(cs,
+                                        Zipper.run(preResult, advanced, nThreads)),
                         "Zipper", Level.INFO);
             } else {
                 throw new IllegalArgumentException(
@@ -98,16 +144,45 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
                                               ContextSelector selector) {
         AnalysisOptions options = getOptions();
-        Solver solver = new DefaultSolver(options,
-                heapModel, selector, new MapBasedCSManager());
+        Solver solver = makeSolver(options,
+                heapModel, selector, makeCSManager(options));
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
         setPlugin(solver, options);
         solver.solve();
+        if (heapModel instanceof ConfigurableHeapModel model) {
+            model.logStatistics(solver.getCSManager()
+                    .getObjects()
+                    .stream()
+                    .map(CSObj::getObject));
+        }
         return solver.getResult();
     }
 
+    private static CSManager makeCSManager(AnalysisOptions options) {
+        String csManager = options.getString("cs-manager");
+        if (csManager.equals("map")) {
+            return new MapBasedCSManager();
+        } else if (csManager.equals("array")) {
+            return new ArrayBasedCSManager();
+        } else {
+            throw new ConfigException("Unknown CS manager: " + csManager);
+        }
+    }
+
+    private static Solver makeSolver(AnalysisOptions options, HeapModel heapModel,
+                                     ContextSelector selector, CSManager csManager) {
+        String solver = options.getString("solver");
+        if (solver.equals("default")) {
+            return new DefaultSolver(options, heapModel, selector, csManager);
+        } else if (solver.equals("parallel")) {
+            return new ParallelSolver(options, heapModel, selector, csManager);
+        } else {
+            throw new ConfigException("Unknown solver: " + solver);
+        }
+    }
+
     private static void setPlugin(Solver solver, AnalysisOptions options) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
@@ -131,8 +206,10 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
                 InvokeDynamicAnalysis.useMethodHandle()) {
             plugin.addPlugin(new InvokeDynamicAnalysis());
         }
-        if (options.getString("taint-config") != null) {
-            plugin.addPlugin(new TaintAnalysis());
+        addTaintAnalyses(plugin, options.get("taint-config"));
+        if (World.get().getOptions().isPrefetchIR() &&
+                !World.get().getOptions().isPreBuildIR()) {
+            plugin.addPlugin(new IRPrefetcher());
         }
         plugin.addPlugin(new ResultProcessor());
         // add plugins specified in options
@@ -143,6 +220,34 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         solver.setPlugin(plugin);
     }
 
+    /**
+     * Adds taint analyses for given taint config(s). When a list of configs
+     * is given, each config is analyzed by its own taint analysis, so that
+     * all configs are analyzed in the same pointer analysis run.
+     */
+    private static void addTaintAnalyses(CompositePlugin plugin,
+                                         @Nullable Object taintConfig) {
+        if (taintConfig instanceof String configPath) {
+            plugin.addPlugin(new TaintAnalysis(configPath, null));
+        } else if (taintConfig instanceof List<?> configPaths) {
+            Set<String> names = Sets.newSet();
+            for (Object path : configPaths) {
+                String configPath = path.toString();
+                // name each config after its file name
+                String fileName = new File(configPath).getName();
+                int dot = fileName.lastIndexOf('.');
+                String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+                String name = baseName;
+                for (int i = 1; !names.add(name); ++i) {
+                    name = baseName + "-" + i;
+                }
+                plugin.addPlugin(new TaintAnalysis(configPath, name));
+            }
+        } else if (taintConfig != null) {
+            throw new ConfigException("Illegal taint-config: " + taintConfig);
+        }
+    }
+
     private static void addPlugins(CompositePlugin plugin,
                                    List<String> pluginClasses) {
         for (String pluginClass : pluginClasses) {
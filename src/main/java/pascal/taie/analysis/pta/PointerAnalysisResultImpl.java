@@ -37,6 +37,8 @@ import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.CompactPointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.ir.exp.ArrayAccess;
 import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.StaticFieldAccess;
@@ -92,6 +94,11 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
      */
     private final Set<Obj> objects;
 
+    /**
+     * Context-insensitive projections of shared compact points-to sets.
+     */
+    private final Map<PointsToSet, Set<Obj>> compactPointsTo = Maps.newConcurrentMap(1024);
+
     /**
      * Canonicalizes (context-insensitive) points-to set.
      */
@@ -163,10 +170,19 @@ public class PointerAnalysisResultImpl extends AbstractResultHolder
 
     @Override
     public Set<Obj> getPointsToSet(Var var) {
-        return varPointsTo.computeIfAbsent(var, v ->
-                removeContexts(csManager.getCSVarsOf(var)
-                        .stream()
-                        .flatMap(Pointer::objects)));
+        return varPointsTo.computeIfAbsent(var, v -> {
+            Collection<CSVar> csVars = csManager.getCSVarsOf(var);
+            if (csVars.size() == 1) {
+                PointsToSet pts = csVars.iterator().next().getPointsToSet();
+                if (pts instanceof CompactPointsToSet) {
+                    // compact sets are shared by the pointers pointing to
+                    // the same objects, thus we reuse their projections
+                    return compactPointsTo.computeIfAbsent(pts,
+                            s -> removeContexts(s.objects()));
+                }
+            }
+            return removeContexts(csVars.stream().flatMap(Pointer::objects));
+        });
     }
 
     @Override
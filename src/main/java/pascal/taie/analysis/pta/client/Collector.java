@@ -51,8 +51,8 @@ abstract class Collector extends ProgramAnalysis<StmtResult<Boolean>> {
 
     @Override
     public StmtResult<Boolean> analyze() {
-        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
-        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        PointerAnalysisResult result = getPointerAnalysisResult();
+        CallGraph<Invoke, JMethod> callGraph = getCallGraph(result);
         Set<Stmt> wantedStmts = Sets.newSet();
         int nRelevantStmts = 0;
         int nWantedAppStmts = 0, nRelevantAppStmts = 0;
@@ -94,6 +94,20 @@ abstract class Collector extends ProgramAnalysis<StmtResult<Boolean>> {
         };
     }
 
+    /**
+     * @return the pointer analysis result used by the client.
+     */
+    PointerAnalysisResult getPointerAnalysisResult() {
+        return World.get().getResult(PointerAnalysis.ID);
+    }
+
+    /**
+     * @return the call graph whose reachable methods are examined.
+     */
+    CallGraph<Invoke, JMethod> getCallGraph(PointerAnalysisResult result) {
+        return result.getCallGraph();
+    }
+
     /**
      * @return {@code true} if the given statement is relevant to the client.
      */
@@ -23,12 +23,17 @@
 package pascal.taie.analysis.pta.client;
 
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.demand.DemandPointerAnalysisResult;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 
 public class MayFailCast extends Collector {
@@ -39,6 +44,21 @@ public class MayFailCast extends Collector {
         super(config);
     }
 
+    @Override
+    PointerAnalysisResult getPointerAnalysisResult() {
+        return World.get().getResult(getOptions().getString("pta-result"));
+    }
+
+    @Override
+    CallGraph<Invoke, JMethod> getCallGraph(PointerAnalysisResult result) {
+        // demand-driven pointer analysis does not build call graph,
+        // thus we examine the methods reachable in the given call graph
+        // (e.g., built by CHA), instead of triggering whole-program analysis
+        return result instanceof DemandPointerAnalysisResult ?
+                World.get().getResult(CallGraphBuilder.ID) :
+                result.getCallGraph();
+    }
+
     @Override
     boolean isRelevant(Stmt stmt) {
         return stmt instanceof Cast;
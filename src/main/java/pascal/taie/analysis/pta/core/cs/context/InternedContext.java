@@ -0,0 +1,349 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.context;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An implementation of {@link Context}, which is interned in the context
+ * table of a {@link Factory} and identified by a dense integer id.
+ * <p>
+ * Different from {@link TrieContext}, which keeps a child map in each
+ * context, the factory stores the parent and the last element of all
+ * contexts in flat primitive arrays, and finds children via a single
+ * open-addressing table keyed by (parent id, element id).
+ * As each context is unique in its factory, the ids can be used as
+ * primitive keys of contexts by other components.
+ */
+public class InternedContext implements Context {
+
+    private final Factory<?> factory;
+
+    private final int id;
+
+    private InternedContext(Factory<?> factory, int id) {
+        this.factory = factory;
+        this.id = id;
+    }
+
+    /**
+     * @return the id of this context, which is unique in its factory.
+     * The id of the empty context is 0.
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public int getLength() {
+        return factory.lengths[id];
+    }
+
+    @Override
+    public Object getElementAt(int i) {
+        int length = getLength();
+        assert 0 <= i && i < length;
+        int c = id;
+        for (int j = length - 1; j > i; --j) {
+            c = factory.parents[c];
+        }
+        return factory.elems.get(factory.elemIds[c]);
+    }
+
+    @Override
+    public String toString() {
+        int length = getLength();
+        Object[] elems = new Object[length];
+        int c = id;
+        for (int i = length - 1; i >= 0; --i) {
+            elems[i] = factory.elems.get(factory.elemIds[c]);
+            c = factory.parents[c];
+        }
+        return Arrays.toString(elems);
+    }
+
+    public static class Factory<T> implements ContextFactory<T> {
+
+        /**
+         * Id of the root context, i.e., the empty context.
+         */
+        private static final int ROOT = 0;
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * Map from context elements to their ids.
+         */
+        private final Map<Object, Integer> elemIndexes = Maps.newMap();
+
+        /**
+         * Context elements, indexed by their ids.
+         */
+        private final List<Object> elems = new ArrayList<>();
+
+        /**
+         * Id of the parent of each context.
+         */
+        private int[] parents = new int[INITIAL_CAPACITY];
+
+        /**
+         * Id of the last element of each context.
+         */
+        private int[] elemIds = new int[INITIAL_CAPACITY];
+
+        /**
+         * Length of each context.
+         */
+        private int[] lengths = new int[INITIAL_CAPACITY];
+
+        private InternedContext[] contexts = new InternedContext[INITIAL_CAPACITY];
+
+        /**
+         * Number of contexts created by this factory.
+         */
+        private int size;
+
+        /**
+         * Table from (parent id, element id) to child id.
+         */
+        private final IdTable children = new IdTable();
+
+        /**
+         * Memoized results of {@link #append(Context, Object, int)}
+         * which truncate the parent contexts, indexed by limit.
+         */
+        private IdTable[] appendResults = new IdTable[0];
+
+        /**
+         * Memoized results of {@link #makeLastK(Context, int)},
+         * indexed by k and context id. 0 means absent.
+         */
+        private int[][] lastKResults = new int[0][];
+
+        public Factory() {
+            newContext(ROOT, -1, 0);
+        }
+
+        /**
+         * @return the context of given id.
+         */
+        public InternedContext getContext(int id) {
+            return contexts[id];
+        }
+
+        /**
+         * @return number of contexts created by this factory.
+         */
+        public int getContextCount() {
+            return size;
+        }
+
+        @Override
+        public InternedContext getEmptyContext() {
+            return contexts[ROOT];
+        }
+
+        @Override
+        public InternedContext make(T elem) {
+            return getContext(getChild(ROOT, getElemId(elem)));
+        }
+
+        @Override
+        public InternedContext make(T... elems) {
+            int c = ROOT;
+            for (T elem : elems) {
+                c = getChild(c, getElemId(elem));
+            }
+            return getContext(c);
+        }
+
+        @Override
+        public InternedContext makeLastK(Context context, int k) {
+            return getContext(lastK(((InternedContext) context).id, k));
+        }
+
+        @Override
+        public InternedContext append(Context parent, T elem, int limit) {
+            int p = ((InternedContext) parent).id;
+            int e = getElemId(elem);
+            if (lengths[p] < limit) {
+                return getContext(getChild(p, e));
+            }
+            if (limit >= appendResults.length) {
+                appendResults = Arrays.copyOf(appendResults, limit + 1);
+            }
+            IdTable results = appendResults[limit];
+            if (results == null) {
+                results = appendResults[limit] = new IdTable();
+            }
+            long key = IdTable.key(p, e);
+            int c = results.get(key);
+            if (c == 0) {
+                c = getChild(lastK(p, limit - 1), e);
+                results.put(key, c);
+            }
+            return getContext(c);
+        }
+
+        private int getElemId(Object elem) {
+            Integer id = elemIndexes.get(elem);
+            if (id == null) {
+                id = elems.size();
+                elemIndexes.put(elem, id);
+                elems.add(elem);
+            }
+            return id;
+        }
+
+        private int getChild(int parent, int elemId) {
+            long key = IdTable.key(parent, elemId);
+            int child = children.get(key);
+            if (child == 0) {
+                child = newContext(parent, elemId, lengths[parent] + 1);
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        private int newContext(int parent, int elemId, int length) {
+            if (size == contexts.length) {
+                int capacity = size + (size >> 1);
+                parents = Arrays.copyOf(parents, capacity);
+                elemIds = Arrays.copyOf(elemIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                contexts = Arrays.copyOf(contexts, capacity);
+            }
+            int id = size++;
+            parents[id] = parent;
+            elemIds[id] = elemId;
+            lengths[id] = length;
+            contexts[id] = new InternedContext(this, id);
+            return id;
+        }
+
+        /**
+         * @return id of the context with last k elements of given context.
+         */
+        private int lastK(int context, int k) {
+            if (k == 0) {
+                return ROOT;
+            }
+            if (lengths[context] <= k) {
+                return context;
+            }
+            if (k >= lastKResults.length) {
+                lastKResults = Arrays.copyOf(lastKResults, k + 1);
+            }
+            int[] results = lastKResults[k];
+            if (results == null || context >= results.length) {
+                results = lastKResults[k] = results == null
+                        ? new int[contexts.length]
+                        : Arrays.copyOf(results, contexts.length);
+            }
+            int result = results[context];
+            if (result == 0) {
+                int[] suffix = new int[k];
+                int c = context;
+                for (int i = k; i > 0; --i) {
+                    suffix[i - 1] = elemIds[c];
+                    c = parents[c];
+                }
+                result = ROOT;
+                for (int e : suffix) {
+                    result = getChild(result, e);
+                }
+                results[context] = result;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Open-addressing hash table from (int, int) pairs to non-zero ids.
+     * 0 is used as the absent value, which is fine as the tables
+     * never map to the root context.
+     */
+    private static class IdTable {
+
+        private long[] keys = new long[INITIAL_SIZE];
+
+        private int[] values = new int[INITIAL_SIZE];
+
+        private int size;
+
+        private static final int INITIAL_SIZE = 1024;
+
+        private static long key(int first, int second) {
+            return ((long) first << 32) | (second & 0xFFFFFFFFL);
+        }
+
+        private static int hash(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key, mask); ; i = (i + 1) & mask) {
+                int value = values[i];
+                if (value == 0 || keys[i] == key) {
+                    return value;
+                }
+            }
+        }
+
+        private void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash();
+            }
+            insert(keys, values, key, value);
+            ++size;
+        }
+
+        private void rehash() {
+            long[] newKeys = new long[keys.length * 2];
+            int[] newValues = new int[values.length * 2];
+            for (int i = 0; i < keys.length; ++i) {
+                if (values[i] != 0) {
+                    insert(newKeys, newValues, keys[i], values[i]);
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static void insert(long[] keys, int[] values, long key, int value) {
+            int mask = keys.length - 1;
+            int i = hash(key, mask);
+            while (values[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+    }
+}
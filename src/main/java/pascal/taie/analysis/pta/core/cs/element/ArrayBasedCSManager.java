@@ -0,0 +1,308 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts by flat arrays.
+ * <p>
+ * Compared to {@link MapBasedCSManager}, which stores elements in nested
+ * hash maps, this manager looks up each element with a single probe
+ * sequence over open-addressing tables, and looks up array index pointers
+ * directly by the indexes of array objects. This avoids allocating
+ * an inner map and an entry object for every element, which reduces
+ * memory footprint and improves cache locality when the number of
+ * context-sensitive elements is large.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private final Table<Var, Context, CSVar> vars = new Table<>();
+
+    /**
+     * Groups context-sensitive variables by their variables.
+     */
+    private final MultiMap<Var, CSVar> varsOf = Maps.newMultiMap();
+
+    private final List<CSVar> csVars = new ArrayList<>();
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    private final Table<CSObj, JField, InstanceField> instanceFields = new Table<>();
+
+    private final List<InstanceField> instanceFieldList = new ArrayList<>();
+
+    /**
+     * Maps index of array object to the corresponding ArrayIndex.
+     */
+    private ArrayIndex[] arrayIndexes = new ArrayIndex[65536];
+
+    private final List<ArrayIndex> arrayIndexList = new ArrayList<>();
+
+    /**
+     * Counter for assigning unique indexes to Pointers.
+     */
+    private int counter = 0;
+
+    private final Table<Obj, Context, CSObj> objs = new Table<>();
+
+    private final List<CSObj> objList = new ArrayList<>();
+
+    private final CSObjIndexer objIndexer = new CSObjIndexer();
+
+    private final Table<Invoke, Context, CSCallSite> callSites = new Table<>();
+
+    private final Table<JMethod, Context, CSMethod> methods = new Table<>();
+
+    private final CSMethodIndexer mtdIndexer = new CSMethodIndexer();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return vars.computeIfAbsent(var, context, (v, c) -> {
+            CSVar csVar = new CSVar(v, c, counter++);
+            varsOf.put(v, csVar);
+            csVars.add(csVar);
+            return csVar;
+        });
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field,
+                f -> new StaticField(f, counter++));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return instanceFields.computeIfAbsent(base, field, (b, f) -> {
+            InstanceField instanceField = new InstanceField(b, f, counter++);
+            instanceFieldList.add(instanceField);
+            return instanceField;
+        });
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        if (index >= arrayIndexes.length) {
+            int newLength = Math.max(index + 1, (int) (arrayIndexes.length * 1.5));
+            arrayIndexes = Arrays.copyOf(arrayIndexes, newLength);
+        }
+        ArrayIndex arrayIndex = arrayIndexes[index];
+        if (arrayIndex == null) {
+            arrayIndex = new ArrayIndex(array, counter++);
+            arrayIndexes[index] = arrayIndex;
+            arrayIndexList.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return Collections.unmodifiableSet(varsOf.keySet());
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return Collections.unmodifiableList(csVars);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return varsOf.get(var);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return Collections.unmodifiableCollection(staticFields.values());
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFieldList);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexList);
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objs.computeIfAbsent(obj, heapContext, (o, c) -> {
+            CSObj csObj = objIndexer.makeCSObj(o, c);
+            objList.add(csObj);
+            return csObj;
+        });
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return Collections.unmodifiableList(objList);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objIndexer;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, context, CSCallSite::new);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, context, mtdIndexer::makeCSMethod);
+    }
+
+    @Override
+    public Indexer<CSMethod> getMethodIndexer() {
+        return mtdIndexer;
+    }
+
+    private static class CSMethodIndexer implements Indexer<CSMethod> {
+
+        private CSMethod[] methods = new CSMethod[65536];
+
+        /**
+         * Counter for assigning unique indexes to CSMethods.
+         */
+        private int counter = 0;
+
+        private CSMethod makeCSMethod(JMethod method, Context context) {
+            if (counter >= methods.length) {
+                methods = Arrays.copyOf(methods, (int) (methods.length * 1.5));
+            }
+            CSMethod csMethod = new CSMethod(method, context, counter);
+            methods[counter++] = csMethod;
+            return csMethod;
+        }
+
+        @Override
+        public int getIndex(CSMethod m) {
+            return m.getIndex();
+        }
+
+        @Override
+        public CSMethod getObject(int index) {
+            return methods[index];
+        }
+    }
+
+    /**
+     * Open-addressing hash table with two keys, which stores
+     * the keys and values in parallel arrays, and resolves
+     * collisions by linear probing.
+     * <p>
+     * Each lookup computes a single hash from both keys and probes
+     * a contiguous region of the arrays, instead of first looking up
+     * an inner map by the first key and then looking up the value
+     * in the inner map by the second key.
+     */
+    private static class Table<K1, K2, V> {
+
+        private static final int INITIAL_CAPACITY = 1 << 10;
+
+        private Object[] keys1 = new Object[INITIAL_CAPACITY];
+
+        private Object[] keys2 = new Object[INITIAL_CAPACITY];
+
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private int size = 0;
+
+        @SuppressWarnings("unchecked")
+        private V computeIfAbsent(K1 key1, K2 key2,
+                                  BiFunction<? super K1, ? super K2, ? extends V> function) {
+            int mask = values.length - 1;
+            int i = hash(key1, key2) & mask;
+            Object v;
+            while ((v = values[i]) != null) {
+                if (equals(keys1[i], key1) && equals(keys2[i], key2)) {
+                    return (V) v;
+                }
+                i = (i + 1) & mask;
+            }
+            V value = function.apply(key1, key2);
+            keys1[i] = key1;
+            keys2[i] = key2;
+            values[i] = value;
+            // keep load factor below 0.5 to make probe sequences short
+            if (++size * 2 > values.length) {
+                resize();
+            }
+            return value;
+        }
+
+        private void resize() {
+            Object[] oldKeys1 = keys1;
+            Object[] oldKeys2 = keys2;
+            Object[] oldValues = values;
+            int capacity = oldValues.length * 2;
+            keys1 = new Object[capacity];
+            keys2 = new Object[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldValues.length; ++j) {
+                if (oldValues[j] != null) {
+                    int i = hash(oldKeys1[j], oldKeys2[j]) & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys1[i] = oldKeys1[j];
+                    keys2[i] = oldKeys2[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int hash(Object key1, Object key2) {
+            int h = key1.hashCode() * 31 + key2.hashCode();
+            // spread the bits, as consecutive hash codes are common
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean equals(Object k1, Object k2) {
+            return k1 == k2 || k1.equals(k2);
+        }
+    }
+}
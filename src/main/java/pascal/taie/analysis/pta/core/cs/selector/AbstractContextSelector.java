@@ -24,14 +24,14 @@ package pascal.taie.analysis.pta.core.cs.selector;
 
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.context.ContextFactory;
-import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.context.InternedContext;
 import pascal.taie.analysis.pta.core.cs.element.CSMethod;
 import pascal.taie.analysis.pta.core.heap.NewObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 
 abstract class AbstractContextSelector<T> implements ContextSelector {
 
-    protected final ContextFactory<T> factory = new TrieContext.Factory<>();
+    protected final ContextFactory<T> factory = new InternedContext.Factory<>();
 
     @Override
     public Context getEmptyContext() {
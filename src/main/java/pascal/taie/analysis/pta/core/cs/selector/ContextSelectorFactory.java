@@ -92,7 +92,18 @@ public class ContextSelectorFactory {
      */
     public static ContextSelector makeSelectiveSelector(
             String cs, Predicate<JMethod> isCSMethod, Predicate<Obj> isCSObj) {
-        return new SelectiveSelector(makePlainSelector(cs), isCSMethod, isCSObj);
+        return makeSelectiveSelector(makePlainSelector(cs), isCSMethod, isCSObj);
+    }
+
+    /**
+     * @return a selective context selector which applies given selector
+     * to part of methods (specified by isCSMethod) and part of objects
+     * (specified by isCSObj).
+     */
+    public static ContextSelector makeSelectiveSelector(
+            ContextSelector delegate,
+            Predicate<JMethod> isCSMethod, Predicate<Obj> isCSObj) {
+        return new SelectiveSelector(delegate, isCSMethod, isCSObj);
     }
 
     /**
@@ -49,7 +49,7 @@ class GuidedSelector extends AbstractContextSelector<Object> {
      * Supported context sensitivity variants.
      */
     private static final Set<String> SUPPORTED_CS = Set.of(
-            "ci", "1-type", "2-type", "2-obj"
+            "ci", "1-obj", "1-type", "2-type", "2-obj"
     );
 
     /**
@@ -86,6 +86,7 @@ class GuidedSelector extends AbstractContextSelector<Object> {
         String cs = csMap.getOrDefault(callee, DEFAULT_CS);
         return switch (cs) {
             case "ci" -> selectCI();
+            case "1-obj" -> select1Obj(recv);
             case "1-type" -> select1Type(recv);
             case "2-type" -> select2Type(recv);
             case "2-obj" -> select2Obj(recv);
@@ -98,6 +99,10 @@ class GuidedSelector extends AbstractContextSelector<Object> {
         return factory.getEmptyContext();
     }
 
+    private Context select1Obj(CSObj recv) {
+        return factory.make(recv.getObject());
+    }
+
     private Context select1Type(CSObj recv) {
         return factory.make(recv.getObject().getContainerType());
     }
@@ -0,0 +1,223 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Heap model which abstracts objects by allocation sites, except that
+ * the objects selected by the following policies are abstracted by
+ * their allocation types, i.e., merged into a {@link MergedObj} per type:
+ * <ul>
+ *     <li>{@link #MERGE_TYPES}: objects of the given types and their subtypes.</li>
+ *     <li>{@link #MERGE_PACKAGES}: objects of the classes in the given packages
+ *     (and their sub-packages).</li>
+ *     <li>{@link #MAX_SITES}: objects of the types that have more allocation
+ *     sites than the given cap, i.e., after a type has reached the cap,
+ *     its objects allocated at further sites are merged.</li>
+ * </ul>
+ * This model also records how many allocation sites each policy merges,
+ * and reports how much the policies shrink the objects.
+ */
+public class ConfigurableHeapModel extends AbstractHeapModel {
+
+    private static final Logger logger = LogManager.getLogger(ConfigurableHeapModel.class);
+
+    private static final String MERGE_TYPES = "merge-types";
+
+    private static final String MERGE_PACKAGES = "merge-packages";
+
+    private static final String MAX_SITES = "max-sites-per-type";
+
+    /**
+     * Marks the types that are not selected by type-based policies.
+     */
+    private static final String NO_POLICY = "";
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Types whose objects (and objects of their subtypes) are merged.
+     */
+    private final List<ClassType> mergedTypes = new ArrayList<>();
+
+    /**
+     * Packages whose objects are merged.
+     */
+    private final List<String> mergedPackages;
+
+    /**
+     * Maximum number of allocation sites of each type, -1 means unlimited.
+     */
+    private final int maxSites;
+
+    /**
+     * Map from type to the type-based policy that selects it,
+     * or {@link #NO_POLICY} if none.
+     */
+    private final Map<Type, String> typePolicies = Maps.newMap();
+
+    /**
+     * Number of precise allocation sites of each type.
+     */
+    private final Map<Type, Integer> siteCounts = Maps.newMap();
+
+    /**
+     * Objects decided for allocation sites, so that each allocation site
+     * is always modeled by the same object.
+     */
+    private final Map<New, Obj> siteObjs = Maps.newMap();
+
+    /**
+     * Map from policy to the allocation sites merged by it.
+     */
+    private final Map<String, Set<New>> mergedSites = new LinkedHashMap<>();
+
+    /**
+     * Map from merged object to the policy that merges objects into it.
+     */
+    private final Map<MergedObj, String> mergedObjPolicies = Maps.newMap();
+
+    public ConfigurableHeapModel(AnalysisOptions options) {
+        super(options);
+        typeSystem = World.get().getTypeSystem();
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        for (String typeName : getList(options, MERGE_TYPES)) {
+            JClass jclass = hierarchy.getClass(typeName);
+            if (jclass != null) {
+                mergedTypes.add(jclass.getType());
+            } else {
+                logger.warn("Type {} in {} is not found", typeName, MERGE_TYPES);
+            }
+        }
+        mergedPackages = getList(options, MERGE_PACKAGES);
+        maxSites = options.getInt(MAX_SITES);
+        if (maxSites == 0 || maxSites < -1) {
+            throw new ConfigException(MAX_SITES +
+                    " should be positive or -1, but given: " + maxSites);
+        }
+        for (String policy : List.of(MERGE_TYPES, MERGE_PACKAGES, MAX_SITES)) {
+            mergedSites.put(policy, Sets.newSet());
+        }
+    }
+
+    private static List<String> getList(AnalysisOptions options, String key) {
+        Object value = options.get(key);
+        if (value instanceof List<?> list) {
+            return list.stream().map(Object::toString).toList();
+        }
+        throw new ConfigException(key + " should be a list, but given: " + value);
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        Obj obj = siteObjs.get(allocSite);
+        if (obj == null) {
+            Type type = allocSite.getRValue().getType();
+            String policy = typePolicies.computeIfAbsent(type, this::selectPolicy);
+            if (policy.equals(NO_POLICY) && maxSites != -1 &&
+                    siteCounts.merge(type, 1, Integer::sum) > maxSites) {
+                policy = MAX_SITES;
+            }
+            if (policy.equals(NO_POLICY)) {
+                obj = getNewObj(allocSite);
+            } else {
+                MergedObj mergedObj = getMergedObj(allocSite);
+                mergedObjPolicies.putIfAbsent(mergedObj, policy);
+                mergedSites.get(policy).add(allocSite);
+                obj = mergedObj;
+            }
+            siteObjs.put(allocSite, obj);
+        }
+        return obj;
+    }
+
+    /**
+     * @return the type-based policy that selects given type,
+     * or {@link #NO_POLICY} if none.
+     */
+    private String selectPolicy(Type type) {
+        for (ClassType mergedType : mergedTypes) {
+            if (typeSystem.isSubtype(mergedType, type)) {
+                return MERGE_TYPES;
+            }
+        }
+        Type elemType = type instanceof ArrayType arrayType ?
+                arrayType.baseType() : type;
+        if (elemType instanceof ClassType classType) {
+            String name = classType.getName();
+            for (String pkg : mergedPackages) {
+                if (name.startsWith(pkg + ".")) {
+                    return MERGE_PACKAGES;
+                }
+            }
+        }
+        return NO_POLICY;
+    }
+
+    /**
+     * Logs the statistics of the policies, i.e., for each policy, the number
+     * of allocation sites and merged objects, and the number of
+     * context-sensitive objects of the merged objects.
+     *
+     * @param csObjs the objects of all context-sensitive objects
+     */
+    public void logStatistics(Stream<Obj> csObjs) {
+        Map<String, Integer> csObjCounts = Maps.newMap();
+        csObjs.forEach(obj -> {
+            if (obj instanceof MergedObj mergedObj &&
+                    mergedObjPolicies.containsKey(mergedObj)) {
+                csObjCounts.merge(mergedObjPolicies.get(mergedObj), 1, Integer::sum);
+            }
+        });
+        mergedSites.forEach((policy, sites) -> {
+            long nMergedObjs = mergedObjPolicies.values()
+                    .stream()
+                    .filter(policy::equals)
+                    .count();
+            logger.info("{}: merged {} allocation sites into {} objects" +
+                            " ({} context-sensitive objects)", policy,
+                    sites.size(), nMergedObjs, csObjCounts.getOrDefault(policy, 0));
+        });
+    }
+}
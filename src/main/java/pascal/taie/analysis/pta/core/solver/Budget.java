@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.config.AnalysisOptions;
+
+/**
+ * Time and memory budgets of pointer analysis solver.
+ * <p>
+ * The time budget is hit every time the elapsed time of solving
+ * reaches a multiple of the budget, so that the solver can keep
+ * degrading its precision if the analysis is still slow after
+ * previous degradation. The memory budget is hit when the used heap
+ * memory exceeds the budget after a garbage collection.
+ */
+class Budget {
+
+    /**
+     * Minimum interval (in milliseconds) between two memory checks,
+     * as the checks may trigger garbage collection.
+     */
+    private static final long MEMORY_CHECK_INTERVAL = 1000;
+
+    /**
+     * Time budget in milliseconds, non-positive value means unlimited.
+     */
+    private final long timeBudget;
+
+    /**
+     * Memory budget in bytes, non-positive value means unlimited.
+     */
+    private final long memoryBudget;
+
+    private long startTime;
+
+    /**
+     * Elapsed time when the time budget is hit next time.
+     */
+    private long nextTimeLimit;
+
+    private long lastMemoryCheck;
+
+    Budget(AnalysisOptions options) {
+        timeBudget = options.getInt("time-budget") * 1000L;
+        memoryBudget = options.getInt("memory-budget") * 1024L * 1024L;
+    }
+
+    /**
+     * @return {@code true} if any budget is given.
+     */
+    boolean isEnabled() {
+        return timeBudget > 0 || memoryBudget > 0;
+    }
+
+    void start() {
+        startTime = System.currentTimeMillis();
+        nextTimeLimit = timeBudget;
+        lastMemoryCheck = startTime;
+    }
+
+    /**
+     * @return description of the budget that is hit, or {@code null}
+     * if no budget is hit.
+     */
+    String check() {
+        long now = System.currentTimeMillis();
+        if (timeBudget > 0 && now - startTime >= nextTimeLimit) {
+            nextTimeLimit += timeBudget;
+            return String.format("time budget (%ds)", timeBudget / 1000);
+        }
+        if (memoryBudget > 0 && now - lastMemoryCheck >= MEMORY_CHECK_INTERVAL) {
+            lastMemoryCheck = now;
+            if (usedMemory() > memoryBudget) {
+                // the used memory may include garbage, thus we collect
+                // the garbage before comparing it with the budget
+                System.gc();
+                long used = usedMemory();
+                if (used > memoryBudget) {
+                    return String.format("memory budget (%dMB, used %dMB)",
+                            memoryBudget >> 20, used >> 20);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return elapsed time (in seconds) since the budget started.
+     */
+    float getElapsedTime() {
+        return (System.currentTimeMillis() - startTime) / 1000F;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -42,10 +42,12 @@ import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.MockObj;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.CompactPointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
@@ -79,14 +81,21 @@ import pascal.taie.language.type.NullType;
 import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Canonicalizer;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.Timer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static pascal.taie.language.classes.Signatures.FINALIZE;
 import static pascal.taie.language.classes.Signatures.FINALIZER_REGISTER;
@@ -114,18 +123,68 @@ public class DefaultSolver implements Solver {
 
     private final PointsToSetFactory ptsFactory;
 
+    /**
+     * Type filters shared by the PFG edges with the same guard type.
+     */
+    private final Map<Type, TypeFilter> typeFilters = Maps.newMap();
+
     /**
      * Whether only analyzes application code.
      */
     private final boolean onlyApp;
 
-    private Plugin plugin;
+    /**
+     * Whether merges the pointers in the cycles of pointer flow graph.
+     */
+    protected final boolean mergeCycles;
+
+    /**
+     * Whether compacts the points-to sets after the analysis finishes.
+     */
+    private final boolean compactResult;
+
+    /**
+     * Time and memory budgets of solving.
+     */
+    private final Budget budget;
 
-    private WorkList workList;
+    /**
+     * Number of methods demoted each time a budget is hit.
+     */
+    private final int demoteCount;
+
+    /**
+     * Methods demoted to context insensitivity due to budgets.
+     */
+    private final Set<JMethod> demotedMethods = Sets.newSet();
+
+    /**
+     * Number of processed work list entries, used to check budgets periodically.
+     */
+    private int processedEntries = 0;
+
+    /**
+     * Whether a stop of propagation has been requested.
+     */
+    protected volatile boolean stopped = false;
+
+    protected Plugin plugin;
+
+    protected WorkList workList;
 
     private CSCallGraph callGraph;
 
-    private PointerFlowGraph pointerFlowGraph;
+    protected PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Edges which have been checked for cycles.
+     */
+    private Set<PointerFlowEdge> checkedEdges;
+
+    /**
+     * Edges that may be in cycles and wait for checking.
+     */
+    private List<PointerFlowEdge> cycleCandidates;
 
     private Set<JMethod> reachableMethods;
 
@@ -147,12 +206,27 @@ public class DefaultSolver implements Solver {
                          ContextSelector contextSelector, CSManager csManager) {
         this.options = options;
         this.heapModel = heapModel;
-        this.contextSelector = contextSelector;
         this.csManager = csManager;
+        budget = new Budget(options);
+        demoteCount = options.getInt("demote-count");
+        if (budget.isEnabled()) {
+            // the methods demoted when budgets are hit, and the objects
+            // allocated in them, are analyzed context-insensitively
+            this.contextSelector = ContextSelectorFactory.makeSelectiveSelector(
+                    contextSelector, m -> !demotedMethods.contains(m),
+                    o -> o.getContainerMethod()
+                            .map(m -> !demotedMethods.contains(m))
+                            .orElse(true));
+        } else {
+            this.contextSelector = contextSelector;
+        }
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        ptsFactory = new PointsToSetFactory(options.getString("points-to-set"),
+                csManager.getObjectIndexer());
         onlyApp = options.getBoolean("only-app");
+        mergeCycles = options.getBoolean("merge-cycles");
+        compactResult = options.getBoolean("compact-result");
     }
 
     @Override
@@ -217,8 +291,28 @@ public class DefaultSolver implements Solver {
      */
     @Override
     public void solve() {
+        Timer initTimer = new Timer("Solver initialization");
+        initTimer.start();
         initialize();
+        initTimer.stop();
+        Timer analysisTimer = new Timer("Solver propagation");
+        analysisTimer.start();
         analyze();
+        analysisTimer.stop();
+        Timer finishTimer = new Timer("Solver finishing");
+        finishTimer.start();
+        finish();
+        finishTimer.stop();
+        logger.info(initTimer);
+        logger.info(analysisTimer);
+        logger.info(finishTimer);
+        if (stopped) {
+            logger.info("Solver was stopped before reaching the fixed point");
+        }
+        if (!demotedMethods.isEmpty()) {
+            logger.info("{} methods were demoted to context insensitivity" +
+                    " due to budgets", demotedMethods.size());
+        }
     }
 
     /**
@@ -227,11 +321,17 @@ public class DefaultSolver implements Solver {
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
-        workList = new WorkList();
+        checkedEdges = Sets.newSet();
+        cycleCandidates = new ArrayList<>();
+        workList = WorkList.make(
+                options.getString("worklist-order"), pointerFlowGraph);
         reachableMethods = Sets.newSet();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
         stmtProcessor = new StmtProcessor();
+        if (budget.isEnabled()) {
+            budget.start();
+        }
         plugin.onStart();
 
         Context defContext = contextSelector.getEmptyContext();
@@ -258,24 +358,154 @@ public class DefaultSolver implements Solver {
     /**
      * Processes worklist entries until the worklist is empty.
      */
-    private void analyze() {
-        while (!workList.isEmpty()) {
+    protected void analyze() {
+        while (!workList.isEmpty() && !stopped) {
+            if ((++processedEntries & 0x3FF) == 0) {
+                checkBudget();
+            }
             WorkList.Entry entry = workList.pollEntry();
             Pointer p = entry.pointer();
             PointsToSet pts = entry.pointsToSet();
-            PointsToSet diff = propagate(p, pts);
-            if (!diff.isEmpty() && p instanceof CSVar v) {
-                processInstanceStore(v, diff);
-                processInstanceLoad(v, diff);
-                processArrayStore(v, diff);
-                processArrayLoad(v, diff);
-                processCall(v, diff);
-                plugin.onNewPointsToSet(v, diff);
+            if (mergeCycles) {
+                // p may have been merged after it was added to work list
+                p = pointerFlowGraph.getRepresentative(p);
+                PointsToSet diff = propagate(p, pts);
+                if (!diff.isEmpty()) {
+                    for (Pointer member : pointerFlowGraph.getMergedPointers(p)) {
+                        processNewPointsTo(member, diff);
+                    }
+                }
+                eliminateCycles();
+            } else {
+                PointsToSet diff = propagate(p, pts);
+                if (!diff.isEmpty()) {
+                    processNewPointsTo(p, diff);
+                }
             }
         }
+        if (mergeCycles) {
+            logger.info("Merged {} pointers into {} representatives of PFG cycles",
+                    pointerFlowGraph.getNumberOfMergedPointers(),
+                    pointerFlowGraph.getNumberOfRepresentatives());
+        }
+    }
+
+    /**
+     * Checks the budgets, and if any budget is hit, demotes the methods
+     * that are the most expensive to analyze to context insensitivity.
+     */
+    protected void checkBudget() {
+        if (!budget.isEnabled()) {
+            return;
+        }
+        String hitBudget = budget.check();
+        if (hitBudget != null) {
+            demoteMethods(hitBudget);
+        }
+    }
+
+    /**
+     * Demotes the methods that have the most contexts (and the largest
+     * accumulated points-to sets for the methods with the same number of
+     * contexts) to context insensitivity. The existing results of
+     * the methods are retained, while the subsequent calls to the methods
+     * and the objects allocated in them are analyzed without contexts.
+     */
+    void demoteMethods(String hitBudget) {
+        Map<JMethod, Integer> contexts = Maps.newMap();
+        callGraph.reachableMethods()
+                .map(CSMethod::getMethod)
+                .filter(m -> !demotedMethods.contains(m))
+                .forEach(m -> contexts.merge(m, 1, Integer::sum));
+        Map<JMethod, Long> ptsSizes = Maps.newMap();
+        for (CSVar csVar : csManager.getCSVars()) {
+            JMethod method = csVar.getVar().getMethod();
+            PointsToSet pts = csVar.getPointsToSet();
+            if (pts != null && contexts.containsKey(method)) {
+                ptsSizes.merge(method, (long) pts.size(), Long::sum);
+            }
+        }
+        List<JMethod> demoted = contexts.keySet()
+                .stream()
+                .filter(m -> contexts.get(m) > 1)
+                .sorted(Comparator.comparing((JMethod m) -> contexts.get(m))
+                        .thenComparing(m -> ptsSizes.getOrDefault(m, 0L))
+                        .reversed())
+                .limit(demoteCount)
+                .toList();
+        logger.info("{} is hit after {}s, demoting {} methods" +
+                        " to context insensitivity", hitBudget,
+                String.format("%.2f", budget.getElapsedTime()), demoted.size());
+        for (JMethod method : demoted) {
+            logger.info("  {}: {} contexts, {} points-to relations",
+                    method, contexts.get(method), ptsSizes.getOrDefault(method, 0L));
+            demotedMethods.add(method);
+        }
+    }
+
+    /**
+     * @return the methods demoted to context insensitivity due to budgets.
+     */
+    public Set<JMethod> getDemotedMethods() {
+        return Collections.unmodifiableSet(demotedMethods);
+    }
+
+    /**
+     * Finishes the analysis after the work list becomes empty.
+     */
+    protected void finish() {
+        if (compactResult) {
+            compactPointsToSets();
+        }
         plugin.onFinish();
     }
 
+    /**
+     * Replaces the points-to sets of all pointers by immutable
+     * {@link CompactPointsToSet}s. The pointers pointing to the same
+     * objects share one compact set.
+     */
+    private void compactPointsToSets() {
+        Indexer<CSObj> objIndexer = csManager.getObjectIndexer();
+        Canonicalizer<PointsToSet> canonicalizer = new Canonicalizer<>();
+        Set<PointsToSet> compactSets = Sets.newSet();
+        int[] nPointers = {0};
+        Stream.<Collection<? extends Pointer>>of(
+                        csManager.getCSVars(), csManager.getStaticFields(),
+                        csManager.getInstanceFields(), csManager.getArrayIndexes())
+                .flatMap(Collection::stream)
+                .forEach(pointer -> {
+                    PointsToSet pts = pointer.getPointsToSet();
+                    if (pts != null) {
+                        PointsToSet compact = canonicalizer.get(
+                                CompactPointsToSet.of(pts, objIndexer));
+                        pointer.setPointsToSet(compact);
+                        compactSets.add(compact);
+                        ++nPointers[0];
+                    }
+                });
+        logger.info("Compacted points-to sets of {} pointers into {} shared sets",
+                nPointers[0], compactSets.size());
+    }
+
+    /**
+     * Processes the statements related to the pointer whose points-to set
+     * has changed.
+     *
+     * @param pointer the pointer whose points-to set has changed
+     * @param diff    set of new discovered objects pointed by the pointer.
+     */
+    protected void processNewPointsTo(Pointer pointer, PointsToSet diff) {
+        if (pointer instanceof CSVar v) {
+            processInstanceStore(v, diff);
+            processInstanceLoad(v, diff);
+            processArrayStore(v, diff);
+            processArrayLoad(v, diff);
+            processCall(v, diff);
+            plugin.onNewPointsToSet(v, diff);
+        }
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
@@ -284,12 +514,101 @@ public class DefaultSolver implements Solver {
         logger.trace("Propagate {} to {}", pointsToSet, pointer);
         PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
         if (!diff.isEmpty()) {
-            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge ->
-                    addPointsTo(edge.getTarget(), edge.getTransfer().apply(edge, diff)));
+            if (mergeCycles) {
+                for (Pointer member : pointerFlowGraph.getMergedPointers(pointer)) {
+                    propagateMerged(pointer, member, diff);
+                }
+            } else {
+                pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge ->
+                        addPointsTo(edge.getTarget(), edge.getTransfer().apply(edge, diff)));
+            }
         }
         return diff;
     }
 
+    /**
+     * Propagates diff along the out edges of a pointer merged into
+     * representative {@code rep}, and collects the edges that may
+     * be in cycles.
+     * <p>
+     * Following lazy cycle detection, an edge {@code s -> t} is considered
+     * to be a cycle candidate if pt(t) is already equal to pt(s)
+     * when propagating along the edge. Each edge is checked at most once.
+     */
+    private void propagateMerged(Pointer rep, Pointer member, PointsToSet diff) {
+        PointsToSet repSet = getPointsToSetOf(rep);
+        for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(member)) {
+            Pointer target = pointerFlowGraph.getRepresentative(edge.getTarget());
+            if (target == rep) {
+                continue;
+            }
+            addPointsTo(target, edge.getTransfer().apply(edge, diff));
+            if (PointerFlowGraph.isMergeable(edge)
+                    && !checkedEdges.contains(edge)) {
+                PointsToSet targetSet = getPointsToSetOf(target);
+                if (targetSet.size() == repSet.size()
+                        && targetSet.getObjects().containsAll(repSet.getObjects())) {
+                    checkedEdges.add(edge);
+                    cycleCandidates.add(edge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Detects cycles for the candidate edges, and merges the pointers
+     * in each detected cycle into one representative, so that the
+     * objects are propagated only once in the cycle.
+     */
+    private void eliminateCycles() {
+        // merging cycles may produce new candidates, thus we
+        // poll candidates until the list becomes empty
+        while (!cycleCandidates.isEmpty()) {
+            PointerFlowEdge edge = cycleCandidates.remove(cycleCandidates.size() - 1);
+            Pointer source = pointerFlowGraph.getRepresentative(edge.getSource());
+            Pointer target = pointerFlowGraph.getRepresentative(edge.getTarget());
+            if (source != target) {
+                Collection<Pointer> cycle = pointerFlowGraph.findCycle(source, target);
+                if (!cycle.isEmpty()) {
+                    mergeCycle(source, cycle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the pointers in a cycle into representative {@code rep}.
+     * All merged pointers share the same points-to set, and the objects
+     * that are newly pointed to by each merged pointer are processed
+     * as usual.
+     *
+     * @param rep   the representative
+     * @param cycle representatives of the pointers in the cycle
+     */
+    private void mergeCycle(Pointer rep, Collection<Pointer> cycle) {
+        PointsToSet merged = makePointsToSet();
+        cycle.forEach(p -> merged.addAll(getPointsToSetOf(p)));
+        // compute the new objects pointed to by each pointer in the cycle
+        Map<Pointer, PointsToSet> diffs = Maps.newMap();
+        Map<Pointer, Set<Pointer>> members = Maps.newMap();
+        for (Pointer p : cycle) {
+            PointsToSet diff = getPointsToSetOf(p).addAllDiff(merged);
+            if (!diff.isEmpty()) {
+                diffs.put(p, diff);
+                members.put(p, Set.copyOf(pointerFlowGraph.getMergedPointers(p)));
+            }
+        }
+        pointerFlowGraph.merge(rep, cycle);
+        PointsToSet repSet = getPointsToSetOf(rep);
+        for (Pointer member : pointerFlowGraph.getMergedPointers(rep)) {
+            member.setPointsToSet(repSet);
+        }
+        diffs.forEach((p, diff) -> members.get(p).forEach(member -> {
+            propagateMerged(rep, member, diff);
+            processNewPointsTo(member, diff);
+        }));
+    }
+
     /**
      * Processes instance stores when points-to set of the base variable changes.
      *
@@ -628,6 +947,9 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
+        if (mergeCycles) {
+            pointer = pointerFlowGraph.getRepresentative(pointer);
+        }
         workList.addEntry(pointer, pts);
     }
 
@@ -658,6 +980,13 @@ public class DefaultSolver implements Solver {
         addPointsTo(csManager.getCSVar(context, var), heapContext, obj);
     }
 
+    @Override
+    public void addPFGEdge(Pointer source, Pointer target, PointerFlowEdge.Kind kind,
+                           Type type) {
+        addPFGEdge(source, target, kind,
+                typeFilters.computeIfAbsent(type, t -> new TypeFilter(t, this)));
+    }
+
     @Override
     public void addPFGEdge(Pointer source, Pointer target, PointerFlowEdge.Kind kind,
                            Transfer transfer) {
@@ -763,6 +1092,11 @@ public class DefaultSolver implements Solver {
         ignoredMethods.add(method);
     }
 
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
     @Override
     public PointerAnalysisResult getResult() {
         if (result == null) {
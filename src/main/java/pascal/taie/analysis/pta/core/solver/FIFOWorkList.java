@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Work list that schedules entries in first-in-first-out order.
+ */
+final class FIFOWorkList extends WorkList {
+
+    private final Map<Pointer, PointsToSet> entries = new LinkedHashMap<>();
+
+    @Override
+    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+        PointsToSet set = entries.get(pointer);
+        if (set != null) {
+            set.addAll(pointsToSet);
+        } else {
+            entries.put(pointer, pointsToSet.copy());
+        }
+    }
+
+    @Override
+    Entry pollEntry() {
+        if (entries.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        var it = entries.entrySet().iterator();
+        var e = it.next();
+        it.remove();
+        return new Entry(e.getKey(), e.getValue());
+    }
+
+    @Override
+    List<Entry> pollAllEntries() {
+        List<Entry> polled = new ArrayList<>(entries.size());
+        entries.forEach((pointer, pts) -> polled.add(new Entry(pointer, pts)));
+        entries.clear();
+        return polled;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
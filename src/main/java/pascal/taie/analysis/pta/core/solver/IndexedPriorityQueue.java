@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of non-negative int indexes, implemented by a binary
+ * min-heap. Each index is contained at most once, and its priority can be
+ * updated in O(log n) time. Ties are broken by preferring smaller indexes.
+ */
+final class IndexedPriorityQueue {
+
+    /**
+     * Binary heap of indexes.
+     */
+    private int[] heap = new int[1024];
+
+    private int size = 0;
+
+    /**
+     * Maps each index to its position in {@link #heap}, -1 means absent.
+     */
+    private int[] positions = new int[1024];
+
+    /**
+     * Maps each index to its priority.
+     */
+    private long[] priorities = new long[1024];
+
+    IndexedPriorityQueue() {
+        Arrays.fill(positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int index) {
+        return index < positions.length && positions[index] != -1;
+    }
+
+    /**
+     * Adds an index with given priority to this queue. If the index
+     * is already in this queue, then updates its priority.
+     */
+    void add(int index, long priority) {
+        ensureCapacity(index);
+        int pos = positions[index];
+        if (pos == -1) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            priorities[index] = priority;
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+        } else {
+            long oldPriority = priorities[index];
+            priorities[index] = priority;
+            if (priority < oldPriority) {
+                siftUp(pos);
+            } else if (priority > oldPriority) {
+                siftDown(pos);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the index with the smallest priority.
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int head = heap[0];
+        positions[head] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return head;
+    }
+
+    private void siftUp(int pos) {
+        int index = heap[pos];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int parent = heap[parentPos];
+            if (!less(index, parent)) {
+                break;
+            }
+            heap[pos] = parent;
+            positions[parent] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = index;
+        positions[index] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int index = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int childPos = 2 * pos + 1;
+            int child = heap[childPos];
+            int rightPos = childPos + 1;
+            if (rightPos < size && less(heap[rightPos], child)) {
+                childPos = rightPos;
+                child = heap[childPos];
+            }
+            if (!less(child, index)) {
+                break;
+            }
+            heap[pos] = child;
+            positions[child] = pos;
+            pos = childPos;
+        }
+        heap[pos] = index;
+        positions[index] = pos;
+    }
+
+    private boolean less(int i1, int i2) {
+        long p1 = priorities[i1], p2 = priorities[i2];
+        return p1 < p2 || (p1 == p2 && i1 < i2);
+    }
+
+    private void ensureCapacity(int index) {
+        if (index >= positions.length) {
+            int oldLength = positions.length;
+            int newLength = Math.max(index + 1, (int) (oldLength * 1.5));
+            positions = Arrays.copyOf(positions, newLength);
+            Arrays.fill(positions, oldLength, newLength, -1);
+            priorities = Arrays.copyOf(priorities, newLength);
+        }
+    }
+}
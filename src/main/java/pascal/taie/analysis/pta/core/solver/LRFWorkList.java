@@ -0,0 +1,58 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.util.Arrays;
+
+/**
+ * Work list that schedules the least recently fired (polled) pointer first.
+ * Pointers that have never been fired are scheduled before the others.
+ */
+final class LRFWorkList extends PriorityWorkList {
+
+    /**
+     * Maps each pointer index to the last time the pointer was fired.
+     */
+    private long[] lastFired = new long[1024];
+
+    private long time = 0;
+
+    @Override
+    long getPriority(Pointer pointer, PointsToSet pointsToSet) {
+        int index = pointer.getIndex();
+        return index < lastFired.length ? lastFired[index] : 0;
+    }
+
+    @Override
+    void onPoll(Pointer pointer) {
+        int index = pointer.getIndex();
+        if (index >= lastFired.length) {
+            int newLength = Math.max(index + 1, (int) (lastFired.length * 1.5));
+            lastFired = Arrays.copyOf(lastFired, newLength);
+        }
+        lastFired[index] = ++time;
+    }
+}
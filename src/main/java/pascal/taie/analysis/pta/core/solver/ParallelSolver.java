@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solver that propagates points-to sets along pointer flow graph
+ * with multiple threads.
+ * <p>
+ * This solver processes the work list in rounds. In each round, it polls
+ * all entries of the work list, and for each entry, updates the points-to
+ * set of the pointer and applies the transfer functions of its out edges
+ * in parallel. As the pointers of the entries are distinct, and the
+ * pointer flow graph is not modified during this phase, no locking
+ * is needed. After that, the propagated points-to sets are added to
+ * the work list, and the new points-to relations are processed
+ * (e.g., resolving calls and notifying plugins) sequentially, so that
+ * {@link pascal.taie.analysis.pta.core.cs.element.CSManager},
+ * call graph and plugins are never accessed concurrently.
+ * As the analysis is monotone, this solver produces the same
+ * results as {@link DefaultSolver}.
+ */
+public class ParallelSolver extends DefaultSolver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    /**
+     * Number of threads used to propagate points-to sets.
+     */
+    private final int nThreads;
+
+    public ParallelSolver(AnalysisOptions options, HeapModel heapModel,
+                          ContextSelector contextSelector, CSManager csManager) {
+        super(options, heapModel, contextSelector, csManager);
+        if (mergeCycles) {
+            throw new ConfigException(
+                    "merge-cycles is not supported by parallel solver");
+        }
+        int threads = options.getInt("solver-threads");
+        nThreads = threads > 0 ? threads :
+                Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    protected void analyze() {
+        logger.info("Solving pointer analysis with {} threads", nThreads);
+        ForkJoinPool pool = new ForkJoinPool(nThreads);
+        try {
+            while (!workList.isEmpty() && !stopped) {
+                checkBudget();
+                List<WorkList.Entry> entries = workList.pollAllEntries();
+                List<Propagation> propagations = pool.submit(() ->
+                        entries.parallelStream()
+                                .map(this::propagate)
+                                .toList()
+                ).join();
+                for (Propagation propagation : propagations) {
+                    propagation.targets().forEach(target ->
+                            addPointsTo(target.pointer(), target.pointsToSet()));
+                }
+                for (Propagation propagation : propagations) {
+                    if (!propagation.diff().isEmpty()) {
+                        processNewPointsTo(propagation.pointer(), propagation.diff());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Propagates the points-to set of given entry to pt(pointer), and
+     * applies the transfer functions of the out edges of the pointer.
+     * This method may be executed concurrently for different pointers.
+     */
+    private Propagation propagate(WorkList.Entry entry) {
+        Pointer pointer = entry.pointer();
+        PointsToSet diff = getPointsToSetOf(pointer)
+                .addAllDiff(entry.pointsToSet());
+        if (diff.isEmpty()) {
+            return new Propagation(pointer, diff, List.of());
+        }
+        List<WorkList.Entry> targets = new ArrayList<>(pointer.getOutDegree());
+        for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(pointer)) {
+            PointsToSet pts = edge.getTransfer().apply(edge, diff);
+            if (!pts.isEmpty()) {
+                targets.add(new WorkList.Entry(edge.getTarget(), pts));
+            }
+        }
+        return new Propagation(pointer, diff, targets);
+    }
+
+    /**
+     * Result of propagating a work list entry.
+     *
+     * @param pointer the pointer of the entry
+     * @param diff    the new objects pointed to by the pointer
+     * @param targets the points-to sets to be propagated to the successors
+     */
+    private record Propagation(Pointer pointer, PointsToSet diff,
+                               List<WorkList.Entry> targets) {
+    }
+}
@@ -23,12 +23,21 @@
 package pascal.taie.analysis.pta.core.solver;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 import pascal.taie.util.graph.Edge;
 import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -38,10 +47,25 @@ public class PointerFlowGraph implements Graph<Pointer> {
 
     private final Set<Pointer> pointers = Sets.newSet();
 
+    private int numberOfEdges = 0;
+
+    /**
+     * Maps each merged pointer to the representative of its cycle.
+     * Representatives themselves are not contained in this map.
+     */
+    private final Map<Pointer, Pointer> reps = Maps.newMap();
+
+    /**
+     * Maps each representative to all pointers merged into it
+     * (including the representative itself).
+     */
+    private final MultiMap<Pointer, Pointer> mergedPointers = Maps.newMultiMap();
+
     public boolean addEdge(PointerFlowEdge edge) {
         if (edge.getSource().addOutEdge(edge)) {
             pointers.add(edge.getSource());
             pointers.add(edge.getTarget());
+            ++numberOfEdges;
             return true;
         } else {
             return false;
@@ -58,6 +82,10 @@ public class PointerFlowGraph implements Graph<Pointer> {
         return pointer.getOutEdges();
     }
 
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
     public Set<Pointer> getPointers() {
         return Collections.unmodifiableSet(pointers);
     }
@@ -87,4 +115,107 @@ public class PointerFlowGraph implements Graph<Pointer> {
     public Set<Pointer> getNodes() {
         return getPointers();
     }
+
+    /**
+     * @return the representative of the cycle that contains given pointer.
+     * If the pointer has not been merged, then returns the pointer itself.
+     */
+    public Pointer getRepresentative(Pointer pointer) {
+        return reps.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return all pointers merged into given representative (including
+     * the representative itself).
+     */
+    public Set<Pointer> getMergedPointers(Pointer rep) {
+        Set<Pointer> merged = mergedPointers.get(rep);
+        return merged.isEmpty() ? Set.of(rep) : merged;
+    }
+
+    /**
+     * @return the number of pointers that have been merged into
+     * other (representative) pointers.
+     */
+    public int getNumberOfMergedPointers() {
+        return reps.size();
+    }
+
+    /**
+     * @return the number of representatives of merged cycles.
+     */
+    public int getNumberOfRepresentatives() {
+        return mergedPointers.keySet().size();
+    }
+
+    /**
+     * Finds the cycle going through edge {@code source -> target}.
+     * Only the edges that can be merged (see {@link #isMergeable})
+     * are considered, and the nodes are the representatives of pointers.
+     *
+     * @return representatives in the strongly connected component that
+     * contains both {@code source} and {@code target}, or an empty set
+     * if there is no such a cycle.
+     */
+    Collection<Pointer> findCycle(Pointer source, Pointer target) {
+        // collect the sub-graph reachable from target
+        SimpleGraph<Pointer> subgraph = new SimpleGraph<>();
+        subgraph.addNode(target);
+        Deque<Pointer> workList = new ArrayDeque<>();
+        workList.push(target);
+        while (!workList.isEmpty()) {
+            Pointer node = workList.pop();
+            for (Pointer member : getMergedPointers(node)) {
+                for (PointerFlowEdge edge : member.getOutEdges()) {
+                    if (isMergeable(edge)) {
+                        Pointer succ = getRepresentative(edge.getTarget());
+                        if (succ != node) {
+                            if (!subgraph.hasNode(succ)) {
+                                workList.push(succ);
+                            }
+                            subgraph.addEdge(node, succ);
+                        }
+                    }
+                }
+            }
+        }
+        if (!subgraph.hasNode(source)) {
+            return Set.of();
+        }
+        for (List<Pointer> scc : new SCC<>(subgraph).getTrueComponents()) {
+            if (scc.contains(source)) {
+                return scc;
+            }
+        }
+        return Set.of();
+    }
+
+    /**
+     * Merges given representatives into {@code rep}.
+     * After merging, {@code rep} represents all pointers previously
+     * represented by {@code others}.
+     */
+    void merge(Pointer rep, Collection<Pointer> others) {
+        if (!mergedPointers.containsKey(rep)) {
+            mergedPointers.put(rep, rep);
+        }
+        for (Pointer other : others) {
+            if (other != rep) {
+                Set<Pointer> members = getMergedPointers(other);
+                members.forEach(member -> reps.put(member, rep));
+                mergedPointers.putAll(rep, members);
+                mergedPointers.removeAll(other);
+            }
+        }
+    }
+
+    /**
+     * Only the pointers connected by edges without filtering
+     * (i.e., with identity transfer) are guaranteed to point to
+     * the same objects when they form a cycle, thus we only merge
+     * such edges.
+     */
+    static boolean isMergeable(PointerFlowEdge edge) {
+        return edge.getTransfer() == Identity.get();
+    }
 }
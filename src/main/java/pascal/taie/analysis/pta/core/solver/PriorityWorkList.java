@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Work list that schedules the entry with the smallest priority first.
+ * The pending pointers and points-to sets are stored in arrays
+ * indexed by {@link Pointer#getIndex()}.
+ */
+abstract class PriorityWorkList extends WorkList {
+
+    private final IndexedPriorityQueue queue = new IndexedPriorityQueue();
+
+    private Pointer[] pointers = new Pointer[1024];
+
+    private PointsToSet[] pointsToSets = new PointsToSet[1024];
+
+    @Override
+    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+        int index = pointer.getIndex();
+        ensureCapacity(index);
+        PointsToSet set = pointsToSets[index];
+        if (set != null) {
+            if (set.addAll(pointsToSet)) {
+                // re-key the pending entry, as its priority may
+                // depend on the pending points-to set
+                queue.add(index, getPriority(pointer, set));
+            }
+        } else {
+            pointers[index] = pointer;
+            pointsToSets[index] = set = pointsToSet.copy();
+            queue.add(index, getPriority(pointer, set));
+        }
+    }
+
+    @Override
+    Entry pollEntry() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        beforePoll();
+        int index = queue.poll();
+        Pointer pointer = pointers[index];
+        PointsToSet pointsToSet = pointsToSets[index];
+        pointers[index] = null;
+        pointsToSets[index] = null;
+        onPoll(pointer);
+        return new Entry(pointer, pointsToSet);
+    }
+
+    @Override
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * @param pointer     the pointer of a pending entry.
+     * @param pointsToSet the pending points-to set of the entry.
+     * @return the priority of the entry. The entry with the smallest
+     * priority is polled first.
+     */
+    abstract long getPriority(Pointer pointer, PointsToSet pointsToSet);
+
+    /**
+     * Hook method which is called before polling an entry.
+     */
+    void beforePoll() {
+    }
+
+    /**
+     * Hook method which is called after polling the entry of given pointer.
+     */
+    void onPoll(Pointer pointer) {
+    }
+
+    /**
+     * Re-computes the priorities of all pending entries.
+     * Subclasses should call this method when the priorities change.
+     */
+    void updatePriorities() {
+        for (Pointer pointer : pointers) {
+            if (pointer != null) {
+                int index = pointer.getIndex();
+                queue.add(index, getPriority(pointer, pointsToSets[index]));
+            }
+        }
+    }
+
+    private void ensureCapacity(int index) {
+        if (index >= pointers.length) {
+            int newLength = Math.max(index + 1, (int) (pointers.length * 1.5));
+            pointers = Arrays.copyOf(pointers, newLength);
+            pointsToSets = Arrays.copyOf(pointsToSets, newLength);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+/**
+ * Work list that schedules the pointer with the smallest points-to set
+ * first, so that the large points-to sets are propagated after
+ * the small points-to sets of their predecessors have settled.
+ * The size of a pending pointer is estimated by the size of its
+ * points-to set plus the size of its pending points-to set, which is
+ * re-computed when more objects are added to the pending entry.
+ */
+final class SizeWorkList extends PriorityWorkList {
+
+    @Override
+    long getPriority(Pointer pointer, PointsToSet pointsToSet) {
+        PointsToSet pts = pointer.getPointsToSet();
+        return (pts == null ? 0 : pts.size()) + pointsToSet.size();
+    }
+}
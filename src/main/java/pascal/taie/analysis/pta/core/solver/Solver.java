@@ -177,6 +177,15 @@ public interface Solver {
      */
     void addIgnoredMethod(JMethod method);
 
+    /**
+     * Requests this solver to stop propagation as soon as possible.
+     * This is useful for the plugins that only care about whether
+     * some facts are derivable, e.g., the plugins that stop the analysis
+     * once they have found what they are looking for.
+     * After stopping, the pointer analysis result is incomplete.
+     */
+    void stop();
+
     // ---------- side-effect APIs (end) ----------
 
     /**
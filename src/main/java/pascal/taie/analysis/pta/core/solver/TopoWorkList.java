@@ -0,0 +1,95 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.graph.SCC;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Work list that schedules pointers in the topological order of the
+ * condensation (i.e., the graph of strongly connected components)
+ * of pointer flow graph, so that the predecessors of a pointer are
+ * processed before the pointer.
+ * <p>
+ * As pointer flow graph grows during the analysis, the topological order
+ * is re-computed every time the number of edges doubles. Pointers that
+ * are added after the last computation are scheduled after the others.
+ */
+final class TopoWorkList extends PriorityWorkList {
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Maps each pointer index to the topological rank of its SCC.
+     */
+    private int[] ranks = new int[0];
+
+    /**
+     * Number of PFG edges when the topological order is computed next time.
+     */
+    private int nextUpdate = 1;
+
+    TopoWorkList(PointerFlowGraph pointerFlowGraph) {
+        this.pointerFlowGraph = pointerFlowGraph;
+    }
+
+    @Override
+    long getPriority(Pointer pointer, PointsToSet pointsToSet) {
+        int index = pointer.getIndex();
+        return index < ranks.length ? ranks[index] : Integer.MAX_VALUE;
+    }
+
+    @Override
+    void beforePoll() {
+        int nEdges = pointerFlowGraph.getNumberOfEdges();
+        if (nEdges >= nextUpdate) {
+            computeRanks();
+            nextUpdate = nEdges * 2;
+            updatePriorities();
+        }
+    }
+
+    private void computeRanks() {
+        int maxIndex = pointerFlowGraph.getPointers()
+                .stream()
+                .mapToInt(Pointer::getIndex)
+                .max()
+                .orElse(-1);
+        int[] newRanks = new int[maxIndex + 1];
+        Arrays.fill(newRanks, Integer.MAX_VALUE);
+        // Tarjan's algorithm outputs SCCs in reverse topological order
+        List<List<Pointer>> components = new SCC<>(pointerFlowGraph).getComponents();
+        int rank = components.size();
+        for (List<Pointer> component : components) {
+            --rank;
+            for (Pointer pointer : component) {
+                newRanks[pointer.getIndex()] = rank;
+            }
+        }
+        ranks = newRanks;
+    }
+}
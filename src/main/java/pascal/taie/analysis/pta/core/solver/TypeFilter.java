@@ -22,15 +22,21 @@
 
 package pascal.taie.analysis.pta.core.solver;
 
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 
-import java.util.function.Supplier;
-
 /**
  * Transfer function that filters out the objects whose types are NOT
  * subtypes of specific type.
+ * <p>
+ * This filter caches the objects whose types have been checked, and
+ * the ones among them that pass the filter. Thus, the type of each object
+ * is checked only once, and for bit-set-based points-to sets, filtering
+ * becomes bitwise operations on the input set and the cached set.
+ * Solvers should share the filter for the same type to make the most
+ * of the cache.
  */
 public class TypeFilter implements Transfer {
 
@@ -41,20 +47,44 @@ public class TypeFilter implements Transfer {
 
     private final TypeSystem typeSystem;
 
-    private final Supplier<PointsToSet> ptsFactory;
+    /**
+     * Objects whose types have been checked against the guard type.
+     */
+    private final PointsToSet checked;
+
+    /**
+     * Objects that have been checked and pass this filter.
+     */
+    private final PointsToSet passed;
 
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
         this.typeSystem = solver.getTypeSystem();
-        this.ptsFactory = solver::makePointsToSet;
+        this.checked = solver.makePointsToSet();
+        this.passed = solver.makePointsToSet();
     }
 
+    /**
+     * @return the guard type of this filter.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * This method is synchronized as it updates the caches, which may be
+     * shared by the edges processed concurrently.
+     */
     @Override
-    public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
-        PointsToSet result = ptsFactory.get();
-        input.objects()
-                .filter(o -> typeSystem.isSubtype(type, o.getObject().getType()))
-                .forEach(result::addObject);
+    public synchronized PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
+        // check the objects that have not been checked before
+        for (CSObj obj : checked.addAllDiff(input)) {
+            if (typeSystem.isSubtype(type, obj.getObject().getType())) {
+                passed.addObject(obj);
+            }
+        }
+        PointsToSet result = input.copy();
+        result.retainAll(passed);
         return result;
     }
 
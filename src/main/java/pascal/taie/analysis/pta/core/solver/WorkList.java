@@ -19,45 +19,63 @@
  * You should have received a copy of the GNU Lesser General Public
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
-
 package pascal.taie.analysis.pta.core.solver;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.ConfigException;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents work list in pointer analysis.
+ * Different implementations schedule the entries in different orders.
  */
-final class WorkList {
-
-    private final Map<Pointer, PointsToSet> entries = new LinkedHashMap<>();
+abstract class WorkList {
 
-    void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        PointsToSet set = entries.get(pointer);
-        if (set != null) {
-            set.addAll(pointsToSet);
+    /**
+     * Makes a work list which schedules entries in given order.
+     *
+     * @param order            the scheduling order, see {@code worklist-order}
+     *                         option of pointer analysis
+     * @param pointerFlowGraph the pointer flow graph used by the analysis
+     */
+    static WorkList make(String order, PointerFlowGraph pointerFlowGraph) {
+        if (order.equals("fifo")) {
+            return new FIFOWorkList();
+        } else if (order.equals("lrf")) {
+            return new LRFWorkList();
+        } else if (order.equals("size")) {
+            return new SizeWorkList();
+        } else if (order.equals("topo")) {
+            return new TopoWorkList(pointerFlowGraph);
         } else {
-            entries.put(pointer, pointsToSet.copy());
+            throw new ConfigException("Unknown worklist order: " + order);
         }
     }
 
-    Entry pollEntry() {
-        if (entries.isEmpty()) {
-            throw new NoSuchElementException();
+    /**
+     * Adds an entry to this work list. If the pointer is already in this
+     * work list, then the given points-to set is merged into the pending
+     * points-to set of the pointer.
+     */
+    abstract void addEntry(Pointer pointer, PointsToSet pointsToSet);
+
+    abstract Entry pollEntry();
+
+    /**
+     * Polls all entries in this work list, in the scheduling order.
+     */
+    List<Entry> pollAllEntries() {
+        List<Entry> polled = new ArrayList<>();
+        while (!isEmpty()) {
+            polled.add(pollEntry());
         }
-        var it = entries.entrySet().iterator();
-        var e = it.next();
-        it.remove();
-        return new Entry(e.getKey(), e.getValue());
+        return polled;
     }
 
-    boolean isEmpty() {
-        return entries.isEmpty();
-    }
+    abstract boolean isEmpty();
 
     record Entry(Pointer pointer, PointsToSet pointsToSet) {
     }
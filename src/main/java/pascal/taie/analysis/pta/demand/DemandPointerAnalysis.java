@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.HeapModelFactory;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Demand-driven pointer analysis, which computes the points-to sets
+ * of pointers when they are queried, instead of solving the whole program.
+ * <p>
+ * The callers of methods are obtained from the call graph, which
+ * should be built by CHA (i.e., cg=algorithm:cha) to avoid running
+ * whole-program pointer analysis. When a query fails, it is answered by
+ * the result of whole-program pointer analysis. If {@link PointerAnalysis}
+ * has been performed before this analysis, its result (and its heap model)
+ * is reused; otherwise, the whole-program pointer analysis is performed
+ * with the options given by option {@code pta-options} when a query fails
+ * for the first time, and the objects in its results are shared with the
+ * demand-driven analysis.
+ */
+public class DemandPointerAnalysis extends ProgramAnalysis<DemandPointerAnalysisResult> {
+
+    public static final String ID = "demand-pta";
+
+    public DemandPointerAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public DemandPointerAnalysisResult analyze() {
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        int budget = getOptions().getInt("budget");
+        PointerAnalysisResult ptaResult = World.get().getResult(PointerAnalysis.ID);
+        if (ptaResult != null) {
+            // whole-program pointer analysis has been performed,
+            // thus we reuse its result and share its heap model
+            HeapModel heapModel = ptaResult.getResult(HeapModel.class.getName());
+            DemandSolver solver = new DemandSolver(callGraph, heapModel, budget);
+            return new DemandPointerAnalysisResult(solver, () -> ptaResult);
+        }
+        AnalysisConfig ptaConfig = getPTAConfig();
+        HeapModel heapModel = HeapModelFactory.make(ptaConfig.getOptions());
+        DemandSolver solver = new DemandSolver(callGraph, heapModel, budget);
+        return new DemandPointerAnalysisResult(solver,
+                () -> new PointerAnalysis(ptaConfig).analyze(heapModel));
+    }
+
+    /**
+     * @return the config of pointer analysis, whose default options are
+     * overwritten by the options given by {@code pta-options} (if any).
+     */
+    private AnalysisConfig getPTAConfig() {
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> ptaOptions = (Map<String, Object>)
+                getOptions().get("pta-options");
+        if (ptaOptions != null) {
+            new ConfigManager(configs).overwriteOptions(List.of(
+                    new PlanConfig(PointerAnalysis.ID,
+                            new AnalysisOptions(ptaOptions))));
+        }
+        return configs.stream()
+                .filter(config -> config.getId().equals(PointerAnalysis.ID))
+                .findFirst()
+                .orElseThrow(() -> new ConfigException(
+                        "Analysis \"" + PointerAnalysis.ID + "\" is not found in " +
+                                Configs.getAnalysisConfigURL()));
+    }
+}
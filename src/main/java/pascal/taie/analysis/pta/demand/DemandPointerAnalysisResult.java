@@ -0,0 +1,252 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Pointer analysis result whose points-to sets are computed on demand.
+ * <p>
+ * The points-to sets of variables, fields and arrays are answered by
+ * {@link DemandSolver}. If a query fails, it is answered by the result of
+ * whole-program pointer analysis, which is computed when it is first needed.
+ * The other APIs, e.g., call graph and all pointers of the program,
+ * are always answered by the whole-program result.
+ */
+public class DemandPointerAnalysisResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private static final Logger logger = LogManager.getLogger(DemandPointerAnalysisResult.class);
+
+    private final DemandSolver solver;
+
+    private final Supplier<PointerAnalysisResult> wholeProgramAnalysis;
+
+    private PointerAnalysisResult wholeProgramResult;
+
+    private int queries;
+
+    private int failedQueries;
+
+    DemandPointerAnalysisResult(DemandSolver solver,
+                                Supplier<PointerAnalysisResult> wholeProgramAnalysis) {
+        this.solver = solver;
+        this.wholeProgramAnalysis = wholeProgramAnalysis;
+    }
+
+    /**
+     * @return number of points-to queries.
+     */
+    public synchronized int getNumberOfQueries() {
+        return queries;
+    }
+
+    /**
+     * @return number of points-to queries that are answered
+     * by whole-program pointer analysis.
+     */
+    public synchronized int getNumberOfFailedQueries() {
+        return failedQueries;
+    }
+
+    /**
+     * @return whether the whole-program pointer analysis has been performed.
+     */
+    public synchronized boolean isWholeProgramAnalyzed() {
+        return wholeProgramResult != null;
+    }
+
+    private synchronized PointerAnalysisResult getWholeProgramResult() {
+        if (wholeProgramResult == null) {
+            logger.info("Falling back to whole-program pointer analysis" +
+                    " ({} of {} queries failed)", failedQueries, queries);
+            wholeProgramResult = wholeProgramAnalysis.get();
+        }
+        return wholeProgramResult;
+    }
+
+    /**
+     * Counts a query, and returns the result of the query if it succeeds,
+     * otherwise returns {@code null}.
+     */
+    private synchronized Set<Obj> count(Set<Obj> result) {
+        ++queries;
+        if (result == null) {
+            ++failedQueries;
+        }
+        return result;
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return getWholeProgramResult().getCSVars();
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return getWholeProgramResult().getVars();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return getWholeProgramResult().getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return getWholeProgramResult().getArrayIndexes();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return getWholeProgramResult().getStaticFields();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        return getWholeProgramResult().getCSObjects();
+    }
+
+    @Override
+    public Collection<Obj> getObjects() {
+        return getWholeProgramResult().getObjects();
+    }
+
+    @Override
+    public Indexer<Obj> getObjectIndexer() {
+        return getWholeProgramResult().getObjectIndexer();
+    }
+
+    @Override
+    public synchronized Set<Obj> getPointsToSet(Var var) {
+        Set<Obj> result = count(solver.getPointsToSet(var));
+        return result != null ? result
+                : getWholeProgramResult().getPointsToSet(var);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(InstanceFieldAccess access) {
+        Var base = access.getBase();
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(base, field) : Set.of();
+    }
+
+    @Override
+    public synchronized Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            logger.warn("{} is not an instance field", field);
+            return Set.of();
+        }
+        Set<Obj> result = count(solver.getPointsToSet(base, field));
+        return result != null ? result
+                : getWholeProgramResult().getPointsToSet(base, field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(StaticFieldAccess access) {
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(field) : Set.of();
+    }
+
+    @Override
+    public synchronized Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            logger.warn("{} is not a static field", field);
+            return Set.of();
+        }
+        Set<Obj> result = count(solver.getPointsToSet(field));
+        return result != null ? result
+                : getWholeProgramResult().getPointsToSet(field);
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(ArrayAccess access) {
+        return getPointsToSet(access.getBase(), access.getIndex());
+    }
+
+    @Override
+    public synchronized Set<Obj> getPointsToSet(Var base, Var index) {
+        if (!(base.getType() instanceof ArrayType)) {
+            logger.warn("{} is not an array", base);
+            return Set.of();
+        }
+        Set<Obj> result = count(solver.getArrayPointsToSet(base));
+        return result != null ? result
+                : getWholeProgramResult().getPointsToSet(base, index);
+    }
+
+    @Override
+    public boolean mayAlias(Var v1, Var v2) {
+        return Sets.haveOverlap(getPointsToSet(v1), getPointsToSet(v2));
+    }
+
+    @Override
+    public boolean mayAlias(InstanceFieldAccess if1, InstanceFieldAccess if2) {
+        return Objects.equals(
+                if1.getFieldRef().resolveNullable(),
+                if2.getFieldRef().resolveNullable())
+                && mayAlias(if1.getBase(), if2.getBase());
+    }
+
+    @Override
+    public boolean mayAlias(ArrayAccess a1, ArrayAccess a2) {
+        return mayAlias(a1.getBase(), a2.getBase());
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        return getWholeProgramResult().getCSCallGraph();
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return getWholeProgramResult().getCallGraph();
+    }
+}
@@ -0,0 +1,721 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Demand-driven solver of context-insensitive pointer analysis.
+ * <p>
+ * For each query, this solver only collects the constraints of the
+ * pointers that the queried pointer (transitively) depends on, and solves
+ * them to a fixed point. Field accesses are matched on demand: a load
+ * {@code x = y.f} depends on the field {@code o.f} of each object
+ * {@code o} pointed to by {@code y}, and {@code o.f} depends on each store
+ * {@code p.f = z} whose base {@code p} may point to {@code o}. Instance
+ * calls are resolved by the objects of their receivers, so the given call
+ * graph (typically built by CHA) is only used to find the callers of
+ * methods whose parameters are queried.
+ * <p>
+ * The pointers that are solved by a query are reused by later queries.
+ * A query fails if it exceeds the given budget, or depends on the semantics
+ * that are not modeled by this solver (e.g., exceptions, invokedynamic,
+ * native calls and entry methods). In such case, the states of this solver
+ * are reset, as they may be incomplete.
+ */
+class DemandSolver {
+
+    private static final Logger logger = LogManager.getLogger(DemandSolver.class);
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final HeapModel heapModel;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Maximum number of steps of each query.
+     */
+    private final int budget;
+
+    /**
+     * Stores of each static/instance field in reachable methods.
+     */
+    private MultiMap<JField, StoreField> fieldStores;
+
+    /**
+     * Array stores in reachable methods.
+     */
+    private List<StoreArray> arrayStores;
+
+    /**
+     * Definition statements of the variables in each method.
+     */
+    private final Map<JMethod, MultiMap<Var, Stmt>> defs = Maps.newMap();
+
+    private Map<Var, VarNode> varNodes;
+
+    private TwoKeyMap<Obj, JField, FieldNode> fieldNodes;
+
+    private Map<Obj, ArrayNode> arrayNodes;
+
+    private Map<JField, StaticFieldNode> staticFieldNodes;
+
+    /**
+     * Call sites whose callees are resolved.
+     */
+    private Set<Invoke> activeInvokes;
+
+    /**
+     * Resolved call edges.
+     */
+    private Set<Pair<Invoke, JMethod>> callEdges;
+
+    private Queue<Pair<Node, Set<Obj>>> workList;
+
+    /**
+     * Number of steps taken by current query.
+     */
+    private int steps;
+
+    DemandSolver(CallGraph<Invoke, JMethod> callGraph,
+                 HeapModel heapModel, int budget) {
+        this.callGraph = callGraph;
+        this.heapModel = heapModel;
+        this.typeSystem = World.get().getTypeSystem();
+        this.budget = budget;
+        reset();
+    }
+
+    /**
+     * @return the points-to set of given variable, or {@code null}
+     * if the query fails.
+     */
+    @Nullable
+    Set<Obj> getPointsToSet(Var var) {
+        return query(getVarNode(var));
+    }
+
+    /**
+     * @return the points-to set of given instance field of the objects
+     * pointed to by given base variable, or {@code null} if the query fails.
+     */
+    @Nullable
+    Set<Obj> getPointsToSet(Var base, JField field) {
+        Set<Obj> bases = query(getVarNode(base));
+        if (bases == null) {
+            return null;
+        }
+        Set<Obj> result = Sets.newHybridSet();
+        for (Obj obj : List.copyOf(bases)) {
+            Set<Obj> pts = query(getFieldNode(obj, field));
+            if (pts == null) {
+                return null;
+            }
+            result.addAll(pts);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return the points-to set of given static field,
+     * or {@code null} if the query fails.
+     */
+    @Nullable
+    Set<Obj> getPointsToSet(JField field) {
+        return query(getStaticFieldNode(field));
+    }
+
+    /**
+     * @return the points-to set of the elements of the arrays pointed to
+     * by given variable, or {@code null} if the query fails.
+     */
+    @Nullable
+    Set<Obj> getArrayPointsToSet(Var base) {
+        Set<Obj> arrays = query(getVarNode(base));
+        if (arrays == null) {
+            return null;
+        }
+        Set<Obj> result = Sets.newHybridSet();
+        for (Obj array : List.copyOf(arrays)) {
+            Set<Obj> pts = query(getArrayNode(array));
+            if (pts == null) {
+                return null;
+            }
+            result.addAll(pts);
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Nullable
+    private Set<Obj> query(Node node) {
+        if (node.demanded) {
+            // the pointers demanded by previous queries are solved
+            return Collections.unmodifiableSet(node.pts);
+        }
+        steps = 0;
+        try {
+            demand(node);
+            while (!workList.isEmpty()) {
+                step();
+                Pair<Node, Set<Obj>> entry = workList.poll();
+                propagate(entry.first(), entry.second());
+            }
+            return Collections.unmodifiableSet(node.pts);
+        } catch (QueryFailure e) {
+            logger.debug("Query of {} failed: {}", node, e.getMessage());
+            reset();
+            return null;
+        }
+    }
+
+    /**
+     * Clears the states of this solver.
+     */
+    private void reset() {
+        varNodes = Maps.newMap();
+        fieldNodes = Maps.newTwoKeyMap();
+        arrayNodes = Maps.newMap();
+        staticFieldNodes = Maps.newMap();
+        activeInvokes = Sets.newSet();
+        callEdges = Sets.newSet();
+        workList = new ArrayDeque<>();
+    }
+
+    private void step() {
+        if (++steps > budget) {
+            throw new QueryFailure("exceeds budget " + budget);
+        }
+    }
+
+    // ---------- nodes and edges ----------
+
+    private VarNode getVarNode(Var var) {
+        return varNodes.computeIfAbsent(var, VarNode::new);
+    }
+
+    private FieldNode getFieldNode(Obj base, JField field) {
+        return fieldNodes.computeIfAbsent(base, field, FieldNode::new);
+    }
+
+    private ArrayNode getArrayNode(Obj array) {
+        return arrayNodes.computeIfAbsent(array, ArrayNode::new);
+    }
+
+    private StaticFieldNode getStaticFieldNode(JField field) {
+        return staticFieldNodes.computeIfAbsent(field, StaticFieldNode::new);
+    }
+
+    /**
+     * Adds an edge, along which the objects (of given type if it is
+     * not null) pointed to by source flow to target.
+     */
+    private void addEdge(Node source, Node target, @Nullable Type filter) {
+        Edge edge = new Edge(source, target, filter);
+        if (source.outEdges.add(edge)) {
+            target.inEdges.add(edge);
+            if (target.demanded) {
+                demand(source);
+            }
+            if (!source.pts.isEmpty()) {
+                addPointsTo(target, filter(source.pts, filter));
+            }
+        }
+    }
+
+    private void addPointsTo(Node node, Set<Obj> objs) {
+        if (!objs.isEmpty()) {
+            workList.add(new Pair<>(node, objs));
+        }
+    }
+
+    private void addPointsTo(Node node, Obj obj) {
+        addPointsTo(node, Set.of(obj));
+    }
+
+    private Set<Obj> filter(Set<Obj> objs, @Nullable Type type) {
+        if (type == null) {
+            return objs;
+        }
+        Set<Obj> result = Sets.newHybridSet();
+        for (Obj obj : objs) {
+            if (typeSystem.isSubtype(type, obj.getType())) {
+                result.add(obj);
+            }
+        }
+        return result;
+    }
+
+    private void propagate(Node node, Set<Obj> objs) {
+        Set<Obj> diff = Sets.newHybridSet();
+        for (Obj obj : objs) {
+            if (node.pts.add(obj)) {
+                diff.add(obj);
+            }
+        }
+        if (diff.isEmpty()) {
+            return;
+        }
+        for (Edge edge : List.copyOf(node.outEdges)) {
+            addPointsTo(edge.target(), filter(diff, edge.filter()));
+        }
+        if (node instanceof VarNode varNode && node.demanded) {
+            processNewObjects(varNode.var, diff);
+        }
+    }
+
+    // ---------- demands ----------
+
+    /**
+     * Collects the constraints of given node, if it has not been demanded.
+     */
+    private void demand(Node node) {
+        if (node.demanded) {
+            return;
+        }
+        step();
+        node.demanded = true;
+        for (Edge edge : List.copyOf(node.inEdges)) {
+            demand(edge.source());
+        }
+        if (node instanceof VarNode varNode) {
+            demandVar(varNode);
+            if (!node.pts.isEmpty()) {
+                processNewObjects(varNode.var, Set.copyOf(node.pts));
+            }
+        } else if (node instanceof FieldNode fieldNode) {
+            demandInstanceField(fieldNode);
+        } else if (node instanceof ArrayNode arrayNode) {
+            demandArray(arrayNode);
+        } else {
+            demandStaticField((StaticFieldNode) node);
+        }
+    }
+
+    /**
+     * Demands given base variable, and processes the statements whose base
+     * is the variable for the objects that have been discovered.
+     */
+    private void demandBase(Var base) {
+        VarNode node = getVarNode(base);
+        if (node.demanded) {
+            processNewObjects(base, Set.copyOf(node.pts));
+        } else {
+            demand(node);
+        }
+    }
+
+    private void demandVar(VarNode node) {
+        Var var = node.var;
+        JMethod method = var.getMethod();
+        IR ir = method.getIR();
+        if (var == ir.getThis() || ir.getParams().contains(var)) {
+            demandParam(method);
+        }
+        DefVisitor visitor = new DefVisitor(node);
+        getDefs(method).get(var).forEach(stmt -> stmt.accept(visitor));
+    }
+
+    private MultiMap<Var, Stmt> getDefs(JMethod method) {
+        return defs.computeIfAbsent(method, m -> {
+            MultiMap<Var, Stmt> result = Maps.newMultiMap();
+            m.getIR().forEach(stmt -> stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var v) {
+                    result.put(v, stmt);
+                }
+            }));
+            return result;
+        });
+    }
+
+    /**
+     * Resolves the call sites of given method, which pass values
+     * to the parameters of the method.
+     */
+    private void demandParam(JMethod method) {
+        if (callGraph.entryMethods().anyMatch(method::equals)) {
+            throw new QueryFailure("parameters of entry method " + method);
+        }
+        Set<Invoke> callers = callGraph.getCallersOf(method);
+        if (callers.isEmpty()) {
+            throw new QueryFailure("implicit callers of " + method);
+        }
+        callers.forEach(this::activate);
+    }
+
+    /**
+     * Demands the bases of all stores to the field, and the stores
+     * whose bases may point to the object of given node are connected
+     * to the node in {@link #processNewObjects(Var, Set)}.
+     */
+    private void demandInstanceField(FieldNode node) {
+        for (StoreField store : getFieldStores().get(node.field)) {
+            if (store.getFieldAccess() instanceof InstanceFieldAccess access) {
+                demandBase(access.getBase());
+            }
+        }
+    }
+
+    private void demandArray(ArrayNode node) {
+        for (StoreArray store : getArrayStores()) {
+            demandBase(store.getArrayAccess().getBase());
+        }
+    }
+
+    private void demandStaticField(StaticFieldNode node) {
+        for (StoreField store : getFieldStores().get(node.field)) {
+            if (store.isStatic()) {
+                addEdge(getVarNode(store.getRValue()), node, null);
+            }
+        }
+    }
+
+    private MultiMap<JField, StoreField> getFieldStores() {
+        if (fieldStores == null) {
+            fieldStores = Maps.newMultiMap();
+            arrayStores = new ArrayList<>();
+            callGraph.reachableMethods().forEach(m -> m.getIR().forEach(stmt -> {
+                if (stmt instanceof StoreField store && isConcerned(store.getRValue())) {
+                    JField field = store.getFieldRef().resolveNullable();
+                    if (field != null) {
+                        fieldStores.put(field, store);
+                    }
+                } else if (stmt instanceof StoreArray store && isConcerned(store.getRValue())) {
+                    arrayStores.add(store);
+                }
+            }));
+        }
+        return fieldStores;
+    }
+
+    private List<StoreArray> getArrayStores() {
+        getFieldStores();
+        return arrayStores;
+    }
+
+    /**
+     * Collects the constraints of the definitions of a variable.
+     */
+    private class DefVisitor implements StmtVisitor<Void> {
+
+        private final VarNode node;
+
+        private DefVisitor(VarNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public Void visit(New stmt) {
+            if (stmt.getRValue() instanceof NewMultiArray) {
+                throw new QueryFailure("multi-dimensional array " + stmt);
+            }
+            addPointsTo(node, heapModel.getObj(stmt));
+            return null;
+        }
+
+        @Override
+        public Void visit(AssignLiteral stmt) {
+            Literal literal = stmt.getRValue();
+            if (isConcerned(literal)) {
+                addPointsTo(node, heapModel.getConstantObj((ReferenceLiteral) literal));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addEdge(getVarNode(stmt.getRValue()), node, null);
+            return null;
+        }
+
+        @Override
+        public Void visit(Cast stmt) {
+            addEdge(getVarNode(stmt.getRValue().getValue()), node,
+                    stmt.getRValue().getCastType());
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolveNullable();
+                if (field != null) {
+                    addEdge(getStaticFieldNode(field), node, null);
+                }
+            } else {
+                // the field nodes are connected when the objects
+                // of the base variable are discovered
+                demandBase(((InstanceFieldAccess) stmt.getFieldAccess()).getBase());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) {
+            demandBase(stmt.getArrayAccess().getBase());
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            activate(stmt);
+            return null;
+        }
+
+        @Override
+        public Void visit(Catch stmt) {
+            throw new QueryFailure("exception " + stmt);
+        }
+    }
+
+    // ---------- calls ----------
+
+    /**
+     * Resolves the callees of given call site. The callees of instance
+     * call sites are resolved by the objects of their receivers.
+     */
+    private void activate(Invoke invoke) {
+        if (!activeInvokes.add(invoke)) {
+            return;
+        }
+        if (invoke.isDynamic()) {
+            throw new QueryFailure("invokedynamic " + invoke);
+        }
+        if (invoke.isStatic()) {
+            JMethod callee = invoke.getMethodRef().resolveNullable();
+            if (callee != null) {
+                addCallEdge(invoke, callee);
+            }
+        } else {
+            demandBase(((InvokeInstanceExp) invoke.getInvokeExp()).getBase());
+        }
+    }
+
+    private void addCallEdge(Invoke invoke, JMethod callee) {
+        if (!callEdges.add(new Pair<>(invoke, callee))) {
+            return;
+        }
+        if (callee.isNative()) {
+            throw new QueryFailure("native call " + invoke);
+        }
+        IR ir = callee.getIR();
+        List<Var> args = invoke.getInvokeExp().getArgs();
+        for (int i = 0; i < args.size(); ++i) {
+            Var param = ir.getParam(i);
+            if (isConcerned(param)) {
+                addEdge(getVarNode(args.get(i)), getVarNode(param), null);
+            }
+        }
+        Var lhs = invoke.getLValue();
+        if (lhs != null && isConcerned(lhs)) {
+            for (Var ret : ir.getReturnVars()) {
+                addEdge(getVarNode(ret), getVarNode(lhs), null);
+            }
+        }
+    }
+
+    /**
+     * Processes the statements whose base is given variable,
+     * when new objects of the variable are discovered.
+     */
+    private void processNewObjects(Var var, Set<Obj> objs) {
+        for (LoadField load : var.getLoadFields()) {
+            VarNode to = varNodes.get(load.getLValue());
+            JField field = load.getFieldRef().resolveNullable();
+            if (to != null && to.demanded && field != null) {
+                objs.forEach(o -> addEdge(getFieldNode(o, field), to, null));
+            }
+        }
+        for (LoadArray load : var.getLoadArrays()) {
+            VarNode to = varNodes.get(load.getLValue());
+            if (to != null && to.demanded) {
+                objs.forEach(o -> addEdge(getArrayNode(o), to, null));
+            }
+        }
+        for (StoreField store : var.getStoreFields()) {
+            JField field = store.getFieldRef().resolveNullable();
+            if (field != null && isConcerned(store.getRValue())) {
+                for (Obj o : objs) {
+                    FieldNode to = fieldNodes.get(o, field);
+                    if (to != null && to.demanded) {
+                        addEdge(getVarNode(store.getRValue()), to, null);
+                    }
+                }
+            }
+        }
+        for (StoreArray store : var.getStoreArrays()) {
+            if (isConcerned(store.getRValue())) {
+                for (Obj o : objs) {
+                    ArrayNode to = arrayNodes.get(o);
+                    if (to != null && to.demanded) {
+                        // type guard for array stores as Java arrays are covariant
+                        addEdge(getVarNode(store.getRValue()), to,
+                                ((ArrayType) o.getType()).elementType());
+                    }
+                }
+            }
+        }
+        for (Invoke invoke : var.getInvokes()) {
+            if (activeInvokes.contains(invoke)) {
+                for (Obj recv : objs) {
+                    JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+                    if (callee != null) {
+                        addCallEdge(invoke, callee);
+                        Var thisVar = callee.getIR().getThis();
+                        addPointsTo(getVarNode(thisVar), recv);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isConcerned(Exp exp) {
+        Type type = exp.getType();
+        return type instanceof ReferenceType && !(type instanceof NullType);
+    }
+
+    /**
+     * Pointers in demand-driven analysis.
+     */
+    private static class Node {
+
+        private final String name;
+
+        final Set<Obj> pts = Sets.newHybridSet();
+
+        final Set<Edge> inEdges = Sets.newHybridSet();
+
+        final Set<Edge> outEdges = Sets.newHybridSet();
+
+        /**
+         * Whether the constraints of this node have been collected.
+         */
+        boolean demanded;
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class VarNode extends Node {
+
+        private final Var var;
+
+        private VarNode(Var var) {
+            super(var.getMethod() + "/" + var.getName());
+            this.var = var;
+        }
+    }
+
+    private static class FieldNode extends Node {
+
+        private final JField field;
+
+        private FieldNode(Obj base, JField field) {
+            super(base + "." + field.getName());
+            this.field = field;
+        }
+    }
+
+    private static class ArrayNode extends Node {
+
+        private ArrayNode(Obj array) {
+            super(array + "[*]");
+        }
+    }
+
+    private static class StaticFieldNode extends Node {
+
+        private final JField field;
+
+        private StaticFieldNode(JField field) {
+            super(field.toString());
+            this.field = field;
+        }
+    }
+
+    private record Edge(Node source, Node target, @Nullable Type filter) {
+    }
+
+    /**
+     * Signals that a query fails.
+     */
+    private static class QueryFailure extends RuntimeException {
+
+        private QueryFailure(String msg) {
+            super(msg, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speculatively builds IR for the callees of newly reachable methods
+ * on background threads, so that pointer analysis rarely waits for
+ * IR construction when it reaches the callees later.
+ * <p>
+ * The callees are the methods resolved from the method references of
+ * the call sites, i.e., the overriding methods of virtual calls are
+ * not prefetched. As {@link JMethod#getIR()} builds IR only once,
+ * the IR built by this prefetcher is simply reused by the analysis.
+ */
+public class IRPrefetcher implements Plugin {
+
+    private static final Logger logger = LogManager.getLogger(IRPrefetcher.class);
+
+    /**
+     * Methods whose IR have been requested to be prefetched.
+     */
+    private final Set<JMethod> requested = Sets.newConcurrentSet();
+
+    private final AtomicInteger prefetched = new AtomicInteger(0);
+
+    private ExecutorService executor;
+
+    /**
+     * Whether pointer analysis has finished, after which
+     * the pending prefetching tasks are skipped.
+     */
+    private volatile boolean finished = false;
+
+    @Override
+    public void onStart() {
+        int nThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(nThreads, r -> {
+            Thread thread = new Thread(r, "IRPrefetcher");
+            // do not prevent the JVM from exiting
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onNewMethod(JMethod method) {
+        method.getIR().invokes(false).forEach(invoke -> {
+            JMethod callee = invoke.getMethodRef().resolveNullable();
+            if (callee != null && !callee.isAbstract()
+                    && requested.add(callee)) {
+                executor.execute(() -> prefetch(callee));
+            }
+        });
+    }
+
+    private void prefetch(JMethod method) {
+        if (finished) {
+            return;
+        }
+        try {
+            method.getIR();
+            prefetched.incrementAndGet();
+        } catch (RuntimeException e) {
+            // the failure will be reported when the analysis
+            // actually requests the IR (if it does)
+        }
+    }
+
+    @Override
+    public void onFinish() {
+        // the remaining methods are not needed by the analysis. We do not
+        // interrupt the running tasks, as interrupting the frontend in the
+        // middle of reading class files may break its states.
+        finished = true;
+        executor.shutdown();
+        logger.info("Prefetched IR for {} methods", prefetched.get());
+        requested.clear();
+    }
+}
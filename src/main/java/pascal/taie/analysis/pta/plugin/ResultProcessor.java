@@ -28,6 +28,7 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.snapshot.Snapshots;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Lists;
@@ -48,14 +49,16 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
 /**
- * Dump points-to set to file or compare the analysis result with
- * the ones read from input file.
+ * Dump points-to set to file, compare the analysis result with
+ * the ones read from input file, or save the result as a binary
+ * snapshot (see {@link Snapshots}).
  * Currently, the compare functionality is mainly for testing purpose.
  * It is not efficient and not recommended applying on large program.
  */
@@ -92,7 +95,7 @@ public class ResultProcessor implements Plugin {
             return;
         }
         String file = options.getString("action-file");
-        boolean taintEnabled = options.getString("taint-config") != null;
+        boolean taintEnabled = options.get("taint-config") != null;
         switch (action) {
             case "dump":
                 dumpPointsToSet(result, file, taintEnabled);
@@ -106,6 +109,9 @@ public class ResultProcessor implements Plugin {
                     comparePointsToSet(result, file);
                 }
                 break;
+            case "save":
+                Snapshots.save(result, file);
+                break;
         }
     }
 
@@ -243,15 +249,26 @@ public class ResultProcessor implements Plugin {
     }
 
     /**
-     * @return taint analysis result.
+     * @return taint analysis result. If multiple taint configs are analyzed,
+     * returns the union of the taint flows of all configs.
      */
     private static Set<TaintFlow> getTaintFlows(PointerAnalysisResult result) {
+        Set<TaintFlow> taintFlows = null;
         for (String key : result.getKeys()) {
             if (key.contains("Taint")) { // adapt different taint analyses
-                return result.getResult(key);
+                Set<TaintFlow> flows = result.getResult(key);
+                if (taintFlows == null) {
+                    taintFlows = flows;
+                } else {
+                    taintFlows = new TreeSet<>(taintFlows);
+                    taintFlows.addAll(flows);
+                }
             }
         }
-        throw new AnalysisException("Taint analysis result is absent");
+        if (taintFlows == null) {
+            throw new AnalysisException("Taint analysis result is absent");
+        }
+        return taintFlows;
     }
 
     private static void compareTaintFlows(PointerAnalysisResult result, String input) {
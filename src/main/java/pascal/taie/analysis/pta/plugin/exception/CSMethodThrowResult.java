@@ -23,45 +23,52 @@
 package pascal.taie.analysis.pta.plugin.exception;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.SetEx;
 
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
 public class CSMethodThrowResult {
 
-    private final Supplier<SetEx<CSObj>> setFactory;
+    private final Supplier<PointsToSet> setFactory;
 
-    private final Map<Stmt, SetEx<CSObj>> explicitExceptions;
+    private final Map<Stmt, PointsToSet> explicitExceptions;
 
-    private final SetEx<CSObj> uncaughtExceptions;
+    private final PointsToSet uncaughtExceptions;
 
-    CSMethodThrowResult(Supplier<SetEx<CSObj>> setFactory) {
+    CSMethodThrowResult(Supplier<PointsToSet> setFactory) {
         this.setFactory = setFactory;
         explicitExceptions = Maps.newHybridMap();
         uncaughtExceptions = setFactory.get();
     }
 
-    Set<CSObj> propagate(Stmt stmt, Set<CSObj> exceptions) {
+    PointsToSet propagate(Stmt stmt, PointsToSet exceptions) {
         return explicitExceptions.computeIfAbsent(
                         stmt, unused -> setFactory.get())
                 .addAllDiff(exceptions);
     }
 
-    void addUncaughtExceptions(Set<CSObj> exceptions) {
+    void addUncaughtExceptions(PointsToSet exceptions) {
         uncaughtExceptions.addAll(exceptions);
     }
 
     Set<CSObj> mayThrowExplicitly(Stmt stmt) {
-        Set<CSObj> result = explicitExceptions.get(stmt);
-        return result != null ? result : Set.of();
+        PointsToSet result = explicitExceptions.get(stmt);
+        return result != null ? result.getObjects() : Set.of();
     }
 
     Set<CSObj> mayThrowUncaught() {
-        return Collections.unmodifiableSet(uncaughtExceptions);
+        return uncaughtExceptions.getObjects();
+    }
+
+    /**
+     * @return the uncaught exceptions as a points-to set,
+     * which should NOT be modified by the callers.
+     */
+    PointsToSet getUncaughtExceptions() {
+        return uncaughtExceptions;
     }
 }
@@ -43,14 +43,16 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.Throw;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
-import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.SetEx;
-import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Pair;
 
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -66,7 +68,13 @@ public class ExceptionAnalysis implements Plugin {
 
     private TypeSystem typeSystem;
 
-    private Supplier<SetEx<CSObj>> setFactory;
+    private Supplier<PointsToSet> setFactory;
+
+    /**
+     * Whether coalesces the exceptions propagated to the same statement
+     * and dispatches exceptions to catchers by type tables.
+     */
+    private boolean batched;
 
     /**
      * Map from thrown variables to the corresponding throw statements.
@@ -79,15 +87,32 @@ public class ExceptionAnalysis implements Plugin {
     private Map<JMethod, Map<Stmt, List<ExceptionEntry>>> catchers =
             Maps.newMap(1024);
 
+    /**
+     * Map from each statement to the dispatch table from exception type
+     * to the index of the exception entry that catches the exceptions of
+     * the type, or -1 if no entry of the method catches them.
+     * The tables are filled on demand and only used in batched mode.
+     */
+    private Map<Stmt, Map<Type, Integer>> catchTables = Maps.newMap();
+
     /**
      * Work-list of exception entries to be propagated.
      */
     private Queue<Entry> workList = new ArrayDeque<>();
 
+    /**
+     * Exceptions pending for propagation in batched mode. The exceptions
+     * propagated to the same statement (in the same context) are coalesced
+     * before being processed, and the entries are processed in the order
+     * of their first insertions.
+     */
+    private Map<Pair<CSMethod, Stmt>, PointsToSet> pendingExceptions =
+            new LinkedHashMap<>();
+
     /**
      * Work-list entries.
      */
-    private record Entry(CSMethod csMethod, Stmt stmt, Set<CSObj> exceptions) {
+    private record Entry(CSMethod csMethod, Stmt stmt, PointsToSet exceptions) {
     }
 
     @Override
@@ -95,9 +120,8 @@ public class ExceptionAnalysis implements Plugin {
         this.solver = solver;
         this.csManager = solver.getCSManager();
         this.typeSystem = solver.getTypeSystem();
-        // use sparse bit set only when exception objects are NOT merged
-        boolean isSparse = !solver.getOptions().getBoolean("merge-exception-objects");
-        this.setFactory = () -> new IndexerBitSet<>(csManager.getObjectIndexer(), isSparse);
+        this.setFactory = solver::makePointsToSet;
+        this.batched = solver.getOptions().getBoolean("batch-exceptions");
     }
 
     /**
@@ -135,8 +159,8 @@ public class ExceptionAnalysis implements Plugin {
             Context ctx = csVar.getContext();
             JMethod currentMethod = exceptionRef.getMethod();
             CSMethod currentCSMethod = csManager.getCSMethod(ctx, currentMethod);
-            throwStmts.forEach(throwStmt -> workList.add(
-                    new Entry(currentCSMethod, throwStmt, pts.getObjects())));
+            throwStmts.forEach(throwStmt ->
+                    addEntry(currentCSMethod, throwStmt, pts));
             propagateExceptions();
         }
     }
@@ -158,8 +182,7 @@ public class ExceptionAnalysis implements Plugin {
             csResult.ifPresent(result -> {
                 CSMethod caller = edge.getCallSite().getContainer();
                 Invoke invoke = edge.getCallSite().getCallSite();
-                Set<CSObj> exceptions = result.mayThrowUncaught();
-                workList.add(new Entry(caller, invoke, exceptions));
+                addEntry(caller, invoke, result.getUncaughtExceptions());
                 propagateExceptions();
             });
         }
@@ -173,17 +196,18 @@ public class ExceptionAnalysis implements Plugin {
      * to call site (invoke) of the method.
      */
     private void propagateExceptions() {
-        while (!workList.isEmpty()) {
-            Entry entry = workList.poll();
+        Entry entry;
+        while ((entry = pollEntry()) != null) {
             CSMethod csMethod = entry.csMethod();
             Stmt stmt = entry.stmt();
-            Set<CSObj> exceptions = entry.exceptions();
+            PointsToSet exceptions = entry.exceptions();
             CSMethodThrowResult result = csMethod.getResult(getClass().getName(),
                     () -> new CSMethodThrowResult(setFactory));
-            Set<CSObj> diff = result.propagate(stmt, exceptions);
+            PointsToSet diff = result.propagate(stmt, exceptions);
             if (!diff.isEmpty()) {
-                Set<CSObj> uncaught = analyzeIntraUncaught(
-                        stmt, diff, csMethod);
+                PointsToSet uncaught = batched ?
+                        dispatchIntraUncaught(stmt, diff, csMethod) :
+                        analyzeIntraUncaught(stmt, diff, csMethod);
                 if (!uncaught.isEmpty()) {
                     result.addUncaughtExceptions(uncaught);
                     solver.getCallGraph()
@@ -194,13 +218,48 @@ public class ExceptionAnalysis implements Plugin {
                                 CSCallSite callSite = edge.getCallSite();
                                 CSMethod caller = callSite.getContainer();
                                 Invoke invoke = callSite.getCallSite();
-                                workList.add(new Entry(caller, invoke, uncaught));
+                                addEntry(caller, invoke, uncaught);
                             });
                 }
             }
         }
     }
 
+    /**
+     * Adds exceptions thrown by given statement to the work-list.
+     * In batched mode, the exceptions are merged into the pending
+     * exceptions of the same statement (if any).
+     */
+    private void addEntry(CSMethod csMethod, Stmt stmt, PointsToSet exceptions) {
+        if (batched) {
+            pendingExceptions.computeIfAbsent(new Pair<>(csMethod, stmt),
+                            unused -> setFactory.get())
+                    .addAll(exceptions);
+        } else {
+            workList.add(new Entry(csMethod, stmt, exceptions));
+        }
+    }
+
+    /**
+     * @return the next entry to be processed, or null if there is none.
+     */
+    @Nullable
+    private Entry pollEntry() {
+        if (batched) {
+            Iterator<Map.Entry<Pair<CSMethod, Stmt>, PointsToSet>> iter =
+                    pendingExceptions.entrySet().iterator();
+            if (!iter.hasNext()) {
+                return null;
+            }
+            Map.Entry<Pair<CSMethod, Stmt>, PointsToSet> next = iter.next();
+            iter.remove();
+            return new Entry(next.getKey().first(), next.getKey().second(),
+                    next.getValue());
+        } else {
+            return workList.poll();
+        }
+    }
+
     /**
      * Performs an intra-procedural analysis to compute the exceptions that are
      * not caught by the current method.
@@ -210,16 +269,16 @@ public class ExceptionAnalysis implements Plugin {
      * @param csMethod      the csMethod containing currentStmt
      * @return the exceptions thrown by currentStmt but not caught by csMethod
      */
-    private Set<CSObj> analyzeIntraUncaught(
+    private PointsToSet analyzeIntraUncaught(
             Stmt currentStmt,
-            Set<CSObj> newExceptions,
+            PointsToSet newExceptions,
             CSMethod csMethod) {
         List<ExceptionEntry> entries = catchers.get(csMethod.getMethod())
                 .get(currentStmt);
         if (entries != null) {
             Context ctx = csMethod.getContext();
             for (ExceptionEntry entry : entries) {
-                Set<CSObj> uncaughtExceptions = Sets.newHybridSet();
+                PointsToSet uncaughtExceptions = setFactory.get();
                 newExceptions.forEach(newException -> {
                     Obj exObj = newException.getObject();
                     if (typeSystem.isSubtype(entry.catchType(), exObj.getType())) {
@@ -227,7 +286,7 @@ public class ExceptionAnalysis implements Plugin {
                         Var exceptionRef = catchStmt.getExceptionRef();
                         solver.addVarPointsTo(ctx, exceptionRef, newException);
                     } else {
-                        uncaughtExceptions.add(newException);
+                        uncaughtExceptions.addObject(newException);
                     }
                 });
                 newExceptions = uncaughtExceptions;
@@ -236,6 +295,60 @@ public class ExceptionAnalysis implements Plugin {
         return newExceptions;
     }
 
+    /**
+     * Same as {@link #analyzeIntraUncaught}, but looks up the catcher of
+     * each exception in the dispatch table of the statement, and adds the
+     * exceptions caught by the same catcher to its exception reference
+     * in one go.
+     */
+    private PointsToSet dispatchIntraUncaught(
+            Stmt currentStmt,
+            PointsToSet newExceptions,
+            CSMethod csMethod) {
+        List<ExceptionEntry> entries = catchers.get(csMethod.getMethod())
+                .get(currentStmt);
+        if (entries == null) {
+            return newExceptions;
+        }
+        Map<Type, Integer> table = catchTables.computeIfAbsent(
+                currentStmt, unused -> Maps.newHybridMap());
+        PointsToSet uncaughtExceptions = setFactory.get();
+        PointsToSet[] caughtExceptions = new PointsToSet[entries.size()];
+        for (CSObj newException : newExceptions) {
+            int i = table.computeIfAbsent(newException.getObject().getType(),
+                    type -> findCatcher(entries, type));
+            if (i == -1) {
+                uncaughtExceptions.addObject(newException);
+            } else {
+                if (caughtExceptions[i] == null) {
+                    caughtExceptions[i] = setFactory.get();
+                }
+                caughtExceptions[i].addObject(newException);
+            }
+        }
+        Context ctx = csMethod.getContext();
+        for (int i = 0; i < caughtExceptions.length; ++i) {
+            if (caughtExceptions[i] != null) {
+                Var exceptionRef = entries.get(i).handler().getExceptionRef();
+                solver.addVarPointsTo(ctx, exceptionRef, caughtExceptions[i]);
+            }
+        }
+        return uncaughtExceptions;
+    }
+
+    /**
+     * @return index of the first exception entry that catches the exceptions
+     * of given type, or -1 if none of the entries catches them.
+     */
+    private int findCatcher(List<ExceptionEntry> entries, Type type) {
+        for (int i = 0; i < entries.size(); ++i) {
+            if (typeSystem.isSubtype(entries.get(i).catchType(), type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public void onFinish() {
         // Collects context-sensitive throw results and stores them in
@@ -255,6 +368,8 @@ public class ExceptionAnalysis implements Plugin {
     private void clear() {
         var2Throws = null;
         catchers = null;
+        catchTables = null;
         workList = null;
+        pendingExceptions = null;
     }
 }
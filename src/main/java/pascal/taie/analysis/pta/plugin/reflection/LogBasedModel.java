@@ -46,9 +46,10 @@ import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
 import pascal.taie.util.collection.Sets;
 
-import java.util.ArrayList;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -68,12 +69,16 @@ class LogBasedModel extends MetaObjModel {
             "Array.newInstance"
     );
 
-    private final Map<String, String> fullNames = Map.of(
-            "Class", ClassNames.CLASS,
-            "Constructor", ClassNames.CONSTRUCTOR,
-            "Method", ClassNames.METHOD,
-            "Field", ClassNames.FIELD,
-            "Array", ClassNames.ARRAY
+    /**
+     * Map from full names of the reflection API classes to their simple
+     * names used in the log.
+     */
+    private final Map<String, String> simpleNames = Map.of(
+            ClassNames.CLASS, "Class",
+            ClassNames.CONSTRUCTOR, "Constructor",
+            ClassNames.METHOD, "Method",
+            ClassNames.FIELD, "Field",
+            ClassNames.ARRAY, "Array"
     );
 
     private final Set<JMethod> relevantMethods = Sets.newSet();
@@ -110,10 +115,26 @@ class LogBasedModel extends MetaObjModel {
         selector = solver.getContextSelector();
         String path = solver.getOptions().getString("reflection-log");
         logger.info("Using reflection log from {}", path);
-        LogItem.load(path).forEach(this::addItem);
+        ReflectionLog.load(path).getCallerItems().forEach(this::addItems);
     }
 
-    private void addItem(LogItem item) {
+    /**
+     * Adds the items of the same caller. The invokes in the caller are
+     * indexed (only once) on demand, and the index is shared by the items.
+     */
+    private void addItems(String caller, List<LogItem> items) {
+        MultiMap<Pair<String, Integer>, Invoke> index = null;
+        for (LogItem item : items) {
+            if (supportedApis.contains(item.api)) {
+                if (index == null) {
+                    index = indexInvokes(caller);
+                }
+                addItem(item, index);
+            }
+        }
+    }
+
+    private void addItem(LogItem item, MultiMap<Pair<String, Integer>, Invoke> index) {
         if (!supportedApis.contains(item.api)) {
             return;
         }
@@ -132,7 +153,7 @@ class LogBasedModel extends MetaObjModel {
         }
         // add target specified in the item
         if (target != null) {
-            List<Invoke> invokes = getMatchedInvokes(item);
+            Set<Invoke> invokes = getMatchedInvokes(item, index);
             if (target instanceof JClass) {
                 if (item.api.equals("Class.forName")) {
                     for (Invoke invoke : invokes) {
@@ -164,26 +185,57 @@ class LogBasedModel extends MetaObjModel {
         }
     }
 
-    private List<Invoke> getMatchedInvokes(LogItem item) {
-        int lastDot = item.caller.lastIndexOf('.');
-        String callerClass = item.caller.substring(0, lastDot);
-        String callerMethod = item.caller.substring(lastDot + 1);
+    /**
+     * Indexes the invokes to reflection APIs in given caller (in form of
+     * "class.method") by (API, line number). Each invoke is also indexed
+     * by (API, {@link LogItem#UNKNOWN}) to match the items without
+     * line numbers.
+     */
+    private MultiMap<Pair<String, Integer>, Invoke> indexInvokes(String caller) {
+        MultiMap<Pair<String, Integer>, Invoke> index = Maps.newMultiMap();
+        int lastDot = caller.lastIndexOf('.');
+        String callerClass = caller.substring(0, lastDot);
+        String callerMethod = caller.substring(lastDot + 1);
         JClass klass = hierarchy.getClass(callerClass);
         if (klass == null) {
             if (missingItems.add(callerClass)) {
                 logger.warn("Reflective caller class '{}' is absent", callerClass);
             }
-            return List.of();
+            return index;
         }
-        List<Invoke> invokes = new ArrayList<>();
         klass.getDeclaredMethods()
                 .stream()
                 .filter(m -> m.getName().equals(callerMethod) && !m.isAbstract())
-                .forEach(caller ->
-                        caller.getIR()
-                                .invokes(false)
-                                .filter(invoke -> isMatched(item, invoke))
-                                .forEach(invokes::add));
+                .forEach(m -> m.getIR().invokes(false).forEach(invoke -> {
+                    String api = getAPI(invoke);
+                    if (api != null) {
+                        index.put(new Pair<>(api, invoke.getLineNumber()), invoke);
+                        index.put(new Pair<>(api, LogItem.UNKNOWN), invoke);
+                    }
+                }));
+        return index;
+    }
+
+    /**
+     * @return the reflection API (in form of the log) called by given
+     * invoke, or null if the callee is not a reflection API.
+     */
+    @Nullable
+    private String getAPI(Invoke invoke) {
+        JMethod callee = invoke.getMethodRef().resolveNullable();
+        if (callee != null) {
+            String apiClass = simpleNames.get(
+                    callee.getDeclaringClass().getName());
+            if (apiClass != null) {
+                return apiClass + "." + callee.getName();
+            }
+        }
+        return null;
+    }
+
+    private Set<Invoke> getMatchedInvokes(
+            LogItem item, MultiMap<Pair<String, Integer>, Invoke> index) {
+        Set<Invoke> invokes = index.get(new Pair<>(item.api, item.lineNumber));
         if (invokes.isEmpty()) {
             logger.warn("No matched invokes found for {}/{}",
                     item.caller, item.lineNumber);
@@ -191,17 +243,6 @@ class LogBasedModel extends MetaObjModel {
         return invokes;
     }
 
-    private boolean isMatched(LogItem item, Invoke invoke) {
-        int lastDot = item.api.lastIndexOf('.');
-        String apiClass = fullNames.get(item.api.substring(0, lastDot));
-        String apiMethod = item.api.substring(lastDot + 1);
-        JMethod callee = invoke.getMethodRef().resolve();
-        return callee.getDeclaringClass().getName().equals(apiClass) &&
-                callee.getName().equals(apiMethod) &&
-                (item.lineNumber == LogItem.UNKNOWN ||
-                        item.lineNumber == invoke.getLineNumber());
-    }
-
     @Override
     void handleNewCSMethod(CSMethod csMethod) {
         JMethod method = csMethod.getMethod();
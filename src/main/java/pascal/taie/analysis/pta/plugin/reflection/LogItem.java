@@ -22,12 +22,6 @@
 
 package pascal.taie.analysis.pta.plugin.reflection;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -35,8 +29,6 @@ import java.util.List;
  */
 public class LogItem {
 
-    private static final Logger logger = LogManager.getLogger(LogItem.class);
-
     public final String api;
 
     public final String target;
@@ -47,35 +39,19 @@ public class LogItem {
 
     public static final int UNKNOWN = -1;
 
-    private LogItem(String api, String target, String caller, int lineNumber) {
+    LogItem(String api, String target, String caller, int lineNumber) {
         this.api = api;
         this.target = target;
         this.caller = caller;
         this.lineNumber = lineNumber;
     }
 
+    /**
+     * Loads log items from given path.
+     *
+     * @see ReflectionLog#load(String)
+     */
     public static List<LogItem> load(String path) {
-        try {
-            return Files.readAllLines(Path.of(path))
-                    .stream()
-                    .map(line -> {
-                        String[] split = line.split(";", -1);
-                        String api = split[0];
-                        if (api.startsWith("Field")) {
-                            api = api.replace("get*", "get")
-                                    .replace("set*", "set");
-                        }
-                        String target = split[1];
-                        String caller = split[2];
-                        String s3 = split[3];
-                        int lineNumber = s3.isBlank() ?
-                                LogItem.UNKNOWN : Integer.parseInt(s3);
-                        return new LogItem(api, target, caller, lineNumber);
-                    })
-                    .toList();
-        } catch (IOException e) {
-            logger.error("Failed to load reflection log from {}", path);
-            return List.of();
-        }
+        return ReflectionLog.load(path).getItems();
     }
 }
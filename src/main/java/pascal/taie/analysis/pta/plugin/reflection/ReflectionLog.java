@@ -0,0 +1,290 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.reflection;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.Configs;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Indexed representation of a reflection log.
+ * <p>
+ * A log is parsed only once (in parallel) and shared by world building,
+ * which needs the target classes, and {@link LogBasedModel}, which matches
+ * the items to call sites caller by caller. The parsed items are also
+ * cached in a file under {@code <output-dir>/reflection-log-cache},
+ * so that later runs on the same log do not parse it again, and the
+ * directory of the log (which may be read-only) is left untouched.
+ * The cache is valid as long as the size and the last modified time
+ * of the log are unchanged.
+ */
+public class ReflectionLog {
+
+    private static final Logger logger = LogManager.getLogger(ReflectionLog.class);
+
+    private static final int CACHE_MAGIC = 0x5441524c; // "TARL"
+
+    private static final int CACHE_VERSION = 2;
+
+    private static final String CACHE_DIR = "reflection-log-cache";
+
+    private static final String CACHE_SUFFIX = ".idx";
+
+    /**
+     * Logs loaded in this process, keyed by their paths.
+     */
+    private static final Map<Path, ReflectionLog> loadedLogs = Maps.newConcurrentMap();
+
+    /**
+     * Stamp of the log file, i.e., its size and last modified time.
+     */
+    private final long[] stamp;
+
+    private final List<LogItem> items;
+
+    /**
+     * Map from caller (in form of "class.method") to the items of the caller.
+     */
+    private final Map<String, List<LogItem>> callerItems;
+
+    /**
+     * Names of the (non-primitive) classes of the reflective targets.
+     */
+    private final Set<String> targetClasses;
+
+    private ReflectionLog(long[] stamp, List<LogItem> items) {
+        this.stamp = stamp;
+        this.items = items;
+        this.callerItems = Collections.unmodifiableMap(items.stream()
+                .collect(Collectors.groupingBy(item -> item.caller,
+                        LinkedHashMap::new, Collectors.toList())));
+        this.targetClasses = items.parallelStream()
+                .map(ReflectionLog::getTargetClass)
+                .filter(c -> !PrimitiveType.isPrimitiveType(c))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Loads reflection log from given path. The log is read from the cache
+     * of this process or the cache file in the output directory if it is
+     * valid, otherwise it is parsed and cached.
+     *
+     * @return the loaded log, or an empty log if the file cannot be read.
+     */
+    public static ReflectionLog load(String path) {
+        Path logPath = Path.of(path).toAbsolutePath().normalize();
+        long[] stamp;
+        try {
+            stamp = getStamp(logPath);
+        } catch (IOException e) {
+            logger.error("Failed to load reflection log from {}", path);
+            return new ReflectionLog(new long[]{ -1, -1 }, List.of());
+        }
+        Path cacheDir = new File(Configs.getOutputDir(), CACHE_DIR).toPath();
+        return loadedLogs.compute(logPath, (p, log) ->
+                log != null && isSameStamp(log.stamp, stamp) ?
+                        log : load(p, stamp, cacheDir));
+    }
+
+    /**
+     * Loads reflection log from the cache file in given directory
+     * if it is valid, otherwise parses the log and caches it.
+     *
+     * @param logPath  absolute path of the log
+     * @param stamp    stamp of the log
+     * @param cacheDir directory of the cache files
+     */
+    static ReflectionLog load(Path logPath, long[] stamp, Path cacheDir) {
+        Path cachePath = getCachePath(logPath, cacheDir);
+        ReflectionLog cached = readCache(cachePath, logPath, stamp);
+        if (cached != null) {
+            logger.info("Loaded {} reflection log items from cache {}",
+                    cached.items.size(), cachePath);
+            return cached;
+        }
+        ReflectionLog parsed = parse(logPath, stamp);
+        writeCache(parsed, logPath, cachePath);
+        return parsed;
+    }
+
+    static long[] getStamp(Path logPath) throws IOException {
+        return new long[]{
+                Files.size(logPath),
+                Files.getLastModifiedTime(logPath).toMillis()
+        };
+    }
+
+    private static boolean isSameStamp(long[] stamp1, long[] stamp2) {
+        return stamp1[0] == stamp2[0] && stamp1[1] == stamp2[1];
+    }
+
+    /**
+     * @return path of the cache file of given log. The file name contains
+     * the hash of the path of the log, so that the logs of the same name
+     * in different directories are cached in different files.
+     */
+    static Path getCachePath(Path logPath, Path cacheDir) {
+        return cacheDir.resolve(String.format("%s-%08x%s",
+                logPath.getFileName(), logPath.toString().hashCode(), CACHE_SUFFIX));
+    }
+
+    private static ReflectionLog parse(Path logPath, long[] stamp) {
+        try {
+            List<LogItem> items = Files.readAllLines(logPath)
+                    .parallelStream()
+                    .map(ReflectionLog::parseItem)
+                    .toList();
+            logger.info("Parsed {} reflection log items from {}",
+                    items.size(), logPath);
+            return new ReflectionLog(stamp, items);
+        } catch (IOException e) {
+            logger.error("Failed to load reflection log from {}", logPath);
+            return new ReflectionLog(stamp, List.of());
+        }
+    }
+
+    private static LogItem parseItem(String line) {
+        String[] split = line.split(";", -1);
+        String api = split[0];
+        if (api.startsWith("Field")) {
+            api = api.replace("get*", "get")
+                    .replace("set*", "set");
+        }
+        String target = split[1];
+        String caller = split[2];
+        String s3 = split[3];
+        int lineNumber = s3.isBlank() ?
+                LogItem.UNKNOWN : Integer.parseInt(s3);
+        return new LogItem(api, target, caller, lineNumber);
+    }
+
+    private static String getTargetClass(LogItem item) {
+        String target = item.target;
+        String targetClass;
+        if (target.startsWith("<")) {
+            targetClass = StringReps.getClassNameOf(target);
+        } else {
+            targetClass = target;
+        }
+        if (StringReps.isArrayType(targetClass)) {
+            targetClass = StringReps.getBaseTypeNameOf(target);
+        }
+        return targetClass;
+    }
+
+    @Nullable
+    private static ReflectionLog readCache(
+            Path cachePath, Path logPath, long[] stamp) {
+        if (!Files.isRegularFile(cachePath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(cachePath)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION ||
+                    !in.readUTF().equals(logPath.toString()) ||
+                    !isSameStamp(stamp, new long[]{ in.readLong(), in.readLong() })) {
+                return null;
+            }
+            int size = in.readInt();
+            List<LogItem> items = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                items.add(new LogItem(in.readUTF(), in.readUTF(),
+                        in.readUTF(), in.readInt()));
+            }
+            return new ReflectionLog(stamp, Collections.unmodifiableList(items));
+        } catch (IOException e) {
+            logger.warn("Failed to read reflection log cache {}", cachePath);
+            return null;
+        }
+    }
+
+    private static void writeCache(
+            ReflectionLog log, Path logPath, Path cachePath) {
+        try {
+            Files.createDirectories(cachePath.getParent());
+        } catch (IOException e) {
+            logger.warn("Failed to create reflection log cache directory {}",
+                    cachePath.getParent());
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(cachePath)))) {
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(CACHE_VERSION);
+            out.writeUTF(logPath.toString());
+            out.writeLong(log.stamp[0]);
+            out.writeLong(log.stamp[1]);
+            out.writeInt(log.items.size());
+            for (LogItem item : log.items) {
+                out.writeUTF(item.api);
+                out.writeUTF(item.target);
+                out.writeUTF(item.caller);
+                out.writeInt(item.lineNumber);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write reflection log cache {}", cachePath);
+        }
+    }
+
+    /**
+     * @return all items in the log.
+     */
+    public List<LogItem> getItems() {
+        return items;
+    }
+
+    /**
+     * @return map from caller (in form of "class.method") to
+     * the items of the caller.
+     */
+    public Map<String, List<LogItem>> getCallerItems() {
+        return callerItems;
+    }
+
+    /**
+     * @return names of the (non-primitive) classes of the reflective targets.
+     */
+    public Set<String> getTargetClasses() {
+        return targetClasses;
+    }
+}
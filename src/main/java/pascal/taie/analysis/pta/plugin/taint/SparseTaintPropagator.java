@@ -0,0 +1,173 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.Identity;
+import pascal.taie.analysis.pta.core.solver.PointerFlowEdge;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.analysis.pta.core.solver.TypeFilter;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+import pascal.taie.util.collection.IndexerBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.SetEx;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Propagates taint objects on a graph separated from the points-to sets
+ * of pointer analysis.
+ * <p>
+ * The graph consists of the pointer flow graph built by the solver and
+ * the taint transfer edges, and each pointer is labeled with the bit set
+ * of the taint objects flowing to it. As the taint objects are not added
+ * to the points-to sets, they do not affect ordinary propagation, and
+ * the propagation is performed once after the solver finishes.
+ * <p>
+ * Taint objects are never dereferenced in this propagation, i.e., their
+ * fields and array elements, and the calls on them, are not tracked.
+ */
+class SparseTaintPropagator {
+
+    private final TaintManager manager;
+
+    private final TypeSystem typeSystem;
+
+    /**
+     * Indexer of taint objects, used by the label bit sets.
+     */
+    private final Indexer<Obj> taintIndexer = new SimpleIndexer<>();
+
+    /**
+     * Map from pointer to the taint objects generated by source calls.
+     */
+    private final MultiMap<Pointer, Obj> sourceTaints = Maps.newMultiMap();
+
+    /**
+     * Map from pointer to taint transfer edges. The taint objects pointed
+     * to by the "key" pointer are transferred to "value" pointer with
+     * specified type.
+     */
+    private final MultiMap<Pointer, Pair<Pointer, Type>> transferEdges = Maps.newMultiMap();
+
+    /**
+     * Map from pointer to its taint labels.
+     */
+    private final Map<Pointer, SetEx<Obj>> labels = Maps.newMap();
+
+    SparseTaintPropagator(TaintManager manager, Solver solver) {
+        this.manager = manager;
+        this.typeSystem = solver.getTypeSystem();
+    }
+
+    void addSource(Pointer pointer, Obj taint) {
+        sourceTaints.put(pointer, taint);
+    }
+
+    void addTransferEdge(Pointer from, Pointer to, Type type) {
+        transferEdges.put(from, new Pair<>(to, type));
+    }
+
+    /**
+     * Propagates the taint objects from sources to all pointers they
+     * may flow to.
+     */
+    void propagate() {
+        Queue<Pair<Pointer, Set<Obj>>> workList = new ArrayDeque<>();
+        sourceTaints.forEachSet((pointer, taints) ->
+                workList.add(new Pair<>(pointer, taints)));
+        while (!workList.isEmpty()) {
+            Pair<Pointer, Set<Obj>> entry = workList.poll();
+            Pointer pointer = entry.first();
+            Set<Obj> diff = labels.computeIfAbsent(pointer, p -> newLabels())
+                    .addAllDiff(entry.second());
+            if (diff.isEmpty()) {
+                continue;
+            }
+            for (PointerFlowEdge edge : pointer.getOutEdges()) {
+                Set<Obj> taints = transfer(edge, diff);
+                if (!taints.isEmpty()) {
+                    workList.add(new Pair<>(edge.getTarget(), taints));
+                }
+            }
+            for (Pair<Pointer, Type> edge : transferEdges.get(pointer)) {
+                SetEx<Obj> taints = newLabels();
+                diff.forEach(taint -> taints.add(manager.makeTaint(
+                        manager.getSourceCall(taint), edge.second())));
+                workList.add(new Pair<>(edge.first(), taints));
+            }
+        }
+    }
+
+    /**
+     * Applies the transfer function of given PFG edge to taint objects.
+     * The transfer functions on the PFG built by Tai-e are {@link Identity}
+     * and {@link TypeFilter}, which are applied to the taint objects directly.
+     * Other transfer functions (which may be added by plugins) work on
+     * context-sensitive points-to sets, and applying them would create
+     * context-sensitive objects for taint objects, which never appear in
+     * points-to sets in this propagation. Thus, the taint objects are
+     * propagated along such edges unchanged, which over-approximates
+     * the transfer.
+     */
+    private Set<Obj> transfer(PointerFlowEdge edge, Set<Obj> taints) {
+        if (edge.getTransfer() instanceof TypeFilter filter) {
+            SetEx<Obj> result = newLabels();
+            taints.forEach(taint -> {
+                if (typeSystem.isSubtype(filter.getType(), taint.getType())) {
+                    result.add(taint);
+                }
+            });
+            return result;
+        }
+        return taints;
+    }
+
+    private SetEx<Obj> newLabels() {
+        return new IndexerBitSet<>(taintIndexer, false);
+    }
+
+    /**
+     * @return taint objects that may flow to given pointer.
+     */
+    Set<Obj> getTaints(Pointer pointer) {
+        Set<Obj> taints = labels.get(pointer);
+        return taints != null ? taints : Set.of();
+    }
+
+    /**
+     * @return the number of pointers labeled by taint objects.
+     */
+    int getNumberOfTaintedPointers() {
+        return labels.size();
+    }
+}
@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.plugin.taint;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.graph.callgraph.Edge;
@@ -36,23 +37,47 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.InvokeInstanceExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Timer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class TaintAnalysis implements Plugin {
 
     private static final Logger logger = LogManager.getLogger(TaintAnalysis.class);
 
+    /**
+     * Path to the taint config file.
+     */
+    private final String configPath;
+
+    /**
+     * Name of the taint config when multiple configs are analyzed in
+     * the same pointer analysis, otherwise null.
+     */
+    @Nullable
+    private final String name;
+
     /**
      * Map from method (which is source method) to set of types of
      * taint objects returned by the method calls.
@@ -72,6 +97,28 @@ public class TaintAnalysis implements Plugin {
      */
     private final MultiMap<Var, Pair<Var, Type>> varTransfers = Maps.newMultiMap();
 
+    /**
+     * Map from sink method to its sensitive indexes.
+     */
+    private final MultiMap<JMethod, Integer> sinks = Maps.newMultiMap();
+
+    /**
+     * Map from variable to the sink calls (and the sinks) which take
+     * the variable as sensitive argument. Only used when taint flows
+     * are detected on the fly.
+     */
+    private final MultiMap<Var, Pair<Invoke, Sink>> sinkArgs = Maps.newMultiMap();
+
+    /**
+     * Taint flows detected on the fly.
+     */
+    private final Set<TaintFlow> detectedFlows = Sets.newSet();
+
+    /**
+     * Sinks that have been reached by taint flows detected on the fly.
+     */
+    private final Set<Sink> reachedSinks = Sets.newSet();
+
     private Solver solver;
 
     private CSManager csManager;
@@ -82,14 +129,62 @@ public class TaintAnalysis implements Plugin {
 
     private TaintConfig config;
 
+    /**
+     * Whether detects taint flows during pointer analysis.
+     */
+    private boolean onTheFly;
+
+    /**
+     * Stops pointer analysis after this number of taint flows
+     * have been detected, 0 means no limit.
+     */
+    private int stopFlows;
+
+    /**
+     * Whether stops pointer analysis once every sink has been reached.
+     */
+    private boolean stopAllSinks;
+
+    /**
+     * Stream to which taint flows are written as soon as they are detected.
+     */
+    private PrintStream flowOutput;
+
+    /**
+     * Propagates taint objects apart from points-to sets,
+     * null if taint objects are propagated in points-to sets.
+     */
+    private SparseTaintPropagator sparsePropagator;
+
+    /**
+     * @param configPath path to the taint config file
+     * @param name       name of the taint config when multiple configs are
+     *                   analyzed in the same pointer analysis, otherwise null.
+     *                   The name tags the taint objects, the result and the
+     *                   output file of the config.
+     */
+    public TaintAnalysis(String configPath, @Nullable String name) {
+        this.configPath = configPath;
+        this.name = name;
+    }
+
+    /**
+     * @return the key of the taint flows stored in pointer analysis result
+     * for the taint config of given name.
+     */
+    public static String getResultKey(@Nullable String name) {
+        String key = TaintAnalysis.class.getName();
+        return name == null ? key : key + "/" + name;
+    }
+
     @Override
     public void setSolver(Solver solver) {
         this.solver = solver;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
-        manager = new TaintManager(solver.getHeapModel());
+        manager = new TaintManager(solver.getHeapModel(), name);
         config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
+                configPath,
                 solver.getHierarchy(),
                 solver.getTypeSystem());
         logger.info(config);
@@ -97,6 +192,38 @@ public class TaintAnalysis implements Plugin {
                 sources.put(s.method(), s.type()));
         config.getTransfers().forEach(t ->
                 transfers.put(t.method(), t));
+        config.getSinks().forEach(s ->
+                sinks.put(s.method(), s.index()));
+        AnalysisOptions options = solver.getOptions();
+        onTheFly = options.getBoolean("taint-on-the-fly");
+        stopFlows = options.getInt("taint-stop-flows");
+        stopAllSinks = options.getBoolean("taint-stop-all-sinks");
+        String output = options.getString("taint-flow-output");
+        if (!onTheFly && (stopFlows > 0 || stopAllSinks || output != null)) {
+            throw new ConfigException("taint-stop-flows, taint-stop-all-sinks" +
+                    " and taint-flow-output require taint-on-the-fly:true");
+        }
+        if (options.getBoolean("taint-sparse")) {
+            if (onTheFly) {
+                throw new ConfigException(
+                        "taint-sparse is incompatible with taint-on-the-fly");
+            }
+            sparsePropagator = new SparseTaintPropagator(manager, solver);
+        }
+        if (output != null) {
+            File outFile = new File(output);
+            if (name != null) {
+                // each config of a batch writes to its own file
+                outFile = new File(outFile.getParentFile(),
+                        name + "-" + outFile.getName());
+            }
+            try {
+                flowOutput = new PrintStream(new FileOutputStream(outFile), true);
+                logger.info("Writing taint flows to {} ...", outFile);
+            } catch (FileNotFoundException e) {
+                throw new ConfigException("Failed to open " + outFile, e);
+            }
+        }
     }
 
     @Override
@@ -106,10 +233,14 @@ public class TaintAnalysis implements Plugin {
         // generate taint value from source call
         Var lhs = callSite.getLValue();
         if (lhs != null && sources.containsKey(callee)) {
+            Context ctx = edge.getCallSite().getContext();
             sources.get(callee).forEach(type -> {
                 Obj taint = manager.makeTaint(callSite, type);
-                solver.addVarPointsTo(edge.getCallSite().getContext(), lhs,
-                        emptyContext, taint);
+                if (sparsePropagator != null) {
+                    sparsePropagator.addSource(csManager.getCSVar(ctx, lhs), taint);
+                } else {
+                    solver.addVarPointsTo(ctx, lhs, emptyContext, taint);
+                }
             });
         }
         // process taint transfer
@@ -120,12 +251,30 @@ public class TaintAnalysis implements Plugin {
             // does not have result variable, then "to" is null.
             if (to != null) {
                 Type type = transfer.type();
-                varTransfers.put(from, new Pair<>(to, type));
                 Context ctx = edge.getCallSite().getContext();
                 CSVar csFrom = csManager.getCSVar(ctx, from);
-                transferTaint(solver.getPointsToSetOf(csFrom), ctx, to, type);
+                if (sparsePropagator != null) {
+                    sparsePropagator.addTransferEdge(
+                            csFrom, csManager.getCSVar(ctx, to), type);
+                } else {
+                    varTransfers.put(from, new Pair<>(to, type));
+                    transferTaint(solver.getPointsToSetOf(csFrom), ctx, to, type);
+                }
             }
         });
+        // check sink call
+        if (onTheFly && sinks.containsKey(callee)) {
+            sinks.get(callee).forEach(i -> {
+                Var arg = callSite.getInvokeExp().getArg(i);
+                Sink sink = new Sink(callee, i);
+                if (sinkArgs.put(arg, new Pair<>(callSite, sink))) {
+                    // the objects pointed to by arg in all contexts
+                    // may flow to the sink call
+                    csManager.getCSVarsOf(arg).forEach(csArg ->
+                            checkSink(callSite, sink, solver.getPointsToSetOf(csArg)));
+                }
+            });
+        }
     }
 
     /**
@@ -161,15 +310,95 @@ public class TaintAnalysis implements Plugin {
             Type type = p.second();
             transferTaint(pts, csVar.getContext(), to, type);
         });
+        sinkArgs.get(csVar.getVar()).forEach(p ->
+                checkSink(p.first(), p.second(), pts));
+    }
+
+    /**
+     * Reports the taint flows from the taint objects in given points-to set
+     * to given sink call, and stops pointer analysis if the stop condition
+     * is satisfied.
+     */
+    private void checkSink(Invoke sinkCall, Sink sink, PointsToSet pts) {
+        for (CSObj csObj : pts) {
+            if (isStopConditionSatisfied()) {
+                solver.stop();
+                return;
+            }
+            Obj obj = csObj.getObject();
+            if (manager.isTaint(obj)) {
+                TaintFlow flow = new TaintFlow(
+                        manager.getSourceCall(obj), sinkCall, sink.index());
+                if (detectedFlows.add(flow)) {
+                    logger.info("Detected {}", flow);
+                    if (flowOutput != null) {
+                        flowOutput.println(flow);
+                    }
+                    reachedSinks.add(sink);
+                }
+            }
+        }
+        if (isStopConditionSatisfied()) {
+            solver.stop();
+        }
+    }
+
+    private boolean isStopConditionSatisfied() {
+        return (stopFlows > 0 && detectedFlows.size() >= stopFlows) ||
+                (stopAllSinks && reachedSinks.size() >= config.getSinks().size());
     }
 
     @Override
     public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
-        solver.getResult().storeResult(getClass().getName(), taintFlows);
+        Set<TaintFlow> taintFlows;
+        if (onTheFly) {
+            taintFlows = new TreeSet<>(detectedFlows);
+            logger.info("Detected {} taint flow(s) on the fly", taintFlows.size());
+            if (flowOutput != null) {
+                flowOutput.close();
+            }
+        } else if (sparsePropagator != null) {
+            SparseTaintPropagator propagator = sparsePropagator;
+            Timer.runAndCount(propagator::propagate,
+                    "Sparse taint propagation", Level.INFO);
+            logger.info("{} pointers are tainted",
+                    propagator.getNumberOfTaintedPointers());
+            taintFlows = collectTaintFlows(arg -> csManager.getCSVarsOf(arg)
+                    .stream()
+                    .flatMap(csArg -> propagator.getTaints(csArg).stream()));
+        } else {
+            PointerAnalysisResult result = solver.getResult();
+            taintFlows = collectTaintFlows(arg -> result.getPointsToSet(arg)
+                    .stream()
+                    .filter(manager::isTaint));
+        }
+        solver.getResult().storeResult(getResultKey(name), taintFlows);
+        if (name != null) {
+            dumpTaintFlows(taintFlows);
+        }
+    }
+
+    /**
+     * Dumps the taint flows of the config of a batch to its own file.
+     */
+    private void dumpTaintFlows(Set<TaintFlow> taintFlows) {
+        File outFile = new File(Configs.getOutputDir(),
+                "taint-flows-" + name + ".txt");
+        try (PrintStream out = new PrintStream(new FileOutputStream(outFile))) {
+            logger.info("Dumping {} taint flow(s) of {} to {} ...",
+                    taintFlows.size(), configPath, outFile);
+            taintFlows.forEach(out::println);
+        } catch (FileNotFoundException e) {
+            logger.warn("Failed to dump taint flows to " + outFile, e);
+        }
     }
 
-    private Set<TaintFlow> collectTaintFlows() {
+    /**
+     * Collects taint flows to sink calls.
+     *
+     * @param taintsOf returns the taint objects pointed to by given variable
+     */
+    private Set<TaintFlow> collectTaintFlows(Function<Var, Stream<Obj>> taintsOf) {
         PointerAnalysisResult result = solver.getResult();
         Set<TaintFlow> taintFlows = new TreeSet<>();
         config.getSinks().forEach(sink -> {
@@ -178,9 +407,7 @@ public class TaintAnalysis implements Plugin {
                     .getCallersOf(sink.method())
                     .forEach(sinkCall -> {
                         Var arg = sinkCall.getInvokeExp().getArg(i);
-                        result.getPointsToSet(arg)
-                                .stream()
-                                .filter(manager::isTaint)
+                        taintsOf.apply(arg)
                                 .map(manager::getSourceCall)
                                 .map(sourceCall -> new TaintFlow(sourceCall, sinkCall, i))
                                 .forEach(taintFlows::add);
@@ -29,6 +29,8 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages taint objects.
  */
@@ -38,8 +40,18 @@ class TaintManager {
 
     private final HeapModel heapModel;
 
-    TaintManager(HeapModel heapModel) {
+    /**
+     * Description of the taint objects managed by this manager.
+     */
+    private final String taintDesc;
+
+    /**
+     * @param tag distinguishes the taint objects of this manager from
+     *            the ones of other managers, null if there is only one manager
+     */
+    TaintManager(HeapModel heapModel, @Nullable String tag) {
         this.heapModel = heapModel;
+        this.taintDesc = tag == null ? TAINT_DESC : TAINT_DESC + "@" + tag;
     }
 
     /**
@@ -50,7 +62,7 @@ class TaintManager {
      * @return the taint object for given source and type.
      */
     Obj makeTaint(Invoke source, Type type) {
-        return heapModel.getMockObj(TAINT_DESC, source, type);
+        return heapModel.getMockObj(taintDesc, source, type);
     }
 
     /**
@@ -58,7 +70,7 @@ class TaintManager {
      */
     boolean isTaint(Obj obj) {
         return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+                ((MockObj) obj).getDescription().equals(taintDesc);
     }
 
     /**
@@ -0,0 +1,272 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable points-to set which packs the indexes of the objects into
+ * bit words. The words are stored in one of two forms:
+ * <ul>
+ *     <li>dense form: all words from the word of the smallest index to
+ *     the word of the largest index, which is compact when the indexes
+ *     are close to each other;</li>
+ *     <li>sparse form: only the non-zero words together with their
+ *     word indexes, which is used when the dense form is much larger,
+ *     e.g., the indexes are widely separated.</li>
+ * </ul>
+ * The form is determined by the objects in the set.
+ * <p>
+ * Two compact sets are equal if and only if they contain the same objects,
+ * thus compact sets can be hash-consed, so that the pointers pointing
+ * to the same objects share one set. This is useful to reduce the memory
+ * footprint of the points-to sets after pointer analysis finishes.
+ * All modifying operations throw {@link UnsupportedOperationException}.
+ */
+public final class CompactPointsToSet implements PointsToSet {
+
+    private final Indexer<CSObj> indexer;
+
+    /**
+     * Index of the first word in dense form. The j-th bit of words[i]
+     * represents the object whose index is (offset + i) * 64 + j.
+     */
+    private final int offset;
+
+    /**
+     * Indexes of the words in sparse form, in ascending order, or
+     * {@code null} in dense form. The j-th bit of words[i] represents
+     * the object whose index is wordIndexes[i] * 64 + j.
+     */
+    private final int[] wordIndexes;
+
+    private final long[] words;
+
+    private final int size;
+
+    private final int hashCode;
+
+    private CompactPointsToSet(Indexer<CSObj> indexer, int offset,
+                               int[] wordIndexes, long[] words, int size) {
+        this.indexer = indexer;
+        this.offset = offset;
+        this.wordIndexes = wordIndexes;
+        this.words = words;
+        this.size = size;
+        this.hashCode = 31 * (31 * offset + Arrays.hashCode(wordIndexes))
+                + Arrays.hashCode(words);
+    }
+
+    /**
+     * @return a compact set containing the same objects as given set.
+     */
+    public static CompactPointsToSet of(PointsToSet pts, Indexer<CSObj> indexer) {
+        if (pts instanceof CompactPointsToSet compact) {
+            return compact;
+        }
+        int[] indexes = new int[pts.size()];
+        int size = 0;
+        for (CSObj obj : pts) {
+            indexes[size++] = indexer.getIndex(obj);
+        }
+        if (size == 0) {
+            return new CompactPointsToSet(indexer, 0, null, new long[0], 0);
+        }
+        Arrays.sort(indexes);
+        int nWords = 1;
+        for (int i = 1; i < size; ++i) {
+            if ((indexes[i] >>> 6) != (indexes[i - 1] >>> 6)) {
+                ++nWords;
+            }
+        }
+        int offset = indexes[0] >>> 6;
+        long denseWords = (indexes[size - 1] >>> 6) - offset + 1L;
+        // a word takes 8 bytes, and a word in sparse form additionally
+        // takes 4 bytes for its index
+        if (denseWords * 2 <= nWords * 3L) {
+            long[] words = new long[(int) denseWords];
+            for (int index : indexes) {
+                words[(index >>> 6) - offset] |= 1L << index;
+            }
+            return new CompactPointsToSet(indexer, offset, null, words, size);
+        } else {
+            int[] wordIndexes = new int[nWords];
+            long[] words = new long[nWords];
+            int i = -1;
+            for (int index : indexes) {
+                if (i < 0 || wordIndexes[i] != (index >>> 6)) {
+                    wordIndexes[++i] = index >>> 6;
+                }
+                words[i] |= 1L << index;
+            }
+            return new CompactPointsToSet(indexer, 0, wordIndexes, words, size);
+        }
+    }
+
+    /**
+     * @return number of the words in this set.
+     */
+    int getNumberOfWords() {
+        return words.length;
+    }
+
+    /**
+     * @return index of the i-th word in this set.
+     */
+    private int getWordIndex(int i) {
+        return wordIndexes == null ? offset + i : wordIndexes[i];
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        int i = wordIndexes == null ? (index >>> 6) - offset
+                : Arrays.binarySearch(wordIndexes, index >>> 6);
+        return i >= 0 && i < words.length && (words[i] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj && CompactPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            @Nonnull
+            public Iterator<CSObj> iterator() {
+                return CompactPointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        return new Iterator<>() {
+
+            private int i = 0;
+
+            private long word = words.length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && i < words.length - 1) {
+                    word = words[++i];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public CSObj next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return indexer.getObject((getWordIndex(i) << 6) + bit);
+            }
+        };
+    }
+
+    /**
+     * As this set is immutable, this method returns the set itself.
+     */
+    @Override
+    public PointsToSet copy() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactPointsToSet that)) {
+            return false;
+        }
+        return size == that.size && offset == that.offset
+                && Arrays.equals(wordIndexes, that.wordIndexes)
+                && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+}
@@ -58,6 +58,13 @@ abstract class DelegatePointsToSet implements PointsToSet {
         }
     }
 
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        Set<CSObj> otherSet = pts instanceof DelegatePointsToSet other ?
+                other.set : pts.getObjects();
+        return set.retainAll(otherSet);
+    }
+
     @Override
     public boolean contains(CSObj obj) {
         return set.contains(obj);
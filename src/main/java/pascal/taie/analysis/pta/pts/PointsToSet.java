@@ -57,6 +57,14 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     PointsToSet addAllDiff(PointsToSet pts);
 
+    /**
+     * Retains only the objects in this set that are contained in given pts.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    boolean retainAll(PointsToSet pts);
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.Indexer;
 
 import java.util.function.Supplier;
@@ -35,7 +36,26 @@ public class PointsToSetFactory {
     private final Supplier<PointsToSet> factory;
 
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
-        factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        this("hybrid-bit", objIndexer);
+    }
+
+    /**
+     * @param kind       kind of the points-to sets made by this factory,
+     *                   i.e., "hybrid-bit", "hybrid-hash" or "zdd".
+     * @param objIndexer indexer of the objects in the points-to sets.
+     */
+    public PointsToSetFactory(String kind, Indexer<CSObj> objIndexer) {
+        if (kind.equals("hybrid-bit")) {
+            factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        } else if (kind.equals("hybrid-hash")) {
+            factory = HybridHashPointsToSet::new;
+        } else if (kind.equals("zdd")) {
+            // all sets share the same manager to share their sub-diagrams
+            ZDDManager manager = new ZDDManager();
+            factory = () -> new ZDDPointsToSet(manager, objIndexer);
+        } else {
+            throw new ConfigException("Unknown kind of points-to set: " + kind);
+        }
     }
 
     public PointsToSet make() {
@@ -0,0 +1,538 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Manages the nodes of zero-suppressed decision diagrams (ZDDs) that
+ * represent sets of non-negative integers.
+ * <p>
+ * Each integer is regarded as the set of positions of its 1-bits,
+ * and a set of integers is represented by the ZDD of the family of
+ * such bit-position sets. A variable of the ZDD is a bit position,
+ * and the variable of each node is greater than the variables of its
+ * children, i.e., the diagram tests the most significant bit first.
+ * The nodes are hash-consed, so that the ZDDs of similar sets share
+ * their common sub-diagrams, and set operations (union, difference and
+ * intersection) are computed on the diagrams directly with memoization.
+ * <p>
+ * Nodes are stored in parallel int arrays and identified by their
+ * indexes in the arrays. Node {@link #EMPTY} is the terminal for the
+ * empty family, and node {@link #BASE} is the terminal for the family
+ * that only contains the empty bit-position set, i.e., integer 0.
+ * <p>
+ * Nodes that are unreachable from any live {@link ZDDPointsToSet}
+ * are reclaimed before a top-level operation when the node storage
+ * is full. Only sets whose roots are non-terminal nodes need to be
+ * retained, so a set is registered to the manager when it first holds
+ * such a root, and the references to collected sets are removed as
+ * soon as they are enqueued. All public operations are synchronized,
+ * so that a manager can be shared by the points-to sets used by
+ * concurrent solvers.
+ */
+class ZDDManager {
+
+    static final int EMPTY = 0;
+
+    static final int BASE = 1;
+
+    /**
+     * Variable of terminal nodes, which is smaller than the variable
+     * of any non-terminal node.
+     */
+    private static final int TERMINAL_VAR = -1;
+
+    /**
+     * Variable of nodes in the free list.
+     */
+    private static final int FREE_VAR = -2;
+
+    /**
+     * Number of bits of the integers, i.e., number of ZDD variables.
+     */
+    private static final int BITS = 31;
+
+    private static final int OP_UNION = 0;
+
+    private static final int OP_DIFF = 1;
+
+    private static final int OP_INTERSECT = 2;
+
+    private int[] vars;
+
+    private int[] lows;
+
+    private int[] highs;
+
+    /**
+     * Memoized number of integers in the set represented by each node,
+     * 0 means not computed yet.
+     */
+    private int[] counts;
+
+    /**
+     * Hash table of nodes for hash-consing, 0 denotes empty slot
+     * (terminal nodes are never stored in the table).
+     */
+    private int[] unique;
+
+    /**
+     * Head of the list of free nodes, which are linked via {@link #lows}.
+     */
+    private int freeList = EMPTY;
+
+    private int freeCount = 0;
+
+    /**
+     * Number of nodes ever allocated in the node arrays.
+     */
+    private int allocated = 2;
+
+    /**
+     * Lossy operation cache, each entry occupies 4 consecutive slots:
+     * operation, left operand, right operand, and result.
+     */
+    private int[] cache;
+
+    /**
+     * Registered sets whose roots must be retained during node reclamation.
+     */
+    private final List<SetRef> sets = new ArrayList<>();
+
+    /**
+     * Queue of the references to registered sets that have been collected.
+     */
+    private final ReferenceQueue<ZDDPointsToSet> collected = new ReferenceQueue<>();
+
+    /**
+     * Number of node reclamations performed so far.
+     */
+    private int gcCount = 0;
+
+    ZDDManager() {
+        this(1 << 16);
+    }
+
+    /**
+     * @param capacity initial number of nodes, which must be a power of 2.
+     */
+    ZDDManager(int capacity) {
+        if (capacity < 4 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                    "Capacity must be a power of 2 and at least 4: " + capacity);
+        }
+        vars = new int[capacity];
+        lows = new int[capacity];
+        highs = new int[capacity];
+        counts = new int[capacity];
+        vars[EMPTY] = vars[BASE] = TERMINAL_VAR;
+        counts[BASE] = 1;
+        unique = new int[capacity * 2];
+        cache = new int[(capacity / 4) * 4];
+        Arrays.fill(cache, -1);
+    }
+
+    static boolean isTerminal(int p) {
+        return p == EMPTY || p == BASE;
+    }
+
+    /**
+     * Registers a set, so that its root is retained by node reclamation.
+     * Each set should be registered at most once.
+     */
+    synchronized void register(ZDDPointsToSet set) {
+        removeCollectedSets();
+        sets.add(new SetRef(set, sets.size(), collected));
+    }
+
+    synchronized int getNumberOfRegisteredSets() {
+        removeCollectedSets();
+        return sets.size();
+    }
+
+    // ---------- top-level operations ----------
+
+    synchronized int add(int p, int i) {
+        prepare();
+        return apply(OP_UNION, p, singleton(i));
+    }
+
+    synchronized int union(int p, int q) {
+        prepare();
+        return apply(OP_UNION, p, q);
+    }
+
+    synchronized int diff(int p, int q) {
+        prepare();
+        return apply(OP_DIFF, p, q);
+    }
+
+    synchronized int intersect(int p, int q) {
+        prepare();
+        return apply(OP_INTERSECT, p, q);
+    }
+
+    synchronized int count(int p) {
+        return countNode(p);
+    }
+
+    synchronized boolean contains(int p, int i) {
+        int remaining = i;
+        while (vars[p] >= 0) {
+            int var = vars[p];
+            if ((remaining >>> (var + 1)) != 0) {
+                // a 1-bit above var is suppressed on this path
+                return false;
+            }
+            if ((remaining & (1 << var)) != 0) {
+                remaining &= ~(1 << var);
+                p = highs[p];
+            } else {
+                p = lows[p];
+            }
+        }
+        return p == BASE && remaining == 0;
+    }
+
+    /**
+     * Applies {@code action} to every integer in the set represented
+     * by {@code p}, in ascending order.
+     */
+    synchronized void forEach(int p, IntConsumer action) {
+        forEach(p, 0, action);
+    }
+
+    /**
+     * @return an iterator over the integers in the set represented
+     * by {@code p}, in ascending order. The integers are collected
+     * eagerly, so the iterator is unaffected by subsequent operations.
+     */
+    Iterator<Integer> iterator(int p) {
+        int[] elems;
+        synchronized (this) {
+            elems = new int[countNode(p)];
+            int[] size = {0};
+            forEach(p, 0, i -> elems[size[0]++] = i);
+        }
+        return new Iterator<>() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < elems.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elems[next++];
+            }
+        };
+    }
+
+    synchronized int getNumberOfNodes() {
+        return allocated - freeCount;
+    }
+
+    synchronized int getNumberOfReclamations() {
+        return gcCount;
+    }
+
+    // ---------- internal operations ----------
+
+    private void forEach(int p, int prefix, IntConsumer action) {
+        if (p == BASE) {
+            action.accept(prefix);
+        } else if (p != EMPTY) {
+            forEach(lows[p], prefix, action);
+            forEach(highs[p], prefix | (1 << vars[p]), action);
+        }
+    }
+
+    private int singleton(int i) {
+        if (i < 0) {
+            throw new IllegalArgumentException("Negative index: " + i);
+        }
+        int p = BASE;
+        for (int var = 0; var < BITS; ++var) {
+            if ((i & (1 << var)) != 0) {
+                p = makeNode(var, EMPTY, p);
+            }
+        }
+        return p;
+    }
+
+    private int apply(int op, int p, int q) {
+        // terminal cases
+        switch (op) {
+            case OP_UNION -> {
+                if (p == EMPTY || p == q) {
+                    return q;
+                }
+                if (q == EMPTY) {
+                    return p;
+                }
+                if (p > q) { // union is commutative, normalize operands
+                    int t = p;
+                    p = q;
+                    q = t;
+                }
+            }
+            case OP_DIFF -> {
+                if (p == EMPTY || p == q) {
+                    return EMPTY;
+                }
+                if (q == EMPTY) {
+                    return p;
+                }
+            }
+            case OP_INTERSECT -> {
+                if (p == EMPTY || q == EMPTY) {
+                    return EMPTY;
+                }
+                if (p == q) {
+                    return p;
+                }
+                if (p > q) { // intersection is commutative
+                    int t = p;
+                    p = q;
+                    q = t;
+                }
+            }
+        }
+        int slot = cacheSlot(op, p, q);
+        if (cache[slot] == op && cache[slot + 1] == p && cache[slot + 2] == q) {
+            return cache[slot + 3];
+        }
+        int pv = vars[p], qv = vars[q];
+        int result;
+        if (pv > qv) {
+            result = op == OP_INTERSECT ? apply(op, lows[p], q) :
+                    makeNode(pv, apply(op, lows[p], q), highs[p]);
+        } else if (pv < qv) {
+            result = op == OP_UNION ?
+                    makeNode(qv, apply(op, p, lows[q]), highs[q]) :
+                    apply(op, p, lows[q]);
+        } else {
+            result = makeNode(pv, apply(op, lows[p], lows[q]),
+                    apply(op, highs[p], highs[q]));
+        }
+        // the cache may be cleared by growth of node arrays, re-compute slot
+        slot = cacheSlot(op, p, q);
+        cache[slot] = op;
+        cache[slot + 1] = p;
+        cache[slot + 2] = q;
+        cache[slot + 3] = result;
+        return result;
+    }
+
+    private int cacheSlot(int op, int p, int q) {
+        int h = (p * 31 + q) * 31 + op;
+        h *= 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & ((cache.length >>> 2) - 1)) << 2;
+    }
+
+    private int countNode(int p) {
+        if (p == EMPTY) {
+            return 0;
+        }
+        int c = counts[p];
+        if (c == 0) {
+            c = countNode(lows[p]) + countNode(highs[p]);
+            counts[p] = c;
+        }
+        return c;
+    }
+
+    /**
+     * @return the node with given variable and children, which is
+     * created if absent.
+     */
+    private int makeNode(int var, int low, int high) {
+        if (high == EMPTY) { // zero-suppression rule
+            return low;
+        }
+        int mask = unique.length - 1;
+        int i = hash(var, low, high) & mask;
+        int n;
+        while ((n = unique[i]) != 0) {
+            if (vars[n] == var && lows[n] == low && highs[n] == high) {
+                return n;
+            }
+            i = (i + 1) & mask;
+        }
+        int[] table = unique;
+        n = allocate();
+        vars[n] = var;
+        lows[n] = low;
+        highs[n] = high;
+        counts[n] = 0;
+        if (table != unique) {
+            // node arrays have grown, and unique table has been rebuilt
+            insertUnique(n);
+        } else {
+            unique[i] = n;
+        }
+        return n;
+    }
+
+    private int allocate() {
+        if (freeList != EMPTY) {
+            int n = freeList;
+            freeList = lows[n];
+            --freeCount;
+            return n;
+        }
+        if (allocated == vars.length) {
+            grow();
+        }
+        return allocated++;
+    }
+
+    private void grow() {
+        int capacity = vars.length * 2;
+        vars = Arrays.copyOf(vars, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        rebuildUnique(capacity * 2);
+        // grow the cache with node arrays, results of completed
+        // operations are lost, which is safe for a lossy cache
+        cache = new int[(capacity / 4) * 4];
+        Arrays.fill(cache, -1);
+    }
+
+    private void rebuildUnique(int size) {
+        unique = new int[size];
+        for (int n = 2; n < allocated; ++n) {
+            if (vars[n] >= 0) {
+                insertUnique(n);
+            }
+        }
+    }
+
+    private void insertUnique(int n) {
+        int mask = unique.length - 1;
+        int i = hash(vars[n], lows[n], highs[n]) & mask;
+        while (unique[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        unique[i] = n;
+    }
+
+    private static int hash(int var, int low, int high) {
+        int h = (var * 31 + low) * 31 + high;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Reclaims unreachable nodes before a top-level operation, if
+     * the node storage is full and there are few free nodes.
+     * This is only invoked at the beginning of top-level operations,
+     * as the intermediate results of an operation are not rooted.
+     */
+    private void prepare() {
+        if (allocated == vars.length && freeCount < vars.length / 8) {
+            reclaim();
+        }
+    }
+
+    private void reclaim() {
+        ++gcCount;
+        boolean[] marked = new boolean[allocated];
+        marked[EMPTY] = marked[BASE] = true;
+        removeCollectedSets();
+        for (SetRef ref : sets) {
+            ZDDPointsToSet set = ref.get();
+            if (set != null) {
+                mark(set.getRoot(), marked);
+            }
+        }
+        freeList = EMPTY;
+        freeCount = 0;
+        for (int n = allocated - 1; n >= 2; --n) {
+            if (!marked[n]) {
+                vars[n] = FREE_VAR;
+                lows[n] = freeList;
+                highs[n] = EMPTY;
+                freeList = n;
+                ++freeCount;
+            }
+        }
+        rebuildUnique(unique.length);
+        Arrays.fill(cache, -1);
+    }
+
+    private void mark(int p, boolean[] marked) {
+        if (!marked[p]) {
+            marked[p] = true;
+            mark(lows[p], marked);
+            mark(highs[p], marked);
+        }
+    }
+
+    /**
+     * Removes the references to collected sets from {@link #sets}.
+     * Each reference is removed by moving the last reference to its
+     * position, which takes constant time.
+     */
+    private void removeCollectedSets() {
+        Reference<? extends ZDDPointsToSet> ref;
+        while ((ref = collected.poll()) != null) {
+            SetRef removed = (SetRef) ref;
+            SetRef last = sets.remove(sets.size() - 1);
+            if (last != removed) {
+                last.position = removed.position;
+                sets.set(last.position, last);
+            }
+        }
+    }
+
+    /**
+     * Weak reference to a registered set, which records its position
+     * in {@link #sets}.
+     */
+    private static class SetRef extends WeakReference<ZDDPointsToSet> {
+
+        private int position;
+
+        private SetRef(ZDDPointsToSet set, int position,
+                       ReferenceQueue<ZDDPointsToSet> queue) {
+            super(set, queue);
+            this.position = position;
+        }
+    }
+}
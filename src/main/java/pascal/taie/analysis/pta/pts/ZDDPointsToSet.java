@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set represented by a zero-suppressed decision diagram
+ * over the indexes of objects. All sets created by the same factory
+ * share a {@link ZDDManager}, so large and similar sets share their
+ * common sub-diagrams, {@link #copy()} takes constant time, and
+ * {@link #addAllDiff(PointsToSet)} is computed on the diagrams.
+ */
+class ZDDPointsToSet implements PointsToSet {
+
+    private final ZDDManager manager;
+
+    private final Indexer<CSObj> indexer;
+
+    /**
+     * Root node of the diagram of this set.
+     */
+    private int root;
+
+    /**
+     * Whether this set has been registered to {@link #manager}.
+     */
+    private boolean registered = false;
+
+    ZDDPointsToSet(ZDDManager manager, Indexer<CSObj> indexer) {
+        this(manager, indexer, ZDDManager.EMPTY);
+    }
+
+    private ZDDPointsToSet(ZDDManager manager, Indexer<CSObj> indexer, int root) {
+        this.manager = manager;
+        this.indexer = indexer;
+        setRoot(root);
+    }
+
+    int getRoot() {
+        return root;
+    }
+
+    /**
+     * Sets the root of this set, and registers this set to the manager
+     * when the root is a non-terminal node for the first time.
+     * This must be invoked before next top-level operation of the manager,
+     * so that the nodes of the root are retained.
+     */
+    private void setRoot(int root) {
+        this.root = root;
+        if (!registered && !ZDDManager.isTerminal(root)) {
+            manager.register(this);
+            registered = true;
+        }
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        synchronized (manager) {
+            int oldRoot = root;
+            setRoot(manager.add(root, indexer.getIndex(obj)));
+            return root != oldRoot;
+        }
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        synchronized (manager) {
+            int oldRoot = root;
+            setRoot(manager.union(root, toZDD(pts).root));
+            return root != oldRoot;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        synchronized (manager) {
+            ZDDPointsToSet other = toZDD(pts);
+            // register the difference before next operation,
+            // so that its nodes are retained
+            ZDDPointsToSet diff = new ZDDPointsToSet(manager, indexer,
+                    manager.diff(other.root, root));
+            if (diff.root != ZDDManager.EMPTY) {
+                setRoot(manager.union(root, other.root));
+            }
+            return diff;
+        }
+    }
+
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        synchronized (manager) {
+            int oldRoot = root;
+            setRoot(manager.intersect(root, toZDD(pts).root));
+            return root != oldRoot;
+        }
+    }
+
+    /**
+     * Converts given points-to set to a ZDD-based set of this manager.
+     */
+    private ZDDPointsToSet toZDD(PointsToSet pts) {
+        if (pts instanceof ZDDPointsToSet other && other.manager == manager) {
+            return other;
+        }
+        ZDDPointsToSet result = new ZDDPointsToSet(manager, indexer);
+        for (CSObj obj : pts) {
+            result.addObject(obj);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return manager.contains(root, indexer.getIndex(obj));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == ZDDManager.EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return manager.count(root);
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(new ObjectSet());
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public Iterator<CSObj> iterator() {
+        Iterator<Integer> it = manager.iterator(root);
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public CSObj next() {
+                return indexer.getObject(it.next());
+            }
+        };
+    }
+
+    @Override
+    public PointsToSet copy() {
+        synchronized (manager) {
+            return new ZDDPointsToSet(manager, indexer, root);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    /**
+     * Set view of the objects in this points-to set.
+     */
+    private class ObjectSet extends AbstractSet<CSObj> {
+
+        @Override
+        public Iterator<CSObj> iterator() {
+            return ZDDPointsToSet.this.iterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof CSObj obj && ZDDPointsToSet.this.contains(obj);
+        }
+
+        @Override
+        public int size() {
+            return ZDDPointsToSet.this.size();
+        }
+    }
+}
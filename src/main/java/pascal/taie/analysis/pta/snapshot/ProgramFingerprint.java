@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import pascal.taie.World;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fingerprint of the analyzed program, which is saved together with
+ * the snapshot of an incremental run, so that the next run can tell
+ * whether the snapshot is still valid.
+ * <p>
+ * The fingerprint consists of a digest of the settings (options of
+ * the world and pointer analysis) and a digest of each application
+ * class, which covers the declaration of the class, its fields and
+ * methods, and the IR of its methods. Line numbers are ignored, as
+ * they do not affect the results. Library classes (e.g., the JDK)
+ * are regarded as unchanged as long as the settings are unchanged.
+ */
+final class ProgramFingerprint {
+
+    /**
+     * Key of the digest of the settings.
+     */
+    private static final String SETTINGS = "<settings>";
+
+    /**
+     * Separator between a key and its digest in fingerprint files.
+     */
+    private static final String SEP = "\t";
+
+    /**
+     * Maps class names (and {@link #SETTINGS}) to their digests.
+     */
+    private final Map<String, String> digests;
+
+    private ProgramFingerprint(Map<String, String> digests) {
+        this.digests = digests;
+    }
+
+    /**
+     * Computes the fingerprint of the program in current world.
+     */
+    static ProgramFingerprint compute(AnalysisOptions ptaOptions) {
+        Map<String, String> digests = new TreeMap<>();
+        Options options = World.get().getOptions();
+        digests.put(SETTINGS, digest(String.join("\n",
+                String.valueOf(options.getClassPath()),
+                String.valueOf(options.getMainClass()),
+                String.valueOf(options.getInputClasses()),
+                String.valueOf(options.getJavaVersion()),
+                String.valueOf(options.isPrependJVM()),
+                ptaOptions.toString())));
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .forEach(c -> digests.put(c.getName(), digest(describe(c))));
+        return new ProgramFingerprint(digests);
+    }
+
+    /**
+     * Reads the fingerprint from given file.
+     *
+     * @return the fingerprint, or {@code null} if the file does not exist.
+     */
+    @Nullable
+    static ProgramFingerprint read(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Map<String, String> digests = new TreeMap<>();
+        try {
+            for (String line : Files.readAllLines(path)) {
+                int i = line.lastIndexOf(SEP);
+                if (i > 0) {
+                    digests.put(line.substring(0, i), line.substring(i + 1));
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read fingerprint from " + path, e);
+        }
+        return new ProgramFingerprint(digests);
+    }
+
+    void write(Path path) {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            digests.forEach((key, digest) -> out.println(key + SEP + digest));
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write fingerprint to " + path, e);
+        }
+    }
+
+    /**
+     * @return the classes that are added, removed or changed in this
+     * fingerprint compared with {@code previous}, which contains
+     * "&lt;settings&gt;" if the settings are changed.
+     */
+    Set<String> diff(ProgramFingerprint previous) {
+        Set<String> changed = Sets.newSet();
+        digests.forEach((key, digest) -> {
+            if (!digest.equals(previous.digests.get(key))) {
+                changed.add(key);
+            }
+        });
+        previous.digests.keySet().forEach(key -> {
+            if (!digests.containsKey(key)) {
+                changed.add(key);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * @return the text that describes given class and its members.
+     */
+    private static String describe(JClass jclass) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(jclass.getModifiers()).append(' ')
+                .append(jclass.getName()).append(" extends ")
+                .append(jclass.getSuperClass()).append(" implements ")
+                .append(jclass.getInterfaces()).append(' ')
+                .append(jclass.getAnnotations()).append('\n');
+        jclass.getDeclaredFields()
+                .stream()
+                .sorted(Comparator.comparing(JField::getSignature))
+                .forEach(f -> builder.append(f.getModifiers()).append(' ')
+                        .append(f.getSignature()).append(' ')
+                        .append(f.getAnnotations()).append('\n'));
+        jclass.getDeclaredMethods()
+                .stream()
+                .sorted(Comparator.comparing(JMethod::getSignature))
+                .forEach(m -> describe(m, builder));
+        return builder.toString();
+    }
+
+    private static void describe(JMethod method, StringBuilder builder) {
+        builder.append(method.getModifiers()).append(' ')
+                .append(method.getSignature()).append(' ')
+                .append(method.getAnnotations()).append('\n');
+        if (method.isAbstract() || method.isNative()) {
+            return;
+        }
+        IR ir = method.getIR();
+        for (Var var : ir.getVars()) {
+            builder.append(var.getType()).append(' ')
+                    .append(var).append('\n');
+        }
+        builder.append(ir.getThis()).append(ir.getParams()).append('\n');
+        for (Stmt stmt : ir) {
+            // Invoke.toString() contains line number, thus we
+            // describe its components instead
+            if (stmt instanceof Invoke invoke) {
+                builder.append(invoke.getResult()).append(" = ")
+                        .append(invoke.getInvokeExp());
+            } else {
+                builder.append(stmt);
+            }
+            builder.append('\n');
+        }
+        for (ExceptionEntry entry : ir.getExceptionEntries()) {
+            builder.append(entry.start().getIndex()).append('-')
+                    .append(entry.end().getIndex()).append(':')
+                    .append(entry.handler().getIndex()).append(':')
+                    .append(entry.catchType()).append('\n');
+        }
+    }
+
+    private static String digest(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(
+                    digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new AssertionError(e);
+        }
+    }
+}
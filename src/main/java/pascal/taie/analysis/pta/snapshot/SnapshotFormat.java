@@ -0,0 +1,86 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+/**
+ * Constants of the snapshot format.
+ * <p>
+ * A snapshot file consists of a header, a sequence of tables, and
+ * a data section of points-to sets. The header contains {@link #MAGIC},
+ * {@link #VERSION} and the offset of the data section, all of which
+ * are 4-byte integers. The tables are written in the following order:
+ * <ol>
+ *     <li>strings</li>
+ *     <li>methods (string ids of signatures)</li>
+ *     <li>fields (string ids of signatures)</li>
+ *     <li>objects (kind, type, container method and payloads)</li>
+ *     <li>variables (method, index in the method and points-to set),
+ *     sorted by method and index</li>
+ *     <li>static fields (field and points-to set)</li>
+ *     <li>instance fields (object, field and points-to set),
+ *     sorted by object and field</li>
+ *     <li>array indexes (array object and points-to set)</li>
+ *     <li>call graph (entry methods, reachable methods and edges)</li>
+ * </ol>
+ * Each points-to set in the data section is a size followed by
+ * the ascending object ids delta-encoded. The tables refer to
+ * strings, methods, fields and objects by their ids (i.e., positions
+ * in corresponding tables) and refer to points-to sets by offsets
+ * in the data section. Except the header, all integers are encoded
+ * as unsigned variable-length integers.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x54414950; // "TAIP"
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 12;
+
+    // kinds of objects
+
+    /**
+     * Object allocated by a new statement, whose payload
+     * is the index of the statement in its container method.
+     */
+    static final byte NEW_OBJ = 0;
+
+    /**
+     * String constant object, whose payload is the string id of the constant.
+     */
+    static final byte STRING_OBJ = 1;
+
+    /**
+     * Class constant object, whose payload is the string id of the class type.
+     */
+    static final byte CLASS_OBJ = 2;
+
+    /**
+     * Other objects, whose payloads are the string ids of
+     * the description and the allocation of the object.
+     */
+    static final byte MOCK_OBJ = 3;
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,608 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.AbstractResultHolder;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Canonicalizer;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.CLASS_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.HEADER_SIZE;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.MAGIC;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.NEW_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.STRING_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.VERSION;
+
+/**
+ * Pointer analysis result backed by a (memory-mapped) snapshot.
+ * <p>
+ * The tables of the snapshot are decoded when the result is created,
+ * while the points-to sets, objects and call graph are decoded lazily
+ * on demand. Since snapshots only contain context-insensitive results,
+ * the APIs for context-sensitive elements are unsupported.
+ */
+class SnapshotResult extends AbstractResultHolder
+        implements PointerAnalysisResult {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotResult.class);
+
+    private final ByteBuffer buffer;
+
+    private final HeapModel heapModel;
+
+    private final int dataOffset;
+
+    private final String[] strings;
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    private final JField[] fields;
+
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+    // object table
+
+    private final byte[] objKinds;
+
+    private final int[] objTypes;
+
+    private final int[] objContainers;
+
+    private final int[] objPayloads;
+
+    private final int[] objPayloads2;
+
+    /**
+     * Objects decoded so far.
+     */
+    private final Obj[] objs;
+
+    // variable table, sorted by method and index
+
+    private final int[] varMethods;
+
+    private final int[] varIndexes;
+
+    private final int[] varPts;
+
+    /**
+     * Maps field id to offset of the points-to set of the static field,
+     * -1 means absent.
+     */
+    private final int[] staticFieldPts;
+
+    // instance field table, sorted by object and field
+
+    private final int[] ifieldObjs;
+
+    private final int[] ifieldFields;
+
+    private final int[] ifieldPts;
+
+    /**
+     * Maps object id to offset of the points-to set of the array index,
+     * -1 means absent.
+     */
+    private final int[] arrayPts;
+
+    /**
+     * Position of the call graph table.
+     */
+    private final int callGraphPosition;
+
+    private final Map<Var, Set<Obj>> varPointsTo = Maps.newConcurrentMap(4096);
+
+    private final Map<Pair<Var, JField>, Set<Obj>> ifieldPointsTo = Maps.newConcurrentMap(1024);
+
+    private final Map<JField, Set<Obj>> sfieldPointsTo = Maps.newConcurrentMap(512);
+
+    private final Map<Var, Set<Obj>> arrayPointsTo = Maps.newConcurrentMap(1024);
+
+    private final Canonicalizer<Set<Obj>> canonicalizer = new Canonicalizer<>();
+
+    private Collection<Var> vars;
+
+    private Collection<Obj> objects;
+
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    SnapshotResult(ByteBuffer buffer, HeapModel heapModel) {
+        this.buffer = buffer;
+        this.heapModel = heapModel;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new AnalysisException("Not a pointer analysis snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new AnalysisException("Unsupported snapshot version: "
+                    + buffer.getInt(4));
+        }
+        dataOffset = buffer.getInt(8);
+        Reader reader = new Reader(HEADER_SIZE);
+        // strings
+        strings = new String[reader.readVarInt()];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = reader.readString();
+        }
+        // methods and fields
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        methods = new JMethod[reader.readVarInt()];
+        for (int i = 0; i < methods.length; ++i) {
+            String sig = strings[reader.readVarInt()];
+            methods[i] = hierarchy.getMethod(sig);
+            if (methods[i] == null) {
+                throw new AnalysisException("Method " + sig +
+                        " in snapshot is absent in the program");
+            }
+            methodIds.put(methods[i], i);
+        }
+        fields = new JField[reader.readVarInt()];
+        for (int i = 0; i < fields.length; ++i) {
+            String sig = strings[reader.readVarInt()];
+            fields[i] = hierarchy.getField(sig);
+            if (fields[i] == null) {
+                throw new AnalysisException("Field " + sig +
+                        " in snapshot is absent in the program");
+            }
+            fieldIds.put(fields[i], i);
+        }
+        // objects
+        int nObjs = reader.readVarInt();
+        objKinds = new byte[nObjs];
+        objTypes = new int[nObjs];
+        objContainers = new int[nObjs];
+        objPayloads = new int[nObjs];
+        objPayloads2 = new int[nObjs];
+        objs = new Obj[nObjs];
+        for (int i = 0; i < nObjs; ++i) {
+            objKinds[i] = reader.readByte();
+            objTypes[i] = reader.readVarInt();
+            objContainers[i] = reader.readVarInt();
+            objPayloads[i] = reader.readVarInt();
+            if (objKinds[i] == SnapshotFormat.MOCK_OBJ) {
+                objPayloads2[i] = reader.readVarInt();
+            }
+        }
+        // variables
+        int nVars = reader.readVarInt();
+        varMethods = new int[nVars];
+        varIndexes = new int[nVars];
+        varPts = new int[nVars];
+        for (int i = 0; i < nVars; ++i) {
+            varMethods[i] = reader.readVarInt();
+            varIndexes[i] = reader.readVarInt();
+            varPts[i] = reader.readVarInt();
+        }
+        // static fields
+        staticFieldPts = new int[fields.length];
+        Arrays.fill(staticFieldPts, -1);
+        int nStaticFields = reader.readVarInt();
+        for (int i = 0; i < nStaticFields; ++i) {
+            int field = reader.readVarInt();
+            staticFieldPts[field] = reader.readVarInt();
+        }
+        // instance fields
+        int nInstanceFields = reader.readVarInt();
+        ifieldObjs = new int[nInstanceFields];
+        ifieldFields = new int[nInstanceFields];
+        ifieldPts = new int[nInstanceFields];
+        for (int i = 0; i < nInstanceFields; ++i) {
+            ifieldObjs[i] = reader.readVarInt();
+            ifieldFields[i] = reader.readVarInt();
+            ifieldPts[i] = reader.readVarInt();
+        }
+        // array indexes
+        arrayPts = new int[nObjs];
+        Arrays.fill(arrayPts, -1);
+        int nArrays = reader.readVarInt();
+        for (int i = 0; i < nArrays; ++i) {
+            int array = reader.readVarInt();
+            arrayPts[array] = reader.readVarInt();
+        }
+        callGraphPosition = reader.position;
+        logger.info("Loaded snapshot with {} variables, {} objects," +
+                " {} methods", nVars, nObjs, methods.length);
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        throw unsupported();
+    }
+
+    @Override
+    public synchronized Collection<Var> getVars() {
+        if (vars == null) {
+            List<Var> result = new ArrayList<>(varMethods.length);
+            for (int i = 0; i < varMethods.length; ++i) {
+                result.add(methods[varMethods[i]].getIR().getVar(varIndexes[i]));
+            }
+            vars = Collections.unmodifiableList(result);
+        }
+        return vars;
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        throw unsupported();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        throw unsupported();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        throw unsupported();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjects() {
+        throw unsupported();
+    }
+
+    @Override
+    public synchronized Collection<Obj> getObjects() {
+        if (objects == null) {
+            List<Obj> result = new ArrayList<>(objs.length);
+            for (int i = 0; i < objs.length; ++i) {
+                result.add(getObj(i));
+            }
+            objects = Collections.unmodifiableList(result);
+        }
+        return objects;
+    }
+
+    @Override
+    public Indexer<Obj> getObjectIndexer() {
+        return heapModel;
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var var) {
+        return varPointsTo.computeIfAbsent(var, v -> {
+            int i = findVar(v);
+            return i >= 0 ? toSet(decodeIds(varPts[i])) : Set.of();
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(InstanceFieldAccess access) {
+        Var base = access.getBase();
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(base, field) : Set.of();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, JField field) {
+        if (field.isStatic()) {
+            logger.warn("{} is not an instance field", field);
+            return Set.of();
+        }
+        return ifieldPointsTo.computeIfAbsent(new Pair<>(base, field), p -> {
+            int var = findVar(base);
+            Integer fieldId = fieldIds.get(field);
+            if (var < 0 || fieldId == null) {
+                return Set.of();
+            }
+            Set<Obj> result = new HybridBitSet<>(heapModel, true);
+            for (int obj : decodeIds(varPts[var])) {
+                int i = findInstanceField(obj, fieldId);
+                if (i >= 0) {
+                    addObjs(result, decodeIds(ifieldPts[i]));
+                }
+            }
+            return canonicalize(result);
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(StaticFieldAccess access) {
+        JField field = access.getFieldRef().resolveNullable();
+        return field != null ? getPointsToSet(field) : Set.of();
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(JField field) {
+        if (!field.isStatic()) {
+            logger.warn("{} is not a static field", field);
+            return Set.of();
+        }
+        return sfieldPointsTo.computeIfAbsent(field, f -> {
+            Integer fieldId = fieldIds.get(f);
+            return fieldId != null && staticFieldPts[fieldId] >= 0 ?
+                    toSet(decodeIds(staticFieldPts[fieldId])) : Set.of();
+        });
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(ArrayAccess access) {
+        return getPointsToSet(access.getBase(), access.getIndex());
+    }
+
+    @Override
+    public Set<Obj> getPointsToSet(Var base, Var index) {
+        if (!(base.getType() instanceof ArrayType)) {
+            logger.warn("{} is not an array", base);
+            return Set.of();
+        }
+        return arrayPointsTo.computeIfAbsent(base, b -> {
+            int var = findVar(b);
+            if (var < 0) {
+                return Set.of();
+            }
+            Set<Obj> result = new HybridBitSet<>(heapModel, true);
+            for (int array : decodeIds(varPts[var])) {
+                if (arrayPts[array] >= 0) {
+                    addObjs(result, decodeIds(arrayPts[array]));
+                }
+            }
+            return canonicalize(result);
+        });
+    }
+
+    @Override
+    public boolean mayAlias(Var v1, Var v2) {
+        return Sets.haveOverlap(getPointsToSet(v1), getPointsToSet(v2));
+    }
+
+    @Override
+    public boolean mayAlias(InstanceFieldAccess if1, InstanceFieldAccess if2) {
+        return Objects.equals(
+                if1.getFieldRef().resolveNullable(),
+                if2.getFieldRef().resolveNullable())
+                && mayAlias(if1.getBase(), if2.getBase());
+    }
+
+    @Override
+    public boolean mayAlias(ArrayAccess a1, ArrayAccess a2) {
+        return mayAlias(a1.getBase(), a2.getBase());
+    }
+
+    @Override
+    public CallGraph<CSCallSite, CSMethod> getCSCallGraph() {
+        throw unsupported();
+    }
+
+    @Override
+    public synchronized CallGraph<Invoke, JMethod> getCallGraph() {
+        if (callGraph == null) {
+            DefaultCallGraph cg = new DefaultCallGraph();
+            Reader reader = new Reader(callGraphPosition);
+            int nEntries = reader.readVarInt();
+            for (int i = 0; i < nEntries; ++i) {
+                cg.addEntryMethod(methods[reader.readVarInt()]);
+            }
+            int nReachable = reader.readVarInt();
+            for (int i = 0; i < nReachable; ++i) {
+                cg.addReachableMethod(methods[reader.readVarInt()]);
+            }
+            CallKind[] kinds = CallKind.values();
+            int nEdges = reader.readVarInt();
+            for (int i = 0; i < nEdges; ++i) {
+                JMethod caller = methods[reader.readVarInt()];
+                Invoke callSite = (Invoke) caller.getIR().getStmt(reader.readVarInt());
+                JMethod callee = methods[reader.readVarInt()];
+                CallKind kind = kinds[reader.readByte()];
+                cg.addEdge(new Edge<>(kind, callSite, callee));
+            }
+            callGraph = cg;
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return position of given variable in variable table,
+     * or -1 if the variable is absent.
+     */
+    private int findVar(Var var) {
+        Integer method = methodIds.get(var.getMethod());
+        if (method == null) {
+            return -1;
+        }
+        int lo = 0, hi = varMethods.length - 1;
+        int index = var.getIndex();
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = varMethods[mid] != method ?
+                    Integer.compare(varMethods[mid], method) :
+                    Integer.compare(varIndexes[mid], index);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return position of given (object, field) in instance field table,
+     * or -1 if it is absent.
+     */
+    private int findInstanceField(int obj, int field) {
+        int lo = 0, hi = ifieldObjs.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = ifieldObjs[mid] != obj ?
+                    Integer.compare(ifieldObjs[mid], obj) :
+                    Integer.compare(ifieldFields[mid], field);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the object ids of the points-to set at given offset
+     * of data section.
+     */
+    private int[] decodeIds(int offset) {
+        Reader reader = new Reader(dataOffset + offset);
+        int[] ids = new int[reader.readVarInt()];
+        int last = 0;
+        for (int i = 0; i < ids.length; ++i) {
+            last += reader.readVarInt();
+            ids[i] = last;
+        }
+        return ids;
+    }
+
+    private Set<Obj> toSet(int[] ids) {
+        Set<Obj> set = new HybridBitSet<>(heapModel, true);
+        addObjs(set, ids);
+        return canonicalize(set);
+    }
+
+    private void addObjs(Set<Obj> set, int[] ids) {
+        for (int id : ids) {
+            set.add(getObj(id));
+        }
+    }
+
+    private Set<Obj> canonicalize(Set<Obj> set) {
+        return canonicalizer.get(Collections.unmodifiableSet(set));
+    }
+
+    /**
+     * @return the object of given id, which is obtained from heap model
+     * on first access.
+     */
+    private synchronized Obj getObj(int id) {
+        Obj obj = objs[id];
+        if (obj == null) {
+            TypeSystem typeSystem = World.get().getTypeSystem();
+            JMethod container = objContainers[id] > 0 ?
+                    methods[objContainers[id] - 1] : null;
+            obj = switch (objKinds[id]) {
+                case NEW_OBJ -> heapModel.getObj(
+                        (New) Objects.requireNonNull(container)
+                                .getIR().getStmt(objPayloads[id]));
+                case STRING_OBJ -> heapModel.getConstantObj(
+                        StringLiteral.get(strings[objPayloads[id]]));
+                case CLASS_OBJ -> heapModel.getConstantObj(ClassLiteral.get(
+                        typeSystem.getType(strings[objPayloads[id]])));
+                default -> heapModel.getMockObj(strings[objPayloads[id]],
+                        strings[objPayloads2[id]],
+                        typeSystem.getType(strings[objTypes[id]]), container);
+            };
+            objs[id] = obj;
+        }
+        return obj;
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException(
+                "Context-sensitive results are not available in snapshot");
+    }
+
+    /**
+     * Reads integers and strings from the buffer with absolute positions,
+     * so that multiple readers can read the buffer concurrently.
+     */
+    private class Reader {
+
+        private int position;
+
+        private Reader(int position) {
+            this.position = position;
+        }
+
+        private byte readByte() {
+            return buffer.get(position++);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private String readString() {
+            byte[] bytes = new byte[readVarInt()];
+            buffer.get(position, bytes);
+            position += bytes.length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.ConstantObj;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.CLASS_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.HEADER_SIZE;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.MAGIC;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.MOCK_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.NEW_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.STRING_OBJ;
+import static pascal.taie.analysis.pta.snapshot.SnapshotFormat.VERSION;
+
+/**
+ * Writes context-insensitive projection of a pointer analysis result
+ * in the format described in {@link SnapshotFormat}.
+ */
+class SnapshotWriter {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotWriter.class);
+
+    private final PointerAnalysisResult result;
+
+    private final Map<String, Integer> strings = Maps.newMap();
+
+    private final List<String> stringList = new ArrayList<>();
+
+    private final Map<JMethod, Integer> methods = Maps.newMap();
+
+    private final List<JMethod> methodList = new ArrayList<>();
+
+    private final Map<JField, Integer> fields = Maps.newMap();
+
+    private final List<JField> fieldList = new ArrayList<>();
+
+    private final Map<Obj, Integer> objs = Maps.newMap();
+
+    /**
+     * Tables except the string table, which is written at last
+     * as strings are collected when writing other tables.
+     */
+    private final ByteOutput tables = new ByteOutput();
+
+    private final ByteOutput data = new ByteOutput();
+
+    /**
+     * Number of call edges that are not saved, as their call sites
+     * are not statements in the IR of their container methods.
+     */
+    private int skippedEdges = 0;
+
+    SnapshotWriter(PointerAnalysisResult result) {
+        this.result = result;
+    }
+
+    void write(OutputStream out) throws IOException {
+        // objects are sorted to make snapshots of the same result identical
+        List<Obj> objList = result.getObjects()
+                .stream()
+                .sorted(Comparator.comparing(Obj::toString))
+                .toList();
+        objList.forEach(o -> objs.put(o, objs.size()));
+        // encode tables that refer to methods and fields
+        ByteOutput objTable = writeObjects(objList);
+        ByteOutput varTable = writeVars();
+        ByteOutput staticFieldTable = writeStaticFields();
+        ByteOutput instanceFieldTable = writeInstanceFields();
+        ByteOutput arrayTable = writeArrays();
+        ByteOutput callGraphTable = writeCallGraph();
+        // encode method and field tables, which refer to strings
+        ByteOutput methodTable = new ByteOutput();
+        methodTable.writeVarInt(methodList.size());
+        methodList.forEach(m -> methodTable.writeVarInt(
+                getStringId(m.getSignature())));
+        ByteOutput fieldTable = new ByteOutput();
+        fieldTable.writeVarInt(fieldList.size());
+        fieldList.forEach(f -> fieldTable.writeVarInt(
+                getStringId(f.getSignature())));
+        // finally, all strings have been collected
+        ByteOutput stringTable = new ByteOutput();
+        stringTable.writeVarInt(stringList.size());
+        stringList.forEach(stringTable::writeString);
+        for (ByteOutput table : List.of(stringTable, methodTable, fieldTable,
+                objTable, varTable, staticFieldTable, instanceFieldTable,
+                arrayTable, callGraphTable)) {
+            table.writeTo(tables);
+        }
+        ByteOutput header = new ByteOutput();
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(HEADER_SIZE + tables.size());
+        header.writeTo(out);
+        tables.writeTo(out);
+        data.writeTo(out);
+        if (skippedEdges > 0) {
+            logger.warn("{} call edges from synthetic call sites" +
+                    " are not saved in snapshot", skippedEdges);
+        }
+    }
+
+    private ByteOutput writeObjects(List<Obj> objList) {
+        ByteOutput out = new ByteOutput();
+        out.writeVarInt(objList.size());
+        for (Obj obj : objList) {
+            int container = obj.getContainerMethod()
+                    .map(this::getMethodId)
+                    .map(id -> id + 1)
+                    .orElse(0);
+            if (obj instanceof NewObj newObj && isInIR(newObj.getAllocation())) {
+                out.writeByte(NEW_OBJ);
+                out.writeVarInt(getStringId(obj.getType().getName()));
+                out.writeVarInt(container);
+                out.writeVarInt(newObj.getAllocation().getIndex());
+            } else if (obj instanceof ConstantObj constObj
+                    && constObj.getAllocation() instanceof StringLiteral s) {
+                out.writeByte(STRING_OBJ);
+                out.writeVarInt(getStringId(obj.getType().getName()));
+                out.writeVarInt(container);
+                out.writeVarInt(getStringId(s.getString()));
+            } else if (obj instanceof ConstantObj constObj
+                    && constObj.getAllocation() instanceof ClassLiteral c) {
+                out.writeByte(CLASS_OBJ);
+                out.writeVarInt(getStringId(obj.getType().getName()));
+                out.writeVarInt(container);
+                out.writeVarInt(getStringId(c.getTypeValue().getName()));
+            } else {
+                String desc = obj instanceof MockObj mockObj ?
+                        mockObj.getDescription() : obj.getClass().getSimpleName();
+                out.writeByte(MOCK_OBJ);
+                out.writeVarInt(getStringId(obj.getType().getName()));
+                out.writeVarInt(container);
+                out.writeVarInt(getStringId(desc));
+                out.writeVarInt(getStringId(String.valueOf(obj.getAllocation())));
+            }
+        }
+        return out;
+    }
+
+    private ByteOutput writeVars() {
+        Map<JMethod, List<Var>> varsOf = Maps.newMap();
+        result.getVars().forEach(v ->
+                varsOf.computeIfAbsent(v.getMethod(), m -> new ArrayList<>()).add(v));
+        List<Pair<Integer, Var>> records = new ArrayList<>();
+        varsOf.forEach((method, vars) -> {
+            int methodId = getMethodId(method);
+            vars.forEach(v -> records.add(new Pair<>(methodId, v)));
+        });
+        records.sort(Comparator.comparing((Pair<Integer, Var> p) -> p.first())
+                .thenComparingInt(p -> p.second().getIndex()));
+        ByteOutput out = new ByteOutput();
+        out.writeVarInt(records.size());
+        for (Pair<Integer, Var> record : records) {
+            Var var = record.second();
+            out.writeVarInt(record.first());
+            out.writeVarInt(var.getIndex());
+            out.writeVarInt(writePointsToSet(result.getPointsToSet(var)));
+        }
+        return out;
+    }
+
+    private ByteOutput writeStaticFields() {
+        ByteOutput out = new ByteOutput();
+        Collection<StaticField> staticFields = result.getStaticFields();
+        out.writeVarInt(staticFields.size());
+        for (StaticField sfield : staticFields) {
+            out.writeVarInt(getFieldId(sfield.getField()));
+            out.writeVarInt(writePointsToSet(sfield.objects()
+                    .map(CSObj::getObject)));
+        }
+        return out;
+    }
+
+    private ByteOutput writeInstanceFields() {
+        // merge the instance fields of the objects in different contexts
+        Map<Pair<Integer, Integer>, List<InstanceField>> groups = Maps.newMap();
+        for (InstanceField ifield : result.getInstanceFields()) {
+            var key = new Pair<>(objs.get(ifield.getBase().getObject()),
+                    getFieldId(ifield.getField()));
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(ifield);
+        }
+        List<Pair<Integer, Integer>> keys = new ArrayList<>(groups.keySet());
+        keys.sort(Comparator.comparing((Pair<Integer, Integer> p) -> p.first())
+                .thenComparing(Pair::second));
+        ByteOutput out = new ByteOutput();
+        out.writeVarInt(keys.size());
+        for (Pair<Integer, Integer> key : keys) {
+            out.writeVarInt(key.first());
+            out.writeVarInt(key.second());
+            out.writeVarInt(writePointsToSet(groups.get(key)
+                    .stream()
+                    .flatMap(InstanceField::objects)
+                    .map(CSObj::getObject)));
+        }
+        return out;
+    }
+
+    private ByteOutput writeArrays() {
+        Map<Integer, List<ArrayIndex>> groups = Maps.newMap();
+        for (ArrayIndex arrayIndex : result.getArrayIndexes()) {
+            groups.computeIfAbsent(objs.get(arrayIndex.getArray().getObject()),
+                    k -> new ArrayList<>()).add(arrayIndex);
+        }
+        int[] arrays = groups.keySet().stream().mapToInt(i -> i).sorted().toArray();
+        ByteOutput out = new ByteOutput();
+        out.writeVarInt(arrays.length);
+        for (int array : arrays) {
+            out.writeVarInt(array);
+            out.writeVarInt(writePointsToSet(groups.get(array)
+                    .stream()
+                    .flatMap(ArrayIndex::objects)
+                    .map(CSObj::getObject)));
+        }
+        return out;
+    }
+
+    private ByteOutput writeCallGraph() {
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        ByteOutput out = new ByteOutput();
+        writeMethods(out, callGraph.entryMethods().toList());
+        writeMethods(out, callGraph.reachableMethods().toList());
+        List<Edge<Invoke, JMethod>> edges = callGraph.edges()
+                .filter(e -> {
+                    if (isInIR(e.getCallSite())) {
+                        return true;
+                    }
+                    ++skippedEdges;
+                    return false;
+                })
+                .toList();
+        out.writeVarInt(edges.size());
+        for (Edge<Invoke, JMethod> edge : edges) {
+            Invoke callSite = edge.getCallSite();
+            out.writeVarInt(getMethodId(callSite.getContainer()));
+            out.writeVarInt(callSite.getIndex());
+            out.writeVarInt(getMethodId(edge.getCallee()));
+            out.writeByte((byte) edge.getKind().ordinal());
+        }
+        return out;
+    }
+
+    private void writeMethods(ByteOutput out, List<JMethod> methods) {
+        out.writeVarInt(methods.size());
+        methods.forEach(m -> out.writeVarInt(getMethodId(m)));
+    }
+
+    /**
+     * @return {@code true} if given statement can be found by its index
+     * in the IR of its container method.
+     */
+    private static boolean isInIR(Stmt stmt) {
+        JMethod container = stmt instanceof New newStmt ? newStmt.getContainer() :
+                ((Invoke) stmt).getContainer();
+        List<Stmt> stmts = container.getIR().getStmts();
+        int index = stmt.getIndex();
+        return 0 <= index && index < stmts.size() && stmts.get(index) == stmt;
+    }
+
+    /**
+     * Writes a points-to set to data section.
+     *
+     * @return offset of the points-to set in data section.
+     */
+    private int writePointsToSet(Set<Obj> pts) {
+        return writePointsToSet(pts.stream());
+    }
+
+    private int writePointsToSet(Stream<Obj> pts) {
+        int[] ids = pts.mapToInt(objs::get).sorted().distinct().toArray();
+        int offset = data.size();
+        data.writeVarInt(ids.length);
+        int last = 0;
+        for (int id : ids) {
+            data.writeVarInt(id - last);
+            last = id;
+        }
+        return offset;
+    }
+
+    private int getStringId(String s) {
+        return getId(strings, stringList, s);
+    }
+
+    private int getMethodId(JMethod method) {
+        return getId(methods, methodList, method);
+    }
+
+    private int getFieldId(JField field) {
+        return getId(fields, fieldList, field);
+    }
+
+    /**
+     * @return id of given element, which is assigned if absent.
+     */
+    private static <T> int getId(Map<T, Integer> ids, List<T> list, T t) {
+        Integer id = ids.get(t);
+        if (id == null) {
+            id = list.size();
+            ids.put(t, id);
+            list.add(t);
+        }
+        return id;
+    }
+
+    /**
+     * Growable byte array with methods for writing integers and strings.
+     */
+    private static class ByteOutput {
+
+        private byte[] bytes = new byte[1024];
+
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        void writeByte(byte b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = b;
+        }
+
+        void writeBytes(byte[] b, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(b, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes,
+                        Math.max(capacity, bytes.length * 2));
+            }
+        }
+
+        void writeInt(int i) {
+            writeByte((byte) (i >>> 24));
+            writeByte((byte) (i >>> 16));
+            writeByte((byte) (i >>> 8));
+            writeByte((byte) i);
+        }
+
+        void writeVarInt(int i) {
+            while ((i & ~0x7F) != 0) {
+                writeByte((byte) ((i & 0x7F) | 0x80));
+                i >>>= 7;
+            }
+            writeByte((byte) i);
+        }
+
+        void writeString(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(b.length);
+            writeBytes(b, b.length);
+        }
+
+        void writeTo(ByteOutput out) {
+            out.writeBytes(bytes, size);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, size);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Saves pointer analysis results to snapshots, and loads them back.
+ * <p>
+ * A snapshot contains the context-insensitive points-to sets of variables,
+ * fields and array indexes, and the context-insensitive call graph.
+ * It refers to program elements by their signatures and indexes in IR,
+ * thus it can only be loaded for the same program.
+ * <p>
+ * Incremental runs (see {@link #loadOrSolve}) save the fingerprint of
+ * the program with the snapshot, and reuse the snapshot in next run
+ * if the program has not changed.
+ */
+public final class Snapshots {
+
+    private static final Logger logger = LogManager.getLogger(Snapshots.class);
+
+    private Snapshots() {
+    }
+
+    /**
+     * Saves given result to a snapshot file.
+     */
+    public static void save(PointerAnalysisResult result, String file) {
+        Path path = Path.of(file);
+        logger.info("Saving pointer analysis snapshot to {} ...", path);
+        try (OutputStream out = new BufferedOutputStream(
+                Files.newOutputStream(path))) {
+            new SnapshotWriter(result).write(out);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to save snapshot to " + path, e);
+        }
+    }
+
+    /**
+     * Runs pointer analysis incrementally. If the program and the options
+     * are the same as the ones of the previous incremental run that saved
+     * {@code file}, then loads the result from the snapshot; otherwise,
+     * obtains the result from {@code solver}, and saves it to the snapshot
+     * with the fingerprint of the program.
+     * <p>
+     * The fingerprint is saved to {@code file} + ".fingerprint", after
+     * the snapshot is saved, thus a failed run never leaves a stale
+     * snapshot with a new fingerprint.
+     *
+     * @param options   the options of pointer analysis.
+     * @param heapModel the heap model that provides the objects in
+     *                  the loaded result.
+     * @param solver    computes the result when the snapshot is absent
+     *                  or outdated.
+     */
+    public static PointerAnalysisResult loadOrSolve(
+            String file, AnalysisOptions options, HeapModel heapModel,
+            Supplier<PointerAnalysisResult> solver) {
+        Path fingerprintPath = Path.of(file + ".fingerprint");
+        ProgramFingerprint current = ProgramFingerprint.compute(options);
+        ProgramFingerprint previous = ProgramFingerprint.read(fingerprintPath);
+        if (previous == null || !Files.exists(Path.of(file))) {
+            logger.info("No previous snapshot in {}, solving from scratch", file);
+        } else {
+            Set<String> changed = current.diff(previous);
+            if (changed.isEmpty()) {
+                logger.info("Program is unchanged since previous run");
+                return load(file, heapModel);
+            }
+            logger.info("{} classes (or settings) changed since previous run," +
+                    " solving from scratch", changed.size());
+            changed.forEach(c -> logger.debug("Changed: {}", c));
+        }
+        PointerAnalysisResult result = solver.get();
+        save(result, file);
+        current.write(fingerprintPath);
+        return result;
+    }
+
+    /**
+     * Loads a result from a snapshot file. The file is memory-mapped,
+     * and the points-to sets are decoded lazily when queried.
+     *
+     * @param heapModel the heap model that provides the objects in
+     *                  the loaded result.
+     */
+    public static PointerAnalysisResult load(String file, HeapModel heapModel) {
+        Path path = Path.of(file);
+        logger.info("Loading pointer analysis snapshot from {} ...", path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new SnapshotResult(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()), heapModel);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load snapshot from " + path, e);
+        }
+    }
+}
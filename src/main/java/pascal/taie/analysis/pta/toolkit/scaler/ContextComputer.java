@@ -39,7 +39,7 @@ abstract class ContextComputer {
     /**
      * Map from a method to its context number.
      */
-    final Map<JMethod, Integer> method2ctxNumber = Maps.newMap();
+    final Map<JMethod, Integer> method2ctxNumber = Maps.newConcurrentMap();
 
     ContextComputer(PointerAnalysisResultEx pta) {
         this.pta = pta;
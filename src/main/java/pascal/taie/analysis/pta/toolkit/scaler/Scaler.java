@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.pta.toolkit.scaler;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
@@ -29,18 +30,21 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
 import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.NullType;
 import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Timer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.graph.Graph;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Given a TST (Total Scalability Threshold), select the ST (Scalability Threshold),
@@ -52,6 +56,13 @@ public class Scaler {
 
     private static final long DEFAULT_TST = 30000000;
 
+    /**
+     * Default context sensitivity variants considered by Scaler,
+     * from the most precise one to the least precise one.
+     */
+    private static final List<String> DEFAULT_VARIANTS =
+            List.of("2-obj", "2-type", "1-type");
+
     private final PointerAnalysisResultEx pta;
 
     /**
@@ -68,15 +79,49 @@ public class Scaler {
     private final List<ContextComputer> ctxComputers;
 
     /**
-     * Map from a method to total size of points-to sets of all (concerned)
-     * variables in the method.
+     * Instance methods whose context sensitivity variants are selected.
+     */
+    private List<JMethod> methods;
+
+    /**
+     * Whether each method is a special method.
+     */
+    private boolean[] isSpecial;
+
+    /**
+     * weights[i][m] is the weight of the m-th method when analyzed using
+     * the variant that corresponds to the i-th context computer.
+     */
+    private long[][] weights;
+
+    /**
+     * Weight of each method when analyzed using the bottom line variant.
+     */
+    private long[] bottomWeights;
+
+    /**
+     * The selected ST, which is available after {@link #selectContext()}.
      */
-    private final Map<JMethod, Integer> ptsSize = Maps.newMap();
+    private long st;
 
     /**
      * Parses Scaler argument and runs Scaler.
      */
     public static Map<JMethod, String> run(PointerAnalysisResult pta, String arg) {
+        return run(pta, arg, DEFAULT_VARIANTS, 0);
+    }
+
+    /**
+     * Parses Scaler argument and runs Scaler with given context sensitivity
+     * variants and given number of threads.
+     *
+     * @param variants the context sensitivity variants considered by Scaler,
+     *                 from the most precise one to the least precise one.
+     * @param nThreads number of threads used by Scaler, 0 means the number
+     *                 of available processors.
+     */
+    public static Map<JMethod, String> run(PointerAnalysisResult pta, String arg,
+                                           List<String> variants, int nThreads) {
         long tst;
         if (arg.equals("scaler")) {
             tst = DEFAULT_TST;
@@ -85,20 +130,51 @@ public class Scaler {
         } else {
             throw new IllegalArgumentException("Illegal Scaler argument: " + arg);
         }
-        return new Scaler(pta, tst).selectContext();
+        int threads = nThreads > 0 ? nThreads :
+                Runtime.getRuntime().availableProcessors();
+        logger.info("Running Scaler with {} threads", threads);
+        // the parallel streams of Scaler are executed in this pool
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> new Scaler(pta, tst, variants)
+                    .selectContext()).join();
+        } finally {
+            pool.shutdown();
+        }
     }
 
     public Scaler(PointerAnalysisResult ptaBase, long tst) {
+        this(ptaBase, tst, DEFAULT_VARIANTS);
+    }
+
+    /**
+     * @param variants the context sensitivity variants considered by Scaler,
+     *                 from the most precise one to the least precise one.
+     */
+    public Scaler(PointerAnalysisResult ptaBase, long tst, List<String> variants) {
+        if (variants.isEmpty()) {
+            throw new ConfigException("No context sensitivity variants for Scaler");
+        }
         this.pta = new PointerAnalysisResultExImpl(ptaBase, true);
         this.tst = tst;
         bottomLine = new _InsensitiveContextComputer(pta);
         // From the most precise analysis to the least precise analysis
         Graph<Obj> oag = OAGs.build(pta);
-        // TODO - make ctxComputers configurable
-        ctxComputers = List.of(
-                new _2ObjContextComputer(pta, oag),
-                new _2TypeContextComputer(pta, oag),
-                new _1TypeContextComputer(pta));
+        ctxComputers = variants.stream()
+                .map(variant -> makeContextComputer(variant, pta, oag))
+                .toList();
+    }
+
+    static ContextComputer makeContextComputer(
+            String variant, PointerAnalysisResultEx pta, Graph<Obj> oag) {
+        return switch (variant) {
+            case "2-obj" -> new _2ObjContextComputer(pta, oag);
+            case "2-type" -> new _2TypeContextComputer(pta, oag);
+            case "1-obj" -> new _1ObjContextComputer(pta);
+            case "1-type" -> new _1TypeContextComputer(pta);
+            default -> throw new ConfigException(
+                    "Unsupported context sensitivity variant for Scaler: " + variant);
+        };
     }
 
     /**
@@ -110,36 +186,124 @@ public class Scaler {
      */
     public Map<JMethod, String> selectContext() {
         logger.info("Scaler TST: {}", tst);
-        Set<JMethod> instanceMethods = pta.getBase()
+        methods = pta.getBase()
                 .getCallGraph()
                 .reachableMethods()
                 .filter(m -> !m.isStatic())
-                .collect(Collectors.toUnmodifiableSet());
-        long st = binarySearch(instanceMethods, tst);
-        Map<JMethod, String> csMap = instanceMethods.stream()
-                .collect(Collectors.toMap(m -> m, m -> selectVariantFor(m, st)));
+                .distinct()
+                .toList();
+        Timer.runAndCount(this::computeWeights,
+                "Computing weights of methods", Level.INFO);
+        st = Timer.runAndCount(this::searchST,
+                "Searching ST", Level.INFO);
+        Map<JMethod, String> csMap = Maps.newMap(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            csMap.put(methods.get(i), selectVariantFor(i, st));
+        }
         logCSMap(csMap);
         return csMap;
     }
 
+    /**
+     * @return the ST selected by {@link #selectContext()}.
+     */
+    long getST() {
+        return st;
+    }
+
+    /**
+     * Computes the weights of all methods for all context computers
+     * in parallel.
+     */
+    private void computeWeights() {
+        int n = methods.size();
+        isSpecial = new boolean[n];
+        weights = new long[ctxComputers.size()][n];
+        bottomWeights = new long[n];
+        IntStream.range(0, n).parallel().forEach(m -> {
+            JMethod method = methods.get(m);
+            isSpecial[m] = isSpecialMethod(method);
+            long ptsSize = getCIPTSSizeOf(method);
+            for (int i = 0; i < ctxComputers.size(); ++i) {
+                weights[i][m] = ctxComputers.get(i).contextNumberOf(method) * ptsSize;
+            }
+            bottomWeights[m] = bottomLine.contextNumberOf(method) * ptsSize;
+        });
+    }
+
     /**
      * Search the suitable st such that the accumulative size of
      * context-sensitive points to sets of given methods is less than given tst.
+     * <p>
+     * For each method, the weight of its selected variant is a step function
+     * of st, which only changes at the weights of the method. Thus, we
+     * collect the changes of all methods, sort them by st, and compute
+     * their prefix sums, so that the total weight under any st can be
+     * obtained by a binary search on the sorted changes.
      *
      * @return the st for every method
      */
-    private long binarySearch(Set<JMethod> methods, long tst) {
+    private long searchST() {
+        int n = methods.size();
+        int nComputers = ctxComputers.size();
+        // collect the changes of weights of non-special methods
+        long base = 0;
+        long[] thresholds = new long[n * nComputers];
+        long[] deltas = new long[n * nComputers];
+        int nChanges = 0;
+        long[] sortedWeights = new long[nComputers];
+        for (int m = 0; m < n; ++m) {
+            if (isSpecial[m]) {
+                // special methods are excluded from this computation
+                continue;
+            }
+            long current = bottomWeights[m];
+            base += current;
+            int selected = nComputers; // bottom line
+            for (int i = 0; i < nComputers; ++i) {
+                sortedWeights[i] = weights[i][m];
+            }
+            Arrays.sort(sortedWeights);
+            for (int i = 0; i < nComputers; ++i) {
+                long st = sortedWeights[i];
+                if (i > 0 && st == sortedWeights[i - 1]) {
+                    continue;
+                }
+                int cc = selectContextComputer(m, st);
+                if (cc != selected) {
+                    thresholds[nChanges] = st;
+                    deltas[nChanges] = weights[cc][m] - current;
+                    ++nChanges;
+                    current = weights[cc][m];
+                    selected = cc;
+                }
+            }
+        }
+        // merge the changes at the same st, and compute prefix sums
+        long[] sts = Arrays.copyOf(thresholds, nChanges);
+        Arrays.sort(sts);
+        int nSTs = 0;
+        for (int i = 0; i < nChanges; ++i) {
+            if (i == 0 || sts[i] != sts[i - 1]) {
+                sts[nSTs++] = sts[i];
+            }
+        }
+        sts = Arrays.copyOf(sts, nSTs);
+        long[] prefixSums = new long[nSTs];
+        for (int i = 0; i < nChanges; ++i) {
+            prefixSums[Arrays.binarySearch(sts, thresholds[i])] += deltas[i];
+        }
+        for (int i = 1; i < nSTs; ++i) {
+            prefixSums[i] += prefixSums[i - 1];
+        }
         // Select the max value and make it as end
-        @SuppressWarnings("OptionalGetWithoutIsPresent")
-        long end = methods.stream()
-                .mapToLong(m -> getWeight(m, ctxComputers.get(0)))
-                .max()
-                .getAsLong();
+        long end = Arrays.stream(weights[0]).max().orElse(0);
         long start = 0;
         long mid, ret = 0;
         while (start <= end) {
             mid = (start + end) / 2;
-            long totalSize = getTotalAccumulativePTS(methods, mid);
+            long totalSize = getTotalAccumulativePTS(
+                    base, sts, prefixSums, mid);
             if (totalSize < tst) {
                 ret = mid;
                 start = mid + 1;
@@ -154,19 +318,17 @@ public class Scaler {
     }
 
     /**
-     * Given a set of methods and a st (scalability threshold),
-     * computes the total size of all (concerned) variables in the program.
+     * Given a st (scalability threshold), computes the total size of all
+     * (concerned) variables in the program from the sorted changes.
      */
-    private long getTotalAccumulativePTS(Set<JMethod> methods, long st) {
-        long total = 0;
-        for (JMethod method : methods) {
-            if (!isSpecialMethod(method)) {
-                // special methods are excluded from this computation
-                ContextComputer cc = selectContextComputer(method, st);
-                total += getWeight(method, cc);
-            }
+    private static long getTotalAccumulativePTS(
+            long base, long[] sts, long[] prefixSums, long st) {
+        int i = Arrays.binarySearch(sts, st);
+        if (i < 0) {
+            // index of the greatest st that is less than given st
+            i = -i - 2;
         }
-        return total;
+        return i >= 0 ? base + prefixSums[i] : base;
     }
 
     /**
@@ -176,23 +338,21 @@ public class Scaler {
      * most expensive (and precise) ContextComputer is returned;
      * otherwise, bottom line is returned.
      *
-     * @return the selected context computer for method according to tst
+     * @param m index of the method
+     * @return index of the selected context computer in ctxComputers
+     * for method according to tst, or ctxComputers.size() for bottom line.
      */
-    private ContextComputer selectContextComputer(JMethod method, long st) {
-        ContextComputer ctxComp;
-        if (isSpecialMethod(method)) {
+    private int selectContextComputer(int m, long st) {
+        if (isSpecial[m]) {
             // special methods will be analyzed with the most precise variant
-            ctxComp = ctxComputers.get(0);
-        } else {
-            ctxComp = bottomLine;
-            for (ContextComputer cc : ctxComputers) {
-                if (getWeight(method, cc) <= st) {
-                    ctxComp = cc;
-                    break;
-                }
+            return 0;
+        }
+        for (int i = 0; i < ctxComputers.size(); ++i) {
+            if (weights[i][m] <= st) {
+                return i;
             }
         }
-        return ctxComp;
+        return ctxComputers.size();
     }
 
     /**
@@ -205,30 +365,17 @@ public class Scaler {
                 .startsWith("java.util.");
     }
 
-    /**
-     * @return the weight of given method when analyzed using the
-     * context sensitivity variant that corresponds to given ContextComputer.
-     */
-    private long getWeight(JMethod method, ContextComputer cc) {
-        return ((long) cc.contextNumberOf(method))
-                * ((long) getCIPTSSizeOf(method));
-    }
-
     /**
      * @return total size of points-to sets of all (concerned) variables
      * in given method when analyzed using context insensitivity.
      */
-    private int getCIPTSSizeOf(JMethod method) {
-        if (!ptsSize.containsKey(method)) {
-            int size = method.getIR()
-                    .getVars()
-                    .stream()
-                    .filter(Scaler::isConcerned)
-                    .mapToInt(v -> pta.getBase().getPointsToSet(v).size())
-                    .sum();
-            ptsSize.put(method, size);
-        }
-        return ptsSize.get(method);
+    private long getCIPTSSizeOf(JMethod method) {
+        return method.getIR()
+                .getVars()
+                .stream()
+                .filter(Scaler::isConcerned)
+                .mapToLong(v -> pta.getBase().getPointsToSet(v).size())
+                .sum();
     }
 
     /**
@@ -242,10 +389,12 @@ public class Scaler {
     /**
      * Given st, selects suitable context sensitivity variant for given method.
      */
-    private String selectVariantFor(JMethod method, long st) {
-        ContextComputer ctxComp = selectContextComputer(method, st);
-        logger.debug("{}, {}, {}", method,
-                ctxComp.getVariantName(), ctxComp.contextNumberOf(method));
+    private String selectVariantFor(int m, long st) {
+        int i = selectContextComputer(m, st);
+        ContextComputer ctxComp = i < ctxComputers.size() ?
+                ctxComputers.get(i) : bottomLine;
+        logger.debug("{}, {}, {}", methods.get(m),
+                ctxComp.getVariantName(), ctxComp.contextNumberOf(methods.get(m)));
         return ctxComp.getVariantName();
     }
 
@@ -62,6 +62,15 @@ abstract class FGNode implements Indexable {
         inEdges.add(edge);
     }
 
+    /**
+     * Replaces the edge sets of this node by immutable copies,
+     * after which no more edges can be added.
+     */
+    void freeze() {
+        inEdges = Set.copyOf(inEdges);
+        outEdges = Set.copyOf(outEdges);
+    }
+
     Set<FGEdge> getInEdges() {
         return inEdges;
     }
@@ -24,7 +24,6 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -77,21 +76,44 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
     private final Map<Obj, ArrayIndexNode> array2Node = Maps.newMap(1024);
 
     ObjectFlowGraph(PointerAnalysisResult pta) {
-        CallGraph<Invoke, JMethod> callGraph = pta.getCallGraph();
-        EdgeBuilder edgeBuilder = new EdgeBuilder(pta);
+        // The IR of reachable methods (which include all callees) is
+        // obtained sequentially beforehand, so that the parallel tasks
+        // below only read the IR that has been built.
+        List<JMethod> methods = pta.getCallGraph()
+                .reachableMethods()
+                .toList();
+        methods.forEach(JMethod::getIR);
+        // The edges of each method are collected in parallel, which queries
+        // points-to sets and call graph, and then added to this graph
+        // sequentially, so that the nodes are indexed deterministically.
+        List<List<Runnable>> edgeAdders = methods.parallelStream()
+                .map(method -> {
+                    EdgeBuilder edgeBuilder = new EdgeBuilder(pta);
+                    method.getIR().forEach(s -> s.accept(edgeBuilder));
+                    return edgeBuilder.edgeAdders;
+                })
+                .toList();
         nodeCounter = 0;
-        callGraph.forEach(method ->
-                method.getIR().forEach(s -> s.accept(edgeBuilder)));
+        edgeAdders.forEach(adders -> adders.forEach(Runnable::run));
+        // share immutable adjacency among the builders of
+        // precision flow graphs, which run in parallel
+        nodes.forEach(FGNode::freeze);
         // log statistics
         logger.info("{} nodes in OFG", nodes.size());
         logger.info("{} edges in OFG",
                 nodes.stream().mapToInt(this::getOutDegreeOf).sum());
     }
 
+    /**
+     * Collects the edges of a method. Each edge is recorded as an action
+     * that creates the nodes and adds the edge to the object flow graph.
+     */
     private class EdgeBuilder implements StmtVisitor<Void> {
 
         private final PointerAnalysisResult pta;
 
+        private final List<Runnable> edgeAdders = new ArrayList<>();
+
         private EdgeBuilder(PointerAnalysisResult pta) {
             this.pta = pta;
         }
@@ -101,9 +123,11 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
             if (isRelevant(copy)) {
                 Var to = copy.getLValue();
                 Var from = copy.getRValue();
-                VarNode toNode = getOrCreateVarNode(to);
-                VarNode fromNode = getOrCreateVarNode(from);
-                fromNode.addOutEdge(new FGEdge(LOCAL_ASSIGN, fromNode, toNode));
+                edgeAdders.add(() -> {
+                    VarNode toNode = getOrCreateVarNode(to);
+                    VarNode fromNode = getOrCreateVarNode(from);
+                    fromNode.addOutEdge(new FGEdge(LOCAL_ASSIGN, fromNode, toNode));
+                });
             }
             return null;
         }
@@ -113,9 +137,11 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
             if (isRelevant(cast)) {
                 Var to = cast.getLValue();
                 Var from = cast.getRValue().getValue();
-                VarNode toNode = getOrCreateVarNode(to);
-                VarNode fromNode = getOrCreateVarNode(from);
-                fromNode.addOutEdge(new FGEdge(LOCAL_ASSIGN, fromNode, toNode));
+                edgeAdders.add(() -> {
+                    VarNode toNode = getOrCreateVarNode(to);
+                    VarNode fromNode = getOrCreateVarNode(from);
+                    fromNode.addOutEdge(new FGEdge(LOCAL_ASSIGN, fromNode, toNode));
+                });
             }
             return null;
         }
@@ -125,12 +151,15 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
             if (isRelevant(load) &&
                     load.getFieldAccess() instanceof InstanceFieldAccess access) {
                 Var to = load.getLValue();
-                VarNode toNode = getOrCreateVarNode(to);
                 Var base = access.getBase();
                 JField field = access.getFieldRef().resolve();
-                pta.getPointsToSet(base).forEach(obj -> {
-                    InstanceFieldNode fromNode = getOrCreateInstanceFieldNode(obj, field);
-                    fromNode.addOutEdge(new FGEdge(INSTANCE_LOAD, fromNode, toNode));
+                Set<Obj> pts = pta.getPointsToSet(base);
+                edgeAdders.add(() -> {
+                    VarNode toNode = getOrCreateVarNode(to);
+                    pts.forEach(obj -> {
+                        InstanceFieldNode fromNode = getOrCreateInstanceFieldNode(obj, field);
+                        fromNode.addOutEdge(new FGEdge(INSTANCE_LOAD, fromNode, toNode));
+                    });
                 });
             }
             return null;
@@ -143,10 +172,13 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
                 Var base = access.getBase();
                 JField field = access.getFieldRef().resolve();
                 Var from = store.getRValue();
-                VarNode fromNode = getOrCreateVarNode(from);
-                pta.getPointsToSet(base).forEach(obj -> {
-                    InstanceFieldNode toNode = getOrCreateInstanceFieldNode(obj, field);
-                    fromNode.addOutEdge(new FGEdge(INSTANCE_STORE, fromNode, toNode));
+                Set<Obj> pts = pta.getPointsToSet(base);
+                edgeAdders.add(() -> {
+                    VarNode fromNode = getOrCreateVarNode(from);
+                    pts.forEach(obj -> {
+                        InstanceFieldNode toNode = getOrCreateInstanceFieldNode(obj, field);
+                        fromNode.addOutEdge(new FGEdge(INSTANCE_STORE, fromNode, toNode));
+                    });
                 });
             }
             return null;
@@ -156,11 +188,14 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
         public Void visit(LoadArray load) {
             if (isRelevant(load)) {
                 Var to = load.getLValue();
-                VarNode toNode = getOrCreateVarNode(to);
                 Var base = load.getRValue().getBase();
-                pta.getPointsToSet(base).forEach(array -> {
-                    ArrayIndexNode fromNode = getOrCreateArrayIndexNode(array);
-                    fromNode.addOutEdge(new FGEdge(INSTANCE_LOAD, fromNode, toNode));
+                Set<Obj> pts = pta.getPointsToSet(base);
+                edgeAdders.add(() -> {
+                    VarNode toNode = getOrCreateVarNode(to);
+                    pts.forEach(array -> {
+                        ArrayIndexNode fromNode = getOrCreateArrayIndexNode(array);
+                        fromNode.addOutEdge(new FGEdge(INSTANCE_LOAD, fromNode, toNode));
+                    });
                 });
             }
             return null;
@@ -171,11 +206,14 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
             if (isRelevant(store)) {
                 Var base = store.getLValue().getBase();
                 Var from = store.getRValue();
-                VarNode fromNode = getOrCreateVarNode(from);
-                pta.getPointsToSet(base).forEach(array -> {
-                    ArrayIndexNode toNode = getOrCreateArrayIndexNode(array);
-                    fromNode.addOutEdge(
-                            new FGEdge(INSTANCE_STORE, fromNode, toNode));
+                Set<Obj> pts = pta.getPointsToSet(base);
+                edgeAdders.add(() -> {
+                    VarNode fromNode = getOrCreateVarNode(from);
+                    pts.forEach(array -> {
+                        ArrayIndexNode toNode = getOrCreateArrayIndexNode(array);
+                        fromNode.addOutEdge(
+                                new FGEdge(INSTANCE_STORE, fromNode, toNode));
+                    });
                 });
             }
             return null;
@@ -184,13 +222,17 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
         @Override
         public Void visit(Invoke invoke) {
             Var lhs = invoke.getLValue();
-            VarNode lhsNode = lhs != null && lhs.getType() instanceof ReferenceType
-                    ? getOrCreateVarNode(lhs) : null;
-            List<VarNode> argNodes = Lists.map(invoke.getInvokeExp().getArgs(),
-                    ObjectFlowGraph.this::getOrCreateVarNode);
-            pta.getCallGraph().edgesOutOf(invoke).forEach(edge -> {
-                if (edge.getKind() != CallKind.OTHER) {
-                    IR ir = edge.getCallee().getIR();
+            List<IR> calleeIRs = pta.getCallGraph()
+                    .edgesOutOf(invoke)
+                    .filter(edge -> edge.getKind() != CallKind.OTHER)
+                    .map(edge -> edge.getCallee().getIR())
+                    .toList();
+            edgeAdders.add(() -> {
+                VarNode lhsNode = lhs != null && lhs.getType() instanceof ReferenceType
+                        ? getOrCreateVarNode(lhs) : null;
+                List<VarNode> argNodes = Lists.map(invoke.getInvokeExp().getArgs(),
+                        ObjectFlowGraph.this::getOrCreateVarNode);
+                calleeIRs.forEach(ir -> {
                     // add argument-passing edges
                     for (int i = 0; i < ir.getParams().size(); ++i) {
                         Var param = ir.getParam(i);
@@ -216,7 +258,7 @@ class ObjectFlowGraph implements Graph<FGNode>, Indexer<FGNode> {
                         baseNode.addOutEdge(
                                 new FGEdge(INTERPROCEDURAL_ASSIGN, baseNode, thisNode));
                     }
-                }
+                });
             });
             return null;
         }
@@ -36,6 +36,7 @@ import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Views;
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
@@ -108,7 +109,15 @@ class PFGBuilder {
         for (VarNode inNode : inNodes) {
             dfs(inNode);
         }
-        return new PrecisionFlowGraph(type, ofg, visitedNodes, outNodes, wuEdges);
+        PrecisionFlowGraph pfg = new PrecisionFlowGraph(
+                type, ofg, visitedNodes, outNodes, wuEdges);
+        // release the states of this builder, which are not needed
+        // after building the precision flow graph
+        inNodes = null;
+        outNodes = null;
+        visitedNodes = null;
+        wuEdges = null;
+        return pfg;
     }
 
     private Set<JMethod> obtainMethods() {
@@ -201,7 +210,10 @@ class PFGBuilder {
                 });
             }
             List<FGEdge> nextEdges = new ArrayList<>();
-            for (FGEdge edge : getOutEdgesOf(node)) {
+            // wrapped and unwrapped flow edges are never in OFG, thus
+            // we combine them with the shared OFG edges without copying
+            for (FGEdge edge : Views.toCombinedSet(
+                    ofg.getOutEdgesOf(node), wuEdges.get(node))) {
                 switch (edge.kind()) {
                     case LOCAL_ASSIGN, UNWRAPPED_FLOW -> {
                         nextEdges.add(edge);
@@ -247,15 +259,6 @@ class PFGBuilder {
         }
     }
 
-    public Set<FGEdge> getOutEdgesOf(FGNode node) {
-        Set<FGEdge> outEdges = ofg.getOutEdgesOf(node);
-        if (wuEdges.containsKey(node)) {
-            outEdges = new HashSet<>(outEdges);
-            outEdges.addAll(wuEdges.get(node));
-        }
-        return outEdges;
-    }
-
     @Nullable
     private VarNode getAssignedNode(Obj obj) {
         if (obj.getAllocation() instanceof New newStmt) {
@@ -69,6 +69,22 @@ class PrecisionFlowGraph implements Graph<FGNode> {
         return outNodes;
     }
 
+    /**
+     * @return the number of edges in this graph. This method
+     * counts the edges without creating the edge sets.
+     */
+    int getNumberOfEdges() {
+        int count = outWUEdges.size();
+        for (FGNode node : nodes) {
+            for (FGEdge edge : ofg.getOutEdgesOf(node)) {
+                if (nodes.contains(edge.target())) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
     @Override
     public boolean hasNode(FGNode node) {
         return nodes.contains(node);
@@ -35,8 +35,8 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.MutableInt;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
 import java.util.ArrayDeque;
@@ -46,6 +46,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -85,6 +86,17 @@ public class Zipper {
      * Parses Zipper argument and runs Zipper.
      */
     public static Set<JMethod> run(PointerAnalysisResult pta, String arg) {
+        return run(pta, arg, 0);
+    }
+
+    /**
+     * Parses Zipper argument and runs Zipper with given number of threads.
+     *
+     * @param nThreads number of threads used by Zipper, 0 means the number
+     *                 of available processors.
+     */
+    public static Set<JMethod> run(PointerAnalysisResult pta, String arg,
+                                   int nThreads) {
         boolean isExpress;
         float pv;
         if (arg.equals("zipper")) {
@@ -99,8 +111,17 @@ public class Zipper {
         } else {
             throw new IllegalArgumentException("Illegal Zipper argument: " + arg);
         }
-        return new Zipper(pta, isExpress, pv)
-                .selectPrecisionCriticalMethods();
+        int threads = nThreads > 0 ? nThreads :
+                Runtime.getRuntime().availableProcessors();
+        logger.info("Running Zipper with {} threads", threads);
+        // the parallel streams of Zipper are executed in this pool
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> new Zipper(pta, isExpress, pv)
+                    .selectPrecisionCriticalMethods()).join();
+        } finally {
+            pool.shutdown();
+        }
     }
 
     public Zipper(PointerAnalysisResult ptaBase, boolean isExpress, float pv) {
@@ -126,22 +147,12 @@ public class Zipper {
 
         // prepare information for Zipper-e
         if (isExpress) {
-            PointerAnalysisResult pta = this.pta.getBase();
-            int totalPts = 0;
-            methodPts = Maps.newMap(pta.getCallGraph().getNumberOfMethods());
-            for (Var var : pta.getVars()) {
-                int size = pta.getPointsToSet(var).size();
-                if (size > 0) {
-                    totalPts += size;
-                    methodPts.computeIfAbsent(var.getMethod(),
-                                    unused -> new MutableInt(0))
-                            .add(size);
-                }
-            }
-            pcmThreshold = (int) (pv * totalPts);
+            Timer.runAndCount(this::computeMethodPts,
+                    "Computing points-to size of methods", Level.INFO);
         }
 
-        // build and analyze precision-flow graphs
+        // build and analyze precision-flow graphs, each graph is
+        // released right after it is analyzed
         Set<Type> types = pta.getObjectTypes();
         Timer.runAndCount(() -> types.parallelStream().forEach(this::analyze),
                 "Building and analyzing PFG", Level.INFO);
@@ -158,13 +169,26 @@ public class Zipper {
         return pcms;
     }
 
+    private void computeMethodPts() {
+        PointerAnalysisResult pta = this.pta.getBase();
+        int totalPts = 0;
+        methodPts = Maps.newMap(pta.getCallGraph().getNumberOfMethods());
+        for (Var var : pta.getVars()) {
+            int size = pta.getPointsToSet(var).size();
+            if (size > 0) {
+                totalPts += size;
+                methodPts.computeIfAbsent(var.getMethod(),
+                                unused -> new MutableInt(0))
+                        .add(size);
+            }
+        }
+        pcmThreshold = (int) (pv * totalPts);
+    }
+
     private void analyze(Type type) {
         PrecisionFlowGraph pfg = new PFGBuilder(pta, ofg, oag, pce, type).build();
         totalPFGNodes.addAndGet(pfg.getNumberOfNodes());
-        totalPFGEdges.addAndGet(pfg.getNodes()
-                .stream()
-                .mapToInt(pfg::getOutDegreeOf)
-                .sum());
+        totalPFGEdges.addAndGet(pfg.getNumberOfEdges());
         Set<JMethod> pcms = getPrecisionCriticalMethods(pfg);
         if (!pcms.isEmpty()) {
             pcmMap.put(type, pcms);
@@ -192,8 +216,8 @@ public class Zipper {
         return pcms;
     }
 
-    private static Set<FGNode> getFlowNodes(PrecisionFlowGraph pfg) {
-        Set<FGNode> visited = Sets.newSet();
+    private Set<FGNode> getFlowNodes(PrecisionFlowGraph pfg) {
+        Set<FGNode> visited = new IndexerBitSet<>(ofg, true);
         for (VarNode outNode : pfg.getOutNodes()) {
             Deque<FGNode> workList = new ArrayDeque<>();
             workList.add(outNode);
@@ -145,7 +145,9 @@ public class Options {
     // ---------- general analysis options ----------
     @JsonProperty
     @Option(names = "--world-builder",
-            description = "Specify world builder class (default: ${DEFAULT-VALUE})",
+            description = "Specify world builder class, e.g.," +
+                    " pascal.taie.frontend.asm.AsmWorldBuilder" +
+                    " (default: ${DEFAULT-VALUE})",
             defaultValue = "pascal.taie.frontend.soot.SootWorldBuilder")
     private Class<? extends WorldBuilder> worldBuilderClass = SootWorldBuilder.class;
 
@@ -164,6 +166,41 @@ public class Options {
         return preBuildIR;
     }
 
+    @JsonProperty
+    @Option(names = "--prefetch-ir",
+            description = "Build IR for the callees of newly reachable methods" +
+                    " in background during pointer analysis (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean prefetchIR = false;
+
+    public boolean isPrefetchIR() {
+        return prefetchIR;
+    }
+
+    @JsonProperty
+    @Option(names = "--lazy-world",
+            description = "Build members and annotations of classes on" +
+                    " their first access instead of building them for" +
+                    " all classes in the world (default: ${DEFAULT-VALUE})",
+            defaultValue = "false")
+    private boolean lazyWorld = false;
+
+    public boolean isLazyWorld() {
+        return lazyWorld;
+    }
+
+    @JsonProperty
+    @Option(names = "--ir-cache-dir",
+            description = "Directory of the persistent IR cache used by" +
+                    " pascal.taie.frontend.cache.CachedWorldBuilder" +
+                    " (default: ${DEFAULT-VALUE})",
+            defaultValue = "output/ir-cache")
+    private File irCacheDir = new File("output/ir-cache");
+
+    public File getIRCacheDir() {
+        return irCacheDir;
+    }
+
     @JsonProperty
     @Option(names = "-scope",
             description = "Scope for method/class analyses (default: ${DEFAULT-VALUE}," +
@@ -303,6 +340,9 @@ public class Options {
                 ", allowPhantom=" + allowPhantom +
                 ", worldBuilderClass=" + worldBuilderClass +
                 ", preBuildIR=" + preBuildIR +
+                ", prefetchIR=" + prefetchIR +
+                ", lazyWorld=" + lazyWorld +
+                ", irCacheDir=" + irCacheDir +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
                 ", planFile=" + planFile +
@@ -0,0 +1,197 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Locates and reads class files in the class path. Class path entries are
+ * searched in order, i.e., the first class file found for a class wins.
+ */
+public class ClassFileLocator {
+
+    private static final Logger logger = LogManager.getLogger(ClassFileLocator.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * Places to search class files, in the order of class path.
+     */
+    private final List<Root> roots = new ArrayList<>();
+
+    /**
+     * @param classPath class path separated by {@link File#pathSeparator},
+     *                  or {@code null} if there is no class path.
+     * @param searchJVM whether to search the class path of current JVM
+     *                  before {@code classPath}.
+     */
+    public ClassFileLocator(@Nullable String classPath, boolean searchJVM) {
+        if (searchJVM) {
+            FileSystem jrt = getJRT();
+            if (jrt != null) {
+                roots.add(new RuntimeImageRoot(jrt));
+            }
+        }
+        if (classPath == null) {
+            return;
+        }
+        for (String path : classPath.split(File.pathSeparator)) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                Path dir = file.toPath();
+                roots.add(relPath -> {
+                    Path classFile = dir.resolve(relPath);
+                    return Files.isRegularFile(classFile) ?
+                            Files.readAllBytes(classFile) : null;
+                });
+            } else if (file.isFile() && (path.endsWith(".jar") || path.endsWith(".zip"))) {
+                try {
+                    JarFile jar = new JarFile(file);
+                    roots.add(relPath -> {
+                        ZipEntry entry = jar.getEntry(relPath);
+                        if (entry == null) {
+                            return null;
+                        }
+                        try (InputStream in = jar.getInputStream(entry)) {
+                            return in.readAllBytes();
+                        }
+                    });
+                } catch (IOException e) {
+                    logger.warn("Failed to open {}, classes in it are ignored", file);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static FileSystem getJRT() {
+        try {
+            return FileSystems.getFileSystem(URI.create("jrt:/"));
+        } catch (FileSystemNotFoundException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return contents of the class file of given class,
+     * or null if the class file is not found.
+     */
+    @Nullable
+    public byte[] read(String className) {
+        String relPath = className.replace('.', '/') + CLASS_SUFFIX;
+        try {
+            for (Root root : roots) {
+                byte[] bytes = root.read(relPath);
+                if (bytes != null) {
+                    return bytes;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read class file of {}", className);
+        }
+        return null;
+    }
+
+    /**
+     * A place (jar file, directory, or run-time image) to search class files.
+     */
+    private interface Root {
+
+        /**
+         * @return contents of the class file at {@code relPath},
+         * or null if the file does not exist in this root.
+         */
+        @Nullable
+        byte[] read(String relPath) throws IOException;
+    }
+
+    /**
+     * Run-time image of current JVM, which organizes class files by modules.
+     */
+    private static class RuntimeImageRoot implements Root {
+
+        private final FileSystem jrt;
+
+        /**
+         * Caches the modules containing each package.
+         */
+        private final Map<String, List<Path>> packageModules =
+                Maps.newConcurrentMap();
+
+        private RuntimeImageRoot(FileSystem jrt) {
+            this.jrt = jrt;
+        }
+
+        @Override
+        @Nullable
+        public byte[] read(String relPath) throws IOException {
+            int i = relPath.lastIndexOf('/');
+            String pkg = i == -1 ? "" : relPath.substring(0, i).replace('/', '.');
+            for (Path module : packageModules.computeIfAbsent(pkg, this::getModules)) {
+                Path classFile = module.resolve(relPath);
+                if (Files.isRegularFile(classFile)) {
+                    return Files.readAllBytes(classFile);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the modules in run-time image that contain {@code pkg}.
+         */
+        private List<Path> getModules(String pkg) {
+            // directory /packages/<pkg> in run-time image contains a link
+            // for each module that contains the package
+            Path pkgDir = jrt.getPath("/packages", pkg);
+            if (pkg.isEmpty() || !Files.isDirectory(pkgDir)) {
+                return List.of();
+            }
+            try (Stream<Path> links = Files.list(pkgDir)) {
+                return links.map(link -> jrt.getPath("/modules",
+                                link.getFileName().toString()))
+                        .toList();
+            } catch (IOException e) {
+                return List.of();
+            }
+        }
+    }
+}
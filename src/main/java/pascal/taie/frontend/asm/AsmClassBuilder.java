@@ -0,0 +1,190 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.InnerClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Lists;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builds {@link JClass} from the class node parsed by ASM.
+ * The node only contains the header of the class (i.e., without code),
+ * and the method bodies are parsed from {@link ClassSource} on demand.
+ */
+class AsmClassBuilder implements JClassBuilder {
+
+    private final Converter converter;
+
+    private final ClassNode classNode;
+
+    private final ClassSource classSource;
+
+    private final boolean isApplication;
+
+    private final boolean isLazy;
+
+    /**
+     * The InnerClasses entry for this class, or {@code null}
+     * if this class is not an inner class.
+     */
+    @Nullable
+    private final InnerClassNode innerClassNode;
+
+    private JClass jclass;
+
+    AsmClassBuilder(Converter converter, ClassNode classNode,
+                    ClassSource classSource, boolean isApplication,
+                    boolean isLazy) {
+        this.converter = converter;
+        this.classNode = classNode;
+        this.classSource = classSource;
+        this.isApplication = isApplication;
+        this.isLazy = isLazy;
+        this.innerClassNode = classNode.innerClasses.stream()
+                .filter(ic -> ic.name.equals(classNode.name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        this.jclass = jclass;
+        jclass.build(this);
+    }
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        // access flags of inner classes (e.g., private and static)
+        // are only recorded in the InnerClasses attribute
+        return Modifiers.convertClass(innerClassNode != null ?
+                innerClassNode.access : classNode.access);
+    }
+
+    @Override
+    public String getSimpleName() {
+        String name = jclass.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return converter.convertClassType(classNode.name);
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        return classNode.superName == null ? null :
+                converter.convertClass(classNode.superName);
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        return classNode.interfaces.stream()
+                .map(converter::convertClass)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        if (innerClassNode != null && innerClassNode.outerName != null) {
+            return converter.convertClass(innerClassNode.outerName);
+        } else if (classNode.outerClass != null) {
+            return converter.convertClass(classNode.outerClass);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        return Lists.map(classNode.fields, this::convertField);
+    }
+
+    private JField convertField(FieldNode node) {
+        return new JField(jclass, node.name,
+                Modifiers.convertField(node.access),
+                converter.convertType(node.desc),
+                Converter.convertAnnotations(
+                        node.visibleAnnotations, node.invisibleAnnotations));
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        return Lists.map(classNode.methods, this::convertMethod);
+    }
+
+    private JMethod convertMethod(MethodNode node) {
+        List<Type> paramTypes = converter.convertParamTypes(node.desc);
+        Type returnType = converter.convertReturnType(node.desc);
+        List<ClassType> exceptions = node.exceptions == null ? List.of() :
+                Lists.map(node.exceptions, converter::convertClassType);
+        return new JMethod(jclass, node.name,
+                Modifiers.convertMethod(node.access),
+                paramTypes, returnType, exceptions,
+                Converter.convertAnnotations(
+                        node.visibleAnnotations, node.invisibleAnnotations),
+                Converter.convertParamAnnotations(paramTypes.size(),
+                        node.visibleParameterAnnotations,
+                        node.invisibleParameterAnnotations),
+                new AsmMethodSource(classSource, node.name, node.desc)
+        );
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return Converter.convertAnnotations(
+                classNode.visibleAnnotations, classNode.invisibleAnnotations);
+    }
+
+    @Override
+    public boolean isApplication() {
+        return isApplication;
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return false;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return isLazy;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import pascal.taie.frontend.ClassFileLocator;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JClassLoader;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newSet;
+
+/**
+ * Loads classes from class files. A class is read and built when it is
+ * loaded for the first time. Before analysis, {@link #loadReferencedClasses()}
+ * loads all classes that are transitively referenced by the loaded classes,
+ * so that the class hierarchy is complete (e.g., for CHA), as Soot does.
+ * Afterwards, only the classes that are not referenced by any loaded class
+ * (e.g., the ones loaded by name via reflection) are loaded on demand.
+ * <p>
+ * This class is thread-safe, as classes may be loaded concurrently
+ * during parallel IR construction.
+ */
+class AsmClassLoader implements JClassLoader {
+
+    private static final Logger logger = LogManager.getLogger(AsmClassLoader.class);
+
+    private static final int HEADER_PARSING_OPTIONS =
+            ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    /**
+     * Tags of the constant pool entries that refer to classes.
+     */
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Locates class files of library classes (i.e., the JRE).
+     */
+    private final ClassFileLocator libraryLocator;
+
+    /**
+     * Locates class files of application classes.
+     */
+    private final ClassFileLocator appLocator;
+
+    private final boolean allowPhantom;
+
+    /**
+     * Whether members of the loaded classes are built on first access.
+     */
+    private final boolean isLazy;
+
+    private Converter converter;
+
+    /**
+     * Classes that have been completely built.
+     */
+    private final ConcurrentMap<String, JClass> classes = newConcurrentMap(4096);
+
+    /**
+     * Classes that are being built. A class may be referenced (e.g.,
+     * by its inner classes) during its own building, and such references
+     * are resolved to the class being built to avoid infinite recursion.
+     * Guarded by this loader.
+     */
+    private final Map<String, JClass> building = newMap();
+
+    /**
+     * Names of the classes that cannot be found. Guarded by this loader.
+     */
+    private final Set<String> missing = newSet();
+
+    /**
+     * Names of the classes referenced by the loaded classes, which are
+     * to be loaded by {@link #loadReferencedClasses()}. After that,
+     * this field is set to {@code null}, and the references of the classes
+     * loaded later are not collected. Guarded by this loader.
+     */
+    private Deque<String> referencedClasses = new ArrayDeque<>();
+
+    AsmClassLoader(ClassHierarchy hierarchy,
+                   ClassFileLocator libraryLocator, ClassFileLocator appLocator,
+                   boolean allowPhantom, boolean isLazy) {
+        this.hierarchy = hierarchy;
+        this.libraryLocator = libraryLocator;
+        this.appLocator = appLocator;
+        this.allowPhantom = allowPhantom;
+        this.isLazy = isLazy;
+    }
+
+    @Override
+    public JClass loadClass(String name) {
+        JClass jclass = classes.get(name);
+        return jclass != null ? jclass : loadClassSync(name);
+    }
+
+    private synchronized JClass loadClassSync(String name) {
+        JClass jclass = classes.get(name);
+        if (jclass == null) {
+            jclass = building.get(name);
+        }
+        if (jclass != null || missing.contains(name)
+                || name.indexOf('[') >= 0) {
+            return jclass;
+        }
+        JClassBuilder builder = createBuilder(name);
+        if (builder == null) {
+            logger.debug("Class {} is not found", name);
+            missing.add(name);
+            return null;
+        }
+        jclass = new JClass(this, name);
+        building.put(name, jclass);
+        try {
+            builder.build(jclass);
+        } finally {
+            building.remove(name);
+        }
+        hierarchy.addClass(jclass);
+        classes.put(name, jclass);
+        return jclass;
+    }
+
+    /**
+     * Loads the classes that are transitively referenced by the loaded
+     * classes, via their constant pools and the descriptors of their members.
+     * This makes the class hierarchy complete before analysis, e.g.,
+     * all implementors of an interface that may be instantiated are known
+     * to CHA, and the class hierarchy is not changed during IR construction.
+     */
+    synchronized void loadReferencedClasses() {
+        while (!referencedClasses.isEmpty()) {
+            loadClass(referencedClasses.pop());
+        }
+        referencedClasses = null;
+        logger.info("{} classes are loaded, {} referenced classes are not found",
+                classes.size(), missing.size());
+    }
+
+    private JClassBuilder createBuilder(String name) {
+        boolean isApplication = false;
+        byte[] bytes = libraryLocator.read(name);
+        if (bytes == null) {
+            bytes = appLocator.read(name);
+            isApplication = bytes != null;
+        }
+        if (bytes != null) {
+            try {
+                ClassNode classNode = new ClassNode();
+                ClassReader reader = new ClassReader(bytes);
+                reader.accept(classNode, HEADER_PARSING_OPTIONS);
+                if (referencedClasses != null) {
+                    collectReferencedClasses(reader, classNode);
+                }
+                return new AsmClassBuilder(converter, classNode,
+                        new ClassSource(bytes), isApplication, isLazy);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to parse class file of {}: {}", name, e);
+            }
+        }
+        return allowPhantom ? new PhantomClassBuilder(converter, name) : null;
+    }
+
+    /**
+     * Collects the classes referenced by the constant pool of given class
+     * and by the descriptors of its fields and methods.
+     */
+    private void collectReferencedClasses(ClassReader reader, ClassNode classNode) {
+        char[] buffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); ++i) {
+            int offset = reader.getItem(i);
+            if (offset == 0) { // unusable entry after long or double
+                continue;
+            }
+            switch (reader.readByte(offset - 1)) {
+                case CONSTANT_CLASS -> {
+                    String internalName = reader.readUTF8(offset, buffer);
+                    if (internalName.startsWith("[")) {
+                        addReferencedType(Type.getType(internalName));
+                    } else {
+                        referencedClasses.add(internalName.replace('/', '.'));
+                    }
+                }
+                case CONSTANT_NAME_AND_TYPE ->
+                        addReferencedTypes(reader.readUTF8(offset + 2, buffer));
+                case CONSTANT_METHOD_TYPE ->
+                        addReferencedTypes(reader.readUTF8(offset, buffer));
+                default -> {
+                }
+            }
+        }
+        classNode.fields.forEach(f -> addReferencedTypes(f.desc));
+        classNode.methods.forEach(m -> addReferencedTypes(m.desc));
+    }
+
+    private void addReferencedTypes(String descriptor) {
+        Type type = Type.getType(descriptor);
+        if (type.getSort() == Type.METHOD) {
+            for (Type argType : type.getArgumentTypes()) {
+                addReferencedType(argType);
+            }
+            addReferencedType(type.getReturnType());
+        } else {
+            addReferencedType(type);
+        }
+    }
+
+    private void addReferencedType(Type type) {
+        if (type.getSort() == Type.ARRAY) {
+            type = type.getElementType();
+        }
+        if (type.getSort() == Type.OBJECT) {
+            referencedClasses.add(type.getClassName());
+        }
+    }
+
+    @Override
+    public Collection<JClass> getLoadedClasses() {
+        return classes.values();
+    }
+
+    void setConverter(Converter converter) {
+        this.converter = converter;
+    }
+}
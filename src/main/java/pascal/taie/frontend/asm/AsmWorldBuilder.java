@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.frontend.ClassFileLocator;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.util.Timer;
+
+import java.io.File;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * World builder based on ASM, which reads class files directly
+ * and converts bytecode to Tai-e IR without Soot.
+ * <p>
+ * Like {@link pascal.taie.frontend.soot.SootWorldBuilder}, this builder
+ * loads the basic classes, input classes and main class, together with
+ * all classes transitively referenced by them (which are found from the
+ * constant pools of the class files), before analysis, so that the class
+ * hierarchy is complete, e.g., for CHA. Method bodies are parsed and
+ * converted to IR only when their IR is requested, and IR of different
+ * methods can be built in parallel.
+ */
+public class AsmWorldBuilder extends AbstractWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(AsmWorldBuilder.class);
+
+    private static final String MAIN_METHOD = "void main(java.lang.String[])";
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> plan) {
+        World.reset();
+        World world = new World();
+        World.set(world);
+
+        // options will be used during World building, thus it should be
+        // set at first.
+        world.setOptions(options);
+        // initialize class hierarchy
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        ClassFileLocator libraryLocator = new ClassFileLocator(
+                options.isPrependJVM() ? null :
+                        String.join(File.pathSeparator, getJREJars(options)),
+                options.isPrependJVM());
+        ClassFileLocator appLocator = new ClassFileLocator(
+                options.getClassPath(), false);
+        AsmClassLoader loader = new AsmClassLoader(hierarchy,
+                libraryLocator, appLocator,
+                options.isAllowPhantom(), options.isLazyWorld());
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        world.setClassHierarchy(hierarchy);
+        // initialize type manager
+        TypeSystem typeSystem = new TypeSystemImpl(hierarchy);
+        world.setTypeSystem(typeSystem);
+        // initialize converter
+        Converter converter = new Converter(loader, typeSystem);
+        loader.setConverter(converter);
+        // load the classes that should be available before analysis
+        Timer timer = new Timer("Load classes");
+        timer.start();
+        getBasicClasses().forEach(loader::loadClass);
+        options.getInputClasses().forEach(loader::loadClass);
+        getReflectionLogClasses(plan).forEach(loader::loadClass);
+        timer.stop();
+        logger.info(timer);
+        // set main method
+        String mainClassName = options.getMainClass();
+        if (mainClassName != null) {
+            JClass mainClass = loader.loadClass(mainClassName);
+            if (mainClass == null) {
+                throw new RuntimeException("Failed to load main class '" +
+                        mainClassName + "', are your class path and" +
+                        " class name given properly?");
+            }
+            JMethod mainMethod = mainClass.getDeclaredMethod(
+                    Subsignature.get(MAIN_METHOD));
+            if (mainMethod != null && mainMethod.isStatic()) {
+                world.setMainMethod(mainMethod);
+            } else {
+                logger.warn("Warning: main class '{}'" +
+                        " does not have main(String[]) method!", mainClassName);
+            }
+        } else {
+            logger.warn("Warning: main class was not given!");
+        }
+        // set implicit entries
+        world.setImplicitEntries(implicitEntries.stream()
+                .map(hierarchy::getJREMethod)
+                // some implicit entries may not exist in certain JDK version,
+                // thus we filter out null
+                .filter(Objects::nonNull)
+                .toList());
+        // load the classes referenced by the loaded classes
+        timer = new Timer("Load referenced classes");
+        timer.start();
+        loader.loadReferencedClasses();
+        timer.stop();
+        logger.info(timer);
+        // initialize IR builder
+        world.setNativeModel(getNativeModel(typeSystem, hierarchy));
+        IRBuilder irBuilder = new IRBuilder(converter);
+        world.setIRBuilder(irBuilder);
+        if (options.isPreBuildIR()) {
+            irBuilder.buildAll(hierarchy);
+        }
+    }
+}
@@ -0,0 +1,1340 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Analyzes the bytecode of a method to prepare for IR construction.
+ * <p>
+ * The analysis (1) partitions the instructions into basic blocks,
+ * (2) infers the types of local variables and operand stack values
+ * by abstract interpretation, and (3) groups the definitions of each
+ * local variable slot (and of each stack slot at block boundaries)
+ * into webs by def-use chains. Each web becomes one variable in Tai-e IR,
+ * so that a slot reused for unrelated values (e.g., two locals of
+ * different types that share the same slot) yields separate variables.
+ */
+class BytecodeAnalysis {
+
+    private final JMethod method;
+
+    private final MethodNode node;
+
+    private final Converter converter;
+
+    private final ClassType objectType;
+
+    private final ClassType throwableType;
+
+    /**
+     * All instructions, including pseudo instructions
+     * (labels, line numbers and frames).
+     */
+    private final AbstractInsnNode[] insns;
+
+    private final int maxLocals;
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * Block of each real instruction.
+     */
+    private final Block[] blockOf;
+
+    // ---------- definitions ----------
+
+    /**
+     * Definition at each store or IINC instruction, -1 for other instructions.
+     */
+    private final int[] insnDefs;
+
+    /**
+     * Definition of each parameter (including this) at method entry,
+     * indexed by local slot, -1 for slots that hold no parameters.
+     */
+    private final int[] paramDefs;
+
+    /**
+     * Definition that represents the web used at each load or IINC instruction.
+     */
+    private final int[] insnUses;
+
+    /**
+     * Number of definitions of local variables. The definitions of
+     * stack slots (at the end of blocks) are numbered after them.
+     */
+    private int nLocalDefs;
+
+    private int[] defSlots;
+
+    /**
+     * Instruction of each definition of local variables,
+     * -1 for definitions of parameters.
+     */
+    private int[] defInsns;
+
+    private Type[] defTypes;
+
+    /**
+     * Parents of union-find structure on definitions.
+     */
+    private int[] parents;
+
+    private Type[] webTypes;
+
+    private String[] webNames;
+
+    BytecodeAnalysis(JMethod method, MethodNode node, Converter converter) {
+        this.method = method;
+        this.node = node;
+        this.converter = converter;
+        this.objectType = converter.convertClassType(ClassNames.OBJECT);
+        this.throwableType = converter.convertClassType(ClassNames.THROWABLE);
+        this.insns = node.instructions.toArray();
+        int paramSlots = method.isStatic() ? 0 : 1;
+        for (Type t : method.getParamTypes()) {
+            paramSlots += isWide(t) ? 2 : 1;
+        }
+        this.maxLocals = Math.max(node.maxLocals, paramSlots);
+        this.blockOf = new Block[insns.length];
+        this.insnDefs = new int[insns.length];
+        this.insnUses = new int[insns.length];
+        this.paramDefs = new int[maxLocals];
+        Arrays.fill(insnDefs, -1);
+        Arrays.fill(insnUses, -1);
+        Arrays.fill(paramDefs, -1);
+    }
+
+    void analyze() {
+        buildBlocks();
+        numberLocalDefs();
+        inferTypes();
+        buildWebs();
+    }
+
+    // ---------- accessors for IR construction ----------
+
+    AbstractInsnNode[] getInsns() {
+        return insns;
+    }
+
+    List<Block> getBlocks() {
+        return blocks;
+    }
+
+    Block getBlockOf(int insn) {
+        return blockOf[insn];
+    }
+
+    Block getBlockOf(LabelNode label) {
+        return blockOf[nextRealInsn(indexOf(label))];
+    }
+
+    int indexOf(LabelNode label) {
+        return node.instructions.indexOf(label);
+    }
+
+    /**
+     * @return index of the first real instruction at or after {@code i},
+     * or the number of instructions if there is none.
+     */
+    int nextRealInsn(int i) {
+        while (i < insns.length && insns[i].getOpcode() < 0) {
+            ++i;
+        }
+        return i;
+    }
+
+    /**
+     * @return the web defined by the store or IINC instruction {@code insn}.
+     */
+    int getDefWeb(int insn) {
+        return find(insnDefs[insn]);
+    }
+
+    /**
+     * @return the web used by the load or IINC instruction {@code insn}.
+     */
+    int getUseWeb(int insn) {
+        return find(insnUses[insn]);
+    }
+
+    /**
+     * @return the web defined by the parameter at {@code slot}.
+     */
+    int getParamWeb(int slot) {
+        return find(paramDefs[slot]);
+    }
+
+    /**
+     * @return whether given web contains only the definition
+     * of the parameter at {@code slot}.
+     */
+    boolean isParamOnlyWeb(int web, int slot) {
+        int paramDef = paramDefs[slot];
+        for (int d = 0; d < parents.length; ++d) {
+            if (d != paramDef && find(d) == web) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Type getWebType(int web) {
+        return webTypes[web];
+    }
+
+    @Nullable
+    String getWebName(int web) {
+        return webNames[web];
+    }
+
+    /**
+     * @return the local slot of given web, or -1 if the web
+     * is for a stack slot.
+     */
+    int getWebLocal(int web) {
+        int slot = defSlots[web];
+        return slot < maxLocals ? slot : -1;
+    }
+
+    /**
+     * @return the stack depth of given web, or -1 if the web
+     * is for a local slot.
+     */
+    int getWebStackDepth(int web) {
+        int slot = defSlots[web];
+        return slot < maxLocals ? -1 : slot - maxLocals;
+    }
+
+    // ---------- basic blocks ----------
+
+    /**
+     * Basic block of bytecode, which covers instructions in [start, end).
+     */
+    static class Block {
+
+        private final int index;
+
+        private final int start;
+
+        private int end;
+
+        /**
+         * Successors via normal control flows.
+         */
+        private final List<Block> succs = new ArrayList<>(2);
+
+        private final List<Block> preds = new ArrayList<>(2);
+
+        /**
+         * Exception handlers whose try ranges cover this block.
+         */
+        private final List<Block> handlers = new ArrayList<>(0);
+
+        /**
+         * If this block is an exception handler, the blocks covered by it.
+         */
+        private final List<Block> coveredBlocks = new ArrayList<>(0);
+
+        /**
+         * If this block is an exception handler,
+         * the type of exception caught by it.
+         */
+        private ClassType catchType;
+
+        /**
+         * Frame at the entry of this block, null if this block is unreachable.
+         */
+        private Frame inFrame;
+
+        /**
+         * Stack at the exit of this block.
+         */
+        private List<Type> outStack;
+
+        /**
+         * Definitions of stack slots at the end of this block,
+         * which transfer stack values to successors.
+         */
+        private int[] exitStackDefs;
+
+        /**
+         * Representative definitions of stack slots at the entry of this block.
+         */
+        private int[] entryStackDefs;
+
+        private BitSet in = new BitSet();
+
+        private BitSet out = new BitSet();
+
+        private final BitSet gen = new BitSet();
+
+        private final BitSet kill = new BitSet();
+
+        private final BitSet allDefs = new BitSet();
+
+        private Block(int index, int start) {
+            this.index = index;
+            this.start = start;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        boolean isReachable() {
+            return inFrame != null;
+        }
+
+        boolean isHandler() {
+            return catchType != null;
+        }
+
+        boolean hasNormalPreds() {
+            return !preds.isEmpty();
+        }
+
+        boolean hasSuccs() {
+            return !succs.isEmpty();
+        }
+
+        ClassType getCatchType() {
+            return catchType;
+        }
+
+        int getEntryStackDepth() {
+            return inFrame.stack.size();
+        }
+
+        int getEntryStackDef(int depth) {
+            return entryStackDefs[depth];
+        }
+
+        int getExitStackDef(int depth) {
+            return exitStackDefs[depth];
+        }
+
+        @Override
+        public String toString() {
+            return "B" + index + "[" + start + ", " + end + ")";
+        }
+    }
+
+    private void buildBlocks() {
+        int n = insns.length;
+        boolean[] leaders = new boolean[n + 1];
+        leaders[nextRealInsn(0)] = true;
+        for (int i = 0; i < n; ++i) {
+            AbstractInsnNode insn = insns[i];
+            if (insn instanceof JumpInsnNode jump) {
+                if (jump.getOpcode() == JSR) {
+                    throw new AsmFrontendException("JSR is not inlined");
+                }
+                leaders[nextRealInsn(indexOf(jump.label))] = true;
+                leaders[nextRealInsn(i + 1)] = true;
+            } else if (insn instanceof TableSwitchInsnNode sw) {
+                sw.labels.forEach(l -> leaders[nextRealInsn(indexOf(l))] = true);
+                leaders[nextRealInsn(indexOf(sw.dflt))] = true;
+                leaders[nextRealInsn(i + 1)] = true;
+            } else if (insn instanceof LookupSwitchInsnNode sw) {
+                sw.labels.forEach(l -> leaders[nextRealInsn(indexOf(l))] = true);
+                leaders[nextRealInsn(indexOf(sw.dflt))] = true;
+                leaders[nextRealInsn(i + 1)] = true;
+            } else if (isExit(insn.getOpcode())) {
+                leaders[nextRealInsn(i + 1)] = true;
+            }
+        }
+        for (TryCatchBlockNode tcb : node.tryCatchBlocks) {
+            leaders[nextRealInsn(indexOf(tcb.start))] = true;
+            leaders[nextRealInsn(indexOf(tcb.end))] = true;
+            leaders[nextRealInsn(indexOf(tcb.handler))] = true;
+        }
+        // create blocks
+        Block current = null;
+        for (int i = 0; i < n; ++i) {
+            if (insns[i].getOpcode() < 0) {
+                continue;
+            }
+            if (leaders[i]) {
+                if (current != null) {
+                    current.end = i;
+                }
+                current = new Block(blocks.size(), i);
+                blocks.add(current);
+            }
+            blockOf[i] = current;
+        }
+        if (current == null) {
+            throw new AsmFrontendException("Empty method body");
+        }
+        current.end = n;
+        // connect normal control flows
+        for (Block block : blocks) {
+            int last = lastRealInsn(block);
+            AbstractInsnNode insn = insns[last];
+            int op = insn.getOpcode();
+            if (insn instanceof JumpInsnNode jump) {
+                if (op != GOTO) {
+                    addFallThrough(block);
+                }
+                addEdge(block, getBlockOf(jump.label));
+            } else if (insn instanceof TableSwitchInsnNode sw) {
+                sw.labels.forEach(l -> addEdge(block, getBlockOf(l)));
+                addEdge(block, getBlockOf(sw.dflt));
+            } else if (insn instanceof LookupSwitchInsnNode sw) {
+                sw.labels.forEach(l -> addEdge(block, getBlockOf(l)));
+                addEdge(block, getBlockOf(sw.dflt));
+            } else if (!isExit(op)) {
+                addFallThrough(block);
+            }
+        }
+        // connect exceptional control flows
+        for (TryCatchBlockNode tcb : node.tryCatchBlocks) {
+            Block handler = getBlockOf(tcb.handler);
+            ClassType type = tcb.type == null ? throwableType :
+                    converter.convertClassType(tcb.type);
+            handler.catchType = handler.catchType == null ? type :
+                    (ClassType) mergeReferences(handler.catchType, type);
+            int start = nextRealInsn(indexOf(tcb.start));
+            int end = nextRealInsn(indexOf(tcb.end));
+            for (int i = start; i < end; ++i) {
+                Block block = blockOf[i];
+                if (block != null && block.start == i
+                        && !block.handlers.contains(handler)) {
+                    block.handlers.add(handler);
+                    handler.coveredBlocks.add(block);
+                }
+            }
+        }
+    }
+
+    private int lastRealInsn(Block block) {
+        int i = block.end - 1;
+        while (insns[i].getOpcode() < 0) {
+            --i;
+        }
+        return i;
+    }
+
+    private void addFallThrough(Block block) {
+        if (block.index + 1 < blocks.size()) {
+            addEdge(block, blocks.get(block.index + 1));
+        }
+    }
+
+    private static void addEdge(Block from, Block to) {
+        if (!from.succs.contains(to)) {
+            from.succs.add(to);
+            to.preds.add(from);
+        }
+    }
+
+    private static boolean isExit(int opcode) {
+        return (opcode >= IRETURN && opcode <= RETURN) || opcode == ATHROW;
+    }
+
+    // ---------- definitions ----------
+
+    private void numberLocalDefs() {
+        int nDefs = 0;
+        int slot = 0;
+        if (!method.isStatic()) {
+            paramDefs[slot++] = nDefs++;
+        }
+        for (Type t : method.getParamTypes()) {
+            paramDefs[slot] = nDefs++;
+            slot += isWide(t) ? 2 : 1;
+        }
+        for (int i = 0; i < insns.length; ++i) {
+            if (isStore(insns[i].getOpcode())) {
+                insnDefs[i] = nDefs++;
+            }
+        }
+        nLocalDefs = nDefs;
+        defSlots = new int[nDefs];
+        defTypes = new Type[nDefs];
+        defInsns = new int[nDefs];
+        Arrays.fill(defInsns, -1);
+        slot = 0;
+        if (!method.isStatic()) {
+            defTypes[paramDefs[0]] = method.getDeclaringClass().getType();
+            ++slot;
+        }
+        for (Type t : method.getParamTypes()) {
+            defSlots[paramDefs[slot]] = slot;
+            defTypes[paramDefs[slot]] = t;
+            slot += isWide(t) ? 2 : 1;
+        }
+        for (int i = 0; i < insns.length; ++i) {
+            if (insnDefs[i] >= 0) {
+                defSlots[insnDefs[i]] = getLocal(insns[i]);
+                defInsns[insnDefs[i]] = i;
+            }
+        }
+    }
+
+    private static boolean isStore(int opcode) {
+        return (opcode >= ISTORE && opcode <= ASTORE) || opcode == IINC;
+    }
+
+    private static int getLocal(AbstractInsnNode insn) {
+        return insn instanceof IincInsnNode iinc ?
+                iinc.var : ((VarInsnNode) insn).var;
+    }
+
+    // ---------- type inference ----------
+
+    /**
+     * Abstract frame of local variables and operand stack. Each stack value
+     * (including long and double) takes one entry of the stack, and null
+     * represents unknown or conflicting types.
+     */
+    private static class Frame {
+
+        private final Type[] locals;
+
+        private final List<Type> stack;
+
+        private Frame(Type[] locals, List<Type> stack) {
+            this.locals = locals;
+            this.stack = stack;
+        }
+
+        private Frame copy() {
+            return new Frame(locals.clone(), new ArrayList<>(stack));
+        }
+    }
+
+    private void inferTypes() {
+        Type[] locals = new Type[maxLocals];
+        int slot = 0;
+        if (!method.isStatic()) {
+            locals[slot++] = method.getDeclaringClass().getType();
+        }
+        for (Type t : method.getParamTypes()) {
+            locals[slot] = t;
+            slot += isWide(t) ? 2 : 1;
+        }
+        Block entry = blocks.get(0);
+        entry.inFrame = new Frame(locals, new ArrayList<>());
+        Deque<Block> workList = new ArrayDeque<>();
+        boolean[] inWorkList = new boolean[blocks.size()];
+        workList.add(entry);
+        inWorkList[entry.index] = true;
+        while (!workList.isEmpty()) {
+            Block block = workList.poll();
+            inWorkList[block.index] = false;
+            Frame frame = block.inFrame.copy();
+            propagateToHandlers(block, frame, workList, inWorkList);
+            for (int i = block.start; i < block.end; ++i) {
+                AbstractInsnNode insn = insns[i];
+                if (insn.getOpcode() >= 0) {
+                    execute(frame, insn, i);
+                    if (insnDefs[i] >= 0) {
+                        propagateToHandlers(block, frame, workList, inWorkList);
+                    }
+                }
+            }
+            block.outStack = frame.stack;
+            for (Block succ : block.succs) {
+                if (mergeInto(succ, frame) && !inWorkList[succ.index]) {
+                    workList.add(succ);
+                    inWorkList[succ.index] = true;
+                }
+            }
+        }
+    }
+
+    private void propagateToHandlers(Block block, Frame frame,
+                                     Deque<Block> workList, boolean[] inWorkList) {
+        for (Block handler : block.handlers) {
+            List<Type> stack = new ArrayList<>(1);
+            stack.add(handler.catchType);
+            if (mergeInto(handler, new Frame(frame.locals.clone(), stack))
+                    && !inWorkList[handler.index]) {
+                workList.add(handler);
+                inWorkList[handler.index] = true;
+            }
+        }
+    }
+
+    /**
+     * Merges {@code frame} into the entry frame of {@code block}.
+     *
+     * @return whether the entry frame of {@code block} changed.
+     */
+    private boolean mergeInto(Block block, Frame frame) {
+        Frame in = block.inFrame;
+        if (in == null) {
+            block.inFrame = frame.copy();
+            return true;
+        }
+        if (in.stack.size() != frame.stack.size()) {
+            throw new AsmFrontendException("Inconsistent stack heights at " + block);
+        }
+        boolean changed = false;
+        for (int i = 0; i < in.locals.length; ++i) {
+            Type merged = merge(in.locals[i], frame.locals[i]);
+            if (!Objects.equals(merged, in.locals[i])) {
+                in.locals[i] = merged;
+                changed = true;
+            }
+        }
+        for (int i = 0; i < in.stack.size(); ++i) {
+            Type merged = merge(in.stack.get(i), frame.stack.get(i));
+            if (!Objects.equals(merged, in.stack.get(i))) {
+                in.stack.set(i, merged);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Computes the least upper bound of two types,
+     * or null if they are incompatible.
+     */
+    @Nullable
+    private Type merge(@Nullable Type t1, @Nullable Type t2) {
+        if (t1 == null || t2 == null) {
+            return null;
+        } else if (t1.equals(t2)) {
+            return t1;
+        } else if (t1 instanceof PrimitiveType p1 && t2 instanceof PrimitiveType p2) {
+            return p1.asInt() && p2.asInt() ? PrimitiveType.INT : null;
+        } else if (t1 instanceof ReferenceType r1 && t2 instanceof ReferenceType r2) {
+            return mergeReferences(r1, r2);
+        } else {
+            return null;
+        }
+    }
+
+    private ReferenceType mergeReferences(ReferenceType t1, ReferenceType t2) {
+        if (t1.equals(t2) || t2 instanceof NullType) {
+            return t1;
+        } else if (t1 instanceof NullType) {
+            return t2;
+        } else if (t1 instanceof ClassType c1 && t2 instanceof ClassType c2) {
+            return mergeClasses(c1, c2);
+        } else if (t1 instanceof ArrayType a1 && t2 instanceof ArrayType a2
+                && a1.elementType() instanceof ReferenceType e1
+                && a2.elementType() instanceof ReferenceType e2) {
+            return arrayOf(mergeReferences(e1, e2));
+        } else {
+            return objectType;
+        }
+    }
+
+    private ClassType mergeClasses(ClassType t1, ClassType t2) {
+        JClass c1 = t1.getJClass();
+        JClass c2 = t2.getJClass();
+        if (c1 == null || c2 == null) {
+            return objectType;
+        }
+        if (isSubclass(c2, c1)) {
+            return t2;
+        }
+        for (JClass c = c1; c != null; c = c.getSuperClass()) {
+            if (isSubclass(c, c2)) {
+                return c.getType();
+            }
+        }
+        return objectType;
+    }
+
+    /**
+     * Checks subclass relation via super types of the classes, so that
+     * it is independent of the (possibly incomplete) class hierarchy.
+     */
+    private static boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass == subclass) {
+            return true;
+        }
+        JClass s = subclass.getSuperClass();
+        if (s != null && isSubclass(superclass, s)) {
+            return true;
+        }
+        for (JClass i : subclass.getInterfaces()) {
+            if (isSubclass(superclass, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ArrayType arrayOf(Type elementType) {
+        return elementType instanceof ArrayType at ?
+                converter.getTypeSystem().getArrayType(
+                        at.baseType(), at.dimensions() + 1) :
+                converter.getTypeSystem().getArrayType(elementType, 1);
+    }
+
+    private static boolean isWide(@Nullable Type type) {
+        return type == PrimitiveType.LONG || type == PrimitiveType.DOUBLE;
+    }
+
+    /**
+     * Executes {@code insn} on {@code frame} abstractly.
+     */
+    private void execute(Frame frame, AbstractInsnNode insn, int index) {
+        List<Type> stack = frame.stack;
+        int op = insn.getOpcode();
+        switch (op) {
+            case NOP, GOTO, RETURN -> {
+            }
+            case ACONST_NULL -> stack.add(NullType.NULL);
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3,
+                    ICONST_4, ICONST_5, BIPUSH, SIPUSH -> stack.add(PrimitiveType.INT);
+            case LCONST_0, LCONST_1 -> stack.add(PrimitiveType.LONG);
+            case FCONST_0, FCONST_1, FCONST_2 -> stack.add(PrimitiveType.FLOAT);
+            case DCONST_0, DCONST_1 -> stack.add(PrimitiveType.DOUBLE);
+            case LDC -> stack.add(getConstantType(((LdcInsnNode) insn).cst));
+            case ILOAD -> {
+                Type t = frame.locals[((VarInsnNode) insn).var];
+                stack.add(t instanceof PrimitiveType p && p.asInt() ?
+                        p : PrimitiveType.INT);
+            }
+            case LLOAD -> stack.add(PrimitiveType.LONG);
+            case FLOAD -> stack.add(PrimitiveType.FLOAT);
+            case DLOAD -> stack.add(PrimitiveType.DOUBLE);
+            case ALOAD -> {
+                Type t = frame.locals[((VarInsnNode) insn).var];
+                stack.add(t instanceof ReferenceType ? t : objectType);
+            }
+            case IALOAD, BALOAD, CALOAD, SALOAD, LALOAD, FALOAD, DALOAD, AALOAD -> {
+                pop(stack);
+                Type array = pop(stack);
+                stack.add(getElementType(op, array));
+            }
+            case ISTORE, LSTORE, FSTORE, DSTORE, ASTORE -> {
+                Type t = pop(stack);
+                int var = ((VarInsnNode) insn).var;
+                if (t == null) {
+                    t = switch (op) {
+                        case ISTORE -> PrimitiveType.INT;
+                        case LSTORE -> PrimitiveType.LONG;
+                        case FSTORE -> PrimitiveType.FLOAT;
+                        case DSTORE -> PrimitiveType.DOUBLE;
+                        default -> objectType;
+                    };
+                }
+                setLocal(frame.locals, var, t);
+                defTypes[insnDefs[index]] = t;
+            }
+            case IINC -> {
+                setLocal(frame.locals, ((IincInsnNode) insn).var, PrimitiveType.INT);
+                defTypes[insnDefs[index]] = PrimitiveType.INT;
+            }
+            case IASTORE, LASTORE, FASTORE, DASTORE,
+                    AASTORE, BASTORE, CASTORE, SASTORE -> {
+                pop(stack);
+                pop(stack);
+                pop(stack);
+            }
+            case POP, POP2, DUP, DUP_X1, DUP_X2, DUP2, DUP2_X1, DUP2_X2, SWAP ->
+                    executeStackOp(op, stack, BytecodeAnalysis::isWide);
+            case IADD, ISUB, IMUL, IDIV, IREM, ISHL, ISHR, IUSHR,
+                    IAND, IOR, IXOR, LCMP, FCMPL, FCMPG, DCMPL, DCMPG ->
+                    binary(stack, PrimitiveType.INT);
+            case LADD, LSUB, LMUL, LDIV, LREM, LSHL, LSHR, LUSHR,
+                    LAND, LOR, LXOR -> binary(stack, PrimitiveType.LONG);
+            case FADD, FSUB, FMUL, FDIV, FREM -> binary(stack, PrimitiveType.FLOAT);
+            case DADD, DSUB, DMUL, DDIV, DREM -> binary(stack, PrimitiveType.DOUBLE);
+            case INEG, L2I, F2I, D2I, ARRAYLENGTH, INSTANCEOF -> unary(stack,
+                    op == INSTANCEOF ? PrimitiveType.BOOLEAN : PrimitiveType.INT);
+            case LNEG, I2L, F2L, D2L -> unary(stack, PrimitiveType.LONG);
+            case FNEG, I2F, L2F, D2F -> unary(stack, PrimitiveType.FLOAT);
+            case DNEG, I2D, L2D, F2D -> unary(stack, PrimitiveType.DOUBLE);
+            case I2B -> unary(stack, PrimitiveType.BYTE);
+            case I2C -> unary(stack, PrimitiveType.CHAR);
+            case I2S -> unary(stack, PrimitiveType.SHORT);
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE, IFNULL, IFNONNULL,
+                    TABLESWITCH, LOOKUPSWITCH, IRETURN, LRETURN, FRETURN,
+                    DRETURN, ARETURN, ATHROW, MONITORENTER, MONITOREXIT,
+                    PUTSTATIC -> pop(stack);
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT,
+                    IF_ICMPLE, IF_ACMPEQ, IF_ACMPNE, PUTFIELD -> {
+                pop(stack);
+                pop(stack);
+            }
+            case GETSTATIC -> stack.add(
+                    converter.convertType(((FieldInsnNode) insn).desc));
+            case GETFIELD -> unary(stack,
+                    converter.convertType(((FieldInsnNode) insn).desc));
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC, INVOKEINTERFACE -> {
+                MethodInsnNode invoke = (MethodInsnNode) insn;
+                popArgs(stack, invoke.desc);
+                if (op != INVOKESTATIC) {
+                    pop(stack);
+                }
+                pushReturn(stack, invoke.desc);
+            }
+            case INVOKEDYNAMIC -> {
+                InvokeDynamicInsnNode invoke = (InvokeDynamicInsnNode) insn;
+                popArgs(stack, invoke.desc);
+                pushReturn(stack, invoke.desc);
+            }
+            case NEW -> stack.add(converter.convertClassType(((TypeInsnNode) insn).desc));
+            case NEWARRAY -> unary(stack,
+                    arrayOf(getPrimitiveType(((IntInsnNode) insn).operand)));
+            case ANEWARRAY -> unary(stack, arrayOf(
+                    converter.convertReferenceType(((TypeInsnNode) insn).desc)));
+            case CHECKCAST -> unary(stack,
+                    converter.convertReferenceType(((TypeInsnNode) insn).desc));
+            case MULTIANEWARRAY -> {
+                MultiANewArrayInsnNode newArray = (MultiANewArrayInsnNode) insn;
+                for (int i = 0; i < newArray.dims; ++i) {
+                    pop(stack);
+                }
+                stack.add(converter.convertType(newArray.desc));
+            }
+            default -> throw new AsmFrontendException(
+                    "Unsupported instruction with opcode " + op);
+        }
+    }
+
+    private static Type pop(List<Type> stack) {
+        if (stack.isEmpty()) {
+            throw new AsmFrontendException("Stack underflow");
+        }
+        return stack.remove(stack.size() - 1);
+    }
+
+    private static void unary(List<Type> stack, Type result) {
+        pop(stack);
+        stack.add(result);
+    }
+
+    private static void binary(List<Type> stack, Type result) {
+        pop(stack);
+        pop(stack);
+        stack.add(result);
+    }
+
+    private static void popArgs(List<Type> stack, String desc) {
+        int nArgs = org.objectweb.asm.Type.getArgumentTypes(desc).length;
+        for (int i = 0; i < nArgs; ++i) {
+            pop(stack);
+        }
+    }
+
+    private void pushReturn(List<Type> stack, String desc) {
+        Type returnType = converter.convertReturnType(desc);
+        if (returnType instanceof PrimitiveType || returnType instanceof ReferenceType) {
+            stack.add(returnType);
+        }
+    }
+
+    private static void setLocal(Type[] locals, int var, Type type) {
+        locals[var] = type;
+        if (isWide(type)) {
+            locals[var + 1] = null;
+        }
+        if (var > 0 && isWide(locals[var - 1])) {
+            // the second half of the wide value is overwritten
+            locals[var - 1] = null;
+        }
+    }
+
+    private Type getConstantType(Object cst) {
+        if (cst instanceof Integer) {
+            return PrimitiveType.INT;
+        } else if (cst instanceof Long) {
+            return PrimitiveType.LONG;
+        } else if (cst instanceof Float) {
+            return PrimitiveType.FLOAT;
+        } else if (cst instanceof Double) {
+            return PrimitiveType.DOUBLE;
+        } else if (cst instanceof String) {
+            return converter.convertClassType(ClassNames.STRING);
+        } else if (cst instanceof org.objectweb.asm.Type t) {
+            return t.getSort() == org.objectweb.asm.Type.METHOD ?
+                    converter.convertClassType(ClassNames.METHOD_TYPE) :
+                    converter.convertClassType(ClassNames.CLASS);
+        } else if (cst instanceof Handle) {
+            return converter.convertClassType(ClassNames.METHOD_HANDLE);
+        } else if (cst instanceof ConstantDynamic condy) {
+            return converter.convertType(condy.getDescriptor());
+        }
+        throw new AsmFrontendException("Unknown constant: " + cst);
+    }
+
+    private Type getElementType(int opcode, @Nullable Type arrayType) {
+        return switch (opcode) {
+            case IALOAD -> PrimitiveType.INT;
+            case LALOAD -> PrimitiveType.LONG;
+            case FALOAD -> PrimitiveType.FLOAT;
+            case DALOAD -> PrimitiveType.DOUBLE;
+            case CALOAD -> PrimitiveType.CHAR;
+            case SALOAD -> PrimitiveType.SHORT;
+            // BALOAD is used to load both boolean and byte arrays
+            case BALOAD -> arrayType instanceof ArrayType at &&
+                    at.elementType() == PrimitiveType.BOOLEAN ?
+                    PrimitiveType.BOOLEAN : PrimitiveType.BYTE;
+            default -> {
+                if (arrayType instanceof ArrayType at) {
+                    yield at.elementType();
+                } else if (arrayType instanceof NullType) {
+                    yield NullType.NULL;
+                } else {
+                    yield objectType;
+                }
+            }
+        };
+    }
+
+    static PrimitiveType getPrimitiveType(int arrayTypeOperand) {
+        return switch (arrayTypeOperand) {
+            case T_BOOLEAN -> PrimitiveType.BOOLEAN;
+            case T_CHAR -> PrimitiveType.CHAR;
+            case T_FLOAT -> PrimitiveType.FLOAT;
+            case T_DOUBLE -> PrimitiveType.DOUBLE;
+            case T_BYTE -> PrimitiveType.BYTE;
+            case T_SHORT -> PrimitiveType.SHORT;
+            case T_INT -> PrimitiveType.INT;
+            case T_LONG -> PrimitiveType.LONG;
+            default -> throw new AsmFrontendException(
+                    "Unknown array type: " + arrayTypeOperand);
+        };
+    }
+
+    /**
+     * Executes stack manipulation instruction on {@code stack}.
+     * This method is shared by type inference and IR construction.
+     *
+     * @param isWide checks whether a stack value is long or double,
+     *               which determines the behaviors of POP2 and DUP2*.
+     */
+    static <T> void executeStackOp(int opcode, List<T> stack, Predicate<T> isWide) {
+        switch (opcode) {
+            case POP -> removeTop(stack);
+            case POP2 -> {
+                if (!isWide.test(removeTop(stack))) {
+                    removeTop(stack);
+                }
+            }
+            case DUP -> stack.add(stack.get(stack.size() - 1));
+            case DUP_X1 -> {
+                T v1 = removeTop(stack);
+                T v2 = removeTop(stack);
+                push(stack, v1, v2, v1);
+            }
+            case DUP_X2 -> {
+                T v1 = removeTop(stack);
+                T v2 = removeTop(stack);
+                if (isWide.test(v2)) {
+                    push(stack, v1, v2, v1);
+                } else {
+                    T v3 = removeTop(stack);
+                    push(stack, v1, v3, v2, v1);
+                }
+            }
+            case DUP2 -> {
+                T v1 = removeTop(stack);
+                if (isWide.test(v1)) {
+                    push(stack, v1, v1);
+                } else {
+                    T v2 = removeTop(stack);
+                    push(stack, v2, v1, v2, v1);
+                }
+            }
+            case DUP2_X1 -> {
+                T v1 = removeTop(stack);
+                T v2 = removeTop(stack);
+                if (isWide.test(v1)) {
+                    push(stack, v1, v2, v1);
+                } else {
+                    T v3 = removeTop(stack);
+                    push(stack, v2, v1, v3, v2, v1);
+                }
+            }
+            case DUP2_X2 -> {
+                T v1 = removeTop(stack);
+                T v2 = removeTop(stack);
+                if (isWide.test(v1)) {
+                    if (isWide.test(v2)) {
+                        push(stack, v1, v2, v1);
+                    } else {
+                        T v3 = removeTop(stack);
+                        push(stack, v1, v3, v2, v1);
+                    }
+                } else {
+                    T v3 = removeTop(stack);
+                    if (isWide.test(v3)) {
+                        push(stack, v2, v1, v3, v2, v1);
+                    } else {
+                        T v4 = removeTop(stack);
+                        push(stack, v2, v1, v4, v3, v2, v1);
+                    }
+                }
+            }
+            case SWAP -> {
+                T v1 = removeTop(stack);
+                T v2 = removeTop(stack);
+                push(stack, v1, v2);
+            }
+            default -> throw new AsmFrontendException(
+                    "Not a stack instruction: " + opcode);
+        }
+    }
+
+    private static <T> T removeTop(List<T> stack) {
+        if (stack.isEmpty()) {
+            throw new AsmFrontendException("Stack underflow");
+        }
+        return stack.remove(stack.size() - 1);
+    }
+
+    @SafeVarargs
+    private static <T> void push(List<T> stack, T... values) {
+        stack.addAll(Arrays.asList(values));
+    }
+
+    // ---------- webs ----------
+
+    private void buildWebs() {
+        numberStackDefs();
+        parents = new int[defSlots.length];
+        for (int i = 0; i < parents.length; ++i) {
+            parents[i] = i;
+        }
+        computeReachingDefs();
+        linkLocalUses();
+        linkStackUses();
+        computeWebTypes();
+        computeWebNames();
+    }
+
+    private void numberStackDefs() {
+        int nDefs = nLocalDefs;
+        for (Block block : blocks) {
+            if (block.isReachable() && block.hasSuccs()) {
+                int depth = block.outStack.size();
+                block.exitStackDefs = new int[depth];
+                for (int d = 0; d < depth; ++d) {
+                    block.exitStackDefs[d] = nDefs++;
+                }
+            }
+        }
+        defSlots = Arrays.copyOf(defSlots, nDefs);
+        defTypes = Arrays.copyOf(defTypes, nDefs);
+        for (Block block : blocks) {
+            if (block.exitStackDefs != null) {
+                for (int d = 0; d < block.exitStackDefs.length; ++d) {
+                    int def = block.exitStackDefs[d];
+                    defSlots[def] = maxLocals + d;
+                    defTypes[def] = block.outStack.get(d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes reaching definitions of local variables at block level.
+     */
+    private void computeReachingDefs() {
+        BitSet[] slotDefs = getSlotDefs();
+        for (Block block : blocks) {
+            if (!block.isReachable()) {
+                continue;
+            }
+            for (int i = block.start; i < block.end; ++i) {
+                int def = insnDefs[i];
+                if (def >= 0) {
+                    BitSet defs = slotDefs[defSlots[def]];
+                    block.gen.andNot(defs);
+                    block.kill.or(defs);
+                    block.gen.set(def);
+                    block.allDefs.set(def);
+                }
+            }
+        }
+        BitSet entryDefs = new BitSet();
+        for (int def : paramDefs) {
+            if (def >= 0) {
+                entryDefs.set(def);
+            }
+        }
+        boolean changed;
+        do {
+            changed = false;
+            for (Block block : blocks) {
+                if (!block.isReachable()) {
+                    continue;
+                }
+                BitSet in = block.index == 0 ?
+                        (BitSet) entryDefs.clone() : new BitSet();
+                for (Block pred : block.preds) {
+                    in.or(pred.out);
+                }
+                // an exception may be thrown at any point of covered blocks
+                for (Block covered : block.coveredBlocks) {
+                    in.or(covered.in);
+                    in.or(covered.allDefs);
+                }
+                BitSet out = (BitSet) in.clone();
+                out.andNot(block.kill);
+                out.or(block.gen);
+                if (!in.equals(block.in) || !out.equals(block.out)) {
+                    block.in = in;
+                    block.out = out;
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    private BitSet[] getSlotDefs() {
+        BitSet[] slotDefs = new BitSet[maxLocals];
+        for (int i = 0; i < maxLocals; ++i) {
+            slotDefs[i] = new BitSet();
+        }
+        for (int def = 0; def < nLocalDefs; ++def) {
+            slotDefs[defSlots[def]].set(def);
+        }
+        return slotDefs;
+    }
+
+    /**
+     * Unites the definitions that reach the same use of local variables.
+     */
+    private void linkLocalUses() {
+        BitSet[] slotDefs = getSlotDefs();
+        for (Block block : blocks) {
+            if (!block.isReachable()) {
+                continue;
+            }
+            BitSet current = (BitSet) block.in.clone();
+            for (int i = block.start; i < block.end; ++i) {
+                AbstractInsnNode insn = insns[i];
+                int op = insn.getOpcode();
+                if ((op >= ILOAD && op <= ALOAD) || op == IINC) {
+                    int var = getLocal(insn);
+                    char kind = op == IINC ? 'I' : getKind(op - ILOAD);
+                    BitSet reaching = (BitSet) current.clone();
+                    reaching.and(slotDefs[var]);
+                    int use = -1;
+                    for (int d = reaching.nextSetBit(0); d >= 0;
+                         d = reaching.nextSetBit(d + 1)) {
+                        if (getKind(defTypes[d]) == kind) {
+                            if (use == -1) {
+                                use = d;
+                            } else {
+                                union(use, d);
+                            }
+                        }
+                    }
+                    if (use == -1) {
+                        throw new AsmFrontendException(
+                                "No definition of local " + var + " reaches " + i);
+                    }
+                    insnUses[i] = use;
+                }
+                int def = insnDefs[i];
+                if (def >= 0) {
+                    current.andNot(slotDefs[defSlots[def]]);
+                    current.set(def);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unites the definitions of stack slots that flow to the same block.
+     */
+    private void linkStackUses() {
+        for (Block block : blocks) {
+            if (!block.isReachable() || block.isHandler()) {
+                continue;
+            }
+            int depth = block.getEntryStackDepth();
+            block.entryStackDefs = new int[depth];
+            Arrays.fill(block.entryStackDefs, -1);
+            for (Block pred : block.preds) {
+                if (!pred.isReachable()) {
+                    continue;
+                }
+                for (int d = 0; d < depth; ++d) {
+                    int def = pred.exitStackDefs[d];
+                    if (block.entryStackDefs[d] == -1) {
+                        block.entryStackDefs[d] = def;
+                    } else {
+                        union(block.entryStackDefs[d], def);
+                    }
+                }
+            }
+        }
+    }
+
+    private void computeWebTypes() {
+        webTypes = new Type[parents.length];
+        boolean[] merged = new boolean[parents.length];
+        for (int def = 0; def < parents.length; ++def) {
+            int web = find(def);
+            if (!merged[web]) {
+                webTypes[web] = defTypes[def];
+                merged[web] = true;
+            } else if (webTypes[web] != null && defTypes[def] != null) {
+                Type t = merge(webTypes[web], defTypes[def]);
+                webTypes[web] = t != null ? t : webTypes[web];
+            }
+        }
+        // parameters use their declared types
+        for (int def : paramDefs) {
+            if (def >= 0) {
+                webTypes[find(def)] = defTypes[def];
+            }
+        }
+        for (int web = 0; web < webTypes.length; ++web) {
+            if (webTypes[web] == null || webTypes[web] instanceof NullType) {
+                webTypes[web] = objectType;
+            }
+        }
+    }
+
+    /**
+     * Names webs according to local variable table (if present).
+     */
+    private void computeWebNames() {
+        webNames = new String[parents.length];
+        List<LocalVariableNode> localVars = node.localVariables;
+        if (localVars == null || localVars.isEmpty()) {
+            return;
+        }
+        for (int def = 0; def < nLocalDefs; ++def) {
+            int web = find(def);
+            if (webNames[web] != null) {
+                continue;
+            }
+            int slot = defSlots[def];
+            // the local variable scope starts after its definition
+            int pos = paramDefs[slot] == def ?
+                    nextRealInsn(0) : nextRealInsn(defInsns[def] + 1);
+            for (LocalVariableNode lv : localVars) {
+                if (lv.index == slot && indexOf(lv.start) <= pos
+                        && pos < indexOf(lv.end)) {
+                    webNames[web] = lv.name;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static char getKind(int typeOffset) {
+        return switch (typeOffset) {
+            case 0 -> 'I';
+            case 1 -> 'J';
+            case 2 -> 'F';
+            case 3 -> 'D';
+            default -> 'A';
+        };
+    }
+
+    private static char getKind(@Nullable Type type) {
+        if (type instanceof PrimitiveType p) {
+            if (p.asInt()) {
+                return 'I';
+            }
+            return switch (p) {
+                case LONG -> 'J';
+                case FLOAT -> 'F';
+                default -> 'D';
+            };
+        }
+        return type == null ? '?' : 'A';
+    }
+
+    int getWeb(int def) {
+        return find(def);
+    }
+
+    private int find(int def) {
+        while (parents[def] != def) {
+            parents[def] = parents[parents[def]];
+            def = parents[def];
+        }
+        return def;
+    }
+
+    private void union(int d1, int d2) {
+        int r1 = find(d1), r2 = find(d2);
+        if (r1 != r2) {
+            // keep the smaller one as root, so that parameters
+            // are always roots of their webs
+            if (r1 < r2) {
+                parents[r2] = r1;
+            } else {
+                parents[r1] = r2;
+            }
+        }
+    }
+}
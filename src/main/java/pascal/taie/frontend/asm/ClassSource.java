@@ -0,0 +1,92 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.JSRInlinerAdapter;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bytes of a class file, from which the method bodies are parsed on demand.
+ * <p>
+ * When the body of a method is requested, the bodies of all methods
+ * in the class are parsed in one pass and kept (via a soft reference)
+ * until they are requested, so that the class file is usually parsed
+ * only once for building IR, and the parsed bodies can be reclaimed
+ * under memory pressure.
+ */
+class ClassSource {
+
+    private final byte[] bytes;
+
+    private SoftReference<Map<String, MethodNode>> methodNodes;
+
+    ClassSource(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the method node (with JSR/RET inlined) for the method
+     * of given name and descriptor, or {@code null} if no such method.
+     */
+    @Nullable
+    synchronized MethodNode getMethodNode(String name, String descriptor) {
+        String key = name + descriptor;
+        Map<String, MethodNode> nodes = methodNodes == null ?
+                null : methodNodes.get();
+        if (nodes == null || !nodes.containsKey(key)) {
+            nodes = parseMethods();
+            methodNodes = new SoftReference<>(nodes);
+        }
+        // each method body is requested once, thus we remove
+        // the node to make it collectable after IR construction
+        return nodes.remove(key);
+    }
+
+    private Map<String, MethodNode> parseMethods() {
+        Map<String, MethodNode> nodes = new HashMap<>();
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(
+                    int access, String name, String descriptor,
+                    String signature, String[] exceptions) {
+                if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+                    return null;
+                }
+                MethodNode node = new JSRInlinerAdapter(null, access,
+                        name, descriptor, signature, exceptions);
+                nodes.put(name + descriptor, node);
+                return node;
+            }
+        }, ClassReader.SKIP_FRAMES);
+        return nodes;
+    }
+}
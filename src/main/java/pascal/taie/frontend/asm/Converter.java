@@ -0,0 +1,349 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AnnotationNode;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import static pascal.taie.language.type.VoidType.VOID;
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+
+/**
+ * Converts the entities in class files (read by ASM) to Tai-e's representation.
+ */
+class Converter {
+
+    private final JClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    // Following maps may be concurrently written during IR construction,
+    // thus we use concurrent map to ensure their thread-safety.
+    private final ConcurrentMap<String, Type> descTypes
+            = newConcurrentMap(4096);
+
+    private final ConcurrentMap<String, FieldRef> fieldRefMap
+            = newConcurrentMap(4096);
+
+    private final ConcurrentMap<String, MethodRef> methodRefMap
+            = newConcurrentMap(4096);
+
+    Converter(JClassLoader loader, TypeSystem typeSystem) {
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    TypeSystem getTypeSystem() {
+        return typeSystem;
+    }
+
+    /**
+     * @return the type of given descriptor, e.g., {@code I} or
+     * {@code [Ljava/lang/String;}.
+     */
+    Type convertType(String descriptor) {
+        Type type = descTypes.get(descriptor);
+        if (type == null) {
+            type = convertType(org.objectweb.asm.Type.getType(descriptor));
+            descTypes.putIfAbsent(descriptor, type);
+        }
+        return type;
+    }
+
+    Type convertType(org.objectweb.asm.Type asmType) {
+        return switch (asmType.getSort()) {
+            case org.objectweb.asm.Type.VOID -> VOID;
+            case org.objectweb.asm.Type.BOOLEAN -> PrimitiveType.BOOLEAN;
+            case org.objectweb.asm.Type.CHAR -> PrimitiveType.CHAR;
+            case org.objectweb.asm.Type.BYTE -> PrimitiveType.BYTE;
+            case org.objectweb.asm.Type.SHORT -> PrimitiveType.SHORT;
+            case org.objectweb.asm.Type.INT -> PrimitiveType.INT;
+            case org.objectweb.asm.Type.FLOAT -> PrimitiveType.FLOAT;
+            case org.objectweb.asm.Type.LONG -> PrimitiveType.LONG;
+            case org.objectweb.asm.Type.DOUBLE -> PrimitiveType.DOUBLE;
+            case org.objectweb.asm.Type.ARRAY -> typeSystem.getArrayType(
+                    convertType(asmType.getElementType()),
+                    asmType.getDimensions());
+            case org.objectweb.asm.Type.OBJECT ->
+                    convertClassType(asmType.getInternalName());
+            default -> throw new AsmFrontendException(
+                    "Cannot convert type: " + asmType);
+        };
+    }
+
+    /**
+     * @return the class type of given internal name, e.g., {@code java/lang/String}.
+     */
+    ClassType convertClassType(String internalName) {
+        return typeSystem.getClassType(loader, toClassName(internalName));
+    }
+
+    /**
+     * Converts the operand of instructions that reference classes
+     * or array types, e.g., ANEWARRAY, CHECKCAST and INSTANCEOF, whose
+     * operand is either an internal name or an array descriptor.
+     */
+    ReferenceType convertReferenceType(String internalName) {
+        return internalName.charAt(0) == '[' ?
+                (ReferenceType) convertType(internalName) :
+                convertClassType(internalName);
+    }
+
+    List<Type> convertParamTypes(String methodDesc) {
+        org.objectweb.asm.Type[] argTypes =
+                org.objectweb.asm.Type.getArgumentTypes(methodDesc);
+        List<Type> paramTypes = new ArrayList<>(argTypes.length);
+        for (org.objectweb.asm.Type argType : argTypes) {
+            paramTypes.add(convertType(argType.getDescriptor()));
+        }
+        return paramTypes;
+    }
+
+    Type convertReturnType(String methodDesc) {
+        return convertType(methodDesc.substring(methodDesc.indexOf(')') + 1));
+    }
+
+    @Nullable
+    JClass convertClass(String internalName) {
+        return loader.loadClass(toClassName(internalName));
+    }
+
+    /**
+     * @return the class that declares the member referenced by
+     * an instruction, whose owner may also be an array type,
+     * e.g., the owner of invocation {@code int[].clone()}.
+     */
+    private JClass convertOwner(String owner) {
+        String className = owner.charAt(0) == '[' ?
+                ClassNames.OBJECT : toClassName(owner);
+        JClass jclass = loader.loadClass(className);
+        if (jclass == null) {
+            throw new AsmFrontendException("Cannot find class " + className);
+        }
+        return jclass;
+    }
+
+    FieldRef convertFieldRef(String owner, String name, String desc,
+                             boolean isStatic) {
+        String key = owner + '.' + name + ':' + desc + (isStatic ? "S" : "I");
+        FieldRef ref = fieldRefMap.get(key);
+        if (ref == null) {
+            ref = FieldRef.get(convertOwner(owner), name,
+                    convertType(desc), isStatic);
+            fieldRefMap.putIfAbsent(key, ref);
+        }
+        return ref;
+    }
+
+    MethodRef convertMethodRef(String owner, String name, String desc,
+                               boolean isStatic) {
+        String key = owner + '.' + name + desc + (isStatic ? "S" : "I");
+        MethodRef ref = methodRefMap.get(key);
+        if (ref == null) {
+            ref = MethodRef.get(convertOwner(owner), name,
+                    convertParamTypes(desc), convertReturnType(desc), isStatic);
+            methodRefMap.putIfAbsent(key, ref);
+        }
+        return ref;
+    }
+
+    MethodType convertMethodType(String desc) {
+        return MethodType.get(convertParamTypes(desc), convertReturnType(desc));
+    }
+
+    MethodHandle convertMethodHandle(Handle handle) {
+        int tag = handle.getTag();
+        MemberRef memberRef = switch (tag) {
+            case Opcodes.H_GETFIELD, Opcodes.H_PUTFIELD -> convertFieldRef(
+                    handle.getOwner(), handle.getName(), handle.getDesc(), false);
+            case Opcodes.H_GETSTATIC, Opcodes.H_PUTSTATIC -> convertFieldRef(
+                    handle.getOwner(), handle.getName(), handle.getDesc(), true);
+            default -> convertMethodRef(handle.getOwner(), handle.getName(),
+                    handle.getDesc(), tag == Opcodes.H_INVOKESTATIC);
+        };
+        return MethodHandle.get(MethodHandle.Kind.get(tag), memberRef);
+    }
+
+    /**
+     * Converts constants loaded by LDC instructions
+     * and bootstrap method arguments of INVOKEDYNAMIC instructions.
+     */
+    Literal convertConstant(Object value) {
+        if (value instanceof Integer i) {
+            return IntLiteral.get(i);
+        } else if (value instanceof Long l) {
+            return LongLiteral.get(l);
+        } else if (value instanceof Float f) {
+            return FloatLiteral.get(f);
+        } else if (value instanceof Double d) {
+            return DoubleLiteral.get(d);
+        } else if (value instanceof String s) {
+            return StringLiteral.get(s);
+        } else if (value instanceof org.objectweb.asm.Type t) {
+            return t.getSort() == org.objectweb.asm.Type.METHOD ?
+                    convertMethodType(t.getDescriptor()) :
+                    ClassLiteral.get(convertType(t.getDescriptor()));
+        } else if (value instanceof Handle h) {
+            return convertMethodHandle(h);
+        } else if (value instanceof ConstantDynamic) {
+            // Tai-e IR does not have dynamically-computed constants
+            throw new AsmFrontendException(
+                    "Cannot convert dynamic constant: " + value);
+        }
+        throw new AsmFrontendException("Cannot convert constant: " + value);
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * @return an annotation holder that contains all annotations
+     * in {@code visible} and {@code invisible}.
+     */
+    static AnnotationHolder convertAnnotations(
+            @Nullable List<AnnotationNode> visible,
+            @Nullable List<AnnotationNode> invisible) {
+        if (visible == null && invisible == null) {
+            return AnnotationHolder.emptyHolder();
+        }
+        List<Annotation> annotations = new ArrayList<>();
+        if (visible != null) {
+            visible.forEach(a -> annotations.add(convertAnnotation(a)));
+        }
+        if (invisible != null) {
+            invisible.forEach(a -> annotations.add(convertAnnotation(a)));
+        }
+        return AnnotationHolder.make(annotations);
+    }
+
+    private static Annotation convertAnnotation(AnnotationNode node) {
+        String annotationType = StringReps.toTaieTypeDesc(node.desc);
+        Map<String, Element> elements = Maps.newHybridMap();
+        // values of AnnotationNode are stored as name-value pairs
+        if (node.values != null) {
+            for (int i = 0; i < node.values.size(); i += 2) {
+                String name = (String) node.values.get(i);
+                elements.put(name, convertAnnotationElement(node.values.get(i + 1)));
+            }
+        }
+        return new Annotation(annotationType, elements);
+    }
+
+    private static Element convertAnnotationElement(Object value) {
+        if (value instanceof String s) {
+            return new StringElement(s);
+        } else if (value instanceof org.objectweb.asm.Type t) {
+            return new ClassElement(StringReps.toTaieTypeDesc(t.getDescriptor()));
+        } else if (value instanceof AnnotationNode a) {
+            return new AnnotationElement(convertAnnotation(a));
+        } else if (value instanceof List<?> values) {
+            return new ArrayElement(Lists.map(values,
+                    Converter::convertAnnotationElement));
+        } else if (value instanceof String[] e) {
+            // enum values are represented as {descriptor, constant name}
+            return new EnumElement(StringReps.toTaieTypeDesc(e[0]), e[1]);
+        } else if (value instanceof Boolean b) {
+            return new BooleanElement(b);
+        } else if (value instanceof Character c) {
+            return new IntElement(c);
+        } else if (value instanceof Byte || value instanceof Short ||
+                value instanceof Integer) {
+            return new IntElement(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            return new LongElement(l);
+        } else if (value instanceof Float f) {
+            return new FloatElement(f);
+        } else if (value instanceof Double d) {
+            return new DoubleElement(d);
+        } else {
+            throw new AsmFrontendException(
+                    "Unable to handle annotation element: " + value);
+        }
+    }
+
+    /**
+     * Converts the annotations of parameters of a method to a list
+     * of {@link AnnotationHolder}, one for annotations of each parameter.
+     */
+    @Nullable
+    static List<AnnotationHolder> convertParamAnnotations(
+            int paramCount,
+            @Nullable List<AnnotationNode>[] visible,
+            @Nullable List<AnnotationNode>[] invisible) {
+        if (visible == null && invisible == null) {
+            return null;
+        }
+        List<AnnotationHolder> holders = new ArrayList<>(paramCount);
+        for (int i = 0; i < paramCount; ++i) {
+            holders.add(convertAnnotations(
+                    visible != null && i < visible.length ? visible[i] : null,
+                    invisible != null && i < invisible.length ? invisible[i] : null));
+        }
+        return holders;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static pascal.taie.util.collection.Sets.newSet;
+
+class IRBuilder implements pascal.taie.ir.IRBuilder {
+
+    private static final Logger logger = LogManager.getLogger(IRBuilder.class);
+
+    private final Converter converter;
+
+    IRBuilder(Converter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Builds IR for given method.
+     *
+     * @throws AsmFrontendException if the method body cannot be converted.
+     *                              The failure is reported instead of being
+     *                              replaced by an empty IR, which would
+     *                              silently make analysis results unsound.
+     */
+    @Override
+    public IR buildIR(JMethod method) {
+        try {
+            return new MethodIRBuilder(method, converter).build();
+        } catch (AsmFrontendException e) {
+            throw new AsmFrontendException("Failed to build IR for " +
+                    method + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds IR for all methods in given class hierarchy.
+     * The classes referenced by the IR have been loaded when the world
+     * is built, but building IR may still load a few new classes (e.g.,
+     * the ones only referenced by the types of local variables),
+     * thus this method builds IR round by round until no new classes are loaded.
+     */
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+        Timer timer = new Timer("Build IR for all methods");
+        timer.start();
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        Set<JClass> builtClasses = newSet();
+        List<JClass> classes;
+        while (!(classes = hierarchy.allClasses()
+                .filter(c -> !builtClasses.contains(c))
+                .toList()).isEmpty()) {
+            builtClasses.addAll(classes);
+            // Group all methods by number of threads
+            List<List<JMethod>> groups = new ArrayList<>();
+            for (int i = 0; i < nThreads; ++i) {
+                groups.add(new ArrayList<>());
+            }
+            int i = 0;
+            for (JClass c : classes) {
+                for (JMethod m : c.getDeclaredMethods()) {
+                    if (!m.isAbstract() || m.isNative()) {
+                        groups.get(i++ % nThreads).add(m);
+                    }
+                }
+            }
+            // Build IR for all methods in parallel
+            ExecutorService service = Executors.newFixedThreadPool(nThreads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (List<JMethod> group : groups) {
+                    futures.add(service.submit(() ->
+                            group.forEach(JMethod::getIR)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                // propagate the failures of building IR
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                } else if (e.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw new RuntimeException(e.getCause());
+            } finally {
+                service.shutdown();
+            }
+        }
+        timer.stop();
+        logger.info(timer);
+    }
+}
@@ -0,0 +1,983 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import pascal.taie.frontend.asm.BytecodeAnalysis.Block;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import static org.objectweb.asm.Opcodes.*;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Converts bytecode (read by ASM) to Tai-e IR.
+ * <p>
+ * Operand stack is simulated symbolically: loads and constants are pushed
+ * as variables and literals, and the results of other instructions are
+ * assigned to the variable stored by the next instruction (e.g.,
+ * {@code x = a + b;}) if possible, or otherwise to temporary variables.
+ * The values that remain on the stack at the end of a basic block are
+ * transferred to successors via stack variables.
+ */
+class MethodIRBuilder {
+
+    private final JMethod method;
+
+    private final Converter converter;
+
+    private BytecodeAnalysis analysis;
+
+    private AbstractInsnNode[] insns;
+
+    private VarManager varManager;
+
+    private Set<Var> returnVars;
+
+    private List<Stmt> stmts;
+
+    private List<ExceptionEntry> exceptionEntries;
+
+    /**
+     * Variables of webs computed by {@link BytecodeAnalysis}.
+     */
+    private final Map<Integer, Var> webVars = Maps.newMap();
+
+    /**
+     * Caches variables that hold constant values, so that we don't need to
+     * create multiple temp variables and assignments for the same constants
+     * in the same method.
+     */
+    private final Map<Literal, Var> constantVars = Maps.newHybridMap();
+
+    /**
+     * Symbolic operand stack, whose elements are {@link Var},
+     * {@link Literal}, or {@link NewInstance} of objects that are
+     * created but not initialized yet.
+     */
+    private final List<Exp> stack = new ArrayList<>();
+
+    /**
+     * Map from jump statements in Tai-e IR to the corresponding instructions.
+     */
+    private final Map<Stmt, AbstractInsnNode> jumps = Maps.newHybridMap();
+
+    /**
+     * Index of the first statement of each block.
+     */
+    private int[] blockStmts;
+
+    /**
+     * Instructions that have been converted together with previous instructions,
+     * e.g., the store instruction following an addition.
+     */
+    private boolean[] consumed;
+
+    /**
+     * Line number of each instruction.
+     */
+    private int[] lineNumbers;
+
+    private Block currentBlock;
+
+    private int currentLineNumber = -1;
+
+    MethodIRBuilder(JMethod method, Converter converter) {
+        this.method = method;
+        this.converter = converter;
+    }
+
+    IR build() {
+        AsmMethodSource source = (AsmMethodSource) method.getMethodSource();
+        MethodNode node = source.classSource()
+                .getMethodNode(source.name(), source.descriptor());
+        if (node == null) {
+            throw new AsmFrontendException("Cannot find method body of " + method);
+        }
+        analysis = new BytecodeAnalysis(method, node, converter);
+        analysis.analyze();
+        insns = analysis.getInsns();
+        varManager = new VarManager(method);
+        if (method.getReturnType().equals(VOID)) {
+            returnVars = Set.of();
+        } else {
+            returnVars = new LinkedHashSet<>();
+        }
+        stmts = new ArrayList<>();
+        buildThisAndParams();
+        buildStmts();
+        buildExceptionEntries(node);
+        return new DefaultIR(method,
+                varManager.getThis(), varManager.getParams(), returnVars,
+                varManager.getVars(), stmts, exceptionEntries);
+    }
+
+    private void buildThisAndParams() {
+        int slot = 0;
+        if (!method.isStatic()) {
+            Var thisVar = varManager.addThis(method.getDeclaringClass().getType());
+            int web = analysis.getParamWeb(0);
+            if (analysis.isParamOnlyWeb(web, 0)) {
+                webVars.put(web, thisVar);
+            } else {
+                // slot of this is reassigned in the method, thus we copy
+                // this to another variable to keep this variable intact
+                currentLineNumber = computeLineNumbers()[analysis.nextRealInsn(0)];
+                addStmt(new Copy(getWebVar(web), thisVar));
+            }
+            slot = 1;
+        }
+        for (Type paramType : method.getParamTypes()) {
+            varManager.addParam(getWebVar(analysis.getParamWeb(slot)));
+            slot += isWide(paramType) ? 2 : 1;
+        }
+    }
+
+    private Var getWebVar(int web) {
+        Var var = webVars.get(web);
+        if (var == null) {
+            Type type = analysis.getWebType(web);
+            int local = analysis.getWebLocal(web);
+            var = local >= 0 ?
+                    varManager.newLocalVar(analysis.getWebName(web), local, type) :
+                    varManager.newStackVar(analysis.getWebStackDepth(web), type);
+            webVars.put(web, var);
+        }
+        return var;
+    }
+
+    private int[] computeLineNumbers() {
+        if (lineNumbers == null) {
+            lineNumbers = new int[insns.length];
+            int line = -1;
+            for (int i = 0; i < insns.length; ++i) {
+                if (insns[i] instanceof LineNumberNode lineNumber) {
+                    line = lineNumber.line;
+                }
+                lineNumbers[i] = line;
+            }
+        }
+        return lineNumbers;
+    }
+
+    private void buildStmts() {
+        computeLineNumbers();
+        List<Block> blocks = analysis.getBlocks();
+        blockStmts = new int[blocks.size()];
+        consumed = new boolean[insns.length];
+        for (Block block : blocks) {
+            blockStmts[block.getIndex()] = stmts.size();
+            if (block.isReachable()) {
+                buildBlock(block);
+            }
+        }
+        currentLineNumber = -1;
+        linkJumpTargets();
+    }
+
+    private void buildBlock(Block block) {
+        currentBlock = block;
+        stack.clear();
+        int start = block.getStart();
+        if (block.isHandler()) {
+            if (block.hasNormalPreds()) {
+                throw new AsmFrontendException(
+                        "Exception handler is reachable by normal control flows");
+            }
+            currentLineNumber = lineNumbers[start];
+            if (insns[start].getOpcode() == ASTORE) {
+                // catch the exception to the stored variable directly
+                Var var = getWebVar(analysis.getDefWeb(start));
+                addStmt(new Catch(var));
+                consumed[start] = true;
+            } else {
+                Var var = varManager.newTempVar(block.getCatchType());
+                addStmt(new Catch(var));
+                stack.add(var);
+            }
+        } else {
+            for (int d = 0; d < block.getEntryStackDepth(); ++d) {
+                stack.add(getWebVar(analysis.getWeb(block.getEntryStackDef(d))));
+            }
+        }
+        int last = -1;
+        for (int i = start; i < block.getEnd(); ++i) {
+            AbstractInsnNode insn = insns[i];
+            if (insn.getOpcode() >= 0) {
+                last = i;
+                if (!consumed[i]) {
+                    currentLineNumber = lineNumbers[i];
+                    convert(i, insn);
+                }
+            }
+        }
+        if (!isJumpOrExit(insns[last])) {
+            // fall through to next block
+            flushStack();
+        }
+    }
+
+    private static boolean isJumpOrExit(AbstractInsnNode insn) {
+        int op = insn.getOpcode();
+        return insn instanceof JumpInsnNode
+                || insn instanceof TableSwitchInsnNode
+                || insn instanceof LookupSwitchInsnNode
+                || (op >= IRETURN && op <= RETURN) || op == ATHROW;
+    }
+
+    /**
+     * Converts instruction at index {@code i}.
+     */
+    private void convert(int i, AbstractInsnNode insn) {
+        int op = insn.getOpcode();
+        switch (op) {
+            case NOP -> {
+            }
+            case ACONST_NULL -> stack.add(NullLiteral.get());
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3,
+                    ICONST_4, ICONST_5 -> stack.add(IntLiteral.get(op - ICONST_0));
+            case LCONST_0, LCONST_1 -> stack.add(LongLiteral.get(op - LCONST_0));
+            case FCONST_0, FCONST_1, FCONST_2 -> stack.add(FloatLiteral.get(op - FCONST_0));
+            case DCONST_0, DCONST_1 -> stack.add(DoubleLiteral.get(op - DCONST_0));
+            case BIPUSH, SIPUSH -> stack.add(IntLiteral.get(((IntInsnNode) insn).operand));
+            case LDC -> stack.add(converter.convertConstant(((LdcInsnNode) insn).cst));
+            case ILOAD, LLOAD, FLOAD, DLOAD, ALOAD ->
+                    stack.add(getWebVar(analysis.getUseWeb(i)));
+            case IALOAD, LALOAD, FALOAD, DALOAD, AALOAD, BALOAD, CALOAD, SALOAD -> {
+                Exp index = pop();
+                Var base = toArrayBase(toVar(pop()), op);
+                ArrayAccess access = new ArrayAccess(base, toVar(index));
+                assign(i, access, access.getType(), LoadArray::new);
+            }
+            case ISTORE, LSTORE, FSTORE, DSTORE, ASTORE -> store(i);
+            case IINC -> {
+                Var var = getWebVar(analysis.getUseWeb(i));
+                Var target = getWebVar(analysis.getDefWeb(i));
+                Var incr = getConstantVar(IntLiteral.get(((IincInsnNode) insn).incr));
+                spill(target);
+                addStmt(new Binary(target,
+                        new ArithmeticExp(ArithmeticExp.Op.ADD, var, incr)));
+            }
+            case IASTORE, LASTORE, FASTORE, DASTORE,
+                    AASTORE, BASTORE, CASTORE, SASTORE -> {
+                Exp value = pop();
+                Exp index = pop();
+                Var base = toArrayBase(toVar(pop()), op);
+                addStmt(new StoreArray(new ArrayAccess(base, toVar(index)),
+                        toVar(value)));
+            }
+            case POP, POP2, DUP, DUP_X1, DUP_X2, DUP2, DUP2_X1, DUP2_X2, SWAP ->
+                    BytecodeAnalysis.executeStackOp(op, stack,
+                            e -> isWide(e.getType()));
+            case IADD, LADD, FADD, DADD -> arithmetic(i, ArithmeticExp.Op.ADD);
+            case ISUB, LSUB, FSUB, DSUB -> arithmetic(i, ArithmeticExp.Op.SUB);
+            case IMUL, LMUL, FMUL, DMUL -> arithmetic(i, ArithmeticExp.Op.MUL);
+            case IDIV, LDIV, FDIV, DDIV -> arithmetic(i, ArithmeticExp.Op.DIV);
+            case IREM, LREM, FREM, DREM -> arithmetic(i, ArithmeticExp.Op.REM);
+            case ISHL, LSHL -> shift(i, ShiftExp.Op.SHL);
+            case ISHR, LSHR -> shift(i, ShiftExp.Op.SHR);
+            case IUSHR, LUSHR -> shift(i, ShiftExp.Op.USHR);
+            case IAND, LAND -> bitwise(i, BitwiseExp.Op.AND);
+            case IOR, LOR -> bitwise(i, BitwiseExp.Op.OR);
+            case IXOR, LXOR -> bitwise(i, BitwiseExp.Op.XOR);
+            case LCMP -> comparison(i, ComparisonExp.Op.CMP);
+            case FCMPL, DCMPL -> comparison(i, ComparisonExp.Op.CMPL);
+            case FCMPG, DCMPG -> comparison(i, ComparisonExp.Op.CMPG);
+            case INEG, LNEG, FNEG, DNEG -> {
+                NegExp neg = new NegExp(toVar(pop()));
+                assign(i, neg, neg.getType(), Unary::new);
+            }
+            case I2L, F2L, D2L -> cast(i, PrimitiveType.LONG);
+            case I2F, L2F, D2F -> cast(i, PrimitiveType.FLOAT);
+            case I2D, L2D, F2D -> cast(i, PrimitiveType.DOUBLE);
+            case L2I, F2I, D2I -> cast(i, PrimitiveType.INT);
+            case I2B -> cast(i, PrimitiveType.BYTE);
+            case I2C -> cast(i, PrimitiveType.CHAR);
+            case I2S -> cast(i, PrimitiveType.SHORT);
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE -> {
+                Var v = toVar(pop());
+                buildIf(insn, v, getConstantVar(IntLiteral.get(0)));
+            }
+            case IFNULL, IFNONNULL -> {
+                Var v = toVar(pop());
+                buildIf(insn, v, getConstantVar(NullLiteral.get()));
+            }
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT,
+                    IF_ICMPLE, IF_ACMPEQ, IF_ACMPNE -> {
+                Exp e2 = pop();
+                Var v1 = toVar(pop());
+                buildIf(insn, v1, toVar(e2));
+            }
+            case GOTO -> {
+                flushStack();
+                Goto gotoStmt = new Goto();
+                jumps.put(gotoStmt, insn);
+                addStmt(gotoStmt);
+            }
+            case TABLESWITCH -> {
+                TableSwitchInsnNode sw = (TableSwitchInsnNode) insn;
+                Var var = protect(toVar(pop()));
+                flushStack();
+                TableSwitch tableSwitch = new TableSwitch(var, sw.min, sw.max);
+                jumps.put(tableSwitch, insn);
+                addStmt(tableSwitch);
+            }
+            case LOOKUPSWITCH -> {
+                LookupSwitchInsnNode sw = (LookupSwitchInsnNode) insn;
+                Var var = protect(toVar(pop()));
+                flushStack();
+                LookupSwitch lookupSwitch = new LookupSwitch(var, sw.keys);
+                jumps.put(lookupSwitch, insn);
+                addStmt(lookupSwitch);
+            }
+            case IRETURN, LRETURN, FRETURN, DRETURN, ARETURN -> {
+                Var returnVar = toVar(pop());
+                returnVars.add(returnVar);
+                addStmt(new Return(returnVar));
+            }
+            case RETURN -> addStmt(new Return());
+            case GETSTATIC -> {
+                StaticFieldAccess access = new StaticFieldAccess(
+                        getFieldRef((FieldInsnNode) insn, true));
+                assign(i, access, access.getType(), LoadField::new);
+            }
+            case GETFIELD -> {
+                InstanceFieldAccess access = new InstanceFieldAccess(
+                        getFieldRef((FieldInsnNode) insn, false), toVar(pop()));
+                assign(i, access, access.getType(), LoadField::new);
+            }
+            case PUTSTATIC -> addStmt(new StoreField(new StaticFieldAccess(
+                    getFieldRef((FieldInsnNode) insn, true)), toVar(pop())));
+            case PUTFIELD -> {
+                Exp value = pop();
+                Var base = toVar(pop());
+                addStmt(new StoreField(new InstanceFieldAccess(
+                        getFieldRef((FieldInsnNode) insn, false), base),
+                        toVar(value)));
+            }
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC, INVOKEINTERFACE ->
+                    buildInvoke(i, (MethodInsnNode) insn);
+            case INVOKEDYNAMIC -> buildInvokeDynamic(i, (InvokeDynamicInsnNode) insn);
+            case NEW -> stack.add(new NewInstance(
+                    converter.convertClassType(((TypeInsnNode) insn).desc)));
+            case NEWARRAY -> {
+                ArrayType type = converter.getTypeSystem().getArrayType(
+                        BytecodeAnalysis.getPrimitiveType(((IntInsnNode) insn).operand), 1);
+                assign(i, new NewArray(type, toVar(pop())), type, this::newNew);
+            }
+            case ANEWARRAY -> {
+                ArrayType type = (ArrayType) converter.convertType(
+                        "[" + toDescriptor(((TypeInsnNode) insn).desc));
+                assign(i, new NewArray(type, toVar(pop())), type, this::newNew);
+            }
+            case MULTIANEWARRAY -> {
+                MultiANewArrayInsnNode newArray = (MultiANewArrayInsnNode) insn;
+                List<Exp> lengths = popN(newArray.dims);
+                ArrayType type = (ArrayType) converter.convertType(newArray.desc);
+                assign(i, new NewMultiArray(type, Lists.map(lengths, this::toVar)),
+                        type, this::newNew);
+            }
+            case ARRAYLENGTH -> {
+                ArrayLengthExp length = new ArrayLengthExp(
+                        toArrayBase(toVar(pop()), op));
+                assign(i, length, length.getType(), Unary::new);
+            }
+            case ATHROW -> addStmt(new Throw(toVar(pop())));
+            case CHECKCAST -> cast(i,
+                    converter.convertReferenceType(((TypeInsnNode) insn).desc));
+            case INSTANCEOF -> {
+                InstanceOfExp instanceOf = new InstanceOfExp(toVar(pop()),
+                        converter.convertReferenceType(((TypeInsnNode) insn).desc));
+                assign(i, instanceOf, instanceOf.getType(), InstanceOf::new);
+            }
+            case MONITORENTER -> addStmt(new Monitor(Monitor.Op.ENTER, toVar(pop())));
+            case MONITOREXIT -> addStmt(new Monitor(Monitor.Op.EXIT, toVar(pop())));
+            default -> throw new AsmFrontendException(
+                    "Unsupported instruction with opcode " + op);
+        }
+    }
+
+    // ---------- operand stack ----------
+
+    private Exp pop() {
+        if (stack.isEmpty()) {
+            throw new AsmFrontendException("Stack underflow");
+        }
+        return stack.remove(stack.size() - 1);
+    }
+
+    /**
+     * Pops {@code n} values and returns them in the order they were pushed.
+     */
+    private List<Exp> popN(int n) {
+        Exp[] values = new Exp[n];
+        for (int i = n - 1; i >= 0; --i) {
+            values[i] = pop();
+        }
+        return Arrays.asList(values);
+    }
+
+    private static boolean isWide(Type type) {
+        return type == PrimitiveType.LONG || type == PrimitiveType.DOUBLE;
+    }
+
+    /**
+     * Converts a stack value to variable.
+     */
+    private Var toVar(Exp value) {
+        if (value instanceof Var var) {
+            return var;
+        } else if (value instanceof Literal literal) {
+            return getConstantVar(literal);
+        } else {
+            NewInstance newInstance = (NewInstance) value;
+            Var var = varManager.newTempVar(newInstance.getType());
+            addStmt(new New(method, var, newInstance));
+            replace(newInstance, var);
+            return var;
+        }
+    }
+
+    private Var getConstantVar(Literal literal) {
+        Var var = constantVars.get(literal);
+        if (var == null) {
+            var = varManager.newConstantVar(literal);
+            if (!(literal instanceof NullLiteral)) {
+                // add temp assignment for non-null variable
+                addStmt(new AssignLiteral(var, literal));
+            }
+            constantVars.put(literal, var);
+        }
+        return var;
+    }
+
+    private void replace(Exp oldValue, Exp newValue) {
+        for (int i = 0; i < stack.size(); ++i) {
+            if (stack.get(i) == oldValue) {
+                stack.set(i, newValue);
+            }
+        }
+    }
+
+    /**
+     * Before {@code var} is redefined, copies its current value to
+     * a temporary variable if the value is still on the stack.
+     */
+    private void spill(Var var) {
+        if (stack.contains(var)) {
+            Var temp = varManager.newTempVar(var.getType());
+            addStmt(new Copy(temp, var));
+            replace(var, temp);
+        }
+    }
+
+    /**
+     * @return the variable defined by the store instruction following
+     * {@code i} in the same block, or {@code null} if there is no such store.
+     * If present, the store instruction is marked as consumed.
+     */
+    @Nullable
+    private Var getStoreTarget(int i) {
+        int next = analysis.nextRealInsn(i + 1);
+        if (next < currentBlock.getEnd()) {
+            int op = insns[next].getOpcode();
+            if (op >= ISTORE && op <= ASTORE) {
+                consumed[next] = true;
+                Var target = getWebVar(analysis.getDefWeb(next));
+                spill(target);
+                return target;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Assigns {@code rvalue} to the variable stored by the next instruction
+     * (if present), or to a new temporary variable pushed onto the stack.
+     */
+    private <R extends RValue> void assign(
+            int i, R rvalue, Type type, BiFunction<Var, R, Stmt> stmtFactory) {
+        Var target = getStoreTarget(i);
+        if (target != null) {
+            addStmt(stmtFactory.apply(target, rvalue));
+        } else {
+            target = varManager.newTempVar(type);
+            addStmt(stmtFactory.apply(target, rvalue));
+            stack.add(target);
+        }
+    }
+
+    private New newNew(Var lvalue, NewExp rvalue) {
+        return new New(method, lvalue, rvalue);
+    }
+
+    private void store(int i) {
+        Exp value = pop();
+        Var target = getWebVar(analysis.getDefWeb(i));
+        if (value == target) {
+            return;
+        }
+        spill(target);
+        if (value instanceof Literal literal) {
+            addStmt(new AssignLiteral(target, literal));
+        } else if (value instanceof Var var) {
+            addStmt(new Copy(target, var));
+        } else {
+            NewInstance newInstance = (NewInstance) value;
+            addStmt(new New(method, target, newInstance));
+            replace(newInstance, target);
+        }
+    }
+
+    /**
+     * If the type of {@code base} is not an array type (which happens
+     * when its type is merged from incompatible types), casts it
+     * to the array type expected by the instruction.
+     */
+    private Var toArrayBase(Var base, int opcode) {
+        if (base.getType() instanceof ArrayType) {
+            return base;
+        }
+        Type elementType = switch (opcode) {
+            case IALOAD, IASTORE -> PrimitiveType.INT;
+            case LALOAD, LASTORE -> PrimitiveType.LONG;
+            case FALOAD, FASTORE -> PrimitiveType.FLOAT;
+            case DALOAD, DASTORE -> PrimitiveType.DOUBLE;
+            case BALOAD, BASTORE -> PrimitiveType.BYTE;
+            case CALOAD, CASTORE -> PrimitiveType.CHAR;
+            case SALOAD, SASTORE -> PrimitiveType.SHORT;
+            default -> converter.convertClassType(ClassNames.OBJECT);
+        };
+        ArrayType type = converter.getTypeSystem().getArrayType(elementType, 1);
+        Var var = varManager.newTempVar(type);
+        addStmt(new Cast(var, new CastExp(base, type)));
+        return var;
+    }
+
+    // ---------- expressions ----------
+
+    private void arithmetic(int i, ArithmeticExp.Op op) {
+        Exp e2 = pop();
+        Var v1 = toVar(pop());
+        ArithmeticExp exp = new ArithmeticExp(op, v1, toVar(e2));
+        assign(i, exp, toIntIfHoldsInt(exp.getType()), Binary::new);
+    }
+
+    private void shift(int i, ShiftExp.Op op) {
+        Exp e2 = pop();
+        Var v1 = toVar(pop());
+        ShiftExp exp = new ShiftExp(op, v1, toVar(e2));
+        assign(i, exp, toIntIfHoldsInt(exp.getType()), Binary::new);
+    }
+
+    private void bitwise(int i, BitwiseExp.Op op) {
+        Exp e2 = pop();
+        Var v1 = toVar(pop());
+        Var v2 = toVar(e2);
+        BitwiseExp exp = new BitwiseExp(op, v1, v2);
+        // bitwise operations on booleans still produce booleans
+        Type type = v1.getType() == PrimitiveType.BOOLEAN
+                && v2.getType() == PrimitiveType.BOOLEAN ?
+                PrimitiveType.BOOLEAN : toIntIfHoldsInt(exp.getType());
+        assign(i, exp, type, Binary::new);
+    }
+
+    private void comparison(int i, ComparisonExp.Op op) {
+        Exp e2 = pop();
+        Var v1 = toVar(pop());
+        ComparisonExp exp = new ComparisonExp(op, v1, toVar(e2));
+        assign(i, exp, exp.getType(), Binary::new);
+    }
+
+    private static Type toIntIfHoldsInt(PrimitiveType type) {
+        return type.asInt() ? PrimitiveType.INT : type;
+    }
+
+    private void cast(int i, Type type) {
+        CastExp exp = new CastExp(toVar(pop()), type);
+        assign(i, exp, type, Cast::new);
+    }
+
+    private FieldRef getFieldRef(FieldInsnNode insn, boolean isStatic) {
+        return converter.convertFieldRef(insn.owner, insn.name, insn.desc, isStatic);
+    }
+
+    private static String toDescriptor(String internalName) {
+        return internalName.charAt(0) == '[' ?
+                internalName : "L" + internalName + ";";
+    }
+
+    // ---------- invocations ----------
+
+    private void buildInvoke(int i, MethodInsnNode insn) {
+        int op = insn.getOpcode();
+        MethodRef methodRef = converter.convertMethodRef(
+                insn.owner, insn.name, insn.desc, op == INVOKESTATIC);
+        List<Exp> argValues = popN(methodRef.getParameterTypes().size());
+        Exp base = op == INVOKESTATIC ? null : pop();
+        List<Var> args = Lists.map(argValues, this::toVar);
+        if (base instanceof NewInstance newInstance) {
+            // invocation of constructor on newly created object
+            buildInit(i, methodRef, newInstance, args);
+            return;
+        }
+        InvokeExp invokeExp = switch (op) {
+            case INVOKEVIRTUAL -> new InvokeVirtual(methodRef, toVar(base), args);
+            case INVOKEINTERFACE -> new InvokeInterface(methodRef, toVar(base), args);
+            case INVOKESPECIAL -> new InvokeSpecial(methodRef, toVar(base), args);
+            default -> new InvokeStatic(methodRef, args);
+        };
+        addInvoke(i, invokeExp, methodRef.getReturnType());
+    }
+
+    /**
+     * Builds the creation of object, i.e., {@code new C; dup; ...;
+     * invokespecial C.<init>}. If the object is stored to a variable
+     * right after initialization, it is created to the variable directly.
+     */
+    private void buildInit(int i, MethodRef methodRef,
+                           NewInstance newInstance, List<Var> args) {
+        Var var = null;
+        int next = analysis.nextRealInsn(i + 1);
+        if (!stack.isEmpty() && stack.get(stack.size() - 1) == newInstance
+                && next < currentBlock.getEnd()
+                && insns[next].getOpcode() == ASTORE) {
+            Var target = getWebVar(analysis.getDefWeb(next));
+            if (!args.contains(target)) {
+                pop();
+                consumed[next] = true;
+                spill(target);
+                addStmt(new New(method, target, newInstance));
+                replace(newInstance, target);
+                var = target;
+            }
+        }
+        if (var == null) {
+            var = toVar(newInstance);
+        }
+        addStmt(new Invoke(method, new InvokeSpecial(methodRef, var, args)));
+    }
+
+    private void buildInvokeDynamic(int i, InvokeDynamicInsnNode insn) {
+        Handle bsm = insn.bsm;
+        MethodRef bootstrapMethodRef = converter.convertMethodRef(
+                bsm.getOwner(), bsm.getName(), bsm.getDesc(),
+                bsm.getTag() == H_INVOKESTATIC);
+        MethodType methodType = converter.convertMethodType(insn.desc);
+        List<Literal> bootstrapArgs = Arrays.stream(insn.bsmArgs)
+                .map(converter::convertConstant)
+                .toList();
+        List<Var> args = Lists.map(
+                popN(methodType.getParamTypes().size()), this::toVar);
+        addInvoke(i, new InvokeDynamic(bootstrapMethodRef, insn.name,
+                methodType, bootstrapArgs, args), methodType.getReturnType());
+    }
+
+    private void addInvoke(int i, InvokeExp invokeExp, Type returnType) {
+        Var result = null;
+        boolean pushResult = false;
+        if (!returnType.equals(VOID)) {
+            int next = analysis.nextRealInsn(i + 1);
+            int nextOp = next < currentBlock.getEnd() ?
+                    insns[next].getOpcode() : -1;
+            if (nextOp == (isWide(returnType) ? POP2 : POP)) {
+                // the result is discarded
+                consumed[next] = true;
+            } else {
+                result = getStoreTarget(i);
+                if (result == null) {
+                    result = varManager.newTempVar(returnType);
+                    pushResult = true;
+                }
+            }
+        }
+        addStmt(new Invoke(method, invokeExp, result));
+        if (pushResult) {
+            stack.add(result);
+        }
+    }
+
+    // ---------- control flows ----------
+
+    private void buildIf(AbstractInsnNode insn, Var v1, Var v2) {
+        ConditionExp.Op op = switch (insn.getOpcode()) {
+            case IFEQ, IF_ICMPEQ, IF_ACMPEQ, IFNULL -> ConditionExp.Op.EQ;
+            case IFNE, IF_ICMPNE, IF_ACMPNE, IFNONNULL -> ConditionExp.Op.NE;
+            case IFLT, IF_ICMPLT -> ConditionExp.Op.LT;
+            case IFGE, IF_ICMPGE -> ConditionExp.Op.GE;
+            case IFGT, IF_ICMPGT -> ConditionExp.Op.GT;
+            case IFLE, IF_ICMPLE -> ConditionExp.Op.LE;
+            default -> throw new AsmFrontendException(
+                    "Expected conditional jump, given " + insn.getOpcode());
+        };
+        v1 = protect(v1);
+        v2 = protect(v2);
+        flushStack();
+        If ifStmt = new If(new ConditionExp(op, v1, v2));
+        jumps.put(ifStmt, insn);
+        addStmt(ifStmt);
+    }
+
+    /**
+     * Before flushing the stack at the end of current block, copies
+     * {@code var} (used by the jump instruction) to a temporary variable
+     * if it will be overwritten by the flush.
+     */
+    private Var protect(Var var) {
+        if (!stack.isEmpty() && currentBlock.hasSuccs()) {
+            for (int d = 0; d < stack.size(); ++d) {
+                if (getExitStackVar(d) == var) {
+                    Var temp = varManager.newTempVar(var.getType());
+                    addStmt(new Copy(temp, var));
+                    return temp;
+                }
+            }
+        }
+        return var;
+    }
+
+    private Var getExitStackVar(int depth) {
+        return getWebVar(analysis.getWeb(currentBlock.getExitStackDef(depth)));
+    }
+
+    /**
+     * Assigns the values on the stack to the stack variables,
+     * so that the values can be transferred to successors.
+     */
+    private void flushStack() {
+        if (stack.isEmpty() || !currentBlock.hasSuccs()) {
+            return;
+        }
+        int depth = stack.size();
+        Var[] targets = new Var[depth];
+        for (int d = 0; d < depth; ++d) {
+            targets[d] = getExitStackVar(d);
+        }
+        // the assignments are performed in parallel, thus the values that
+        // are overwritten by assignments of other depths are copied first
+        for (int d = 0; d < depth; ++d) {
+            if (stack.get(d) instanceof Var var) {
+                for (int k = 0; k < depth; ++k) {
+                    if (k != d && targets[k] == var) {
+                        Var temp = varManager.newTempVar(var.getType());
+                        addStmt(new Copy(temp, var));
+                        replace(var, temp);
+                        break;
+                    }
+                }
+            }
+        }
+        Map<NewInstance, Var> newVars = new IdentityHashMap<>();
+        for (int d = 0; d < depth; ++d) {
+            Exp value = stack.get(d);
+            Var target = targets[d];
+            if (value == target) {
+                continue;
+            }
+            if (value instanceof Literal literal) {
+                addStmt(new AssignLiteral(target, literal));
+            } else if (value instanceof Var var) {
+                addStmt(new Copy(target, var));
+            } else {
+                NewInstance newInstance = (NewInstance) value;
+                Var var = newVars.get(newInstance);
+                if (var == null) {
+                    addStmt(new New(method, target, newInstance));
+                    newVars.put(newInstance, target);
+                } else {
+                    addStmt(new Copy(target, var));
+                }
+            }
+        }
+    }
+
+    private void linkJumpTargets() {
+        jumps.forEach((stmt, insn) -> {
+            if (insn instanceof JumpInsnNode jump) {
+                Stmt target = getJumpTarget(jump.label);
+                if (stmt instanceof Goto gotoStmt) {
+                    gotoStmt.setTarget(target);
+                } else {
+                    ((If) stmt).setTarget(target);
+                }
+            } else {
+                List<LabelNode> labels;
+                LabelNode dflt;
+                if (insn instanceof TableSwitchInsnNode sw) {
+                    labels = sw.labels;
+                    dflt = sw.dflt;
+                } else {
+                    labels = ((LookupSwitchInsnNode) insn).labels;
+                    dflt = ((LookupSwitchInsnNode) insn).dflt;
+                }
+                SwitchStmt switchStmt = (SwitchStmt) stmt;
+                switchStmt.setTargets(Lists.map(labels, this::getJumpTarget));
+                switchStmt.setDefaultTarget(getJumpTarget(dflt));
+            }
+        });
+    }
+
+    private Stmt getJumpTarget(LabelNode label) {
+        return getStmt(blockStmts[analysis.getBlockOf(label).getIndex()]);
+    }
+
+    /**
+     * @return the statement at {@code index}. If {@code index} is
+     * the end of statements, a {@link Nop} is added and returned.
+     */
+    private Stmt getStmt(int index) {
+        if (index == stmts.size()) {
+            addStmt(new Nop());
+        }
+        return stmts.get(index);
+    }
+
+    private void buildExceptionEntries(MethodNode node) {
+        if (node.tryCatchBlocks.isEmpty()) {
+            exceptionEntries = List.of();
+            return;
+        }
+        exceptionEntries = new ArrayList<>(node.tryCatchBlocks.size());
+        for (TryCatchBlockNode tcb : node.tryCatchBlocks) {
+            Block handler = analysis.getBlockOf(tcb.handler);
+            if (!handler.isReachable()) {
+                continue;
+            }
+            int start = blockStmts[analysis.getBlockOf(tcb.start).getIndex()];
+            int endInsn = analysis.nextRealInsn(analysis.indexOf(tcb.end));
+            int end = endInsn < insns.length ?
+                    blockStmts[analysis.getBlockOf(endInsn).getIndex()] :
+                    stmts.size();
+            if (start >= end) {
+                // no statements in the try range
+                continue;
+            }
+            ClassType catchType = converter.convertClassType(
+                    tcb.type != null ? tcb.type : ClassNames.THROWABLE);
+            exceptionEntries.add(new ExceptionEntry(
+                    stmts.get(start), getStmt(end),
+                    (Catch) stmts.get(blockStmts[handler.getIndex()]),
+                    catchType));
+        }
+    }
+
+    private void addStmt(Stmt stmt) {
+        stmt.setLineNumber(currentLineNumber);
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+    }
+}
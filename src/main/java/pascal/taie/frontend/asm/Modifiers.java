@@ -0,0 +1,159 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.language.classes.Modifier;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.objectweb.asm.Opcodes.ACC_ABSTRACT;
+import static org.objectweb.asm.Opcodes.ACC_ANNOTATION;
+import static org.objectweb.asm.Opcodes.ACC_BRIDGE;
+import static org.objectweb.asm.Opcodes.ACC_ENUM;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_INTERFACE;
+import static org.objectweb.asm.Opcodes.ACC_NATIVE;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PROTECTED;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_STRICT;
+import static org.objectweb.asm.Opcodes.ACC_SYNCHRONIZED;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ACC_TRANSIENT;
+import static org.objectweb.asm.Opcodes.ACC_VARARGS;
+import static org.objectweb.asm.Opcodes.ACC_VOLATILE;
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+
+/**
+ * Converts access flags in class files to modifiers.
+ * Some flags share the same bit for different kinds of members
+ * (e.g., {@code ACC_VOLATILE} of fields and {@code ACC_BRIDGE} of methods),
+ * thus flags are converted according to the kind of their owners.
+ */
+class Modifiers {
+
+    private static final int CLASS = 0;
+
+    private static final int FIELD = 1;
+
+    private static final int METHOD = 2;
+
+    private static final ConcurrentMap<Integer, Set<Modifier>> modMap
+            = newConcurrentMap();
+
+    private Modifiers() {
+    }
+
+    static Set<Modifier> convertClass(int access) {
+        return convert(CLASS, access);
+    }
+
+    static Set<Modifier> convertField(int access) {
+        return convert(FIELD, access);
+    }
+
+    static Set<Modifier> convertMethod(int access) {
+        return convert(METHOD, access);
+    }
+
+    private static Set<Modifier> convert(int kind, int access) {
+        // ASM sets pseudo flags (e.g., ACC_DEPRECATED) beyond the lower
+        // 16 bits, which are irrelevant to modifiers
+        int key = (kind << 16) | (access & 0xFFFF);
+        return modMap.computeIfAbsent(key, k -> {
+            Set<Modifier> result = EnumSet.noneOf(Modifier.class);
+            if ((access & ACC_PUBLIC) != 0) {
+                result.add(Modifier.PUBLIC);
+            }
+            if ((access & ACC_PRIVATE) != 0) {
+                result.add(Modifier.PRIVATE);
+            }
+            if ((access & ACC_PROTECTED) != 0) {
+                result.add(Modifier.PROTECTED);
+            }
+            if ((access & ACC_STATIC) != 0) {
+                result.add(Modifier.STATIC);
+            }
+            if ((access & ACC_FINAL) != 0) {
+                result.add(Modifier.FINAL);
+            }
+            if ((access & ACC_SYNTHETIC) != 0) {
+                result.add(Modifier.SYNTHETIC);
+            }
+            switch (kind) {
+                case CLASS -> {
+                    // ACC_SUPER shares the bit with ACC_SYNCHRONIZED,
+                    // and it is not a modifier of classes
+                    if ((access & ACC_INTERFACE) != 0) {
+                        result.add(Modifier.INTERFACE);
+                    }
+                    if ((access & ACC_ABSTRACT) != 0) {
+                        result.add(Modifier.ABSTRACT);
+                    }
+                    if ((access & ACC_ANNOTATION) != 0) {
+                        result.add(Modifier.ANNOTATION);
+                    }
+                    if ((access & ACC_ENUM) != 0) {
+                        result.add(Modifier.ENUM);
+                    }
+                }
+                case FIELD -> {
+                    if ((access & ACC_VOLATILE) != 0) {
+                        result.add(Modifier.VOLATILE);
+                    }
+                    if ((access & ACC_TRANSIENT) != 0) {
+                        result.add(Modifier.TRANSIENT);
+                    }
+                    if ((access & ACC_ENUM) != 0) {
+                        result.add(Modifier.ENUM);
+                    }
+                }
+                case METHOD -> {
+                    if ((access & ACC_SYNCHRONIZED) != 0) {
+                        result.add(Modifier.SYNCHRONIZED);
+                    }
+                    if ((access & ACC_BRIDGE) != 0) {
+                        result.add(Modifier.BRIDGE);
+                    }
+                    if ((access & ACC_VARARGS) != 0) {
+                        result.add(Modifier.VARARGS);
+                    }
+                    if ((access & ACC_NATIVE) != 0) {
+                        result.add(Modifier.NATIVE);
+                    }
+                    if ((access & ACC_ABSTRACT) != 0) {
+                        result.add(Modifier.ABSTRACT);
+                    }
+                    if ((access & ACC_STRICT) != 0) {
+                        result.add(Modifier.STRICTFP);
+                    }
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        });
+    }
+}
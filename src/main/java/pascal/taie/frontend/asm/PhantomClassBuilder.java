@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.ClassType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds phantom class, i.e., the class that is referenced but
+ * whose class file is not found. Phantom classes have no members,
+ * and their members are resolved as phantom members on demand.
+ */
+class PhantomClassBuilder implements JClassBuilder {
+
+    private final Converter converter;
+
+    private final String name;
+
+    PhantomClassBuilder(Converter converter, String name) {
+        this.converter = converter;
+        this.name = name;
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        jclass.build(this);
+    }
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        return Set.of(Modifier.PUBLIC);
+    }
+
+    @Override
+    public String getSimpleName() {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return converter.convertClassType(name);
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        return name.equals(ClassNames.OBJECT) ? null :
+                converter.convertClass(ClassNames.OBJECT);
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        return List.of();
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        return null;
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        return List.of();
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        return List.of();
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return AnnotationHolder.emptyHolder();
+    }
+
+    @Override
+    public boolean isApplication() {
+        return false;
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return true;
+    }
+}
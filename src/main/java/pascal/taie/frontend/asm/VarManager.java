@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Sets.newHybridSet;
+
+class VarManager {
+
+    private final static String THIS = "%this";
+
+    private final static String STRING_CONSTANT = "%stringconst";
+
+    private final static String CLASS_CONSTANT = "%classconst";
+
+    private final static String NULL_CONSTANT = "%nullconst";
+
+    private final static String STACK = "$stack";
+
+    private final static String TEMP = "$";
+
+    /**
+     * The method which contains the variable managed by this VarManager.
+     */
+    private final JMethod method;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    /**
+     * Names of all variables, used to keep the names unique.
+     */
+    private final Set<String> names = newHybridSet();
+
+    private Var thisVar;
+
+    private final List<Var> params = new ArrayList<>();
+
+    private Var nullConst;
+
+    /**
+     * Counter for indexing all variables.
+     */
+    private int varCounter = 0;
+
+    /**
+     * Counter for naming temporary constant variables.
+     */
+    private int tempConstCounter = 0;
+
+    /**
+     * Counter for naming temporary variables.
+     */
+    private int tempCounter = 0;
+
+    VarManager(JMethod method) {
+        this.method = method;
+    }
+
+    Var addThis(Type type) {
+        thisVar = newVar(THIS, type);
+        return thisVar;
+    }
+
+    void addParam(Var param) {
+        params.add(param);
+    }
+
+    /**
+     * @return a new variable for a local variable. If the local variable
+     * table is absent, the variable is named after its type and slot.
+     */
+    Var newLocalVar(@Nullable String name, int slot, Type type) {
+        return newVar(name != null ? name : getPrefix(type) + slot, type);
+    }
+
+    /**
+     * @return a new variable that transfers the value at {@code depth}
+     * of operand stack across basic blocks.
+     */
+    Var newStackVar(int depth, Type type) {
+        return newVar(STACK + depth, type);
+    }
+
+    /**
+     * @return a new temporary variable that holds intermediate values.
+     */
+    Var newTempVar(Type type) {
+        return newVar(TEMP + getPrefix(type) + tempCounter++, type);
+    }
+
+    /**
+     * @return a new temporary variable that holds given literal value.
+     */
+    Var newConstantVar(Literal literal) {
+        String varName;
+        if (literal instanceof StringLiteral) {
+            varName = STRING_CONSTANT + tempConstCounter++;
+        } else if (literal instanceof ClassLiteral) {
+            varName = CLASS_CONSTANT + tempConstCounter++;
+        } else if (literal instanceof NullLiteral) {
+            // each method has at most one variable for null constant
+            Var v = nullConst;
+            if (v == null) {
+                v = newVar(NULL_CONSTANT, literal.getType(), literal);
+                nullConst = v;
+            }
+            return v;
+        } else {
+            varName = "%" + literal.getType().getName() +
+                    "const" + tempConstCounter++;
+        }
+        return newVar(varName, literal.getType(), literal);
+    }
+
+    Var getThis() {
+        return thisVar;
+    }
+
+    List<Var> getParams() {
+        return params;
+    }
+
+    List<Var> getVars() {
+        return vars;
+    }
+
+    private Var newVar(String name, Type type) {
+        return newVar(name, type, null);
+    }
+
+    private Var newVar(String name, Type type, @Nullable Literal literal) {
+        String uniqueName = name;
+        for (int i = 1; !names.add(uniqueName); ++i) {
+            uniqueName = name + "#" + i;
+        }
+        Var var = new Var(method, uniqueName, type, varCounter++, literal);
+        vars.add(var);
+        return var;
+    }
+
+    private static String getPrefix(Type type) {
+        if (type instanceof PrimitiveType p) {
+            return switch (p) {
+                case BOOLEAN -> "z";
+                case BYTE -> "b";
+                case CHAR -> "c";
+                case SHORT -> "s";
+                case INT -> "i";
+                case LONG -> "l";
+                case FLOAT -> "f";
+                case DOUBLE -> "d";
+            };
+        }
+        return "r";
+    }
+}
@@ -21,6 +21,9 @@
  */
 
 /**
- * TODO: We'll add another frontend implemented based on ASM
+ * Frontend based on <a href="https://asm.ow2.io/">ASM</a>, which builds
+ * Tai-e's class hierarchy and IR from class files directly.
+ *
+ * @see pascal.taie.frontend.asm.AsmWorldBuilder
  */
 package pascal.taie.frontend.asm;
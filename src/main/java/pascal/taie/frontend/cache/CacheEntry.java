@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.frontend.cache.IRFormat.MAGIC;
+import static pascal.taie.frontend.cache.IRFormat.VERSION;
+import static pascal.taie.frontend.cache.IRFormat.readVarInt;
+import static pascal.taie.frontend.cache.IRFormat.writeVarInt;
+
+/**
+ * Cached IR of all concrete methods of a class.
+ * The IR of each method is kept in encoded form, and is decoded
+ * by {@link IRReader} when the method is requested.
+ *
+ * @param className name of the class.
+ * @param strings   the string table shared by encoded methods.
+ * @param methods   map from method subsignature to the encoded IR.
+ */
+record CacheEntry(String className, List<String> strings,
+                  Map<String, byte[]> methods) {
+
+    /**
+     * Reads an entry from {@code input}.
+     *
+     * @throws IOException if the input is not a valid entry of
+     *                     current format version.
+     */
+    static CacheEntry read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown IR cache format");
+        }
+        String className = in.readUTF();
+        int nStrings = readVarInt(in);
+        List<String> strings = new ArrayList<>(nStrings);
+        for (int i = 0; i < nStrings; ++i) {
+            strings.add(in.readUTF());
+        }
+        int nMethods = readVarInt(in);
+        Map<String, byte[]> methods = new LinkedHashMap<>(nMethods * 2);
+        for (int i = 0; i < nMethods; ++i) {
+            String subsignature = in.readUTF();
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            methods.put(subsignature, bytes);
+        }
+        return new CacheEntry(className, strings, methods);
+    }
+
+    /**
+     * Writes this entry to {@code output}.
+     */
+    void write(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(className);
+        writeVarInt(out, strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+        writeVarInt(out, methods.size());
+        for (var e : methods.entrySet()) {
+            out.writeUTF(e.getKey());
+            writeVarInt(out, e.getValue().length);
+            out.write(e.getValue());
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.frontend.ClassFileLocator;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IR builder backed by a persistent on-disk cache.
+ * <p>
+ * The cache contains an entry for each class, which holds IR of all
+ * concrete methods of the class. The entry is keyed by the hash of
+ * the contents of the class file together with {@link #fingerprint},
+ * which identifies the frontend and the options that affect the IR it
+ * builds. When IR of a method is requested, this builder loads the entry
+ * of its declaring class, and decodes the IR from the entry. If the entry
+ * does not exist (e.g., the class is new or has been changed, or the
+ * frontend is configured differently), this builder falls back to
+ * {@link #frontend} to build IR of all methods in the class, and writes
+ * a new entry to the cache. The entries are never modified after they
+ * are written. Note that the fingerprint cannot capture changes of the
+ * frontend that keep its version, and the cache should be cleared
+ * after such changes.
+ */
+class CachedIRBuilder implements IRBuilder {
+
+    private static final Logger logger = LogManager.getLogger(CachedIRBuilder.class);
+
+    private static final String ENTRY_SUFFIX = ".tir";
+
+    /**
+     * The IR builder of frontend, which is used to build IR for
+     * the classes that are absent in cache.
+     */
+    private final IRBuilder frontend;
+
+    private final TypeSystem typeSystem;
+
+    private final Path cacheDir;
+
+    /**
+     * Identifies the frontend and its options, which is mixed into
+     * the keys of the entries.
+     */
+    private final byte[] fingerprint;
+
+    private final ClassFileLocator locator;
+
+    private final ConcurrentMap<JClass, ClassIR> classIRs = Maps.newConcurrentMap(1024);
+
+    /**
+     * Number of classes whose IR is loaded from cache.
+     */
+    private final AtomicInteger hitClasses = new AtomicInteger();
+
+    /**
+     * Number of classes whose IR is built by {@link #frontend}.
+     */
+    private final AtomicInteger missedClasses = new AtomicInteger();
+
+    /**
+     * @param fingerprint identifies the frontend (e.g., versions of Tai-e
+     *                    and the underlying library) and the options that
+     *                    affect the IR built by the frontend.
+     */
+    CachedIRBuilder(IRBuilder frontend, TypeSystem typeSystem,
+                    Path cacheDir, ClassFileLocator locator, String fingerprint) {
+        this.frontend = frontend;
+        this.typeSystem = typeSystem;
+        this.cacheDir = cacheDir;
+        this.locator = locator;
+        this.fingerprint = ("IRFormat=" + IRFormat.VERSION + ";" + fingerprint)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public IR buildIR(JMethod method) {
+        return classIRs.computeIfAbsent(method.getDeclaringClass(), ClassIR::new)
+                .getIR(method);
+    }
+
+    /**
+     * Builds IR for all methods in given class hierarchy.
+     * As each cache entry holds a whole class, the classes (instead of
+     * methods) are distributed to the worker threads.
+     */
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+        Timer timer = new Timer("Build IR for all methods");
+        timer.start();
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService service = Executors.newFixedThreadPool(nThreads);
+        hierarchy.allClasses().forEach(c -> service.execute(() ->
+                c.getDeclaredMethods().forEach(m -> {
+                    if (!m.isAbstract() || m.isNative()) {
+                        m.getIR();
+                    }
+                })));
+        service.shutdown();
+        try {
+            service.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        timer.stop();
+        logger.info(timer);
+        logger.info("IR cache: {} classes loaded from cache, {} classes built",
+                hitClasses.get(), missedClasses.get());
+    }
+
+    /**
+     * @return number of classes whose IR is loaded from cache.
+     */
+    int getHitClasses() {
+        return hitClasses.get();
+    }
+
+    /**
+     * @return number of classes whose IR is built by frontend and
+     * written to cache.
+     */
+    int getMissedClasses() {
+        return missedClasses.get();
+    }
+
+    /**
+     * IR of the methods in a class.
+     */
+    private class ClassIR {
+
+        private final JClass jclass;
+
+        private boolean loaded = false;
+
+        /**
+         * Reader of the cache entry of {@link #jclass}, or null if the class
+         * cannot be cached, e.g., its class file is unavailable.
+         */
+        private IRReader reader;
+
+        private ClassIR(JClass jclass) {
+            this.jclass = jclass;
+        }
+
+        private synchronized IR getIR(JMethod method) {
+            if (!loaded) {
+                CacheEntry entry = loadEntry();
+                if (entry != null) {
+                    reader = new IRReader(entry, jclass.getClassLoader(), typeSystem);
+                }
+                loaded = true;
+            }
+            if (reader != null) {
+                try {
+                    IR ir = reader.readIR(method);
+                    if (ir != null) {
+                        return ir;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to decode cached IR of {}, rebuilding it",
+                            method);
+                }
+            }
+            return frontend.buildIR(method);
+        }
+
+        /**
+         * Loads the cache entry of {@link #jclass} if it exists, otherwise
+         * builds the entry and writes it to cache.
+         *
+         * @return the cache entry, or null if the class cannot be cached.
+         */
+        @Nullable
+        private CacheEntry loadEntry() {
+            byte[] classFile = locator.read(jclass.getName());
+            if (classFile == null) {
+                return null;
+            }
+            Path path = getEntryPath(hash(classFile));
+            CacheEntry entry = readEntry(path);
+            if (entry != null && entry.className().equals(jclass.getName())) {
+                hitClasses.incrementAndGet();
+                return entry;
+            }
+            entry = buildEntry();
+            if (entry != null) {
+                missedClasses.incrementAndGet();
+                writeEntry(entry, path);
+            }
+            return entry;
+        }
+
+        /**
+         * Builds IR for all concrete methods of {@link #jclass} by frontend.
+         */
+        @Nullable
+        private CacheEntry buildEntry() {
+            IRWriter writer = new IRWriter(jclass.getName());
+            try {
+                for (JMethod method : jclass.getDeclaredMethods()) {
+                    if (!method.isAbstract() && !method.isNative()) {
+                        writer.addIR(frontend.buildIR(method));
+                    }
+                }
+            } catch (UnsupportedOperationException e) {
+                logger.warn("Failed to cache IR of {}: {}", jclass, e.getMessage());
+                return null;
+            }
+            return writer.toEntry();
+        }
+    }
+
+    private Path getEntryPath(String hash) {
+        // use first two characters of hash as subdirectory,
+        // so that a single directory does not hold too many entries
+        return cacheDir.resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2) + ENTRY_SUFFIX);
+    }
+
+    @Nullable
+    private static CacheEntry readEntry(Path path) {
+        try {
+            return CacheEntry.read(new ByteArrayInputStream(Files.readAllBytes(path)));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("Failed to read IR cache entry {}, rebuilding it", path);
+            return null;
+        }
+    }
+
+    private static void writeEntry(CacheEntry entry, Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            // write to a temporary file at first, then move it to
+            // the destination, so that readers (possibly from other
+            // Tai-e processes) never see partially-written entries
+            Path temp = Files.createTempFile(path.getParent(), null, null);
+            try (OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(temp))) {
+                entry.write(out);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write IR cache entry {}", path);
+        }
+    }
+
+    private String hash(byte[] classFile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(fingerprint);
+            return HexFormat.of().formatHex(digest.digest(classFile));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new AssertionError(e);
+        }
+    }
+}
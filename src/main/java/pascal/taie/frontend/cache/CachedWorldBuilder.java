@@ -0,0 +1,83 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.frontend.ClassFileLocator;
+import pascal.taie.frontend.soot.SootWorldBuilder;
+import pascal.taie.ir.IRBuilder;
+import soot.Scene;
+
+/**
+ * World builder that loads method IR from a persistent on-disk cache,
+ * and falls back to Soot frontend for the classes that are absent in
+ * the cache (e.g., the classes that are changed since last run).
+ * The directory of the cache is specified by option {@code --ir-cache-dir}.
+ * <p>
+ * Class hierarchy is still built by Soot, which only resolves signatures
+ * of the classes; the expensive construction of method bodies and
+ * their conversion to Tai-e IR are avoided for the cached classes.
+ * The cache entries are specific to the versions of Tai-e and Soot,
+ * and the options that affect the IR built by Soot.
+ *
+ * @see CachedIRBuilder
+ */
+public class CachedWorldBuilder extends SootWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(CachedWorldBuilder.class);
+
+    @Override
+    protected IRBuilder createIRBuilder(Options options, IRBuilder sootIRBuilder) {
+        logger.info("Using IR cache in {}", options.getIRCacheDir());
+        ClassFileLocator locator = new ClassFileLocator(
+                getClassPath(options), options.isPrependJVM());
+        return new CachedIRBuilder(sootIRBuilder, World.get().getTypeSystem(),
+                options.getIRCacheDir().toPath(), locator, getFingerprint(options));
+    }
+
+    /**
+     * @return the fingerprint of Soot frontend, which consists of
+     * the versions of Tai-e and Soot, and the options that affect
+     * the IR built by Soot.
+     */
+    private static String getFingerprint(Options options) {
+        return "Tai-e=" + getVersion(World.class) +
+                ";Soot=" + getVersion(Scene.class) +
+                ";java=" + options.getJavaVersion() +
+                ";prepend-JVM=" + options.isPrependJVM() +
+                ";allow-phantom=" + options.isAllowPhantom();
+    }
+
+    /**
+     * @return the version of the package containing given class,
+     * or "unknown" if the version is unavailable (e.g., the class is
+     * not loaded from a JAR with manifest).
+     */
+    private static String getVersion(Class<?> c) {
+        String version = c.getPackage().getImplementationVersion();
+        return version != null ? version : "unknown";
+    }
+}
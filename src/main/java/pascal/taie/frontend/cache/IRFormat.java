@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and primitive encodings of the binary format of IR cache.
+ * <p>
+ * Each cache entry holds the IR of all concrete methods of one class:
+ * <pre>
+ * entry  := MAGIC VERSION className strings methods
+ * strings:= count (UTF)*
+ * methods:= count (subsignature length bytes)*
+ * </pre>
+ * Strings (names of classes, members and variables) are stored once
+ * per entry, and referenced by index in the encoded methods.
+ * Indexes and counts are encoded as unsigned variable-length integers.
+ */
+final class IRFormat {
+
+    private IRFormat() {
+    }
+
+    static final int MAGIC = 0x54414952; // "TAIR"
+
+    /**
+     * Version of the format. Bump this number whenever the encoding
+     * (or the IR produced by frontend) changes, so that stale entries
+     * are discarded.
+     */
+    static final int VERSION = 1;
+
+    // ---------- tags of types ----------
+    static final byte PRIMITIVE_TYPE = 0;
+    static final byte CLASS_TYPE = 1;
+    static final byte ARRAY_TYPE = 2;
+    static final byte VOID_TYPE = 3;
+    static final byte NULL_TYPE = 4;
+
+    // ---------- tags of literals ----------
+    static final byte INT_LITERAL = 0;
+    static final byte LONG_LITERAL = 1;
+    static final byte FLOAT_LITERAL = 2;
+    static final byte DOUBLE_LITERAL = 3;
+    static final byte STRING_LITERAL = 4;
+    static final byte CLASS_LITERAL = 5;
+    static final byte NULL_LITERAL = 6;
+    static final byte METHOD_HANDLE = 7;
+    static final byte METHOD_TYPE = 8;
+
+    // ---------- tags of statements ----------
+    static final byte NEW_INSTANCE = 0;
+    static final byte NEW_ARRAY = 1;
+    static final byte NEW_MULTI_ARRAY = 2;
+    static final byte ASSIGN_LITERAL = 3;
+    static final byte COPY = 4;
+    static final byte LOAD_ARRAY = 5;
+    static final byte STORE_ARRAY = 6;
+    static final byte LOAD_FIELD = 7;
+    static final byte STORE_FIELD = 8;
+    static final byte BINARY = 9;
+    static final byte NEG = 10;
+    static final byte ARRAY_LENGTH = 11;
+    static final byte INSTANCE_OF = 12;
+    static final byte CAST = 13;
+    static final byte GOTO = 14;
+    static final byte IF = 15;
+    static final byte TABLE_SWITCH = 16;
+    static final byte LOOKUP_SWITCH = 17;
+    static final byte INVOKE_VIRTUAL = 18;
+    static final byte INVOKE_INTERFACE = 19;
+    static final byte INVOKE_SPECIAL = 20;
+    static final byte INVOKE_STATIC = 21;
+    static final byte INVOKE_DYNAMIC = 22;
+    static final byte RETURN = 23;
+    static final byte THROW = 24;
+    static final byte CATCH = 25;
+    static final byte MONITOR_ENTER = 26;
+    static final byte MONITOR_EXIT = 27;
+    static final byte NOP = 28;
+
+    // ---------- tags of binary operators ----------
+    static final byte ARITHMETIC_OP = 0;
+    static final byte BITWISE_OP = 1;
+    static final byte COMPARISON_OP = 2;
+    static final byte SHIFT_OP = 3;
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
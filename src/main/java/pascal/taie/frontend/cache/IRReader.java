@@ -0,0 +1,477 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.frontend.cache.IRFormat.*;
+
+/**
+ * Decodes IR of methods from a {@link CacheEntry}.
+ */
+class IRReader {
+
+    private final CacheEntry entry;
+
+    private final JClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    IRReader(CacheEntry entry, JClassLoader loader, TypeSystem typeSystem) {
+        this.entry = entry;
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    /**
+     * @return the IR of {@code method}, or null if the entry
+     * does not contain IR of the method.
+     * @throws IOException if the encoded IR is malformed.
+     */
+    @Nullable
+    IR readIR(JMethod method) throws IOException {
+        byte[] bytes = entry.methods().get(method.getSubsignature().toString());
+        if (bytes == null) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new MethodReader(method, in).read();
+    }
+
+    /**
+     * Reads the IR of a method.
+     */
+    private class MethodReader {
+
+        private final JMethod method;
+
+        private final DataInputStream in;
+
+        private final List<Var> vars = new ArrayList<>();
+
+        private final List<Stmt> stmts = new ArrayList<>();
+
+        /**
+         * Map from jump statements to indexes of their targets, which
+         * are linked after all statements have been read.
+         */
+        private final Map<Stmt, int[]> jumpTargets = Maps.newHybridMap();
+
+        private MethodReader(JMethod method, DataInputStream in) {
+            this.method = method;
+            this.in = in;
+        }
+
+        private IR read() throws IOException {
+            int nVars = readVarInt(in);
+            for (int i = 0; i < nVars; ++i) {
+                String name = readString();
+                Type type = readType();
+                Literal constValue = in.readBoolean() ? readLiteral() : null;
+                vars.add(new Var(method, name, type, i, constValue));
+            }
+            Var thisVar = readNullableVar();
+            List<Var> params = readVars();
+            Set<Var> returnVars = new LinkedHashSet<>(readVars());
+            int nStmts = readVarInt(in);
+            for (int i = 0; i < nStmts; ++i) {
+                int lineNumber = readVarInt(in) - 1;
+                Stmt stmt = readStmt();
+                stmt.setLineNumber(lineNumber);
+                stmt.setIndex(i);
+                stmts.add(stmt);
+            }
+            linkJumpTargets();
+            int nEntries = readVarInt(in);
+            List<ExceptionEntry> exceptionEntries = new ArrayList<>(nEntries);
+            for (int i = 0; i < nEntries; ++i) {
+                Stmt start = readStmtRef();
+                Stmt end = readStmtRef();
+                Catch handler = (Catch) readStmtRef();
+                ClassType catchType = (ClassType) readType();
+                exceptionEntries.add(
+                        new ExceptionEntry(start, end, handler, catchType));
+            }
+            return new DefaultIR(method, thisVar, params, returnVars,
+                    vars, stmts, exceptionEntries);
+        }
+
+        private Stmt readStmt() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case NEW_INSTANCE, NEW_ARRAY, NEW_MULTI_ARRAY -> readNew(tag);
+                case ASSIGN_LITERAL -> new AssignLiteral(readVar(), readLiteral());
+                case COPY -> new Copy(readVar(), readVar());
+                case LOAD_ARRAY -> new LoadArray(readVar(), readArrayAccess());
+                case STORE_ARRAY -> new StoreArray(readArrayAccess(), readVar());
+                case LOAD_FIELD -> new LoadField(readVar(), readFieldAccess());
+                case STORE_FIELD -> new StoreField(readFieldAccess(), readVar());
+                case BINARY -> new Binary(readVar(), readBinaryExp());
+                case NEG -> new Unary(readVar(), new NegExp(readVar()));
+                case ARRAY_LENGTH -> new Unary(readVar(), new ArrayLengthExp(readVar()));
+                case INSTANCE_OF -> {
+                    Var lvalue = readVar();
+                    Var value = readVar();
+                    yield new InstanceOf(lvalue,
+                            new InstanceOfExp(value, (ReferenceType) readType()));
+                }
+                case CAST -> {
+                    Var lvalue = readVar();
+                    Var value = readVar();
+                    yield new Cast(lvalue, new CastExp(value, readType()));
+                }
+                case GOTO -> {
+                    Goto gotoStmt = new Goto();
+                    jumpTargets.put(gotoStmt, new int[]{readVarInt(in)});
+                    yield gotoStmt;
+                }
+                case IF -> {
+                    ConditionExp.Op op = ConditionExp.Op.values()[in.readByte()];
+                    ConditionExp cond = new ConditionExp(op, readVar(), readVar());
+                    If ifStmt = new If(cond);
+                    jumpTargets.put(ifStmt, new int[]{readVarInt(in)});
+                    yield ifStmt;
+                }
+                case TABLE_SWITCH -> {
+                    Var var = readVar();
+                    int lowIndex = in.readInt();
+                    int highIndex = in.readInt();
+                    TableSwitch tableSwitch = new TableSwitch(var, lowIndex, highIndex);
+                    readSwitchTargets(tableSwitch);
+                    yield tableSwitch;
+                }
+                case LOOKUP_SWITCH -> {
+                    Var var = readVar();
+                    int nCases = readVarInt(in);
+                    List<Integer> caseValues = new ArrayList<>(nCases);
+                    for (int i = 0; i < nCases; ++i) {
+                        caseValues.add(in.readInt());
+                    }
+                    LookupSwitch lookupSwitch = new LookupSwitch(var, caseValues);
+                    readSwitchTargets(lookupSwitch);
+                    yield lookupSwitch;
+                }
+                case INVOKE_VIRTUAL, INVOKE_INTERFACE, INVOKE_SPECIAL,
+                        INVOKE_STATIC, INVOKE_DYNAMIC -> {
+                    InvokeExp invokeExp = readInvokeExp(tag);
+                    yield new Invoke(method, invokeExp, readNullableVar());
+                }
+                case RETURN -> {
+                    Var value = readNullableVar();
+                    yield value != null ? new Return(value) : new Return();
+                }
+                case THROW -> new Throw(readVar());
+                case CATCH -> new Catch(readVar());
+                case MONITOR_ENTER -> new Monitor(Monitor.Op.ENTER, readVar());
+                case MONITOR_EXIT -> new Monitor(Monitor.Op.EXIT, readVar());
+                case NOP -> new Nop();
+                default -> throw new IOException("Unknown statement tag: " + tag);
+            };
+        }
+
+        private New readNew(byte tag) throws IOException {
+            NewExp newExp;
+            switch (tag) {
+                case NEW_INSTANCE -> newExp = new NewInstance((ClassType) readType());
+                case NEW_ARRAY -> {
+                    Var length = readVar();
+                    newExp = new NewArray((ArrayType) readType(),
+                            length);
+                }
+                default -> {
+                    List<Var> lengths = readVars();
+                    newExp = new NewMultiArray(
+                            (ArrayType) readType(), lengths);
+                }
+            }
+            return new New(method, readVar(), newExp);
+        }
+
+        private void readSwitchTargets(SwitchStmt switchStmt) throws IOException {
+            int nCases = switchStmt.getCaseValues().size();
+            int[] targets = new int[nCases + 1];
+            for (int i = 0; i <= nCases; ++i) {
+                targets[i] = readVarInt(in);
+            }
+            jumpTargets.put(switchStmt, targets);
+        }
+
+        private void linkJumpTargets() {
+            jumpTargets.forEach((stmt, targets) -> {
+                if (stmt instanceof Goto gotoStmt) {
+                    gotoStmt.setTarget(stmts.get(targets[0]));
+                } else if (stmt instanceof If ifStmt) {
+                    ifStmt.setTarget(stmts.get(targets[0]));
+                } else if (stmt instanceof SwitchStmt switchStmt) {
+                    List<Stmt> caseTargets = new ArrayList<>(targets.length - 1);
+                    for (int i = 0; i < targets.length - 1; ++i) {
+                        caseTargets.add(stmts.get(targets[i]));
+                    }
+                    switchStmt.setTargets(caseTargets);
+                    switchStmt.setDefaultTarget(stmts.get(targets[targets.length - 1]));
+                }
+            });
+        }
+
+        private Stmt readStmtRef() throws IOException {
+            return stmts.get(readVarInt(in));
+        }
+
+        private ArrayAccess readArrayAccess() throws IOException {
+            return new ArrayAccess(readVar(), readVar());
+        }
+
+        private FieldAccess readFieldAccess() throws IOException {
+            FieldRef fieldRef = readFieldRef();
+            Var base = readNullableVar();
+            return base != null ?
+                    new InstanceFieldAccess(fieldRef, base) :
+                    new StaticFieldAccess(fieldRef);
+        }
+
+        private BinaryExp readBinaryExp() throws IOException {
+            byte kind = in.readByte();
+            byte op = in.readByte();
+            Var v1 = readVar();
+            Var v2 = readVar();
+            return switch (kind) {
+                case ARITHMETIC_OP -> new ArithmeticExp(
+                        ArithmeticExp.Op.values()[op], v1, v2);
+                case BITWISE_OP -> new BitwiseExp(
+                        BitwiseExp.Op.values()[op], v1, v2);
+                case COMPARISON_OP -> new ComparisonExp(
+                        ComparisonExp.Op.values()[op], v1, v2);
+                case SHIFT_OP -> new ShiftExp(
+                        ShiftExp.Op.values()[op], v1, v2);
+                default -> throw new IOException("Unknown operator kind: " + kind);
+            };
+        }
+
+        private InvokeExp readInvokeExp(byte tag) throws IOException {
+            if (tag == INVOKE_DYNAMIC) {
+                MethodRef bootstrapMethodRef = readMethodRef();
+                String methodName = readString();
+                MethodType methodType = readMethodType();
+                int nBootstrapArgs = readVarInt(in);
+                List<Literal> bootstrapArgs = new ArrayList<>(nBootstrapArgs);
+                for (int i = 0; i < nBootstrapArgs; ++i) {
+                    bootstrapArgs.add(readLiteral());
+                }
+                return new InvokeDynamic(bootstrapMethodRef, methodName,
+                        methodType, bootstrapArgs, readVars());
+            }
+            MethodRef methodRef = readMethodRef();
+            if (tag == INVOKE_STATIC) {
+                return new InvokeStatic(methodRef, readVars());
+            }
+            Var base = readVar();
+            List<Var> args = readVars();
+            return switch (tag) {
+                case INVOKE_VIRTUAL -> new InvokeVirtual(methodRef, base, args);
+                case INVOKE_INTERFACE -> new InvokeInterface(methodRef, base, args);
+                default -> new InvokeSpecial(methodRef, base, args);
+            };
+        }
+
+        private Literal readLiteral() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case INT_LITERAL -> IntLiteral.get(in.readInt());
+                case LONG_LITERAL -> LongLiteral.get(in.readLong());
+                case FLOAT_LITERAL -> FloatLiteral.get(in.readFloat());
+                case DOUBLE_LITERAL -> DoubleLiteral.get(in.readDouble());
+                case STRING_LITERAL -> StringLiteral.get(readString());
+                case CLASS_LITERAL -> ClassLiteral.get(readType());
+                case NULL_LITERAL -> NullLiteral.get();
+                case METHOD_HANDLE -> {
+                    MethodHandle.Kind kind = MethodHandle.Kind.get(readVarInt(in));
+                    MemberRef ref = in.readBoolean() ? readMethodRef() : readFieldRef();
+                    yield MethodHandle.get(kind, ref);
+                }
+                case METHOD_TYPE -> readMethodType();
+                default -> throw new IOException("Unknown literal tag: " + tag);
+            };
+        }
+
+        private MethodType readMethodType() throws IOException {
+            List<Type> paramTypes = readTypes();
+            return MethodType.get(paramTypes, readType());
+        }
+
+        private MethodRef readMethodRef() throws IOException {
+            JClass declaringClass = readClass();
+            String name = readString();
+            boolean isStatic = in.readBoolean();
+            List<Type> paramTypes = readTypes();
+            Type returnType = readType();
+            return MethodRef.get(declaringClass, name, paramTypes, returnType, isStatic);
+        }
+
+        private FieldRef readFieldRef() throws IOException {
+            JClass declaringClass = readClass();
+            String name = readString();
+            boolean isStatic = in.readBoolean();
+            return FieldRef.get(declaringClass, name, readType(), isStatic);
+        }
+
+        @Nullable
+        private JClass readClass() throws IOException {
+            String className = readString();
+            return className != null ? loader.loadClass(className) : null;
+        }
+
+        private List<Type> readTypes() throws IOException {
+            int n = readVarInt(in);
+            List<Type> types = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                types.add(readType());
+            }
+            return types;
+        }
+
+        private Type readType() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case PRIMITIVE_TYPE -> PrimitiveType.values()[in.readByte()];
+                case CLASS_TYPE -> typeSystem.getClassType(loader, readString());
+                case ARRAY_TYPE -> {
+                    Type baseType = readType();
+                    yield typeSystem.getArrayType(baseType, readVarInt(in));
+                }
+                case VOID_TYPE -> VoidType.VOID;
+                case NULL_TYPE -> NullType.NULL;
+                default -> throw new IOException("Unknown type tag: " + tag);
+            };
+        }
+
+        private Var readVar() throws IOException {
+            return vars.get(readVarInt(in));
+        }
+
+        @Nullable
+        private Var readNullableVar() throws IOException {
+            int i = readVarInt(in);
+            return i != 0 ? vars.get(i - 1) : null;
+        }
+
+        private List<Var> readVars() throws IOException {
+            int n = readVarInt(in);
+            List<Var> result = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                result.add(readVar());
+            }
+            return result;
+        }
+
+        @Nullable
+        private String readString() throws IOException {
+            int i = readVarInt(in);
+            return i != 0 ? entry.strings().get(i - 1) : null;
+        }
+    }
+}
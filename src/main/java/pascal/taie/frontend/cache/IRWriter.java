@@ -0,0 +1,500 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewExp;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.UnaryExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.VoidType;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.frontend.cache.IRFormat.*;
+
+/**
+ * Encodes IR of the methods of a class into a {@link CacheEntry}.
+ */
+class IRWriter {
+
+    private final String className;
+
+    private final Map<String, Integer> stringIndexes = Maps.newMap();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<String, byte[]> methods = new LinkedHashMap<>();
+
+    IRWriter(String className) {
+        this.className = className;
+    }
+
+    /**
+     * Encodes {@code ir} and adds it to the entry being written.
+     */
+    void addIR(IR ir) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            new MethodWriter(ir, new DataOutputStream(bytes)).write();
+        } catch (IOException e) {
+            // writing to byte array never throws IOException
+            throw new UncheckedIOException(e);
+        }
+        methods.put(ir.getMethod().getSubsignature().toString(),
+                bytes.toByteArray());
+    }
+
+    CacheEntry toEntry() {
+        return new CacheEntry(className, List.copyOf(strings),
+                Collections.unmodifiableMap(methods));
+    }
+
+    /**
+     * @return index of {@code s} in the string table plus 1,
+     * or 0 if {@code s} is null.
+     */
+    private int getStringIndex(@Nullable String s) {
+        if (s == null) {
+            return 0;
+        }
+        return stringIndexes.computeIfAbsent(s, __ -> {
+            strings.add(s);
+            return strings.size();
+        });
+    }
+
+    /**
+     * Writes the IR of a method.
+     */
+    private class MethodWriter {
+
+        private final IR ir;
+
+        private final DataOutputStream out;
+
+        private MethodWriter(IR ir, DataOutputStream out) {
+            this.ir = ir;
+            this.out = out;
+        }
+
+        private void write() throws IOException {
+            List<Var> vars = ir.getVars();
+            writeVarInt(out, vars.size());
+            for (Var var : vars) {
+                writeString(var.getName());
+                writeType(var.getType());
+                out.writeBoolean(var.isConst());
+                if (var.isConst()) {
+                    writeLiteral(var.getConstValue());
+                }
+            }
+            writeNullableVar(ir.getThis());
+            writeVars(ir.getParams());
+            writeVars(ir.getReturnVars());
+            List<Stmt> stmts = ir.getStmts();
+            writeVarInt(out, stmts.size());
+            for (Stmt stmt : stmts) {
+                // line number is -1 if it is absent
+                writeVarInt(out, stmt.getLineNumber() + 1);
+                writeStmt(stmt);
+            }
+            List<ExceptionEntry> entries = ir.getExceptionEntries();
+            writeVarInt(out, entries.size());
+            for (ExceptionEntry entry : entries) {
+                writeVarInt(out, entry.start().getIndex());
+                writeVarInt(out, entry.end().getIndex());
+                writeVarInt(out, entry.handler().getIndex());
+                writeType(entry.catchType());
+            }
+        }
+
+        private void writeStmt(Stmt stmt) throws IOException {
+            if (stmt instanceof New newStmt) {
+                NewExp newExp = newStmt.getRValue();
+                if (newExp instanceof NewInstance) {
+                    out.writeByte(NEW_INSTANCE);
+                } else if (newExp instanceof NewArray newArray) {
+                    out.writeByte(NEW_ARRAY);
+                    writeVar(newArray.getLength());
+                } else if (newExp instanceof NewMultiArray newMultiArray) {
+                    out.writeByte(NEW_MULTI_ARRAY);
+                    writeVars(newMultiArray.getLengths());
+                } else {
+                    throw unsupported(stmt);
+                }
+                writeType(newExp.getType());
+                writeVar(newStmt.getLValue());
+            } else if (stmt instanceof AssignLiteral assign) {
+                out.writeByte(ASSIGN_LITERAL);
+                writeVar(assign.getLValue());
+                writeLiteral(assign.getRValue());
+            } else if (stmt instanceof Copy copy) {
+                out.writeByte(COPY);
+                writeVar(copy.getLValue());
+                writeVar(copy.getRValue());
+            } else if (stmt instanceof LoadArray load) {
+                out.writeByte(LOAD_ARRAY);
+                writeVar(load.getLValue());
+                writeArrayAccess(load.getArrayAccess());
+            } else if (stmt instanceof StoreArray store) {
+                out.writeByte(STORE_ARRAY);
+                writeArrayAccess(store.getArrayAccess());
+                writeVar(store.getRValue());
+            } else if (stmt instanceof LoadField load) {
+                out.writeByte(LOAD_FIELD);
+                writeVar(load.getLValue());
+                writeFieldAccess(load.getFieldAccess());
+            } else if (stmt instanceof StoreField store) {
+                out.writeByte(STORE_FIELD);
+                writeFieldAccess(store.getFieldAccess());
+                writeVar(store.getRValue());
+            } else if (stmt instanceof Binary binary) {
+                out.writeByte(BINARY);
+                writeVar(binary.getLValue());
+                writeBinaryExp(binary.getRValue());
+            } else if (stmt instanceof Unary unary) {
+                UnaryExp unaryExp = unary.getRValue();
+                if (unaryExp instanceof NegExp) {
+                    out.writeByte(NEG);
+                } else if (unaryExp instanceof ArrayLengthExp) {
+                    out.writeByte(ARRAY_LENGTH);
+                } else {
+                    throw unsupported(stmt);
+                }
+                writeVar(unary.getLValue());
+                writeVar(unaryExp.getOperand());
+            } else if (stmt instanceof InstanceOf instanceOf) {
+                out.writeByte(INSTANCE_OF);
+                writeVar(instanceOf.getLValue());
+                writeVar(instanceOf.getRValue().getValue());
+                writeType(instanceOf.getRValue().getCheckedType());
+            } else if (stmt instanceof Cast cast) {
+                out.writeByte(CAST);
+                writeVar(cast.getLValue());
+                writeVar(cast.getRValue().getValue());
+                writeType(cast.getRValue().getCastType());
+            } else if (stmt instanceof Goto gotoStmt) {
+                out.writeByte(GOTO);
+                writeVarInt(out, gotoStmt.getTarget().getIndex());
+            } else if (stmt instanceof If ifStmt) {
+                out.writeByte(IF);
+                ConditionExp cond = ifStmt.getCondition();
+                out.writeByte(cond.getOperator().ordinal());
+                writeVar(cond.getOperand1());
+                writeVar(cond.getOperand2());
+                writeVarInt(out, ifStmt.getTarget().getIndex());
+            } else if (stmt instanceof TableSwitch tableSwitch) {
+                out.writeByte(TABLE_SWITCH);
+                writeVar(tableSwitch.getVar());
+                out.writeInt(tableSwitch.getLowIndex());
+                out.writeInt(tableSwitch.getHighIndex());
+                writeSwitchTargets(tableSwitch);
+            } else if (stmt instanceof LookupSwitch lookupSwitch) {
+                out.writeByte(LOOKUP_SWITCH);
+                writeVar(lookupSwitch.getVar());
+                List<Integer> caseValues = lookupSwitch.getCaseValues();
+                writeVarInt(out, caseValues.size());
+                for (int caseValue : caseValues) {
+                    out.writeInt(caseValue);
+                }
+                writeSwitchTargets(lookupSwitch);
+            } else if (stmt instanceof Invoke invoke) {
+                writeInvokeExp(invoke.getInvokeExp());
+                writeNullableVar(invoke.getResult());
+            } else if (stmt instanceof Return ret) {
+                out.writeByte(RETURN);
+                writeNullableVar(ret.getValue());
+            } else if (stmt instanceof Throw throwStmt) {
+                out.writeByte(THROW);
+                writeVar(throwStmt.getExceptionRef());
+            } else if (stmt instanceof Catch catchStmt) {
+                out.writeByte(CATCH);
+                writeVar(catchStmt.getExceptionRef());
+            } else if (stmt instanceof Monitor monitor) {
+                out.writeByte(monitor.isEnter() ? MONITOR_ENTER : MONITOR_EXIT);
+                writeVar(monitor.getObjectRef());
+            } else if (stmt instanceof Nop) {
+                out.writeByte(NOP);
+            } else {
+                throw unsupported(stmt);
+            }
+        }
+
+        private void writeSwitchTargets(SwitchStmt switchStmt) throws IOException {
+            int nCases = switchStmt.getCaseValues().size();
+            for (int i = 0; i < nCases; ++i) {
+                writeVarInt(out, switchStmt.getTarget(i).getIndex());
+            }
+            writeVarInt(out, switchStmt.getDefaultTarget().getIndex());
+        }
+
+        private void writeArrayAccess(ArrayAccess access) throws IOException {
+            writeVar(access.getBase());
+            writeVar(access.getIndex());
+        }
+
+        private void writeFieldAccess(FieldAccess access) throws IOException {
+            writeFieldRef(access.getFieldRef());
+            writeNullableVar(access instanceof InstanceFieldAccess instAccess ?
+                    instAccess.getBase() : null);
+        }
+
+        private void writeBinaryExp(BinaryExp exp) throws IOException {
+            BinaryExp.Op op = exp.getOperator();
+            if (op instanceof ArithmeticExp.Op arithOp) {
+                out.writeByte(ARITHMETIC_OP);
+                out.writeByte(arithOp.ordinal());
+            } else if (op instanceof BitwiseExp.Op bitwiseOp) {
+                out.writeByte(BITWISE_OP);
+                out.writeByte(bitwiseOp.ordinal());
+            } else if (op instanceof ComparisonExp.Op cmpOp) {
+                out.writeByte(COMPARISON_OP);
+                out.writeByte(cmpOp.ordinal());
+            } else if (op instanceof ShiftExp.Op shiftOp) {
+                out.writeByte(SHIFT_OP);
+                out.writeByte(shiftOp.ordinal());
+            } else {
+                throw new UnsupportedOperationException(
+                        "Cannot encode binary expression: " + exp);
+            }
+            writeVar(exp.getOperand1());
+            writeVar(exp.getOperand2());
+        }
+
+        private void writeInvokeExp(InvokeExp invokeExp) throws IOException {
+            if (invokeExp instanceof InvokeDynamic indy) {
+                out.writeByte(INVOKE_DYNAMIC);
+                writeMethodRef(indy.getBootstrapMethodRef());
+                writeString(indy.getMethodName());
+                writeMethodType(indy.getMethodType());
+                List<Literal> bootstrapArgs = indy.getBootstrapArgs();
+                writeVarInt(out, bootstrapArgs.size());
+                for (Literal arg : bootstrapArgs) {
+                    writeLiteral(arg);
+                }
+            } else {
+                if (invokeExp instanceof InvokeVirtual) {
+                    out.writeByte(INVOKE_VIRTUAL);
+                } else if (invokeExp instanceof InvokeInterface) {
+                    out.writeByte(INVOKE_INTERFACE);
+                } else if (invokeExp instanceof InvokeSpecial) {
+                    out.writeByte(INVOKE_SPECIAL);
+                } else {
+                    out.writeByte(INVOKE_STATIC);
+                }
+                writeMethodRef(invokeExp.getMethodRef());
+                if (invokeExp instanceof InvokeInstanceExp instExp) {
+                    writeVar(instExp.getBase());
+                }
+            }
+            writeVars(invokeExp.getArgs());
+        }
+
+        private void writeLiteral(Literal literal) throws IOException {
+            if (literal instanceof IntLiteral intLiteral) {
+                out.writeByte(INT_LITERAL);
+                out.writeInt(intLiteral.getValue());
+            } else if (literal instanceof LongLiteral longLiteral) {
+                out.writeByte(LONG_LITERAL);
+                out.writeLong(longLiteral.getValue());
+            } else if (literal instanceof FloatLiteral floatLiteral) {
+                out.writeByte(FLOAT_LITERAL);
+                out.writeFloat(floatLiteral.getValue());
+            } else if (literal instanceof DoubleLiteral doubleLiteral) {
+                out.writeByte(DOUBLE_LITERAL);
+                out.writeDouble(doubleLiteral.getValue());
+            } else if (literal instanceof StringLiteral stringLiteral) {
+                out.writeByte(STRING_LITERAL);
+                writeString(stringLiteral.getString());
+            } else if (literal instanceof ClassLiteral classLiteral) {
+                out.writeByte(CLASS_LITERAL);
+                writeType(classLiteral.getTypeValue());
+            } else if (literal instanceof NullLiteral) {
+                out.writeByte(NULL_LITERAL);
+            } else if (literal instanceof MethodHandle handle) {
+                out.writeByte(METHOD_HANDLE);
+                writeVarInt(out, handle.getKind().getValue());
+                out.writeBoolean(handle.isMethodRef());
+                if (handle.isMethodRef()) {
+                    writeMethodRef(handle.getMethodRef());
+                } else {
+                    writeFieldRef(handle.getFieldRef());
+                }
+            } else if (literal instanceof MethodType methodType) {
+                out.writeByte(METHOD_TYPE);
+                writeMethodType(methodType);
+            } else {
+                throw new UnsupportedOperationException(
+                        "Cannot encode literal: " + literal);
+            }
+        }
+
+        private void writeMethodType(MethodType methodType) throws IOException {
+            writeTypes(methodType.getParamTypes());
+            writeType(methodType.getReturnType());
+        }
+
+        private void writeMethodRef(MethodRef ref) throws IOException {
+            writeMemberRef(ref);
+            writeTypes(ref.getParameterTypes());
+            writeType(ref.getReturnType());
+        }
+
+        private void writeFieldRef(FieldRef ref) throws IOException {
+            writeMemberRef(ref);
+            writeType(ref.getType());
+        }
+
+        private void writeMemberRef(MemberRef ref) throws IOException {
+            JClass declaringClass = ref.getDeclaringClass();
+            writeString(declaringClass != null ? declaringClass.getName() : null);
+            writeString(ref.getName());
+            out.writeBoolean(ref.isStatic());
+        }
+
+        private void writeTypes(List<Type> types) throws IOException {
+            writeVarInt(out, types.size());
+            for (Type type : types) {
+                writeType(type);
+            }
+        }
+
+        private void writeType(Type type) throws IOException {
+            if (type instanceof PrimitiveType primitiveType) {
+                out.writeByte(PRIMITIVE_TYPE);
+                out.writeByte(primitiveType.ordinal());
+            } else if (type instanceof ClassType classType) {
+                out.writeByte(CLASS_TYPE);
+                writeString(classType.getName());
+            } else if (type instanceof ArrayType arrayType) {
+                out.writeByte(ARRAY_TYPE);
+                writeType(arrayType.baseType());
+                writeVarInt(out, arrayType.dimensions());
+            } else if (type instanceof VoidType) {
+                out.writeByte(VOID_TYPE);
+            } else if (type instanceof NullType) {
+                out.writeByte(NULL_TYPE);
+            } else {
+                throw new UnsupportedOperationException(
+                        "Cannot encode type: " + type);
+            }
+        }
+
+        private void writeVar(Var var) throws IOException {
+            writeVarInt(out, var.getIndex());
+        }
+
+        private void writeNullableVar(@Nullable Var var) throws IOException {
+            writeVarInt(out, var != null ? var.getIndex() + 1 : 0);
+        }
+
+        private void writeVars(List<Var> vars) throws IOException {
+            writeVarInt(out, vars.size());
+            for (Var var : vars) {
+                writeVar(var);
+            }
+        }
+
+        private void writeString(@Nullable String s) throws IOException {
+            writeVarInt(out, getStringIndex(s));
+        }
+
+        private UnsupportedOperationException unsupported(Stmt stmt) {
+            return new UnsupportedOperationException(
+                    "Cannot encode statement: " + stmt + " in " + ir.getMethod());
+        }
+    }
+}
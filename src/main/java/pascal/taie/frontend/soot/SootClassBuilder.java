@@ -43,9 +43,12 @@ class SootClassBuilder implements JClassBuilder {
 
     private final SootClass sootClass;
 
-    SootClassBuilder(Converter converter, SootClass sootClass) {
+    private final boolean isLazy;
+
+    SootClassBuilder(Converter converter, SootClass sootClass, boolean isLazy) {
         this.converter = converter;
         this.sootClass = sootClass;
+        this.isLazy = isLazy;
     }
 
     @Override
@@ -113,4 +116,9 @@ class SootClassBuilder implements JClassBuilder {
     public boolean isPhantom() {
         return sootClass.isPhantom();
     }
+
+    @Override
+    public boolean isLazy() {
+        return isLazy;
+    }
 }
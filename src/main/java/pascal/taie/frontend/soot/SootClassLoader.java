@@ -28,9 +28,19 @@ import pascal.taie.language.classes.JClassLoader;
 import soot.Scene;
 import soot.SootClass;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+import static pascal.taie.util.collection.Sets.newConcurrentSet;
 
 class SootClassLoader implements JClassLoader {
 
@@ -40,14 +50,34 @@ class SootClassLoader implements JClassLoader {
 
     private final boolean allowPhantom;
 
+    /**
+     * Whether members of the loaded classes are built on first access.
+     */
+    private final boolean isLazy;
+
     private Converter converter;
 
-    private final Map<String, JClass> classes = new HashMap<>(1024);
+    private final ConcurrentMap<String, JClass> classes = newConcurrentMap(1024);
+
+    /**
+     * Whether classes are being loaded by {@link #loadClasses(List)}.
+     * During that time, newly loaded classes are not added to
+     * the class hierarchy one by one, but in a final merge step.
+     */
+    private volatile boolean isBatchLoading = false;
+
+    /**
+     * Classes loaded by {@link #loadClasses(List)} but not yet
+     * added to the class hierarchy.
+     */
+    private final Set<JClass> pendingClasses = newConcurrentSet();
 
-    SootClassLoader(Scene scene, ClassHierarchy hierarchy, boolean allowPhantom) {
+    SootClassLoader(Scene scene, ClassHierarchy hierarchy,
+                    boolean allowPhantom, boolean isLazy) {
         this.scene = scene;
         this.hierarchy = hierarchy;
         this.allowPhantom = allowPhantom;
+        this.isLazy = isLazy;
     }
 
     @Override
@@ -57,21 +87,91 @@ class SootClassLoader implements JClassLoader {
             SootClass sootClass = scene.getSootClassUnsafe(name, false);
             if (sootClass != null && (!sootClass.isPhantom() || allowPhantom)) {
                 // TODO: handle phantom class more comprehensively
-                jclass = new JClass(this, sootClass.getName(),
+                JClass newClass = new JClass(this, sootClass.getName(),
                         sootClass.moduleName);
                 // New class must be put into classes map at first,
                 // at build(jclass) may also trigger the loading of
                 // the new created class. Not putting the class into classes
                 // may cause infinite recursion.
-                classes.put(name, jclass);
-                new SootClassBuilder(converter, sootClass).build(jclass);
-                hierarchy.addClass(jclass);
+                // If another thread has put the class concurrently,
+                // we just return the class put by that thread, which
+                // may still be being built by that thread. This is safe
+                // as building a class only refers to (but does not access)
+                // other classes.
+                jclass = classes.putIfAbsent(name, newClass);
+                if (jclass == null) {
+                    jclass = newClass;
+                    new SootClassBuilder(converter, sootClass, isLazy).build(jclass);
+                    if (isBatchLoading) {
+                        pendingClasses.add(jclass);
+                    } else {
+                        hierarchy.addClass(jclass);
+                    }
+                }
             }
         }
         // TODO: add warning for missing classes
         return jclass;
     }
 
+    /**
+     * Loads given classes in parallel, and then adds all classes
+     * loaded in the meantime to the class hierarchy.
+     * The classes are added in the order of {@code sootClasses}
+     * (followed by other classes ordered by their names),
+     * so that the indexes of the classes are deterministic.
+     */
+    void loadClasses(List<SootClass> sootClasses) {
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        // Group all classes by number of threads
+        List<List<SootClass>> groups = new ArrayList<>();
+        for (int i = 0; i < nThreads; ++i) {
+            groups.add(new ArrayList<>());
+        }
+        int i = 0;
+        for (SootClass sootClass : sootClasses) {
+            groups.get(i++ % nThreads).add(sootClass);
+        }
+        // Build classes in parallel
+        isBatchLoading = true;
+        ExecutorService service = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<SootClass> group : groups) {
+                futures.add(service.submit(() ->
+                        group.forEach(c -> loadClass(c.getName()))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            service.shutdown();
+            isBatchLoading = false;
+        }
+        // Merge the loaded classes into class hierarchy
+        List<JClass> loaded = new ArrayList<>(pendingClasses.size());
+        for (SootClass sootClass : sootClasses) {
+            JClass jclass = classes.get(sootClass.getName());
+            if (jclass != null && pendingClasses.remove(jclass)) {
+                loaded.add(jclass);
+            }
+        }
+        pendingClasses.stream()
+                .sorted(Comparator.comparing(JClass::getName))
+                .forEach(loaded::add);
+        pendingClasses.clear();
+        hierarchy.addClasses(loaded);
+    }
+
     @Override
     public Collection<JClass> getLoadedClasses() {
         return classes.values();
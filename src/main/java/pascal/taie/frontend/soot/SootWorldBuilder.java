@@ -22,24 +22,18 @@
 
 package pascal.taie.frontend.soot;
 
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.AbstractWorldBuilder;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysis;
-import pascal.taie.analysis.pta.plugin.reflection.LogItem;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Configs;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
-import pascal.taie.language.classes.StringReps;
-import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.util.Timer;
 import soot.G;
 import soot.PackManager;
 import soot.Scene;
@@ -48,8 +42,6 @@ import soot.SootResolver;
 import soot.Transform;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -61,12 +53,6 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
 
     private static final Logger logger = LogManager.getLogger(SootWorldBuilder.class);
 
-    /**
-     * Path to the file which specifies the basic classes that should be
-     * added to Scene in advance.
-     */
-    private static final String BASIC_CLASSES = "basic-classes.yml";
-
     @Override
     public void build(Options options, List<AnalysisConfig> plan) {
         initSoot(options, plan, this);
@@ -99,9 +85,9 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         if (options.isAllowPhantom()) {
             soot.options.Options.v().set_allow_phantom_refs(true);
         }
-        if (options.isPreBuildIR()) {
-            // we need to set this option to false when pre-building IRs,
-            // otherwise Soot throws RuntimeException saying
+        if (options.isPreBuildIR() || options.isPrefetchIR()) {
+            // we need to set this option to false when pre-building
+            // (or prefetching) IRs, otherwise Soot throws RuntimeException saying
             // "No method source set for method ...".
             // TODO: figure out the reason of "No method source"
             soot.options.Options.v().set_drop_bodies_after_load(false);
@@ -129,22 +115,10 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
     }
 
     /**
-     * Reads basic classes specified by file {@link #BASIC_CLASSES} and
-     * adds them to {@code scene}.
+     * Adds basic classes to {@code scene}.
      */
     private static void addBasicClasses(Scene scene) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        JavaType type = mapper.getTypeFactory()
-                .constructCollectionType(List.class, String.class);
-        try {
-            InputStream content = SootWorldBuilder.class
-                    .getClassLoader()
-                    .getResourceAsStream(BASIC_CLASSES);
-            List<String> classNames = mapper.readValue(content, type);
-            classNames.forEach(name -> scene.addBasicClass(name, HIERARCHY));
-        } catch (IOException e) {
-            throw new SootFrontendException("Failed to read Soot basic classes", e);
-        }
+        getBasicClasses().forEach(name -> scene.addBasicClass(name, HIERARCHY));
     }
 
     /**
@@ -152,35 +126,9 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
      * Tai-e's ClassHierarchy depends on Soot's Scene, which does not change
      * after hierarchy's construction, thus we need to add the classes
      * in the reflection log before starting Soot.
-     * <p>
-     * TODO: this is a tentative solution. We should remove it and use other
-     *  way to load basic classes in the reflection log, so that world builder
-     *  does not depend on analysis plan.
      */
     private static void addReflectionLogClasses(List<AnalysisConfig> plan, Scene scene) {
-        plan.forEach(config -> {
-            if (config.getId().equals(PointerAnalysis.ID)) {
-                String path = config.getOptions().getString("reflection-log");
-                if (path != null) {
-                    LogItem.load(path).forEach(item -> {
-                        // add target class
-                        String target = item.target;
-                        String targetClass;
-                        if (target.startsWith("<")) {
-                            targetClass = StringReps.getClassNameOf(target);
-                        } else {
-                            targetClass = target;
-                        }
-                        if (StringReps.isArrayType(targetClass)) {
-                            targetClass = StringReps.getBaseTypeNameOf(target);
-                        }
-                        if (!PrimitiveType.isPrimitiveType(targetClass)) {
-                            scene.addBasicClass(targetClass);
-                        }
-                    });
-                }
-            }
-        });
+        getReflectionLogClasses(plan).forEach(scene::addBasicClass);
     }
 
     private void build(Options options, Scene scene) {
@@ -193,8 +141,8 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         world.setOptions(options);
         // initialize class hierarchy
         ClassHierarchy hierarchy = new ClassHierarchyImpl();
-        SootClassLoader loader = new SootClassLoader(
-                scene, hierarchy, options.isAllowPhantom());
+        SootClassLoader loader = new SootClassLoader(scene, hierarchy,
+                options.isAllowPhantom(), options.isLazyWorld());
         hierarchy.setDefaultClassLoader(loader);
         hierarchy.setBootstrapClassLoader(loader);
         world.setClassHierarchy(hierarchy);
@@ -205,7 +153,7 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         Converter converter = new Converter(loader, typeSystem);
         loader.setConverter(converter);
         // build classes in hierarchy
-        buildClasses(hierarchy, scene);
+        buildClasses(loader, scene);
         // set main method
         if (options.getMainClass() != null) {
             if (scene.hasMainClass()) {
@@ -228,17 +176,27 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
                 .toList());
         // initialize IR builder
         world.setNativeModel(getNativeModel(typeSystem, hierarchy));
-        IRBuilder irBuilder = new IRBuilder(converter);
+        pascal.taie.ir.IRBuilder irBuilder =
+                createIRBuilder(options, new IRBuilder(converter));
         world.setIRBuilder(irBuilder);
         if (options.isPreBuildIR()) {
             irBuilder.buildAll(hierarchy);
         }
     }
 
-    protected static void buildClasses(ClassHierarchy hierarchy, Scene scene) {
-        // TODO: parallelize?
-        new ArrayList<>(scene.getClasses()).forEach(c ->
-                hierarchy.getDefaultClassLoader().loadClass(c.getName()));
+    /**
+     * Creates the IR builder of the world being built.
+     * Subclasses can override this method to decorate {@code sootIRBuilder},
+     * which converts Soot bodies to Tai-e IR.
+     */
+    protected pascal.taie.ir.IRBuilder createIRBuilder(
+            Options options, pascal.taie.ir.IRBuilder sootIRBuilder) {
+        return sootIRBuilder;
+    }
+
+    private static void buildClasses(SootClassLoader loader, Scene scene) {
+        Timer.runAndCount(() -> loader.loadClasses(
+                new ArrayList<>(scene.getClasses())), "Build classes");
     }
 
     private static void runSoot(String[] args) {
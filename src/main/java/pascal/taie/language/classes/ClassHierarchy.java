@@ -53,6 +53,15 @@ public interface ClassHierarchy extends Indexer<JClass> {
      */
     void addClass(JClass jclass);
 
+    /**
+     * Adds JClasses into class hierarchy in a batch, which has the same
+     * effect as invoking {@link #addClass(JClass)} on each of them in the
+     * iteration order of {@code classes}. This API is used when classes
+     * are built in parallel, so that the relations among them can be
+     * added in one final step.
+     */
+    void addClasses(Collection<JClass> classes);
+
     Stream<JClass> allClasses();
 
     Stream<JClass> applicationClasses();
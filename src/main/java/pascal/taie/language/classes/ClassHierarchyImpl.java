@@ -32,8 +32,10 @@ import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.HybridBitSet;
+import pascal.taie.util.collection.MapSetMultiMap;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.TwoKeyMap;
 
 import javax.annotation.Nullable;
@@ -45,6 +47,14 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Stream;
 
+/**
+ * Implementation of {@link ClassHierarchy}.
+ * <p>
+ * Classes are usually added to the class hierarchy when the world is built,
+ * but some frontends may load (and add) classes on demand during analysis,
+ * e.g., when IR is built in parallel. Thus, adding classes is synchronized,
+ * and the hierarchy information can be read concurrently with the adding.
+ */
 public class ClassHierarchyImpl implements ClassHierarchy {
 
     private static final Logger logger = LogManager.getLogger(ClassHierarchyImpl.class);
@@ -58,6 +68,9 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     private JClass JavaLangObject;
 
+    /**
+     * All classes in the hierarchy. Guarded by this hierarchy.
+     */
     private final List<JClass> classes = new ArrayList<>(1024);
 
     private int classCounter = 0;
@@ -65,22 +78,22 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     /**
      * Map from each interface to its direct subinterfaces.
      */
-    private final MultiMap<JClass, JClass> directSubinterfaces = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directSubinterfaces = newConcurrentMultiMap();
 
     /**
      * Map from each interface to its direct implementors.
      */
-    private final MultiMap<JClass, JClass> directImplementors = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directImplementors = newConcurrentMultiMap();
 
     /**
      * Map from each class to its direct subclasses.
      */
-    private final MultiMap<JClass, JClass> directSubclasses = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directSubclasses = newConcurrentMultiMap();
 
     /**
      * Map from a class to its direct inner classes.
      */
-    private final MultiMap<JClass, JClass> directInnerClasses = Maps.newMultiMap();
+    private final MultiMap<JClass, JClass> directInnerClasses = newConcurrentMultiMap();
 
     /**
      * Cache results of method dispatch.
@@ -89,9 +102,18 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     /**
      * Cache results of {@link #getAllSubclassesOf(JClass)}.
+     * The results are computed and invalidated while holding the lock
+     * of this hierarchy, so that no stale result is cached.
      */
     private final Map<JClass, Set<JClass>> allSubclasses = Maps.newConcurrentMap();
 
+    /**
+     * The multimaps of the hierarchy may be read while classes are added.
+     */
+    private static MultiMap<JClass, JClass> newConcurrentMultiMap() {
+        return new MapSetMultiMap<>(Maps.newConcurrentMap(), Sets::newConcurrentSet);
+    }
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -123,11 +145,27 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     }
 
     @Override
-    public void addClass(JClass jclass) {
-        // Add direct subinterface
+    public synchronized void addClass(JClass jclass) {
+        addClass0(jclass);
+        // invalidate global hierarchy information
+        // TODO - make this elegant
+        allSubclasses.clear();
+    }
+
+    @Override
+    public synchronized void addClasses(Collection<JClass> classes) {
+        classes.forEach(this::addClass0);
+        allSubclasses.clear();
+    }
+
+    private void addClass0(JClass jclass) {
+        // superinterfaces may be missing (i.e., null) if phantom classes
+        // are not allowed, and they are excluded from the hierarchy
         if (jclass.isInterface()) {
-            jclass.getInterfaces().forEach(iface ->
-                    directSubinterfaces.put(iface, jclass));
+            jclass.getInterfaces()
+                    .stream()
+                    .filter(Objects::nonNull)
+                    .forEach(iface -> directSubinterfaces.put(iface, jclass));
         } else {
             // add direct implementors
             jclass.getInterfaces()
@@ -148,9 +186,6 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         // set index
         jclass.setIndex(classCounter++);
         classes.add(jclass);
-        // invalidate global hierarchy information
-        // TODO - make this elegant
-        allSubclasses.clear();
     }
 
     @Override
@@ -159,13 +194,14 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     }
 
     @Override
-    public JClass getObject(int index) {
+    public synchronized JClass getObject(int index) {
         return classes.get(index);
     }
 
     @Override
-    public Stream<JClass> allClasses() {
-        return classes.stream();
+    public synchronized Stream<JClass> allClasses() {
+        // returns a snapshot, as classes may be added during the traversal
+        return List.copyOf(classes).stream();
     }
 
     @Override
@@ -464,11 +500,17 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public Collection<JClass> getAllSubclassesOf(JClass jclass) {
-        return allSubclasses.computeIfAbsent(jclass, c -> {
-            Set<JClass> subclasses = new HybridBitSet<>(this, true);
-            getAllSubclassesOf0(c, subclasses);
-            return subclasses;
-        });
+        Set<JClass> result = allSubclasses.get(jclass);
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            return allSubclasses.computeIfAbsent(jclass, c -> {
+                Set<JClass> subclasses = new HybridBitSet<>(this, true);
+                getAllSubclassesOf0(c, subclasses);
+                return subclasses;
+            });
+        }
     }
 
     private void getAllSubclassesOf0(JClass jclass, Set<JClass> result) {
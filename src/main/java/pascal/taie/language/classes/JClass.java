@@ -73,6 +73,12 @@ public class JClass extends AbstractResultHolder
 
     private boolean isPhantom;
 
+    /**
+     * Builder of the members and annotations of this class, which is
+     * non-null until they are built on first access.
+     */
+    private volatile JClassBuilder lazyBuilder;
+
     private final Map<String, JField> phantomFields = Maps.newHybridMap();
 
     /**
@@ -99,38 +105,84 @@ public class JClass extends AbstractResultHolder
         simpleName = builder.getSimpleName();
         type = builder.getClassType();
         modifiers = builder.getModifiers();
-        annotationHolder = builder.getAnnotationHolder();
         isApplication = builder.isApplication();
         isPhantom = builder.isPhantom();
         try {
             superClass = builder.getSuperClass();
             interfaces = builder.getInterfaces();
             outerClass = builder.getOuterClass();
-            declaredFields = Collections.unmodifiableMap(
-                    builder.getDeclaredFields()
-                            .stream()
-                            .collect(Collectors.toMap(JField::getName, f -> f,
-                                    (oldV, newV) -> oldV, LinkedHashMap::new))
-            );
-            declaredMethods = Collections.unmodifiableMap(
-                    builder.getDeclaredMethods()
-                            .stream()
-                            .collect(Collectors.toMap(JMethod::getSubsignature, m -> m,
-                                    (oldV, newV) -> oldV, LinkedHashMap::new))
-            );
+            if (builder.isLazy()) {
+                lazyBuilder = builder;
+            } else {
+                buildMembers(builder);
+            }
         } catch (Exception e) {
             if (World.get().getOptions().isAllowPhantom()) {
                 superClass = getClassLoader().loadClass(ClassNames.OBJECT);
                 interfaces = Collections.emptySet();
                 outerClass = null;
-                declaredFields = Map.of();
-                declaredMethods = Map.of();
+                setEmptyMembers();
             } else {
                 throw e;
             }
         }
     }
 
+    private void buildMembers(JClassBuilder builder) {
+        annotationHolder = builder.getAnnotationHolder();
+        declaredFields = Collections.unmodifiableMap(
+                builder.getDeclaredFields()
+                        .stream()
+                        .collect(Collectors.toMap(JField::getName, f -> f,
+                                (oldV, newV) -> oldV, LinkedHashMap::new))
+        );
+        declaredMethods = Collections.unmodifiableMap(
+                builder.getDeclaredMethods()
+                        .stream()
+                        .collect(Collectors.toMap(JMethod::getSubsignature, m -> m,
+                                (oldV, newV) -> oldV, LinkedHashMap::new))
+        );
+    }
+
+    private void setEmptyMembers() {
+        if (annotationHolder == null) {
+            annotationHolder = AnnotationHolder.emptyHolder();
+        }
+        declaredFields = Map.of();
+        declaredMethods = Map.of();
+    }
+
+    /**
+     * Builds the members and annotations of this class if they are
+     * deferred by a lazy {@link JClassBuilder}.
+     */
+    private void materialize() {
+        if (lazyBuilder != null) {
+            synchronized (this) {
+                if (lazyBuilder != null) {
+                    try {
+                        buildMembers(lazyBuilder);
+                    } catch (Exception e) {
+                        if (World.get().getOptions().isAllowPhantom()) {
+                            setEmptyMembers();
+                        } else {
+                            throw e;
+                        }
+                    }
+                    lazyBuilder = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the members and annotations of this class
+     * have been built, otherwise false.
+     */
+    public boolean isMaterialized() {
+        return lazyBuilder == null;
+    }
+
     public JClassLoader getClassLoader() {
         return loader;
     }
@@ -210,15 +262,18 @@ public class JClass extends AbstractResultHolder
     }
 
     public Collection<JField> getDeclaredFields() {
+        materialize();
         return declaredFields.values();
     }
 
     @Nullable
     public JField getDeclaredField(String fieldName) {
+        materialize();
         return declaredFields.get(fieldName);
     }
 
     public Collection<JMethod> getDeclaredMethods() {
+        materialize();
         return declaredMethods.values();
     }
 
@@ -230,6 +285,7 @@ public class JClass extends AbstractResultHolder
      */
     @Nullable
     public JMethod getDeclaredMethod(String methodName) {
+        materialize();
         JMethod result = null;
         for (JMethod method : declaredMethods.values()) {
             if (method.getName().equals(methodName)) {
@@ -250,6 +306,7 @@ public class JClass extends AbstractResultHolder
      */
     @Nullable
     public JMethod getDeclaredMethod(Subsignature subSignature) {
+        materialize();
         return declaredMethods.get(subSignature);
     }
 
@@ -260,17 +317,20 @@ public class JClass extends AbstractResultHolder
 
     @Override
     public boolean hasAnnotation(String annotationType) {
+        materialize();
         return annotationHolder.hasAnnotation(annotationType);
     }
 
     @Override
     @Nullable
     public Annotation getAnnotation(String annotationType) {
+        materialize();
         return annotationHolder.getAnnotation(annotationType);
     }
 
     @Override
     public Collection<Annotation> getAnnotations() {
+        materialize();
         return annotationHolder.getAnnotations();
     }
 
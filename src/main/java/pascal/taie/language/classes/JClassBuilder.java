@@ -63,4 +63,13 @@ public interface JClassBuilder {
      * @return true if this class is phantom class, otherwise false.
      */
     boolean isPhantom();
+
+    /**
+     * @return true if the declared fields, declared methods and annotations
+     * of this class should be built on their first access, instead of
+     * being built together with other information of this class.
+     */
+    default boolean isLazy() {
+        return false;
+    }
 }
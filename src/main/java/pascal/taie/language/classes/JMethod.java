@@ -60,7 +60,11 @@ public class JMethod extends ClassMember {
      */
     private final Object methodSource;
 
-    private IR ir;
+    /**
+     * IR of this method, which is built on demand exactly once
+     * (see {@link #getIR()}).
+     */
+    private volatile IR ir;
 
     public JMethod(JClass declaringClass, String name, Set<Modifier> modifiers,
                    List<Type> paramTypes, Type returnType, List<ClassType> exceptions,
@@ -149,19 +153,31 @@ public class JMethod extends ClassMember {
         return methodSource;
     }
 
+    /**
+     * Returns the IR of this method, and builds the IR if it has not been
+     * built. This method is thread-safe, and the IR is built only once
+     * even if multiple threads request it at the same time.
+     */
     public IR getIR() {
-        if (ir == null) {
-            if (isAbstract()) {
-                throw new AnalysisException("Abstract method " + this +
-                        " has no method body");
-            }
-            if (isNative()) {
-                ir = World.get().getNativeModel().buildNativeIR(this);
-            } else {
-                ir = World.get().getIRBuilder().buildIR(this);
+        IR result = ir;
+        if (result == null) {
+            synchronized (this) {
+                result = ir;
+                if (result == null) {
+                    if (isAbstract()) {
+                        throw new AnalysisException("Abstract method " + this +
+                                " has no method body");
+                    }
+                    if (isNative()) {
+                        result = World.get().getNativeModel().buildNativeIR(this);
+                    } else {
+                        result = World.get().getIRBuilder().buildIR(this);
+                    }
+                    ir = result;
+                }
             }
         }
-        return ir;
+        return result;
     }
 
     /**
@@ -84,6 +84,16 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E> {
         return diff;
     }
 
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (isLargeSet && c instanceof HybridBitSet other && other.isLargeSet) {
+            // both sets are bit sets, thus we can perform bitwise AND
+            return set.retainAll(other.set);
+        } else {
+            return super.retainAll(c);
+        }
+    }
+
     @Override
     public HybridBitSet<E> copy() {
         HybridBitSet<E> copy = new HybridBitSet<>(indexer, isSparse);
@@ -28,9 +28,13 @@ import pascal.taie.analysis.dataflow.DataflowTestSuite;
 import pascal.taie.analysis.graph.callgraph.cha.CHATestFull;
 import pascal.taie.analysis.pta.PTATestSuite;
 import pascal.taie.config.OptionsTest;
+import pascal.taie.frontend.asm.AsmPTATest;
+import pascal.taie.frontend.asm.AsmWorldBuilderTest;
+import pascal.taie.frontend.cache.CachedWorldBuilderTest;
 import pascal.taie.frontend.soot.SootFrontendTest;
 import pascal.taie.language.DefaultMethodTest;
 import pascal.taie.language.HierarchyTest;
+import pascal.taie.language.LazyWorldTest;
 import pascal.taie.language.TypeTest;
 import pascal.taie.util.UtilTestSuite;
 
@@ -38,9 +42,13 @@ import pascal.taie.util.UtilTestSuite;
 @Suite.SuiteClasses({
         // world
         SootFrontendTest.class,
+        CachedWorldBuilderTest.class,
+        AsmWorldBuilderTest.class,
+        AsmPTATest.class,
         TypeTest.class,
         HierarchyTest.class,
         DefaultMethodTest.class,
+        LazyWorldTest.class,
         // analysis
         DataflowTestSuite.class,
         CHATestFull.class,
@@ -23,8 +23,14 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests basic functionalities of pointer analysis
  */
@@ -98,6 +104,78 @@ public class BasicTest {
         Tests.testPTA(DIR, "RedBlackBST");
     }
 
+    @Test
+    public void testParallelSolver() {
+        Tests.testPTA(DIR, "RedBlackBST", "solver:parallel");
+    }
+
+    @Test
+    public void testTopoWorkList() {
+        Tests.testPTA(DIR, "RedBlackBST", "worklist-order:topo");
+    }
+
+    @Test
+    public void testLRFWorkList() {
+        Tests.testPTA(DIR, "RedBlackBST", "worklist-order:lrf");
+    }
+
+    @Test
+    public void testSizeWorkList() {
+        Tests.testPTA(DIR, "RedBlackBST", "worklist-order:size");
+    }
+
+    @Test
+    public void testCompactResult() {
+        Tests.testPTA(DIR, "LinkedQueue", "compact-result:true");
+    }
+
+    @Test
+    public void testZDDPointsToSet() {
+        Tests.testPTA(DIR, "RedBlackBST", "points-to-set:zdd");
+    }
+
+    @Test
+    public void testPrefetchIR() {
+        // prefetching IR should not change the results
+        String classPath = "src/test/resources/pta/" + DIR;
+        Main.main(new String[]{"-pp", "-cp", classPath, "-m", "RedBlackBST",
+                "--prefetch-ir", "-a",
+                "pta=implicit-entries:false;only-app:true;action:compare;" +
+                        "action-file:" + classPath + "/RedBlackBST-pta-expected.txt"});
+    }
+
+    @Test
+    public void testConfigurableHeapModel() {
+        // without merging policies, the model is the same as
+        // allocation-site-based model
+        Tests.testPTA(DIR, "RedBlackBST", "heap-model:configurable");
+        // two allocation sites of java.lang.Object are merged by
+        // merge-packages, and the second one is merged by max-sites-per-type
+        Tests.testPTA(false, DIR, "RedBlackBST",
+                "heap-model:configurable;merge-packages:[java.lang]");
+        assertEquals(List.of("MergedObj"), getObjectKinds("java.lang.Object"));
+        assertEquals(List.of("NewObj"), getObjectKinds("Node"));
+        Tests.testPTA(false, DIR, "RedBlackBST",
+                "heap-model:configurable;max-sites-per-type:1");
+        assertEquals(List.of("MergedObj", "NewObj"),
+                getObjectKinds("java.lang.Object"));
+        assertEquals(List.of("NewObj"), getObjectKinds("Node"));
+    }
+
+    /**
+     * @return the sorted kinds (i.e., simple class names) of the objects
+     * of given type in the result of pointer analysis.
+     */
+    private static List<String> getObjectKinds(String type) {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        return result.getObjects()
+                .stream()
+                .filter(obj -> obj.getType().getName().equals(type))
+                .map(obj -> obj.getClass().getSimpleName())
+                .sorted()
+                .toList();
+    }
+
     @Test
     public void testMultiReturn() {
         Tests.testPTA(DIR, "MultiReturn");
@@ -123,6 +201,11 @@ public class BasicTest {
         Tests.testPTA(DIR, "Cycle");
     }
 
+    @Test
+    public void testCycleMerging() {
+        Tests.testPTA(DIR, "Cycle", "merge-cycles:true");
+    }
+
     @Test
     public void testComplexAssign() {
         Tests.testPTA(DIR, "ComplexAssign");
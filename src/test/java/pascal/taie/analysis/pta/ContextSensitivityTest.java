@@ -62,4 +62,9 @@ public class ContextSensitivityTest {
     public void testTwoType() {
         Tests.testPTA(DIR, "TwoType", "cs:2-type");
     }
+
+    @Test
+    public void testArrayBasedCSManager() {
+        Tests.testPTA(DIR, "TwoObject", "cs:2-obj", "cs-manager:array");
+    }
 }
@@ -48,4 +48,9 @@ public class ExceptionTest {
     public void testExceptionTreeAndRecursion() {
         Tests.testPTA(DIR, "ExceptionTreeAndRecursion");
     }
+
+    @Test
+    public void testBatchExceptions() {
+        Tests.testPTA(DIR, "ExceptionTreeAndRecursion", "batch-exceptions:true");
+    }
 }
@@ -25,16 +25,26 @@ package pascal.taie.analysis.pta;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import pascal.taie.analysis.pta.core.cs.context.ContextTest;
+import pascal.taie.analysis.pta.core.solver.BudgetTest;
+import pascal.taie.analysis.pta.core.solver.IndexedPriorityQueueTest;
+import pascal.taie.analysis.pta.demand.DemandPointerAnalysisTest;
+import pascal.taie.analysis.pta.plugin.reflection.ReflectionLogTest;
+import pascal.taie.analysis.pta.snapshot.SnapshotTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         ContextTest.class,
+        IndexedPriorityQueueTest.class,
+        BudgetTest.class,
         BasicTestFull.class,
         ContextSensitivityTestFull.class,
         ExceptionTest.class,
         LambdaTest.class,
         ReflectionTest.class,
+        ReflectionLogTest.class,
         TaintTest.class,
+        SnapshotTest.class,
+        DemandPointerAnalysisTest.class,
 })
 public class PTATestSuite {
 }
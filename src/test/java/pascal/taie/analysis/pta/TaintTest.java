@@ -23,7 +23,14 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 
 public class TaintTest {
 
@@ -143,4 +150,42 @@ public class TaintTest {
         Tests.testPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testOnTheFlyTaint() {
+        Tests.testPTA(DIR, "ComplexTaint",
+                "taint-on-the-fly:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testSparseTaint() {
+        Tests.testPTA(DIR, "ComplexTaint",
+                "taint-sparse:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+        Tests.testPTA(DIR, "FieldTaint",
+                "taint-sparse:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testBatchTaint() {
+        String config = "src/test/resources/pta/taint/taint-config.yml";
+        Tests.testPTA(DIR, "ComplexTaint",
+                "taint-config:[" + config + "," + config + "]");
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Set<TaintFlow> flows1 = result.getResult(
+                TaintAnalysis.getResultKey("taint-config"));
+        Set<TaintFlow> flows2 = result.getResult(
+                TaintAnalysis.getResultKey("taint-config-1"));
+        assertEquals(3, flows1.size());
+        assertEquals(flows1, flows2);
+    }
+
+    @Test
+    public void testStopTaint() {
+        Tests.testPTA(false, DIR, "ComplexTaint",
+                "taint-on-the-fly:true;taint-stop-flows:1;" +
+                        "taint-config:src/test/resources/pta/taint/taint-config.yml");
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysis.class.getName());
+        assertEquals(1, taintFlows.size());
+    }
 }
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.cs.context;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class ContextTest {
 
@@ -33,6 +34,34 @@ public class ContextTest {
         testContext(new TrieContext.Factory<>());
     }
 
+    @Test
+    public void testInternedContext() {
+        testContext(new InternedContext.Factory<>());
+    }
+
+    @Test
+    public void testInternedContext2() {
+        InternedContext.Factory<String> factory = new InternedContext.Factory<>();
+        Context abc = factory.make("A", "B", "C");
+        // memoized results of append() and makeLastK() should be
+        // identical to the interned contexts
+        Context bcd = factory.append(abc, "D", 3);
+        assertSame(factory.make("B", "C", "D"), bcd);
+        assertSame(bcd, factory.append(abc, "D", 3));
+        Context cd = factory.append(abc, "D", 2);
+        assertSame(factory.make("C", "D"), cd);
+        assertSame(cd, factory.append(abc, "D", 2));
+        Context bc = factory.makeLastK(abc, 2);
+        assertSame(factory.make("B", "C"), bc);
+        assertSame(bc, factory.makeLastK(abc, 2));
+        assertSame(abc, factory.makeLastK(abc, 3));
+        assertSame(factory.getEmptyContext(), factory.makeLastK(abc, 0));
+        int count = factory.getContextCount();
+        factory.append(abc, "D", 3);
+        factory.makeLastK(abc, 2);
+        assertEquals(count, factory.getContextCount());
+    }
+
     @Test
     public void testTreeContext2() {
         TrieContext.Factory<String> factory = new TrieContext.Factory<>();
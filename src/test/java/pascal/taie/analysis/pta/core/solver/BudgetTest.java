@@ -0,0 +1,115 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BudgetTest {
+
+    private static final String DIR = "contextsensitivity";
+
+    /**
+     * Plugin that forces a budget hit once a method is reached in
+     * its second context, so that the methods are demoted before
+     * the solver reaches the fixed point, without depending on
+     * the actual time or memory usage.
+     */
+    public static class BudgetHitter implements Plugin {
+
+        private static Set<JMethod> demotedMethods;
+
+        private DefaultSolver solver;
+
+        private final Map<JMethod, Integer> contexts = Maps.newMap();
+
+        private boolean hit = false;
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = (DefaultSolver) solver;
+        }
+
+        @Override
+        public void onNewCSMethod(CSMethod csMethod) {
+            if (!hit && contexts.merge(csMethod.getMethod(), 1, Integer::sum) > 1) {
+                hit = true;
+                solver.demoteMethods("forced budget");
+            }
+        }
+
+        @Override
+        public void onFinish() {
+            demotedMethods = Set.copyOf(solver.getDemotedMethods());
+        }
+    }
+
+    @Test
+    public void testDemoteMethods() {
+        Tests.testPTA(DIR, "LinkedQueue", "cs:2-obj");
+        Map<String, Set<String>> precise = getPointsToSets();
+        // a large time budget enables demotion but is never hit
+        Tests.testPTA(false, DIR, "LinkedQueue", "cs:2-obj",
+                "time-budget:3600",
+                "plugins:[" + BudgetHitter.class.getName() + "]");
+        assertFalse(BudgetHitter.demotedMethods.isEmpty());
+        // demotion loses precision, but never loses points-to relations
+        Map<String, Set<String>> demoted = getPointsToSets();
+        precise.forEach((var, objs) -> assertTrue(var,
+                demoted.getOrDefault(var, Set.of()).containsAll(objs)));
+    }
+
+    /**
+     * @return context-insensitive points-to sets of all variables,
+     * which can be compared across analysis runs.
+     */
+    private static Map<String, Set<String>> getPointsToSets() {
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        return result.getVars()
+                .stream()
+                .collect(Collectors.toMap(
+                        var -> var.getMethod() + "/" + var.getName(),
+                        var -> result.getPointsToSet(var)
+                                .stream()
+                                .map(Object::toString)
+                                .collect(Collectors.toSet()),
+                        (s1, s2) -> {
+                            s1.addAll(s2);
+                            return s1;
+                        }));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedPriorityQueueTest {
+
+    @Test
+    public void testPoll() {
+        IndexedPriorityQueue queue = new IndexedPriorityQueue();
+        queue.add(3, 30);
+        queue.add(1, 10);
+        queue.add(2, 20);
+        queue.add(5000, 5);
+        assertEquals(4, queue.size());
+        assertEquals(5000, queue.poll());
+        assertEquals(1, queue.poll());
+        assertEquals(2, queue.poll());
+        assertEquals(3, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testUpdatePriority() {
+        IndexedPriorityQueue queue = new IndexedPriorityQueue();
+        queue.add(1, 10);
+        queue.add(2, 20);
+        queue.add(3, 30);
+        queue.add(3, 0);
+        queue.add(1, 40);
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.poll());
+        assertEquals(2, queue.poll());
+        assertTrue(queue.contains(1));
+        assertEquals(1, queue.poll());
+        assertFalse(queue.contains(1));
+    }
+
+    @Test
+    public void testTies() {
+        IndexedPriorityQueue queue = new IndexedPriorityQueue();
+        queue.add(7, 1);
+        queue.add(4, 1);
+        queue.add(9, 1);
+        assertEquals(4, queue.poll());
+        assertEquals(7, queue.poll());
+        assertEquals(9, queue.poll());
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.demand;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.StmtResult;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.client.MayFailCast;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DemandPointerAnalysisTest {
+
+    @Test
+    public void testRedBlackBST() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/basic", "-m", "RedBlackBST",
+                "-a", "cg=algorithm:cha",
+                "-a", "demand-pta",
+                "-a", "pta=only-app:true;implicit-entries:false",
+        });
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointerAnalysisResult demand = World.get().getResult(DemandPointerAnalysis.ID);
+        int answered = 0;
+        for (var var : pta.getVars()) {
+            int failed = demand.getNumberOfFailedQueries();
+            Set<String> demandPts = toStrings(demand.getPointsToSet(var));
+            if (demand.getNumberOfFailedQueries() == failed) {
+                // the objects found by whole-program analysis of application
+                // code must be found by demand-driven analysis
+                assertTrue(var.toString(),
+                        demandPts.containsAll(toStrings(pta.getPointsToSet(var))));
+                ++answered;
+            }
+        }
+        assertTrue(answered > 0);
+    }
+
+    @Test
+    public void testFallbackOptions() {
+        // the fallback whole-program analysis should use the options
+        // given by pta-options, instead of the default ones
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/contextsensitivity", "-m", "OneCall",
+                "-a", "cg=algorithm:cha",
+                "-a", "demand-pta=pta-options:{only-app:true,implicit-entries:false,cs:1-call}",
+        });
+        assertNull(World.get().getResult(PointerAnalysis.ID));
+        DemandPointerAnalysisResult demand = World.get().getResult(DemandPointerAnalysis.ID);
+        assertFalse(demand.isWholeProgramAnalyzed());
+        assertTrue(demand.getCSVars()
+                .stream()
+                .anyMatch(csVar -> csVar.getContext().getLength() > 0));
+        assertTrue(demand.isWholeProgramAnalyzed());
+    }
+
+    @Test
+    public void testReuseWholeProgramResult() {
+        // the result of pta performed before demand-pta should be reused
+        // when a query fails, instead of solving the whole program again
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/basic", "-m", "RedBlackBST",
+                "-a", "pta=only-app:true;implicit-entries:false",
+                "-a", "cg=algorithm:cha",
+                "-a", "demand-pta",
+        });
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        DemandPointerAnalysisResult demand = World.get().getResult(DemandPointerAnalysis.ID);
+        assertSame(pta.getCallGraph(), demand.getCallGraph());
+        // objects found by demand-driven analysis are shared with pta
+        Map<String, Obj> objs = pta.getObjects()
+                .stream()
+                .collect(Collectors.toMap(Obj::toString, obj -> obj));
+        for (Var var : pta.getVars()) {
+            for (Obj obj : demand.getPointsToSet(var)) {
+                Obj ptaObj = objs.get(obj.toString());
+                if (ptaObj != null) {
+                    assertSame(ptaObj, obj);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMayFailCast() {
+        Set<String> expected = runMayFailCast(
+                "-a", "pta=only-app:true;implicit-entries:false",
+                "-a", "may-fail-cast");
+        // may-fail-cast should be answered by demand-driven analysis
+        // without performing whole-program pointer analysis
+        Set<String> mayFail = runMayFailCast(
+                "-a", "cg=algorithm:cha",
+                "-a", "demand-pta",
+                "-a", "may-fail-cast=pta-result:demand-pta");
+        assertNull(World.get().getResult(PointerAnalysis.ID));
+        DemandPointerAnalysisResult demand = World.get().getResult(DemandPointerAnalysis.ID);
+        assertFalse(demand.isWholeProgramAnalyzed());
+        assertTrue(demand.getNumberOfQueries() > 0);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, mayFail);
+    }
+
+    /**
+     * Runs Tai-e on Cast2 with given analyses, and returns the names of
+     * variables defined by the casts that may fail in {@code Cast2.m()}.
+     */
+    private static Set<String> runMayFailCast(String... analyses) {
+        List<String> args = new ArrayList<>(List.of(
+                "-pp", "-cp", "src/test/resources/pta/basic", "-m", "Cast2"));
+        args.addAll(List.of(analyses));
+        Main.main(args.toArray(new String[0]));
+        StmtResult<Boolean> result = World.get().getResult(MayFailCast.ID);
+        JMethod m = World.get().getClassHierarchy()
+                .getClass("Cast2").getDeclaredMethod("m");
+        return m.getIR()
+                .stmts()
+                .filter(result::isRelevant)
+                .filter(result::getResult)
+                .map(stmt -> ((Cast) stmt).getLValue().getName())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> toStrings(Set<Obj> pts) {
+        return pts.stream().map(Obj::toString).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.reflection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReflectionLogTest {
+
+    private static final Path LOG =
+            Path.of("src/test/resources/pta/reflection/ReflectiveAction.log");
+
+    private Path tempDir;
+
+    private Path log;
+
+    private Path cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("tai-e-reflection-log");
+        log = tempDir.resolve("ReflectiveAction.log").toAbsolutePath();
+        Files.copy(LOG, log);
+        cacheDir = tempDir.resolve("cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private ReflectionLog load() throws IOException {
+        return ReflectionLog.load(log, ReflectionLog.getStamp(log), cacheDir);
+    }
+
+    /**
+     * Replaces the reflective target class "U" by given class in the log.
+     */
+    private void replaceTarget(String target) throws IOException {
+        Files.writeString(log, Files.readString(log)
+                .replaceAll("([;<])U([;:\\[])", "$1" + target + "$2"));
+    }
+
+    @Test
+    public void testCacheRoundTrip() throws IOException {
+        ReflectionLog parsed = load();
+        assertTrue(parsed.getTargetClasses().contains("U"));
+        assertTrue(Files.isRegularFile(ReflectionLog.getCachePath(log, cacheDir)));
+        // the log is not touched, and the cache file is not next to the log
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Set.of(cacheDir, log), Set.copyOf(files.toList()));
+        }
+        // change the log without changing its size and last modified time,
+        // then the log should be read from the cache
+        FileTime time = Files.getLastModifiedTime(log);
+        replaceTarget("X");
+        Files.setLastModifiedTime(log, time);
+        ReflectionLog cached = load();
+        assertEquals(parsed.getTargetClasses(), cached.getTargetClasses());
+        assertEquals(describe(parsed), describe(cached));
+    }
+
+    @Test
+    public void testStaleCacheOfChangedSize() throws IOException {
+        load();
+        FileTime time = Files.getLastModifiedTime(log);
+        replaceTarget("XX");
+        Files.setLastModifiedTime(log, time);
+        ReflectionLog reloaded = load();
+        assertFalse(reloaded.getTargetClasses().contains("U"));
+        assertTrue(reloaded.getTargetClasses().contains("XX"));
+    }
+
+    @Test
+    public void testStaleCacheOfChangedTime() throws IOException {
+        load();
+        FileTime time = Files.getLastModifiedTime(log);
+        replaceTarget("X");
+        Files.setLastModifiedTime(log,
+                FileTime.fromMillis(time.toMillis() + 1000));
+        ReflectionLog reloaded = load();
+        assertFalse(reloaded.getTargetClasses().contains("U"));
+        assertTrue(reloaded.getTargetClasses().contains("X"));
+    }
+
+    private static List<String> describe(ReflectionLog log) {
+        return log.getItems()
+                .stream()
+                .map(item -> String.join(";", item.api, item.target,
+                        item.caller, Integer.toString(item.lineNumber)))
+                .toList();
+    }
+}
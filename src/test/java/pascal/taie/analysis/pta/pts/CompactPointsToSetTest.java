@@ -0,0 +1,129 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPointsToSetTest {
+
+    private static List<CSObj> objs;
+
+    @BeforeClass
+    public static void beforeClass() {
+        objs = TestObjs.makeObjects(TestObjs.makeCSManager(), 10);
+    }
+
+    @Test
+    public void testDense() {
+        CompactPointsToSet pts = compact(new int[]{ 5, 64, 100, 130, 191 });
+        assertEquals(3, pts.getNumberOfWords());
+        check(pts);
+    }
+
+    @Test
+    public void testWidelySeparated() {
+        CompactPointsToSet pts = compact(new int[]{
+                0, 1 << 16, (1 << 24) + 1, (1 << 30) + 5, Integer.MAX_VALUE });
+        assertEquals(5, pts.getNumberOfWords());
+        check(pts);
+    }
+
+    @Test
+    public void testDenseWithOutlier() {
+        int[] indexes = new int[]{ 1, 63, 64, 127, 129, 1 << 20 };
+        CompactPointsToSet pts = compact(indexes);
+        assertEquals(4, pts.getNumberOfWords());
+        check(pts);
+        // sets of the same objects are equal regardless of the order of
+        // the objects in the original sets
+        int[] reversed = new int[indexes.length];
+        for (int i = 0; i < indexes.length; ++i) {
+            reversed[i] = indexes[indexes.length - 1 - i];
+        }
+        CompactPointsToSet pts2 = compact(reversed);
+        assertEquals(pts, pts2);
+        assertEquals(pts.hashCode(), pts2.hashCode());
+        assertNotEquals(pts, compact(new int[]{ 1, 63, 64, 127, 129 }));
+        assertNotEquals(pts, compact(new int[]{ 1, 63, 64, 127, 129, 1 << 21 }));
+    }
+
+    /**
+     * Makes a compact set of the first {@code indexes.length} objects,
+     * which are given the indexes in {@code indexes}.
+     */
+    private static CompactPointsToSet compact(int[] indexes) {
+        Map<CSObj, Integer> objIndexes = Maps.newMap();
+        Map<Integer, CSObj> indexObjs = Maps.newMap();
+        PointsToSet pts = new HybridHashPointsToSet();
+        for (int i = 0; i < indexes.length; ++i) {
+            CSObj obj = objs.get(i);
+            objIndexes.put(obj, indexes[i]);
+            indexObjs.put(indexes[i], obj);
+            pts.addObject(obj);
+        }
+        Indexer<CSObj> indexer = new Indexer<>() {
+
+            @Override
+            public int getIndex(CSObj o) {
+                return objIndexes.getOrDefault(o, 1 << 12);
+            }
+
+            @Override
+            public CSObj getObject(int index) {
+                return indexObjs.get(index);
+            }
+        };
+        return CompactPointsToSet.of(pts, indexer);
+    }
+
+    /**
+     * Checks the contents of given set, which contains the first
+     * {@code pts.size()} objects, with ascending indexes.
+     */
+    private static void check(CompactPointsToSet pts) {
+        List<CSObj> expected = objs.subList(0, pts.size());
+        List<CSObj> actual = new ArrayList<>();
+        pts.forEach(actual::add);
+        // objects are iterated in ascending order of their indexes
+        assertEquals(expected, actual);
+        assertEquals(Set.copyOf(expected), pts.getObjects());
+        expected.forEach(obj -> assertTrue(pts.contains(obj)));
+        // objects that are not in the set are given index 4096
+        objs.subList(pts.size(), objs.size())
+                .forEach(obj -> assertFalse(pts.contains(obj)));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Creates context-sensitive objects for the tests of points-to sets.
+ */
+final class TestObjs {
+
+    private TestObjs() {
+    }
+
+    /**
+     * Builds a small world, which is required by {@link MapBasedCSManager}.
+     *
+     * @return a new CS manager of the world.
+     */
+    static CSManager makeCSManager() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "-m", "OuterInner");
+        return new MapBasedCSManager();
+    }
+
+    /**
+     * @return {@code n} distinct objects created by given CS manager.
+     */
+    static List<CSObj> makeObjects(CSManager csManager, int n) {
+        Type type = World.get().getTypeSystem().getClassType(ClassNames.OBJECT);
+        Context context = new TrieContext.Factory<>().getEmptyContext();
+        List<CSObj> objs = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            objs.add(csManager.getCSObj(context, new TestObj(i, type)));
+        }
+        return objs;
+    }
+
+    private static class TestObj extends Obj {
+
+        private final int id;
+
+        private final Type type;
+
+        private TestObj(int id, Type type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return "TestObj" + id;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ZDDManagerTest {
+
+    private static final int N = 300;
+
+    private static CSManager csManager;
+
+    private static List<CSObj> objs;
+
+    @BeforeClass
+    public static void beforeClass() {
+        csManager = TestObjs.makeCSManager();
+        objs = TestObjs.makeObjects(csManager, N);
+    }
+
+    @Test
+    public void testReclaim() {
+        ZDDManager manager = new ZDDManager(16);
+        List<PointsToSet> sets = new ArrayList<>();
+        List<Set<CSObj>> expected = new ArrayList<>();
+        for (int step = 2; step < 20; ++step) {
+            PointsToSet pts = make(manager);
+            Set<CSObj> objSet = Sets.newSet();
+            for (int i = 0; i < N; i += step) {
+                pts.addObject(objs.get(i));
+                objSet.add(objs.get(i));
+            }
+            sets.add(pts);
+            expected.add(objSet);
+            // copies and differences, which are discarded immediately
+            PointsToSet copy = pts.copy();
+            copy.addObject(objs.get(N - step));
+            make(manager).addAllDiff(copy);
+        }
+        // combine the sets via all set operations
+        int n = sets.size();
+        for (int i = 0; i + 1 < n; ++i) {
+            PointsToSet diff = sets.get(i).addAllDiff(sets.get(i + 1));
+            Set<CSObj> expectedDiff = new HashSet<>(expected.get(i + 1));
+            expectedDiff.removeAll(expected.get(i));
+            expected.get(i).addAll(expected.get(i + 1));
+            sets.add(diff);
+            expected.add(expectedDiff);
+            PointsToSet copy = sets.get(i + 1).copy();
+            copy.retainAll(sets.get(i));
+            sets.add(copy);
+            expected.add(new HashSet<>(expected.get(i + 1)));
+        }
+        assertTrue(manager.getNumberOfReclamations() > 0);
+        for (int i = 0; i < sets.size(); ++i) {
+            PointsToSet pts = sets.get(i);
+            Set<CSObj> objSet = expected.get(i);
+            assertEquals(objSet, pts.getObjects());
+            assertEquals(objSet.size(), pts.size());
+            for (CSObj obj : objs) {
+                assertEquals(objSet.contains(obj), pts.contains(obj));
+            }
+        }
+    }
+
+    @Test
+    public void testRegister() {
+        ZDDManager manager = new ZDDManager(16);
+        PointsToSet pts1 = make(manager);
+        PointsToSet pts2 = make(manager);
+        // empty sets, copies and differences are not registered
+        pts1.copy();
+        pts1.addAllDiff(pts2);
+        assertEquals(0, manager.getNumberOfRegisteredSets());
+        pts1.addObject(objs.get(0));
+        pts1.addObject(objs.get(1));
+        pts2.addObject(objs.get(1));
+        assertEquals(2, manager.getNumberOfRegisteredSets());
+        // empty difference is not registered
+        pts1.addAllDiff(pts2);
+        pts1.addObject(objs.get(2));
+        assertEquals(2, manager.getNumberOfRegisteredSets());
+        PointsToSet diff = pts2.addAllDiff(pts1);
+        assertEquals(Set.of(objs.get(0), objs.get(2)), diff.getObjects());
+        assertEquals(3, manager.getNumberOfRegisteredSets());
+    }
+
+    private PointsToSet make(ZDDManager manager) {
+        return new ZDDPointsToSet(manager, csManager.getObjectIndexer());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.snapshot;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotTest {
+
+    @Test
+    public void testSaveAndLoad() {
+        String file = "output/RedBlackBST-pta-snapshot.bin";
+        Tests.testPTA(false, "basic", "RedBlackBST",
+                "action:save", "action-file:" + file);
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        AnalysisOptions options = new AnalysisOptions(Map.of(
+                "merge-string-constants", false,
+                "merge-string-objects", true,
+                "merge-string-builders", true,
+                "merge-exception-objects", true));
+        PointerAnalysisResult loaded = Snapshots.load(file,
+                new AllocationSiteBasedModel(options));
+        assertEquals(result.getVars().size(), loaded.getVars().size());
+        assertEquals(result.getObjects().size(), loaded.getObjects().size());
+        result.getVars().forEach(v -> assertEquals(v.toString(),
+                toString(result.getPointsToSet(v)),
+                toString(loaded.getPointsToSet(v))));
+        assertEquals(result.getCallGraph().edges().count(),
+                loaded.getCallGraph().edges().count());
+        assertEquals(result.getCallGraph().getNumberOfMethods(),
+                loaded.getCallGraph().getNumberOfMethods());
+    }
+
+    @Test
+    public void testIncremental() throws IOException {
+        Path dir = Files.createTempDirectory("tai-e-incremental");
+        String file = dir.resolve("pta-snapshot.bin").toString();
+        writeProgram(dir, "Object o = new Object();");
+        // first run solves and saves the snapshot
+        PointerAnalysisResult solved = runIncremental(dir, file);
+        assertFalse(solved instanceof SnapshotResult);
+        assertTrue(Files.exists(Path.of(file + ".fingerprint")));
+        // unchanged program reuses the snapshot
+        PointerAnalysisResult loaded = runIncremental(dir, file);
+        assertTrue(loaded instanceof SnapshotResult);
+        assertEquals(getObjects(solved), getObjects(loaded));
+        // changed program is solved again
+        writeProgram(dir, "Object o = new Object(); Object l = new java.util.ArrayList();");
+        PointerAnalysisResult changed = runIncremental(dir, file);
+        assertFalse(changed instanceof SnapshotResult);
+        assertEquals(getObjects(solved).size() + 1, getObjects(changed).size());
+        loaded = runIncremental(dir, file);
+        assertTrue(loaded instanceof SnapshotResult);
+        assertEquals(getObjects(changed), getObjects(loaded));
+        // changes of line numbers are ignored
+        writeProgram(dir, "\n Object o = new Object(); Object l = new java.util.ArrayList();");
+        assertTrue(runIncremental(dir, file) instanceof SnapshotResult);
+        // changed options are regarded as changes
+        assertFalse(runIncremental(dir, file, "cs:1-obj") instanceof SnapshotResult);
+    }
+
+    private static void writeProgram(Path dir, String body) throws IOException {
+        Files.writeString(dir.resolve("Incremental.java"), """
+                public class Incremental {
+                    public static void main(String[] args) {
+                        %s
+                    }
+                }
+                """.formatted(body));
+    }
+
+    private static PointerAnalysisResult runIncremental(
+            Path dir, String file, String... opts) {
+        List<String> ptaOptions = new ArrayList<>(List.of(
+                "only-app:true", "implicit-entries:false",
+                "action:incremental", "action-file:" + file));
+        Collections.addAll(ptaOptions, opts);
+        Main.main(new String[]{"-pp", "-cp", dir.toString(), "-m", "Incremental",
+                "-a", "pta=" + String.join(";", ptaOptions)});
+        return World.get().getResult(PointerAnalysis.ID);
+    }
+
+    private static List<String> getObjects(PointerAnalysisResult result) {
+        return result.getObjects()
+                .stream()
+                .map(Obj::toString)
+                .sorted()
+                .toList();
+    }
+
+    private static String toString(Set<Obj> pts) {
+        return pts.stream().map(Obj::toString).sorted().toList().toString();
+    }
+}
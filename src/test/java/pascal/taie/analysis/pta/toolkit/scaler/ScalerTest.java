@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.scaler;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.util.graph.Graph;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScalerTest {
+
+    private static final String CS = "contextsensitivity";
+
+    @Test
+    public void testScaler() {
+        Tests.testPTA(false, CS, "TwoObject", "advanced:scaler");
+    }
+
+    @Test
+    public void testScalerVariants() {
+        Tests.testPTA(false, CS, "TwoObject", "advanced:scaler=1000",
+                "scaler-variants:[2-obj,1-obj,1-type]", "advanced-threads:2");
+    }
+
+    /**
+     * Scaler should select the same ST and context sensitivity variants
+     * as the linear scan over all methods for each candidate ST.
+     */
+    @Test
+    public void testSameSelectionAsLinearScan() {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/pta/" + CS, "-m", "LinkedQueue",
+                "-a", "pta=cs:ci"});
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        for (List<String> variants : List.of(
+                List.of("2-obj", "2-type", "1-type"),
+                List.of("2-obj", "1-obj", "1-type"))) {
+            LinearScan scan = new LinearScan(pta, variants);
+            Set<String> selectedVariants = new TreeSet<>();
+            for (long tst : List.of(0L, 10_000L, 1_000_000L, 30_000_000L)) {
+                Scaler scaler = new Scaler(pta, tst, variants);
+                Map<JMethod, String> csMap = scaler.selectContext();
+                long st = scan.searchST(tst);
+                assertEquals(variants + ", TST: " + tst, st, scaler.getST());
+                assertEquals(variants + ", TST: " + tst,
+                        scan.selectContext(st), csMap);
+                selectedVariants.addAll(csMap.values());
+            }
+            // different variants are selected under different TSTs
+            assertTrue(selectedVariants.toString(), selectedVariants.size() > 2);
+        }
+    }
+
+    /**
+     * Selects ST and context sensitivity variants by computing the total
+     * weight of all methods for each candidate ST, which is the algorithm
+     * of Scaler before the weights are precomputed.
+     */
+    private static class LinearScan {
+
+        private final PointerAnalysisResultEx pta;
+
+        private final ContextComputer bottomLine;
+
+        private final List<ContextComputer> ctxComputers;
+
+        private final Set<JMethod> methods;
+
+        private final Map<JMethod, Long> ptsSizes = new HashMap<>();
+
+        private LinearScan(PointerAnalysisResult ptaBase, List<String> variants) {
+            pta = new PointerAnalysisResultExImpl(ptaBase, true);
+            bottomLine = new _InsensitiveContextComputer(pta);
+            Graph<Obj> oag = OAGs.build(pta);
+            ctxComputers = variants.stream()
+                    .map(variant -> Scaler.makeContextComputer(variant, pta, oag))
+                    .toList();
+            methods = ptaBase.getCallGraph()
+                    .reachableMethods()
+                    .filter(m -> !m.isStatic())
+                    .collect(Collectors.toSet());
+        }
+
+        private long searchST(long tst) {
+            long end = methods.stream()
+                    .mapToLong(m -> getWeight(m, ctxComputers.get(0)))
+                    .max()
+                    .orElse(0);
+            long start = 0;
+            long mid, ret = 0;
+            while (start <= end) {
+                mid = (start + end) / 2;
+                long totalSize = 0;
+                for (JMethod method : methods) {
+                    if (!isSpecialMethod(method)) {
+                        totalSize += getWeight(method,
+                                selectContextComputer(method, mid));
+                    }
+                }
+                if (totalSize < tst) {
+                    ret = mid;
+                    start = mid + 1;
+                } else if (totalSize > tst) {
+                    end = mid - 1;
+                } else {
+                    ret = mid;
+                    break;
+                }
+            }
+            return ret;
+        }
+
+        private Map<JMethod, String> selectContext(long st) {
+            return methods.stream().collect(Collectors.toMap(m -> m,
+                    m -> selectContextComputer(m, st).getVariantName()));
+        }
+
+        private ContextComputer selectContextComputer(JMethod method, long st) {
+            if (isSpecialMethod(method)) {
+                return ctxComputers.get(0);
+            }
+            for (ContextComputer cc : ctxComputers) {
+                if (getWeight(method, cc) <= st) {
+                    return cc;
+                }
+            }
+            return bottomLine;
+        }
+
+        private static boolean isSpecialMethod(JMethod method) {
+            return method.getDeclaringClass()
+                    .getName()
+                    .startsWith("java.util.");
+        }
+
+        private long getWeight(JMethod method, ContextComputer cc) {
+            long ptsSize = ptsSizes.computeIfAbsent(method, m -> m.getIR()
+                    .getVars()
+                    .stream()
+                    .filter(v -> v.getType() instanceof ReferenceType &&
+                            !(v.getType() instanceof NullType))
+                    .mapToLong(v -> pta.getBase().getPointsToSet(v).size())
+                    .sum());
+            return cc.contextNumberOf(method) * ptsSize;
+        }
+    }
+}
@@ -71,4 +71,10 @@ public class ZipperTest {
     public void testPFGBuilder() {
         Tests.testPTA(false, MISC, "Zipper", "pre:zipper");
     }
+
+    @Test
+    public void testMultiThreadedZipper() {
+        Tests.testPTA(false, MISC, "Zipper",
+                "cs:2-obj", "advanced:zipper", "advanced-threads:2");
+    }
 }
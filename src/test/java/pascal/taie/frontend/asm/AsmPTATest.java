@@ -0,0 +1,322 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.junit.Test;
+import pascal.taie.Main;
+
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs existing pointer analysis test cases on the IR built by
+ * {@link AsmWorldBuilder}, and checks the results against the expected
+ * results produced by the Soot frontend.
+ * <p>
+ * The two frontends produce IR of different shapes (e.g., statement
+ * indexes, line numbers and temporary variables), thus the results are
+ * compared after normalization: allocation sites are identified by
+ * their containing methods and types, and temporary variables are ignored.
+ * The reachable methods (i.e., the methods whose variables are in the
+ * results) and the points-to sets of variables, instance fields, array
+ * indexes and static fields must be the same, except the following cases:
+ * <ul>
+ *     <li>The ASM frontend splits a local variable into its def-use webs
+ *     (named {@code x}, {@code x#1}, ...), which is more precise than
+ *     the variable given by Soot. For such variables, the union of the
+ *     points-to sets of the webs must be a subset of the expected one,
+ *     and must be non-empty if the expected one is non-empty.</li>
+ *     <li>javac does not record unused local variables (e.g., parameters
+ *     of empty catch blocks) in LocalVariableTable, thus such variables
+ *     are anonymous (named after their slots) in ASM IR. For them,
+ *     we check that their objects are pointed to by the anonymous
+ *     variables of the same method.</li>
+ *     <li>The differences caused by split variables, which are listed
+ *     in {@link #KNOWN_DIFFERENCES}.</li>
+ * </ul>
+ */
+public class AsmPTATest {
+
+    private static final String SEP = " -> ";
+
+    /**
+     * Matches allocation sites like {@code NewObj{<C: void m()>[3@L5] new A}}.
+     */
+    private static final Pattern NEW_OBJ = Pattern.compile(
+            "NewObj\\{(.*?)\\[\\d+@L-?\\d+] (\\S+) ([^\\[\\]}]+)[^}]*}");
+
+    /**
+     * Matches the anonymous variables in ASM IR, e.g., {@code r2}.
+     */
+    private static final Pattern ANONYMOUS_VAR = Pattern.compile("[zbcsilfdr]\\d+");
+
+    /**
+     * Map from test case to the pointers (and methods) whose results are
+     * known to be more precise with the ASM frontend, due to the split
+     * variables. For these pointers, the given points-to sets must be
+     * subsets of the expected ones, and for these methods, they may be
+     * unreachable in the given results.
+     */
+    private static final Map<String, Set<String>> KNOWN_DIFFERENCES = Map.of(
+            // a2 and a3 are copied from the first web of a1
+            "Assign", Set.of(
+                    "[]:<Assign: void main(java.lang.String[])>/a2",
+                    "[]:<Assign: void main(java.lang.String[])>/a3"),
+            // the receiver of a.foo() is the last web of a,
+            // thus the call is only dispatched to C.foo()
+            "Dispatch", Set.of(
+                    "<A: T foo()>", "<B: T foo()>",
+                    "[]:<A: T foo()>/%this", "[]:<B: T foo()>/%this",
+                    "[]:<Dispatch: void main(java.lang.String[])>/t",
+                    "[]:<T: void <init>(int)>/%this"));
+
+    private static void testPTA(String dir, String main, String... opts)
+            throws IOException {
+        Path tempDir = Files.createTempDirectory("tai-e-asm-pta");
+        try {
+            Path source = Path.of("src/test/resources/pta", dir, main + ".java");
+            Path classes = tempDir.resolve("classes");
+            int exitCode = ToolProvider.getSystemJavaCompiler().run(
+                    null, null, null, "-g", "-nowarn", "--release", "8",
+                    "-d", classes.toString(), source.toString());
+            assertEquals("Failed to compile " + source, 0, exitCode);
+            Path result = tempDir.resolve("result.txt");
+            List<String> ptaArgs = new ArrayList<>();
+            Collections.addAll(ptaArgs, "implicit-entries:false",
+                    "only-app:true", "action:dump", "action-file:" + result);
+            Collections.addAll(ptaArgs, opts);
+            Main.main(new String[]{"-pp", "-cp", classes.toString(),
+                    "-m", main,
+                    "--world-builder", AsmWorldBuilder.class.getName(),
+                    "-a", "pta=" + String.join(";", ptaArgs)});
+            Path expected = Path.of("src/test/resources/pta", dir,
+                    main + "-pta-expected.txt");
+            compare(new Result(expected), new Result(result),
+                    KNOWN_DIFFERENCES.getOrDefault(main, Set.of()));
+        } finally {
+            try (Stream<Path> paths = Files.walk(tempDir)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void compare(Result expected, Result given,
+                                Set<String> knownDifferences) {
+        List<String> mismatches = new ArrayList<>();
+        // compare reachable methods
+        Set<String> methods = new TreeSet<>(expected.methods);
+        methods.addAll(given.methods);
+        for (String method : methods) {
+            boolean isExpected = expected.methods.contains(method);
+            boolean isGiven = given.methods.contains(method);
+            if (isExpected != isGiven &&
+                    !(isExpected && knownDifferences.contains(method))) {
+                mismatches.add(String.format("%s, expected reachable: %s",
+                        method, isExpected));
+            }
+        }
+        // compare points-to sets
+        Set<String> pointers = new TreeSet<>(expected.pointsToSets.keySet());
+        pointers.addAll(given.pointsToSets.keySet());
+        for (String pointer : pointers) {
+            Set<String> expectedObjs = expected.pointsToSets.get(pointer);
+            Set<String> givenObjs = given.pointsToSets.get(pointer);
+            boolean matched;
+            if (knownDifferences.contains(pointer)) {
+                matched = expectedObjs != null &&
+                        (givenObjs == null || expectedObjs.containsAll(givenObjs));
+            } else if (expectedObjs != null && givenObjs != null) {
+                matched = given.splitVars.contains(pointer) ?
+                        givenObjs.isEmpty() == expectedObjs.isEmpty() &&
+                                expectedObjs.containsAll(givenObjs) :
+                        givenObjs.equals(expectedObjs);
+            } else if (expectedObjs != null) {
+                // the variable may be anonymous in ASM IR
+                String method = getMethod(pointer);
+                matched = method != null && given.methods.contains(method) &&
+                        given.getAnonymousObjects(method).containsAll(expectedObjs);
+            } else {
+                matched = isAnonymousVar(pointer);
+            }
+            if (!matched) {
+                mismatches.add(String.format("%s, expected: %s, given: %s",
+                        pointer, expectedObjs, givenObjs));
+            }
+        }
+        assertTrue("Mismatches of results\n" +
+                String.join("\n", mismatches), mismatches.isEmpty());
+    }
+
+    /**
+     * Normalized results of pointer analysis, which are read from
+     * the file dumped by {@link pascal.taie.analysis.pta.plugin.ResultProcessor}.
+     */
+    private static class Result {
+
+        /**
+         * Map from each pointer to its points-to set.
+         */
+        private final Map<String, Set<String>> pointsToSets = new TreeMap<>();
+
+        /**
+         * Variables which are split into multiple def-use webs.
+         */
+        private final Set<String> splitVars = new TreeSet<>();
+
+        /**
+         * Methods that contain variables in the results.
+         */
+        private final Set<String> methods = new TreeSet<>();
+
+        private Result(Path file) throws IOException {
+            for (String line : Files.readAllLines(file)) {
+                int sep = line.indexOf(SEP);
+                if (sep == -1) {
+                    continue;
+                }
+                String pointer = normalize(line.substring(0, sep));
+                String method = getMethod(pointer);
+                if (method != null) {
+                    methods.add(method);
+                    if (isTempVar(pointer.substring(method.length() + 4))) {
+                        continue;
+                    }
+                    // merge the webs split from the same local variable
+                    String var = pointer.replaceFirst("#\\d+$", "");
+                    if (!var.equals(pointer)) {
+                        splitVars.add(var);
+                        pointer = var;
+                    }
+                }
+                Set<String> objs = pointsToSets.computeIfAbsent(
+                        pointer, p -> new TreeSet<>());
+                String pts = line.substring(sep + SEP.length());
+                splitObjects(pts.substring(1, pts.length() - 1))
+                        .forEach(obj -> objs.add(normalize(obj)));
+            }
+        }
+
+        /**
+         * @return objects pointed to by the anonymous variables of given method.
+         */
+        private Set<String> getAnonymousObjects(String method) {
+            Set<String> result = new TreeSet<>();
+            pointsToSets.forEach((pointer, objs) -> {
+                if (method.equals(getMethod(pointer)) && isAnonymousVar(pointer)) {
+                    result.addAll(objs);
+                }
+            });
+            return result;
+        }
+    }
+
+    /**
+     * @return the method containing given variable, or {@code null}
+     * if given pointer is not a variable.
+     */
+    private static String getMethod(String pointer) {
+        int nameStart = pointer.lastIndexOf(">/");
+        return pointer.startsWith("[]:<") && nameStart != -1 ?
+                pointer.substring(3, nameStart + 1) : null;
+    }
+
+    private static boolean isTempVar(String name) {
+        return name.startsWith("$") || name.startsWith("temp$") ||
+                (name.startsWith("%") && !name.equals("%this"));
+    }
+
+    private static boolean isAnonymousVar(String pointer) {
+        String method = getMethod(pointer);
+        return method != null && ANONYMOUS_VAR.matcher(
+                pointer.substring(method.length() + 4)).matches();
+    }
+
+    private static String normalize(String s) {
+        Matcher matcher = NEW_OBJ.matcher(s);
+        return matcher.replaceAll("NewObj{$1 $2 $3}");
+    }
+
+    /**
+     * Splits the comma-separated objects in a points-to set,
+     * where objects may contain nested brackets.
+     */
+    private static List<String> splitObjects(String s) {
+        List<String> objs = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (c == '[' || c == '{' || c == '(' || c == '<') {
+                ++depth;
+            } else if (c == ']' || c == '}' || c == ')' || c == '>') {
+                --depth;
+            } else if (c == ',' && depth == 0) {
+                objs.add(s.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        if (start < s.length()) {
+            objs.add(s.substring(start).trim());
+        }
+        return objs;
+    }
+
+    @Test
+    public void testBasic() throws IOException {
+        for (String main : List.of("New", "Assign", "StoreLoad", "Call",
+                "Assign2", "InstanceField", "InstanceField2", "CallParamRet",
+                "CallField", "StaticCall", "MergeParam", "LinkedQueue",
+                "RedBlackBST", "MultiReturn", "Dispatch", "Interface",
+                "Recursion", "Cycle", "ComplexAssign")) {
+            testPTA("basic", main);
+        }
+    }
+
+    @Test
+    public void testException() throws IOException {
+        for (String main : List.of("ExceptionCircle",
+                "ExceptionCircleAndRecursion", "ExceptionNoneCaught",
+                "ExceptionTreeAndRecursion")) {
+            testPTA("exception", main);
+        }
+        testPTA("exception", "ExceptionTreeAndRecursion",
+                "batch-exceptions:true");
+    }
+}
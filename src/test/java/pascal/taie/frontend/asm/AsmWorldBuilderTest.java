@@ -0,0 +1,279 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class AsmWorldBuilderTest {
+
+    private static final String MAIN = "DefaultMethod";
+
+    private static final List<String> CLASSES = List.of(
+            "DefaultMethod", "DefaultMethod$I", "DefaultMethod$II",
+            "DefaultMethod$A", "DefaultMethod$B", "DefaultMethod$C",
+            "Annotated");
+
+    private static void buildWorld(String... extraArgs) {
+        String[] args = new String[extraArgs.length + 7];
+        System.arraycopy(new String[]{
+                "-pp", "-cp", "src/test/resources/world", "-m", MAIN,
+                "--input-classes", "Annotated"
+        }, 0, args, 0, 7);
+        System.arraycopy(extraArgs, 0, args, 7, extraArgs.length);
+        Main.buildWorld(args);
+    }
+
+    private static void buildAsmWorld() {
+        buildWorld("--world-builder", AsmWorldBuilder.class.getName());
+    }
+
+    /**
+     * Describes the declarations of given classes, which should be
+     * the same for different frontends.
+     */
+    private static Map<String, String> describeClasses() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        return CLASSES.stream().collect(Collectors.toMap(name -> name, name -> {
+            JClass jclass = hierarchy.getClass(name);
+            assertNotNull(name, jclass);
+            StringBuilder sb = new StringBuilder();
+            sb.append(jclass.isInterface()).append(' ')
+                    .append(jclass.isAbstract()).append(' ')
+                    .append(jclass.getSuperClass()).append(' ')
+                    .append(jclass.getInterfaces()
+                            .stream()
+                            .map(JClass::getName)
+                            .sorted()
+                            .toList())
+                    .append(' ')
+                    .append(jclass.getOuterClass())
+                    .append('\n');
+            jclass.getDeclaredFields()
+                    .stream()
+                    .map(JField::toString)
+                    .sorted()
+                    .forEach(f -> sb.append(f).append('\n'));
+            jclass.getDeclaredMethods()
+                    .stream()
+                    .sorted(Comparator.comparing(JMethod::toString))
+                    .forEach(m -> sb.append(m)
+                            .append(' ').append(m.isAbstract())
+                            .append(' ').append(m.getAnnotations()
+                                    .stream()
+                                    .map(Annotation::getType)
+                                    .sorted()
+                                    .toList())
+                            .append('\n'));
+            return sb.toString();
+        }));
+    }
+
+    @Test
+    public void testSameClassesAsSoot() {
+        buildWorld();
+        Map<String, String> expected = describeClasses();
+        buildAsmWorld();
+        assertEquals(expected, describeClasses());
+    }
+
+    @Test
+    public void testResolveMethod() {
+        buildAsmWorld();
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass c = hierarchy.getClass("DefaultMethod$C");
+        assertEquals(hierarchy.getClass("DefaultMethod$A"),
+                MethodRef.get(c, "foo", List.of(), VoidType.VOID, false)
+                        .resolve().getDeclaringClass());
+        assertEquals(hierarchy.getClass("DefaultMethod$II"),
+                MethodRef.get(c, "bar", List.of(), VoidType.VOID, false)
+                        .resolve().getDeclaringClass());
+    }
+
+    @Test
+    public void testBuildIR() {
+        buildAsmWorld();
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        CLASSES.stream()
+                .map(hierarchy::getClass)
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract())
+                .forEach(m -> {
+                    IR ir = m.getIR();
+                    assertFalse(m.toString(), ir.getStmts().isEmpty());
+                    if (!m.isStatic()) {
+                        assertNotNull(m.toString(), ir.getThis());
+                    }
+                    assertEquals(m.toString(),
+                            m.getParamCount(), ir.getParams().size());
+                });
+    }
+
+    /**
+     * The classes only referenced by method bodies should be loaded
+     * when the world is built, so that the class hierarchy is complete
+     * before any IR is built, and it is not changed by building IR.
+     */
+    @Test
+    public void testLoadReferencedClasses() throws IOException {
+        Path dir = Files.createTempDirectory("tai-e-asm");
+        Map<String, byte[]> classFiles = Map.of(
+                "I", generateClass("I",
+                        Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, null, null),
+                "Impl", generateClass("Impl", 0, "I", null),
+                // Impl is only referenced by the body of Factory.main()
+                "Factory", generateClass("Factory", 0, null, mv -> {
+                    mv.visitTypeInsn(Opcodes.NEW, "Impl");
+                    mv.visitInsn(Opcodes.DUP);
+                    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "Impl",
+                            "<init>", "()V", false);
+                    mv.visitInsn(Opcodes.POP);
+                }),
+                // Factory is only referenced by the body of Main.main()
+                "Main", generateClass("Main", 0, null, mv -> {
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC, "Factory",
+                            "main", "([Ljava/lang/String;)V", false);
+                }));
+        try {
+            for (var entry : classFiles.entrySet()) {
+                Files.write(dir.resolve(entry.getKey() + ".class"), entry.getValue());
+            }
+            Main.buildWorld("-pp", "-cp", dir.toString(), "-m", "Main",
+                    "--world-builder", AsmWorldBuilder.class.getName());
+            ClassHierarchy hierarchy = World.get().getClassHierarchy();
+            JClass impl = hierarchy.allClasses()
+                    .filter(c -> c.getName().equals("Impl"))
+                    .findFirst()
+                    .orElse(null);
+            assertNotNull(impl);
+            JClass iface = hierarchy.getClass("I");
+            assertTrue(hierarchy.getAllSubclassesOf(iface).contains(impl));
+            long nClasses = hierarchy.allClasses().count();
+            hierarchy.getClass("Main").getDeclaredMethods().forEach(JMethod::getIR);
+            hierarchy.getClass("Factory").getDeclaredMethods().forEach(JMethod::getIR);
+            assertEquals(nClasses, hierarchy.allClasses().count());
+        } finally {
+            for (String name : classFiles.keySet()) {
+                Files.delete(dir.resolve(name + ".class"));
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Generates a class with given access flags and interface.
+     * If {@code body} is given, the class also declares
+     * a method {@code static void main(String[])} with the body.
+     */
+    private static byte[] generateClass(String name, int access, String iface,
+                                        Consumer<MethodVisitor> body) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | access, name, null,
+                "java/lang/Object", iface == null ? null : new String[]{iface});
+        if ((access & Opcodes.ACC_INTERFACE) == 0) {
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC,
+                    "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL,
+                    "java/lang/Object", "<init>", "()V", false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        if (body != null) {
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
+                    "main", "([Ljava/lang/String;)V", null, null);
+            mv.visitCode();
+            body.accept(mv);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Building IR for malformed method bodies should fail instead of
+     * silently yielding empty IR.
+     */
+    @Test
+    public void testFailToBuildIR() throws IOException {
+        Path dir = Files.createTempDirectory("tai-e-asm");
+        try {
+            // generates a class whose method pops from an empty stack
+            ClassWriter cw = new ClassWriter(0);
+            cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, "Broken", null,
+                    "java/lang/Object", null);
+            MethodVisitor mv = cw.visitMethod(
+                    Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "m", "()V", null, null);
+            mv.visitCode();
+            mv.visitInsn(Opcodes.POP);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(1, 0);
+            mv.visitEnd();
+            cw.visitEnd();
+            Files.write(dir.resolve("Broken.class"), cw.toByteArray());
+            Main.buildWorld("-pp", "-cp", dir.toString(),
+                    "--input-classes", "Broken",
+                    "--world-builder", AsmWorldBuilder.class.getName());
+            JMethod m = World.get().getClassHierarchy()
+                    .getClass("Broken").getDeclaredMethod("m");
+            AsmFrontendException e = assertThrows(
+                    AsmFrontendException.class, m::getIR);
+            assertTrue(e.getMessage(), e.getMessage().contains(m.toString()));
+        } finally {
+            Files.delete(dir.resolve("Broken.class"));
+            Files.delete(dir);
+        }
+    }
+}
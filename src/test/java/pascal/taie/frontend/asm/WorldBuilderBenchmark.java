@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.frontend.soot.SootWorldBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares startup time and peak heap of world builders.
+ * Usage: {@code WorldBuilderBenchmark <soot|asm> <Tai-e options>},
+ * e.g., {@code WorldBuilderBenchmark asm -pp -cp app.jar -m Main}.
+ * Each builder should be measured in a fresh JVM, as classes loaded
+ * by previous runs affect the results.
+ */
+public class WorldBuilderBenchmark {
+
+    public static void main(String[] args) {
+        Class<?> builder = switch (args[0]) {
+            case "soot" -> SootWorldBuilder.class;
+            case "asm" -> AsmWorldBuilder.class;
+            default -> throw new IllegalArgumentException(
+                    "Unknown world builder: " + args[0]);
+        };
+        List<String> taieArgs = new ArrayList<>();
+        Collections.addAll(taieArgs,
+                "--world-builder", builder.getName(), "--pre-build-ir");
+        taieArgs.addAll(List.of(args).subList(1, args.length));
+        ManagementFactory.getMemoryPoolMXBeans()
+                .forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        Main.buildWorld(taieArgs.toArray(new String[0]));
+        long elapsed = System.nanoTime() - start;
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans()
+                .stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        long nMethods = World.get()
+                .getClassHierarchy()
+                .allClasses()
+                .mapToLong(c -> c.getDeclaredMethods().size())
+                .sum();
+        System.out.printf("%s: %d classes, %d methods, %.2fs, peak heap %dMB%n",
+                args[0], World.get().getClassHierarchy().allClasses().count(),
+                nMethods, elapsed / 1e9, peakHeap >> 20);
+    }
+}
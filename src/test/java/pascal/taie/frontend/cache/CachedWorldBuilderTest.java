@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachedWorldBuilderTest {
+
+    private static final String MAIN = "AllInOne";
+
+    private static String buildAndPrintIR(String... extraArgs) {
+        String[] args = new String[extraArgs.length + 5];
+        System.arraycopy(new String[]{
+                "-pp", "-cp", "src/test/resources/world", "-m", MAIN
+        }, 0, args, 0, 5);
+        System.arraycopy(extraArgs, 0, args, 5, extraArgs.length);
+        Main.buildWorld(args);
+        JClass mainClass = World.get().getClassHierarchy().getClass(MAIN);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes);
+        mainClass.getDeclaredMethods()
+                .stream()
+                .filter(m -> !m.isAbstract())
+                .sorted(Comparator.comparing(JMethod::toString))
+                .forEach(m -> IRPrinter.print(m.getIR(), out));
+        out.flush();
+        return bytes.toString();
+    }
+
+    private static CachedIRBuilder getIRBuilder() {
+        return (CachedIRBuilder) World.get().getIRBuilder();
+    }
+
+    @Test
+    public void testCachedIR() throws IOException {
+        String expected = buildAndPrintIR();
+        Path cacheDir = Files.createTempDirectory("tai-e-ir-cache");
+        try {
+            String[] args = {
+                    "--world-builder", CachedWorldBuilder.class.getName(),
+                    "--ir-cache-dir", cacheDir.toString()
+            };
+            // the first run builds IR by Soot and writes cache entries
+            assertEquals(expected, buildAndPrintIR(args));
+            assertEquals(0, getIRBuilder().getHitClasses());
+            assertTrue(getIRBuilder().getMissedClasses() > 0);
+            // the second run loads IR from the cache entries
+            assertEquals(expected, buildAndPrintIR(args));
+            assertTrue(getIRBuilder().getHitClasses() > 0);
+            assertEquals(0, getIRBuilder().getMissedClasses());
+            // the entries are not reused under different frontend options
+            buildAndPrintIR("--world-builder", CachedWorldBuilder.class.getName(),
+                    "--ir-cache-dir", cacheDir.toString(), "--allow-phantom");
+            assertEquals(0, getIRBuilder().getHitClasses());
+            assertTrue(getIRBuilder().getMissedClasses() > 0);
+        } finally {
+            try (Stream<Path> paths = Files.walk(cacheDir)) {
+                paths.sorted(Comparator.reverseOrder())
+                        .forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
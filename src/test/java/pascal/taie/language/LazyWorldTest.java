@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.frontend.asm.AsmWorldBuilder;
+import pascal.taie.frontend.soot.SootWorldBuilder;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.VoidType;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyWorldTest {
+
+    private static void testLazyWorld(Class<?> builder) {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "-m", "DefaultMethod", "--lazy-world",
+                "--world-builder", builder.getName());
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass a = hierarchy.getClass("DefaultMethod$A");
+        JClass c = hierarchy.getClass("DefaultMethod$C");
+        JClass ii = hierarchy.getClass("DefaultMethod$II");
+        // hierarchy relations do not require members
+        assertTrue(hierarchy.getAllSubclassesOf(a).contains(c));
+        assertTrue(hierarchy.isSubclass(ii, c));
+        assertFalse(c.isMaterialized());
+        assertFalse(a.isMaterialized());
+        // dispatch materializes the classes it looks up
+        JMethod foo = hierarchy.dispatch(c,
+                MethodRef.get(c, "foo", List.of(), VoidType.VOID, false));
+        assertEquals(a, foo.getDeclaringClass());
+        assertTrue(c.isMaterialized());
+        assertTrue(a.isMaterialized());
+        assertTrue(hierarchy.allClasses().anyMatch(k -> !k.isMaterialized()));
+    }
+
+    @Test
+    public void testSoot() {
+        testLazyWorld(SootWorldBuilder.class);
+    }
+
+    @Test
+    public void testAsm() {
+        testLazyWorld(AsmWorldBuilder.class);
+    }
+}